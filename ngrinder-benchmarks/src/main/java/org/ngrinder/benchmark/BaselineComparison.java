@@ -0,0 +1,251 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ngrinder.benchmark;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.apache.commons.io.IOUtils;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Comparison of the JMH json results with the baseline results of the previous version.
+ *
+ * A benchmark regresses when its score gets worse by more than the tolerance and the difference
+ * is larger than the sum of the score errors of both results. The process exits with 1 if any
+ * benchmark regresses, so it can gate a build.
+ *
+ * <pre>
+ * java -cp benchmarks.jar org.ngrinder.benchmark.BaselineComparison baseline.json result.json [tolerance percent]
+ * </pre>
+ *
+ * @author JunHo Yoon
+ * @since 3.4.1
+ */
+public class BaselineComparison {
+	private static final double DEFAULT_TOLERANCE_PERCENT = 10;
+
+	/**
+	 * Score of a benchmark with a set of params.
+	 */
+	public static class Score {
+		private final String mode;
+		private final double score;
+		private final double error;
+		private final String unit;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param mode  benchmark mode
+		 * @param score score
+		 * @param error half width of the score confidence interval
+		 * @param unit  score unit
+		 */
+		public Score(String mode, double score, double error, String unit) {
+			this.mode = mode;
+			this.score = score;
+			this.error = Double.isNaN(error) ? 0 : error;
+			this.unit = unit;
+		}
+
+		/**
+		 * Check if the higher score is better. Only the throughput is.
+		 *
+		 * @return true if the higher is better
+		 */
+		public boolean isHigherBetter() {
+			return "thrpt".equals(mode);
+		}
+
+		public String getMode() {
+			return mode;
+		}
+
+		public double getScore() {
+			return score;
+		}
+
+		public double getError() {
+			return error;
+		}
+
+		public String getUnit() {
+			return unit;
+		}
+	}
+
+	/**
+	 * Comparison result of a benchmark.
+	 */
+	public static class Row {
+		private final String benchmark;
+		private final Score baseline;
+		private final Score current;
+		private final boolean regression;
+
+		Row(String benchmark, Score baseline, Score current, boolean regression) {
+			this.benchmark = benchmark;
+			this.baseline = baseline;
+			this.current = current;
+			this.regression = regression;
+		}
+
+		public String getBenchmark() {
+			return benchmark;
+		}
+
+		public Score getBaseline() {
+			return baseline;
+		}
+
+		public Score getCurrent() {
+			return current;
+		}
+
+		/**
+		 * Get the change of the score in percent.
+		 *
+		 * @return change percent. null if the benchmark is not in both results.
+		 */
+		public Double getDeltaPercent() {
+			if (baseline == null || current == null || baseline.getScore() == 0) {
+				return null;
+			}
+			return (current.getScore() - baseline.getScore()) * 100 / baseline.getScore();
+		}
+
+		public boolean isRegression() {
+			return regression;
+		}
+
+		@Override
+		public String toString() {
+			Double deltaPercent = getDeltaPercent();
+			return String.format("%-90s %14s %14s %9s %s", benchmark, format(baseline), format(current),
+					deltaPercent == null ? "" : String.format("%+.1f%%", deltaPercent),
+					regression ? "REGRESSION" : (baseline == null ? "NEW" : (current == null ? "REMOVED" : "")));
+		}
+
+		private static String format(Score score) {
+			return score == null ? "-" : String.format("%.3f %s", score.getScore(), score.getUnit());
+		}
+	}
+
+	/**
+	 * Read the scores of the given JMH json result. The benchmarks are keyed by the benchmark
+	 * name with its params.
+	 *
+	 * @param reader reader of the json result
+	 * @return scores
+	 */
+	public static Map<String, Score> read(Reader reader) {
+		Map<String, Score> scores = new LinkedHashMap<String, Score>();
+		for (JsonElement each : new JsonParser().parse(reader).getAsJsonArray()) {
+			JsonObject result = each.getAsJsonObject();
+			Map<String, String> params = new TreeMap<String, String>();
+			if (result.has("params")) {
+				for (Map.Entry<String, JsonElement> param : result.getAsJsonObject("params").entrySet()) {
+					params.put(param.getKey(), param.getValue().getAsString());
+				}
+			}
+			JsonObject metric = result.getAsJsonObject("primaryMetric");
+			JsonElement error = metric.get("scoreError");
+			scores.put(result.get("benchmark").getAsString() + (params.isEmpty() ? "" : " " + params),
+					new Score(result.get("mode").getAsString(), metric.get("score").getAsDouble(),
+							error == null || !error.isJsonPrimitive() || !error.getAsJsonPrimitive().isNumber() ?
+									0 : error.getAsDouble(), metric.get("scoreUnit").getAsString()));
+		}
+		return scores;
+	}
+
+	/**
+	 * Compare the current scores with the baseline scores.
+	 *
+	 * @param baseline         baseline scores
+	 * @param current          current scores
+	 * @param tolerancePercent tolerance in percent
+	 * @return rows of the all benchmarks in both results
+	 */
+	public static List<Row> compare(Map<String, Score> baseline, Map<String, Score> current,
+									double tolerancePercent) {
+		List<Row> rows = new ArrayList<Row>();
+		for (Map.Entry<String, Score> each : current.entrySet()) {
+			Score baselineScore = baseline.get(each.getKey());
+			rows.add(new Row(each.getKey(), baselineScore, each.getValue(),
+					baselineScore != null && isRegression(baselineScore, each.getValue(), tolerancePercent)));
+		}
+		for (Map.Entry<String, Score> each : baseline.entrySet()) {
+			if (!current.containsKey(each.getKey())) {
+				rows.add(new Row(each.getKey(), each.getValue(), null, false));
+			}
+		}
+		return rows;
+	}
+
+	static boolean isRegression(Score baseline, Score current, double tolerancePercent) {
+		if (!baseline.getMode().equals(current.getMode()) || baseline.getScore() == 0) {
+			return false;
+		}
+		double delta = current.getScore() - baseline.getScore();
+		if (baseline.isHigherBetter() ? delta >= 0 : delta <= 0) {
+			return false;
+		}
+		// The difference within the errors is the noise.
+		if (Math.abs(delta) <= baseline.getError() + current.getError()) {
+			return false;
+		}
+		return Math.abs(delta) * 100 / baseline.getScore() > tolerancePercent;
+	}
+
+	/**
+	 * Print the comparison report and exit with 1 if any benchmark regresses.
+	 *
+	 * @param args baseline json path, current json path and optional tolerance percent
+	 * @throws IOException if the results can not be read
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.err.println("Usage: BaselineComparison <baseline json> <result json> [tolerance percent]");
+			System.exit(2);
+		}
+		double tolerancePercent = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_TOLERANCE_PERCENT;
+		List<Row> rows = compare(read(new File(args[0])), read(new File(args[1])), tolerancePercent);
+		int regressions = 0;
+		System.out.println(String.format("%-90s %14s %14s %9s", "Benchmark", "Baseline", "Current", "Delta"));
+		for (Row each : rows) {
+			System.out.println(each);
+			if (each.isRegression()) {
+				regressions++;
+			}
+		}
+		System.out.println(String.format("%d regression(s) over %.1f%% tolerance", regressions, tolerancePercent));
+		System.exit(regressions == 0 ? 0 : 1);
+	}
+
+	private static Map<String, Score> read(File file) throws IOException {
+		Reader reader = new InputStreamReader(new FileInputStream(file), "UTF-8");
+		try {
+			return read(reader);
+		} finally {
+			IOUtils.closeQuietly(reader);
+		}
+	}
+}
@@ -0,0 +1,253 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ngrinder.benchmark;
+
+import net.grinder.common.AbstractTestSemantics;
+import net.grinder.common.Test;
+import net.grinder.statistics.StatisticsIndexMap;
+import net.grinder.statistics.StatisticsServices;
+import net.grinder.statistics.StatisticsServicesImplementation;
+import net.grinder.statistics.StatisticsSet;
+import net.grinder.statistics.TestStatisticsMap;
+import org.apache.commons.io.FileUtils;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+
+import static org.ngrinder.common.util.ExceptionUtils.processException;
+import static org.ngrinder.common.util.NoOp.noOp;
+
+/**
+ * Fixture generators of the benchmarks. The generated data follow the shape of the running tests,
+ * so the test count, the agent count and the report length are the parameters of the benchmarks.
+ *
+ * @author JunHo Yoon
+ * @since 3.4.1
+ */
+public abstract class BenchmarkFixtures {
+	private static final StatisticsServices STATISTICS_SERVICES = StatisticsServicesImplementation.getInstance();
+	private static final StatisticsIndexMap.LongSampleIndex TIMED_TESTS = STATISTICS_SERVICES
+			.getStatisticsIndexMap().getLongSampleIndex("timedTests");
+	private static final StatisticsIndexMap.LongIndex ERRORS = STATISTICS_SERVICES.getStatisticsIndexMap()
+			.getLongIndex("errors");
+	private static final StatisticsIndexMap.LongIndex PERIOD = STATISTICS_SERVICES.getStatisticsIndexMap()
+			.getLongIndex("period");
+
+	/**
+	 * Report data statistics which are written per test as well.
+	 */
+	public static final String[] PER_TEST_STATISTICS = {"TPS", "Errors", "Mean_Test_Time_(ms)",
+			"Mean_time_to_first_byte", "User_defined"};
+
+	/**
+	 * Report data statistics which are written only for the total.
+	 */
+	public static final String[] TOTAL_STATISTICS = {"Timestamp", "Tests", "Peak_TPS",
+			"Response_bytes_per_second", "Vuser"};
+
+	private static final String REPORT_DATA = ".data";
+
+	/**
+	 * Create the tests numbered from 1.
+	 *
+	 * @param count test count
+	 * @return test list
+	 */
+	public static List<Test> createTests(int count) {
+		List<Test> tests = new ArrayList<Test>(count);
+		for (int i = 1; i <= count; i++) {
+			final int number = i;
+			tests.add(new AbstractTestSemantics() {
+				@Override
+				public int getNumber() {
+					return number;
+				}
+
+				@Override
+				public String getDescription() {
+					return "test " + number;
+				}
+			});
+		}
+		return tests;
+	}
+
+	/**
+	 * Create the statistics of the given transactions. The test time is around 50ms and 1% of the
+	 * transactions are failed.
+	 *
+	 * @param random       random
+	 * @param transactions transaction count
+	 * @return statistics
+	 */
+	public static StatisticsSet createStatistics(Random random, int transactions) {
+		StatisticsSet statistics = STATISTICS_SERVICES.getStatisticsSetFactory().create();
+		int errors = 0;
+		for (int i = 0; i < transactions; i++) {
+			if (random.nextInt(100) == 0) {
+				errors++;
+			} else {
+				statistics.addSample(TIMED_TESTS, Math.max(1, (long) (50 + random.nextGaussian() * 10)));
+			}
+		}
+		statistics.setValue(ERRORS, errors);
+		return statistics;
+	}
+
+	/**
+	 * Create the report which an agent sends in a report interval.
+	 *
+	 * @param tests                tests
+	 * @param random               random
+	 * @param transactionsPerTest transaction count of each test
+	 * @return report
+	 */
+	public static TestStatisticsMap createTestReport(List<Test> tests, Random random, int transactionsPerTest) {
+		TestStatisticsMap report = new TestStatisticsMap(STATISTICS_SERVICES.getStatisticsSetFactory());
+		for (Test each : tests) {
+			report.put(each, createStatistics(random, transactionsPerTest));
+		}
+		return report;
+	}
+
+	/**
+	 * Add the given period to the period of the given cumulative statistics.
+	 *
+	 * @param cumulativeStatistics cumulative statistics
+	 * @param period               period in millisecond
+	 */
+	public static void addPeriod(StatisticsSet cumulativeStatistics, long period) {
+		cumulativeStatistics.setValue(PERIOD, cumulativeStatistics.getValue(PERIOD) + period);
+	}
+
+	/**
+	 * Write the report data files in the same layout which the console writes.
+	 *
+	 * @param reportDirectory report directory
+	 * @param tests           tests. The per test files are written only when there are more than 1
+	 *                        test.
+	 * @param rows            row count of each file
+	 * @param random          random
+	 * @throws IOException if the files can not be written
+	 */
+	public static void writeReport(File reportDirectory, Collection<Test> tests, int rows, Random random)
+			throws IOException {
+		FileUtils.forceMkdir(reportDirectory);
+		for (String each : TOTAL_STATISTICS) {
+			writeReportData(new File(reportDirectory, each + REPORT_DATA), rows, random);
+		}
+		for (String each : PER_TEST_STATISTICS) {
+			writeReportData(new File(reportDirectory, each + REPORT_DATA), rows, random);
+			if (tests.size() <= 1) {
+				continue;
+			}
+			for (Test test : tests) {
+				writeReportData(new File(reportDirectory, each + "-" + test.getNumber() + "_"
+						+ test.getDescription().replaceAll("\\s+", "_") + REPORT_DATA), rows, random);
+			}
+		}
+	}
+
+	private static void writeReportData(File file, int rows, Random random) throws IOException {
+		BufferedWriter writer = new BufferedWriter(new FileWriter(file));
+		try {
+			for (int i = 0; i < rows; i++) {
+				writer.write(String.valueOf(Math.round(random.nextDouble() * 100000) / 1000D));
+				writer.newLine();
+			}
+		} finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * Write the worker log files which look like the grinder logs.
+	 *
+	 * @param directory  log directory
+	 * @param fileCount  file count
+	 * @param sizeInByte approximate size of each file
+	 * @param random     random
+	 * @return written files
+	 * @throws IOException if the files can not be written
+	 */
+	public static File[] writeLogs(File directory, int fileCount, int sizeInByte, Random random)
+			throws IOException {
+		FileUtils.forceMkdir(directory);
+		File[] files = new File[fileCount];
+		for (int i = 0; i < fileCount; i++) {
+			files[i] = new File(directory, "agent-0-" + i + ".log");
+			BufferedWriter writer = new BufferedWriter(new FileWriter(files[i]));
+			try {
+				long written = 0;
+				for (int line = 0; written < sizeInByte; line++) {
+					String each = String.format("2014-01-01 00:00:%02d,%03d INFO  thread-%d: http://127.0.0.1/%d -> "
+							+ "200 OK, %d bytes", line % 60, line % 1000, random.nextInt(100),
+							random.nextInt(1000), random.nextInt(100000));
+					writer.write(each);
+					writer.newLine();
+					written += each.length() + 1;
+				}
+			} finally {
+				writer.close();
+			}
+		}
+		return files;
+	}
+
+	/**
+	 * Create a new temp directory.
+	 *
+	 * @param prefix directory name prefix
+	 * @return created directory
+	 */
+	public static File createTempDirectory(String prefix) {
+		File directory = new File(System.getProperty("java.io.tmpdir"), prefix + "-" + System.nanoTime());
+		try {
+			FileUtils.forceMkdir(directory);
+		} catch (IOException e) {
+			throw processException("Exception occurred while creating " + directory, e);
+		}
+		return directory;
+	}
+
+	/**
+	 * Get a free port.
+	 *
+	 * @return port
+	 */
+	public static int getFreePort() {
+		ServerSocket socket = null;
+		try {
+			socket = new ServerSocket(0);
+			return socket.getLocalPort();
+		} catch (IOException e) {
+			throw processException("Exception occurred while finding a free port", e);
+		} finally {
+			if (socket != null) {
+				try {
+					socket.close();
+				} catch (IOException e) {
+					noOp();
+				}
+			}
+		}
+	}
+}
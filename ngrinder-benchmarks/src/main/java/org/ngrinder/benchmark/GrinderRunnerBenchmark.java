@@ -0,0 +1,125 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ngrinder.benchmark;
+
+import net.grinder.scriptengine.groovy.junit.GrinderRunner;
+import net.grinder.scriptengine.groovy.junit.IterationPlan;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.notification.RunNotifier;
+import org.junit.runners.model.FrameworkMethod;
+import org.junit.runners.model.InitializationError;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of a single iteration of a test script run by {@link GrinderRunner}, through the
+ * {@link IterationPlan} and through the JUnit statement chain.
+ *
+ * The script does nothing but consuming a token, so the overhead of the runner itself is
+ * measured. The grinder context requires the dcr agent which is copied into the target
+ * directory when the benchmarks are packaged.
+ *
+ * @author JunHo Yoon
+ * @since 3.4.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-javaagent:target/grinder-dcr-agent.jar")
+public class GrinderRunnerBenchmark {
+
+	private IterationPlan iterationPlan;
+	private StatementChainRunner statementChainRunner;
+	private RunNotifier notifier;
+	private int runNumber;
+
+	/**
+	 * Benchmarked script. It has no run rate because the run number is not counted when the
+	 * statement chain is run without the worker thread context.
+	 */
+	public static class Script {
+		static Blackhole blackhole;
+
+		@Before
+		public void before() {
+			blackhole.consumeCPU(1);
+		}
+
+		@Test
+		public void test1() {
+			blackhole.consumeCPU(10);
+		}
+
+		@Test
+		public void test2() {
+			blackhole.consumeCPU(10);
+		}
+
+		@After
+		public void after() {
+			blackhole.consumeCPU(1);
+		}
+	}
+
+	/**
+	 * {@link GrinderRunner} which runs each test method as the children of the class statement.
+	 */
+	static class StatementChainRunner extends GrinderRunner {
+		StatementChainRunner(Class<?> klass) throws InitializationError {
+			super(klass);
+		}
+
+		void runIteration(RunNotifier notifier) {
+			for (FrameworkMethod each : getChildren()) {
+				runChild(each, notifier);
+			}
+		}
+	}
+
+	/**
+	 * Create the runners of the script.
+	 *
+	 * @param blackhole blackhole consumed by the script
+	 * @throws InitializationError if the script is not valid
+	 */
+	@Setup(Level.Trial)
+	public void setUp(Blackhole blackhole) throws InitializationError {
+		Script.blackhole = blackhole;
+		iterationPlan = new GrinderRunner(Script.class).createIterationPlan();
+		statementChainRunner = new StatementChainRunner(Script.class);
+		notifier = new RunNotifier();
+	}
+
+	/**
+	 * Run an iteration by the {@link IterationPlan}.
+	 */
+	@Benchmark
+	public void iterationPlan() {
+		iterationPlan.run(notifier, runNumber++);
+	}
+
+	/**
+	 * Run an iteration by the statement chain.
+	 */
+	@Benchmark
+	public void statementChain() {
+		statementChainRunner.runIteration(notifier);
+	}
+}
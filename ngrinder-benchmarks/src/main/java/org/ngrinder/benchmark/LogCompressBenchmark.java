@@ -0,0 +1,91 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ngrinder.benchmark;
+
+import net.grinder.util.LogCompressUtils;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.output.NullOutputStream;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of {@link LogCompressUtils} by which the agent compresses the worker logs and the
+ * controller extracts them when a test is finished.
+ *
+ * @author JunHo Yoon
+ * @since 3.4.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LogCompressBenchmark {
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	@Param({"1", "10"})
+	private int fileCount;
+
+	@Param({"65536", "1048576"})
+	private int fileSize;
+
+	private File logDirectory;
+	private File[] logFiles;
+	private byte[] compressed;
+
+	/**
+	 * Write the log files and compress them once for the decompression.
+	 *
+	 * @throws IOException if the logs can not be written
+	 */
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		logDirectory = BenchmarkFixtures.createTempDirectory("log-compress-benchmark");
+		logFiles = BenchmarkFixtures.writeLogs(logDirectory, fileCount, fileSize, new Random(fileSize));
+		compressed = LogCompressUtils.compress(logFiles, UTF_8, UTF_8);
+	}
+
+	/**
+	 * Delete the log files.
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		FileUtils.deleteQuietly(logDirectory);
+	}
+
+	/**
+	 * Compress the logs.
+	 *
+	 * @return compressed bytes
+	 */
+	@Benchmark
+	public byte[] compress() {
+		return LogCompressUtils.compress(logFiles, UTF_8, UTF_8);
+	}
+
+	/**
+	 * Decompress the logs.
+	 */
+	@Benchmark
+	public void decompress() {
+		LogCompressUtils.decompress(new ByteArrayInputStream(compressed), new NullOutputStream(), Long.MAX_VALUE);
+	}
+}
@@ -0,0 +1,111 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ngrinder.benchmark;
+
+import net.grinder.util.Pair;
+import org.apache.commons.io.FileUtils;
+import org.ngrinder.perftest.service.PerfTestService;
+import org.ngrinder.perftest.service.ReportArchive;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the report data reading of {@link PerfTestService}, which converts the report
+ * data files into the json arrays of the charts.
+ *
+ * The reports of a day long test sampled every second are read from the report directory and
+ * from the archive. The interval is chosen so that about 800 points are drawn as it's in the
+ * report page.
+ *
+ * @author JunHo Yoon
+ * @since 3.4.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReportDataBenchmark {
+	private static final int POINT_COUNT = 800;
+
+	@Param({"3600", "86400"})
+	private int rows;
+
+	@Param({"1", "10"})
+	private int testCount;
+
+	@Param({"false", "true"})
+	private boolean archived;
+
+	private File perfTestDirectory;
+	private PerfTestService perfTestService;
+	private int interval;
+
+	/**
+	 * Write the report files of a test and archive them if required.
+	 *
+	 * @throws IOException if the report can not be written
+	 */
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		perfTestDirectory = BenchmarkFixtures.createTempDirectory("report-data-benchmark");
+		final File reportDirectory = new File(perfTestDirectory, "report");
+		BenchmarkFixtures.writeReport(reportDirectory, BenchmarkFixtures.createTests(testCount), rows,
+				new Random(rows));
+		if (archived) {
+			new ReportArchive(reportDirectory).archive();
+		}
+		perfTestService = new PerfTestService() {
+			@Override
+			public ReportArchive getReportArchive(long testId) {
+				return new ReportArchive(reportDirectory);
+			}
+		};
+		interval = Math.max(rows / POINT_COUNT, 1);
+	}
+
+	/**
+	 * Delete the report files.
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		FileUtils.deleteQuietly(perfTestDirectory);
+	}
+
+	/**
+	 * Read the total TPS.
+	 *
+	 * @return json array
+	 */
+	@Benchmark
+	public String getSingleReportDataAsJson() {
+		return perfTestService.getSingleReportDataAsJson(0, "TPS", interval);
+	}
+
+	/**
+	 * Read the TPS of the total and of each test.
+	 *
+	 * @return labels and json arrays
+	 */
+	@Benchmark
+	public Pair<ArrayList<String>, ArrayList<String>> getReportData() {
+		return perfTestService.getReportData(0, "TPS", false, interval);
+	}
+}
@@ -0,0 +1,117 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ngrinder.benchmark;
+
+import net.grinder.SingleConsole;
+import net.grinder.common.Test;
+import net.grinder.console.model.SampleModelImplementationEx;
+import net.grinder.statistics.TestStatisticsMap;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of {@link SampleModelImplementationEx#addTestReport(TestStatisticsMap, String, long)}
+ * which merges the report of an agent into the test, total and agent accumulators.
+ *
+ * The reports of the agents arrive on their own threads, so the contended case is measured with
+ * 4 threads as well. The model is sampled by its timer during the benchmark as it's in a test.
+ *
+ * @author JunHo Yoon
+ * @since 3.4.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SampleModelBenchmark {
+
+	@Param({"1", "10", "100"})
+	private int testCount;
+
+	@Param({"1", "10", "50"})
+	private int agentCount;
+
+	private SingleConsole singleConsole;
+	private SampleModelImplementationEx sampleModel;
+	private String[] agentNames;
+	private TestStatisticsMap[] reports;
+
+	/**
+	 * Cursor of the agent which sends the next report on each benchmark thread.
+	 */
+	@State(Scope.Thread)
+	public static class AgentCursor {
+		private int index;
+
+		int next(int agentCount) {
+			index = (index + 1) % agentCount;
+			return index;
+		}
+	}
+
+	/**
+	 * Create the sample model of a console and the report of each agent.
+	 */
+	@Setup(Level.Trial)
+	public void setUp() {
+		singleConsole = new SingleConsole(BenchmarkFixtures.getFreePort());
+		sampleModel = singleConsole.getConsoleComponent(SampleModelImplementationEx.class);
+		Random random = new Random(testCount * 31 + agentCount);
+		List<Test> tests = BenchmarkFixtures.createTests(testCount);
+		sampleModel.registerTests(tests);
+		sampleModel.start();
+		agentNames = new String[agentCount];
+		reports = new TestStatisticsMap[agentCount];
+		for (int i = 0; i < agentCount; i++) {
+			agentNames[i] = "agent-" + i;
+			reports[i] = BenchmarkFixtures.createTestReport(tests, random, 10);
+		}
+	}
+
+	/**
+	 * Stop the model and shutdown the console.
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		sampleModel.stop();
+		singleConsole.shutdown();
+	}
+
+	/**
+	 * Add the report of the next agent.
+	 *
+	 * @param cursor agent cursor
+	 */
+	@Benchmark
+	public void addTestReport(AgentCursor cursor) {
+		int agent = cursor.next(agentCount);
+		sampleModel.addTestReport(reports[agent], agentNames[agent], System.currentTimeMillis());
+	}
+
+	/**
+	 * Add the report of the next agent on the concurrent threads.
+	 *
+	 * @param cursor agent cursor
+	 */
+	@Benchmark
+	@Threads(4)
+	public void addTestReportConcurrently(AgentCursor cursor) {
+		addTestReport(cursor);
+	}
+}
@@ -0,0 +1,118 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ngrinder.benchmark;
+
+import net.grinder.SingleConsole;
+import net.grinder.common.Test;
+import net.grinder.console.model.ConsoleCommunicationSetting;
+import net.grinder.console.model.ConsoleProperties;
+import net.grinder.statistics.StatisticsSet;
+import net.grinder.util.ConsolePropertiesFactory;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.ngrinder.common.util.ReflectionUtils.getFieldValue;
+import static org.ngrinder.common.util.ReflectionUtils.setFieldValue;
+
+/**
+ * Benchmark of {@link SingleConsole#update(StatisticsSet, StatisticsSet)} which builds the
+ * statistics and writes the report data once per sampling interval.
+ *
+ * The per test report data is written only when the sampling interval is 3 seconds or more, so
+ * both of the intervals are measured.
+ *
+ * @author JunHo Yoon
+ * @since 3.4.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SingleConsoleBenchmark {
+
+	@Param({"1", "10", "100"})
+	private int testCount;
+
+	@Param({"1000", "3000"})
+	private int sampleInterval;
+
+	private SingleConsole singleConsole;
+	private File reportDirectory;
+	private StatisticsSet intervalStatistics;
+	private StatisticsSet cumulativeStatistics;
+
+	/**
+	 * Create the console which is sampling the fixture tests. The console is created per
+	 * iteration so that the report files don't grow during the whole trial.
+	 *
+	 * @throws Exception if the console can not be created
+	 */
+	@Setup(Level.Iteration)
+	@SuppressWarnings("unchecked")
+	public void setUp() throws Exception {
+		ConsoleProperties consoleProperties = ConsolePropertiesFactory.createEmptyConsoleProperties();
+		consoleProperties.setSampleInterval(sampleInterval);
+		singleConsole = new SingleConsole("", BenchmarkFixtures.getFreePort(), ConsoleCommunicationSetting.asDefault(),
+				consoleProperties);
+		reportDirectory = BenchmarkFixtures.createTempDirectory("single-console-benchmark");
+		singleConsole.setReportPath(reportDirectory);
+		singleConsole.startSampling();
+
+		Random random = new Random(testCount);
+		List<Test> tests = BenchmarkFixtures.createTests(testCount);
+		singleConsole.getSampleModel().registerTests(tests);
+		// The per test statistics are put by the sample model only on the timer ticks.
+		Map<Test, StatisticsSet> intervalStatisticMapPerTest = (Map<Test, StatisticsSet>) getFieldValue(
+				singleConsole, "intervalStatisticMapPerTest");
+		Map<Test, StatisticsSet> accumulatedStatisticMapPerTest = (Map<Test, StatisticsSet>) getFieldValue(
+				singleConsole, "accumulatedStatisticMapPerTest");
+		intervalStatistics = BenchmarkFixtures.createStatistics(random, 0);
+		cumulativeStatistics = BenchmarkFixtures.createStatistics(random, 0);
+		for (Test each : tests) {
+			StatisticsSet statistics = BenchmarkFixtures.createStatistics(random, 100);
+			intervalStatisticMapPerTest.put(each, statistics);
+			accumulatedStatisticMapPerTest.put(each, statistics);
+			intervalStatistics.add(statistics);
+			cumulativeStatistics.add(statistics);
+		}
+		// The console captures only after the ignored samples are passed.
+		setFieldValue(singleConsole, "capture", true);
+	}
+
+	/**
+	 * Shutdown the console and delete the report files.
+	 */
+	@TearDown(Level.Iteration)
+	public void tearDown() {
+		singleConsole.shutdown();
+		FileUtils.deleteQuietly(reportDirectory);
+	}
+
+	/**
+	 * Sample once. The period is increased by the interval so that no sample is skipped.
+	 */
+	@Benchmark
+	public void update() {
+		BenchmarkFixtures.addPeriod(cumulativeStatistics, sampleInterval);
+		singleConsole.update(intervalStatistics, cumulativeStatistics);
+	}
+}
@@ -0,0 +1,22 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/**
+ * ngrinder JMH benchmarks of the controller and agent hot paths.
+ *
+ * Build with <code>mvn -P benchmarks package</code> and run
+ * <code>java -jar ngrinder-benchmarks/target/benchmarks.jar -rf json</code> in the ngrinder-benchmarks
+ * directory. The result is compared with the result of the previous version by
+ * {@link org.ngrinder.benchmark.BaselineComparison}.
+ */
+package org.ngrinder.benchmark;
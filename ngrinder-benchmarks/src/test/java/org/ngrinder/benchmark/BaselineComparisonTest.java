@@ -0,0 +1,75 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ngrinder.benchmark;
+
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+/**
+ * {@link BaselineComparison} test.
+ *
+ * @author JunHo Yoon
+ * @since 3.4.1
+ */
+public class BaselineComparisonTest {
+
+	private static String result(String benchmark, String mode, String testCount, double score, double error) {
+		return "{\"benchmark\":\"" + benchmark + "\",\"mode\":\"" + mode + "\",\"params\":{\"testCount\":\""
+				+ testCount + "\"},\"primaryMetric\":{\"score\":" + score + ",\"scoreError\":" + error
+				+ ",\"scoreUnit\":\"us/op\"}}";
+	}
+
+	@Test
+	public void testRead() {
+		Map<String, BaselineComparison.Score> scores = BaselineComparison.read(new StringReader("["
+				+ result("a.update", "avgt", "1", 10, 0.5) + ","
+				+ "{\"benchmark\":\"b.run\",\"mode\":\"thrpt\",\"primaryMetric\":{\"score\":3.0,"
+				+ "\"scoreError\":\"NaN\",\"scoreUnit\":\"ops/s\"}}]"));
+		assertThat(scores.size(), is(2));
+		assertThat(scores.get("a.update {testCount=1}").getScore(), is(10D));
+		assertThat(scores.get("a.update {testCount=1}").getError(), is(0.5D));
+		assertThat(scores.get("b.run").isHigherBetter(), is(true));
+		assertThat(scores.get("b.run").getError(), is(0D));
+	}
+
+	@Test
+	public void testCompare() {
+		Map<String, BaselineComparison.Score> baseline = BaselineComparison.read(new StringReader("["
+				+ result("a.update", "avgt", "1", 10, 0.5) + ","
+				+ result("a.update", "avgt", "10", 10, 0.5) + ","
+				+ result("a.update", "avgt", "100", 10, 2) + ","
+				+ result("a.removed", "avgt", "1", 10, 0.5) + "]"));
+		Map<String, BaselineComparison.Score> current = BaselineComparison.read(new StringReader("["
+				+ result("a.update", "avgt", "1", 12, 0.5) + ","
+				+ result("a.update", "avgt", "10", 8, 0.5) + ","
+				// Within the errors.
+				+ result("a.update", "avgt", "100", 13, 2) + ","
+				+ result("a.added", "avgt", "1", 10, 0.5) + "]"));
+		List<BaselineComparison.Row> rows = BaselineComparison.compare(baseline, current, 10);
+		assertThat(rows.size(), is(5));
+		assertThat(rows.get(0).isRegression(), is(true));
+		assertThat(rows.get(0).getDeltaPercent(), is(20D));
+		assertThat(rows.get(1).isRegression(), is(false));
+		assertThat(rows.get(2).isRegression(), is(false));
+		assertThat(rows.get(3).getBaseline(), nullValue());
+		assertThat(rows.get(4).getCurrent(), nullValue());
+	}
+}
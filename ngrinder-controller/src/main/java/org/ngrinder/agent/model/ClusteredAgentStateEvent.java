@@ -0,0 +1,116 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ngrinder.agent.model;
+
+import org.ngrinder.model.AgentInfo;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Agent state change of a region published b/w controllers in the clustered nGrinder installation.
+ *
+ * Each region increases the version whenever it saves the changed agents. The other controllers
+ * apply only the changed agents when the version follows the one they have. Otherwise or when the
+ * checksum of the region doesn't match, they reload the agents of the region from the DB.
+ *
+ * @author JunHo Yoon
+ * @since 3.4.1
+ */
+public class ClusteredAgentStateEvent implements Serializable {
+	/**
+	 * UUID.
+	 */
+	private static final long serialVersionUID = 1L;
+
+	private final String region;
+
+	private final long version;
+
+	private final long checksum;
+
+	private final List<AgentInfo> changedAgents;
+
+	private final List<Long> removedAgentIds;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param region        region
+	 * @param version       version of the agent states of the region
+	 * @param checksum      checksum of all agents of the region
+	 * @param changedAgents agents changed from the previous version
+	 */
+	public ClusteredAgentStateEvent(String region, long version, long checksum, Collection<AgentInfo> changedAgents) {
+		this(region, version, checksum, changedAgents, Collections.<Long>emptyList());
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param region          region
+	 * @param version         version of the agent states of the region
+	 * @param checksum        checksum of all agents of the region
+	 * @param changedAgents   agents changed from the previous version
+	 * @param removedAgentIds ids of the agents removed from the previous version
+	 */
+	public ClusteredAgentStateEvent(String region, long version, long checksum, Collection<AgentInfo> changedAgents,
+	                                Collection<Long> removedAgentIds) {
+		this.region = region;
+		this.version = version;
+		this.checksum = checksum;
+		this.changedAgents = new ArrayList<AgentInfo>(changedAgents);
+		this.removedAgentIds = new ArrayList<Long>(removedAgentIds);
+	}
+
+	public String getRegion() {
+		return region;
+	}
+
+	public long getVersion() {
+		return version;
+	}
+
+	public long getChecksum() {
+		return checksum;
+	}
+
+	public List<AgentInfo> getChangedAgents() {
+		return changedAgents;
+	}
+
+	public List<Long> getRemovedAgentIds() {
+		return removedAgentIds;
+	}
+
+	/**
+	 * Calculate the order independent checksum of the given agents.
+	 *
+	 * @param agents agents
+	 * @return checksum
+	 */
+	public static long checksum(Collection<AgentInfo> agents) {
+		long checksum = agents.size();
+		for (AgentInfo each : agents) {
+			String digest = each.getIp() + "|" + each.getName() + "|" + each.getState() + "|" + each.getRegion()
+					+ "|" + each.getPort() + "|" + each.getVersion() + "|" + each.isApproved();
+			long hash = digest.hashCode();
+			checksum += hash * 0x9E3779B97F4A7C15L ^ (hash >>> 16);
+		}
+		return checksum;
+	}
+}
@@ -87,6 +87,7 @@ public class AgentManagerService extends AbstractAgentManagerService {
 
 	public void checkAgentStatePeriodically() {
 		checkAgentState();
+		getAgentManager().removeDetachedAgentMetrics();
 	}
 
 	public void checkAgentState() {
@@ -130,19 +130,26 @@ public class AgentPackageService {
 	 *
 	 * @return File  agent package.
 	 */
-	public synchronized File createAgentPackage() {
+	public File createAgentPackage() {
 		return createAgentPackage(null, null, config.getControllerPort(), null);
 	}
 
 	/**
-	 * Create agent package.
+	 * Create agent package. The package is built only once per version and configuration. Because
+	 * the package file appears only after it's completely written, the existing one is returned
+	 * without any lock.
 	 *
 	 * @param connectionIP host ip.
 	 * @param region       region
 	 * @param owner        owner
 	 * @return File  agent package.
 	 */
-	public synchronized File createAgentPackage(String region, String connectionIP, int port, String owner) {
+	public File createAgentPackage(String region, String connectionIP, int port, String owner) {
+		File agentTar = new File(getPackagesDir(), getDistributionPackageName("ngrinder-agent", region,
+				connectionIP, owner, false));
+		if (agentTar.exists()) {
+			return agentTar;
+		}
 		return createAgentPackage((URLClassLoader) getClass().getClassLoader(), region, connectionIP, port, owner);
 	}
 
@@ -220,12 +227,13 @@ public class AgentPackageService {
 			if (agentTar.exists()) {
 				return agentTar;
 			}
-			FileUtils.deleteQuietly(agentTar);
+			File agentTarInProgress = new File(agentPackagesDir, packageName + ".tmp");
+			FileUtils.deleteQuietly(agentTarInProgress);
 			final String basePath = "ngrinder-agent/";
 			final String libPath = basePath + "lib/";
 			TarArchiveOutputStream tarOutputStream = null;
 			try {
-				tarOutputStream = createTarArchiveStream(agentTar);
+				tarOutputStream = createTarArchiveStream(agentTarInProgress);
 				addFolderToTar(tarOutputStream, basePath);
 				addFolderToTar(tarOutputStream, libPath);
 				Set<String> libs = getDependentLibs(classLoader);
@@ -250,10 +258,15 @@ public class AgentPackageService {
 					}
 				}
 				addAgentConfToTar(tarOutputStream, basePath, regionName, connectionIP, port, owner);
+				tarOutputStream.close();
+				if (!agentTarInProgress.renameTo(agentTar)) {
+					throw new IOException("Can not rename " + agentTarInProgress.getName() + " to " + packageName);
+				}
 			} catch (IOException e) {
 				LOGGER.error("Error while generating an agent package" + e.getMessage());
 			} finally {
 				IOUtils.closeQuietly(tarOutputStream);
+				FileUtils.deleteQuietly(agentTarInProgress);
 			}
 			return agentTar;
 		}
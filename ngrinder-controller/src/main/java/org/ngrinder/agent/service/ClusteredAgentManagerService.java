@@ -20,10 +20,12 @@ import com.google.common.collect.Maps;
 import com.google.gson.Gson;
 import net.grinder.common.processidentity.AgentIdentity;
 import net.grinder.engine.controller.AgentControllerIdentityImplementation;
+import net.grinder.message.console.AgentControllerState;
 import net.sf.ehcache.Ehcache;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.mutable.MutableInt;
 import org.ngrinder.agent.model.ClusteredAgentRequest;
+import org.ngrinder.agent.model.ClusteredAgentStateEvent;
 import org.ngrinder.infra.logger.CoreLogger;
 import org.ngrinder.infra.schedule.ScheduledTaskService;
 import org.ngrinder.model.AgentInfo;
@@ -41,18 +43,20 @@ import org.springframework.transaction.annotation.Transactional;
 
 import javax.annotation.Nullable;
 import javax.annotation.PostConstruct;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
-import static net.grinder.message.console.AgentControllerState.INACTIVE;
-import static net.grinder.message.console.AgentControllerState.WRONG_REGION;
+import static net.grinder.message.console.AgentControllerState.*;
 import static org.ngrinder.agent.model.ClusteredAgentRequest.RequestType.*;
-import static org.ngrinder.agent.repository.AgentManagerSpecification.active;
-import static org.ngrinder.agent.repository.AgentManagerSpecification.visible;
-import static org.ngrinder.agent.repository.AgentManagerSpecification.ready;
+import static org.ngrinder.agent.repository.AgentManagerSpecification.startWithRegion;
+import static org.ngrinder.common.constant.ClusterConstants.PROP_CLUSTER_AGENT_ANTI_ENTROPY_INTERVAL;
 import static org.ngrinder.common.util.CollectionUtils.newArrayList;
 import static org.ngrinder.common.util.CollectionUtils.newHashMap;
+import static org.ngrinder.common.util.CollectionUtils.newHashSet;
 import static org.ngrinder.common.util.TypeConvertUtils.cast;
 
 /**
@@ -71,6 +75,15 @@ public class ClusteredAgentManagerService extends AgentManagerService {
 
 	private Cache agentMonitoringTargetsCache;
 
+	private Cache agentStateCache;
+
+	private Map<String, String> attachedAgentFingerprints = Collections.emptyMap();
+
+	private long agentStateVersion = 0;
+
+	private long lastAntiEntropyTime = 0;
+
+	private final ConcurrentMap<String, RegionAgents> clusterAgents = new ConcurrentHashMap<String, RegionAgents>();
 
 	@Autowired
 	private RegionService regionService;
@@ -97,7 +110,7 @@ public class ClusteredAgentManagerService extends AgentManagerService {
 									ClusteredAgentRequest agentRequest = cast(agentRequestCache.get(each).get());
 									if (agentRequest.getRequestType() ==
 											ClusteredAgentRequest.RequestType.EXPIRE_LOCAL_CACHE) {
-										expireLocalCache();
+										publishAgentStateEvent(agentRequest.getAgentIp(), agentRequest.getAgentName());
 									} else {
 										AgentControllerIdentityImplementation agentIdentity = getAgentIdentityByIpAndName(
 												agentRequest.getAgentIp(), agentRequest.getAgentName());
@@ -115,6 +128,13 @@ public class ClusteredAgentManagerService extends AgentManagerService {
 					}
 				}
 			}, 3000);
+			agentStateCache = cacheManager.getCache("agent_state");
+			scheduledTaskService.addFixedDelayedScheduledTask(new Runnable() {
+				@Override
+				public void run() {
+					applyAgentStateEvents();
+				}
+			}, 1000);
 		}
 	}
 
@@ -127,6 +147,11 @@ public class ClusteredAgentManagerService extends AgentManagerService {
 	/**
 	 * Run a scheduled task to check the agent statuses.
 	 *
+	 * Only the agents which are attached, detached or changed since the last check are compared
+	 * with the DB. All agents are compared in the anti-entropy pass which runs every
+	 * cluster.agent_anti_entropy_interval seconds. The changes are published to the other
+	 * controllers as a {@link ClusteredAgentStateEvent}.
+	 *
 	 * @since 3.1
 	 */
 	@Override
@@ -137,17 +162,34 @@ public class ClusteredAgentManagerService extends AgentManagerService {
 
 		Set<AgentIdentity> allAttachedAgents = getAgentManager().getAllAttachedAgents();
 		Map<String, AgentControllerIdentityImplementation> attachedAgentMap = newHashMap(allAttachedAgents);
+		Map<String, String> fingerprints = newHashMap(allAttachedAgents);
 		for (AgentIdentity agentIdentity : allAttachedAgents) {
 			AgentControllerIdentityImplementation existingAgent = cast(agentIdentity);
-			attachedAgentMap.put(createKey(existingAgent), existingAgent);
+			String key = createKey(existingAgent);
+			attachedAgentMap.put(key, existingAgent);
+			fingerprints.put(key, createFingerprint(existingAgent));
 		}
-		Map<String, AgentInfo> agentsInDBMap = Maps.newHashMap();
+
+		boolean antiEntropy = isAntiEntropyPassDue();
+		Set<String> changedKeys = null;
+		if (antiEntropy) {
+			lastAntiEntropyTime = System.currentTimeMillis();
+			expireLocalCache();
+		} else {
+			changedKeys = getChangedKeys(attachedAgentFingerprints, fingerprints);
+			if (changedKeys.isEmpty()) {
+				return;
+			}
+		}
+
 		// step1. check all agents in DB, whether they are attached to
 		// controller.
 		for (AgentInfo eachAgentInDB : getAllLocal()) {
 			String keyOfAgentInDB = createKey(eachAgentInDB);
-			agentsInDBMap.put(keyOfAgentInDB, eachAgentInDB);
 			AgentControllerIdentityImplementation agentIdentity = attachedAgentMap.remove(keyOfAgentInDB);
+			if (changedKeys != null && !changedKeys.contains(keyOfAgentInDB)) {
+				continue;
+			}
 			if (agentIdentity != null) {
 				// if the agent attached to current controller
 				if (!isCurrentRegion(agentIdentity)) {
@@ -177,6 +219,9 @@ public class ClusteredAgentManagerService extends AgentManagerService {
 		// step2. check all attached agents, whether they are new, and not saved
 		// in DB.
 		for (AgentControllerIdentityImplementation agentIdentity : attachedAgentMap.values()) {
+			if (changedKeys != null && !changedKeys.contains(createKey(agentIdentity))) {
+				continue;
+			}
 			AgentInfo agentInfo = agentManagerRepository.findByIpAndHostName(
 					agentIdentity.getIp(),
 					agentIdentity.getName());
@@ -193,9 +238,225 @@ public class ClusteredAgentManagerService extends AgentManagerService {
 		}
 
 		cachedLocalAgentService.updateAgents(newAgents, updatedAgents, stateUpdatedAgents, null);
+		attachedAgentFingerprints = fingerprints;
 		if (!newAgents.isEmpty() || !updatedAgents.isEmpty()) {
 			expireLocalCache();
 		}
+
+		List<AgentInfo> changedAgents = newArrayList(newAgents.size() + updatedAgents.size()
+				+ stateUpdatedAgents.size());
+		changedAgents.addAll(newAgents);
+		changedAgents.addAll(updatedAgents);
+		changedAgents.addAll(stateUpdatedAgents);
+		if (!changedAgents.isEmpty() || antiEntropy) {
+			publishAgentStateEvent(changedAgents);
+		}
+	}
+
+	private boolean isAntiEntropyPassDue() {
+		long interval = getConfig().getClusterProperties().getPropertyInt(PROP_CLUSTER_AGENT_ANTI_ENTROPY_INTERVAL)
+				* 1000L;
+		return System.currentTimeMillis() - lastAntiEntropyTime >= interval;
+	}
+
+	private String createFingerprint(AgentControllerIdentityImplementation agentIdentity) {
+		return agentIdentity.getRegion() + "|" + getAgentManager().getAgentState(agentIdentity) + "|"
+				+ getAgentManager().getAgentConnectingPort(agentIdentity) + "|"
+				+ getAgentManager().getAgentVersion(agentIdentity);
+	}
+
+	private Set<String> getChangedKeys(Map<String, String> previous, Map<String, String> current) {
+		Set<String> changedKeys = newHashSet();
+		for (Map.Entry<String, String> each : current.entrySet()) {
+			if (!StringUtils.equals(previous.get(each.getKey()), each.getValue())) {
+				changedKeys.add(each.getKey());
+			}
+		}
+		for (String each : previous.keySet()) {
+			if (!current.containsKey(each)) {
+				changedKeys.add(each);
+			}
+		}
+		return changedKeys;
+	}
+
+	/**
+	 * Publish the changed agents of the current region with the checksum of all agents in the region.
+	 *
+	 * @param changedAgents changed agents. The new version is published only when it's not empty.
+	 */
+	private void publishAgentStateEvent(List<AgentInfo> changedAgents) {
+		publishAgentStateEvent(changedAgents, Collections.<Long>emptyList());
+	}
+
+	/**
+	 * Publish the changed and removed agents of the current region with the checksum of all agents
+	 * in the region.
+	 *
+	 * @param changedAgents   changed agents
+	 * @param removedAgentIds ids of the removed agents
+	 */
+	private synchronized void publishAgentStateEvent(List<AgentInfo> changedAgents, List<Long> removedAgentIds) {
+		if (agentStateCache == null) {
+			return;
+		}
+		if (!changedAgents.isEmpty() || !removedAgentIds.isEmpty()) {
+			agentStateVersion++;
+		}
+		List<AgentInfo> agents = newArrayList(changedAgents.size());
+		for (AgentInfo each : changedAgents) {
+			agents.add(copyAgentState(each));
+		}
+		String region = getConfig().getRegion();
+		agentStateCache.put(region, new ClusteredAgentStateEvent(region, agentStateVersion,
+				ClusteredAgentStateEvent.checksum(getAllLocal()), agents, removedAgentIds));
+	}
+
+	/**
+	 * Publish the agent changed or removed by the other controller, such as the approval or the
+	 * cleanup.
+	 *
+	 * @param ip   agent ip
+	 * @param name agent host name
+	 */
+	private void publishAgentStateEvent(String ip, String name) {
+		Long knownId = getKnownAgentId(ip, name);
+		expireLocalCache();
+		AgentInfo agentInfo = agentManagerRepository.findByIpAndHostName(ip, name);
+		if (agentInfo != null) {
+			publishAgentStateEvent(Collections.singletonList(agentInfo));
+		} else if (knownId != null) {
+			publishAgentStateEvent(Collections.<AgentInfo>emptyList(), Collections.singletonList(knownId));
+		}
+	}
+
+	/**
+	 * Get the id of the given agent of the current region in the applied agent states.
+	 */
+	private Long getKnownAgentId(String ip, String name) {
+		RegionAgents regionAgents = clusterAgents.get(getConfig().getRegion());
+		if (regionAgents != null) {
+			for (AgentInfo each : regionAgents.agents.values()) {
+				if (StringUtils.equals(each.getIp(), ip) && StringUtils.equals(each.getName(), name)) {
+					return each.getId();
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Copy the given agent so that the published agent is not changed later. All the persistent
+	 * fields are copied because the agent lists of the cluster are built from them.
+	 */
+	private AgentInfo copyAgentState(AgentInfo agentInfo) {
+		AgentInfo copied = new AgentInfo();
+		copied.setId(agentInfo.getId());
+		copied.setIp(agentInfo.getIp());
+		copied.setName(agentInfo.getName());
+		copied.setPort(agentInfo.getPort());
+		copied.setRegion(agentInfo.getRegion());
+		copied.setState(agentInfo.getState());
+		copied.setSystemStat(agentInfo.getSystemStat());
+		copied.setApproved(agentInfo.getApproved());
+		copied.setVersion(agentInfo.getVersion());
+		copied.setNumber(agentInfo.getNumber());
+		return copied;
+	}
+
+	/**
+	 * Apply the agent state events published by the controllers.
+	 */
+	public void applyAgentStateEvents() {
+		for (String each : getRegions()) {
+			ValueWrapper value = agentStateCache.get(each);
+			if (value != null && value.get() != null) {
+				try {
+					applyAgentStateEvent((ClusteredAgentStateEvent) value.get());
+				} catch (Exception e) {
+					LOGGER.error("Error while applying the agent state of {} : {}", each, e.getMessage());
+				}
+			}
+		}
+	}
+
+	void applyAgentStateEvent(ClusteredAgentStateEvent event) {
+		String region = event.getRegion();
+		RegionAgents current = clusterAgents.get(region);
+		if (current != null && current.version == event.getVersion() && current.checksum == event.getChecksum()) {
+			return;
+		}
+		RegionAgents updated = null;
+		if (current != null && current.version + 1 == event.getVersion()) {
+			updated = current.apply(event);
+			if (updated.checksum != event.getChecksum()) {
+				updated = null;
+			}
+		}
+		if (updated == null) {
+			LOGGER.debug("Agents of {} are reloaded at version {}.", region, event.getVersion());
+			updated = loadRegionAgents(region, event.getVersion());
+		}
+		clusterAgents.put(region, updated);
+	}
+
+	private RegionAgents loadRegionAgents(String region, long version) {
+		Map<Long, AgentInfo> agents = Maps.newLinkedHashMap();
+		for (AgentInfo each : agentManagerRepository.findAll(startWithRegion(region))) {
+			agents.put(each.getId(), each);
+		}
+		return new RegionAgents(version, agents);
+	}
+
+	/**
+	 * Get the agents of all regions. The agents of a region are loaded from the DB only when the
+	 * region is not known yet or its agent state event can not be applied incrementally.
+	 *
+	 * @return agents in all regions
+	 */
+	List<AgentInfo> getAllInCluster() {
+		List<AgentInfo> agents = newArrayList();
+		for (String each : getRegions()) {
+			RegionAgents regionAgents = clusterAgents.get(each);
+			if (regionAgents == null) {
+				regionAgents = loadRegionAgents(each, -1);
+				clusterAgents.putIfAbsent(each, regionAgents);
+			}
+			agents.addAll(regionAgents.agents.values());
+		}
+		return agents;
+	}
+
+	@Override
+	public void expireLocalCache() {
+		super.expireLocalCache();
+		clusterAgents.remove(getConfig().getRegion());
+	}
+
+	/**
+	 * Agents of a region at a version.
+	 */
+	private static class RegionAgents {
+		private final long version;
+		private final long checksum;
+		private final Map<Long, AgentInfo> agents;
+
+		RegionAgents(long version, Map<Long, AgentInfo> agents) {
+			this.version = version;
+			this.agents = Collections.unmodifiableMap(agents);
+			this.checksum = ClusteredAgentStateEvent.checksum(agents.values());
+		}
+
+		RegionAgents apply(ClusteredAgentStateEvent event) {
+			Map<Long, AgentInfo> applied = Maps.newLinkedHashMap(agents);
+			for (AgentInfo each : event.getChangedAgents()) {
+				applied.put(each.getId(), each);
+			}
+			for (Long each : event.getRemovedAgentIds()) {
+				applied.remove(each);
+			}
+			return new RegionAgents(event.getVersion(), applied);
+		}
 	}
 
 
@@ -238,11 +499,22 @@ public class ClusteredAgentManagerService extends AgentManagerService {
 	}
 
 	public List<AgentInfo> getAllActive() {
-		return filterOnlyActiveRegion(agentManagerRepository.findAll(active()));
+		return filterByState(new Predicate<AgentInfo>() {
+			@Override
+			public boolean apply(@Nullable AgentInfo input) {
+				AgentControllerState state = input == null ? null : input.getState();
+				return state != null && state != INACTIVE && state != UNKNOWN && state != WRONG_REGION;
+			}
+		});
 	}
 
 	public List<AgentInfo> getAllVisible() {
-		return filterOnlyActiveRegion(agentManagerRepository.findAll(visible()));
+		return filterByState(new Predicate<AgentInfo>() {
+			@Override
+			public boolean apply(@Nullable AgentInfo input) {
+				return input != null && input.getState() != null && input.getState() != INACTIVE;
+			}
+		});
 	}
 	
 	/**
@@ -250,18 +522,16 @@ public class ClusteredAgentManagerService extends AgentManagerService {
 	 */
 	@Override
 	public List<AgentInfo> getAllReady() {
-		return filterOnlyActiveRegion(agentManagerRepository.findAll(ready()));
+		return filterByState(new Predicate<AgentInfo>() {
+			@Override
+			public boolean apply(@Nullable AgentInfo input) {
+				return input != null && input.getState() == READY;
+			}
+		});
 	}
 
-	private List<AgentInfo> filterOnlyActiveRegion(List<AgentInfo> agents) {
-		final Set<String> regions = getRegions();
-		return Lists.newArrayList(Iterables.filter(agents,
-				new Predicate<AgentInfo>() {
-					@Override
-					public boolean apply(@Nullable AgentInfo input) {
-						return input != null && regions.contains(extractRegionFromAgentRegion(input.getRegion()));
-					}
-				}));
+	private List<AgentInfo> filterByState(Predicate<AgentInfo> predicate) {
+		return Lists.newArrayList(Iterables.filter(getAllInCluster(), predicate));
 	}
 
 
@@ -335,8 +605,15 @@ public class ClusteredAgentManagerService extends AgentManagerService {
 	public AgentInfo approve(Long id, boolean approve) {
 		AgentInfo agent = super.approve(id, approve);
 		if (agent != null) {
-			agentRequestCache.put(extractRegionFromAgentRegion(agent.getRegion()) + "|" + createKey(agent),
-					new ClusteredAgentRequest(agent.getIp(), agent.getName(), EXPIRE_LOCAL_CACHE));
+			String region = extractRegionFromAgentRegion(agent.getRegion());
+			clusterAgents.remove(region);
+			if (StringUtils.equals(region, getConfig().getRegion())) {
+				publishAgentStateEvent(Collections.singletonList(agent));
+			} else {
+				// The controller of the region publishes the change.
+				agentRequestCache.put(region + "|" + createKey(agent),
+						new ClusteredAgentRequest(agent.getIp(), agent.getName(), EXPIRE_LOCAL_CACHE));
+			}
 		}
 		return agent;
 	}
@@ -423,16 +700,33 @@ public class ClusteredAgentManagerService extends AgentManagerService {
 	}
 
 	/**
-	 * Clean up the agents from db which belongs to the inactive regions.
+	 * Clean up the inactive agents and the agents which belong to the inactive regions from db.
+	 *
+	 * The removal of the agents in the current region is published at once. The controllers of the
+	 * other active regions are requested to publish the removal of their agents.
 	 */
 	@Transactional
 	public void cleanup() {
-		super.cleanup();
 		final Set<String> regions = getRegions();
+		final String currentRegion = getConfig().getRegion();
+		List<Long> removedAgentIds = newArrayList();
 		for (AgentInfo each : agentManagerRepository.findAll()) {
-			if (!regions.contains(extractRegionFromAgentRegion(each.getRegion()))) {
-				agentManagerRepository.delete(each);
+			String region = extractRegionFromAgentRegion(each.getRegion());
+			boolean activeRegion = regions.contains(region);
+			if (activeRegion && each.getState().isActive()) {
+				continue;
 			}
+			agentManagerRepository.delete(each);
+			if (currentRegion.equals(region)) {
+				removedAgentIds.add(each.getId());
+			} else if (activeRegion && agentRequestCache != null) {
+				agentRequestCache.put(region + "|" + createKey(each), new ClusteredAgentRequest(each.getIp(),
+						each.getName(), EXPIRE_LOCAL_CACHE));
+			}
+		}
+		if (!removedAgentIds.isEmpty()) {
+			expireLocalCache();
+			publishAgentStateEvent(Collections.<AgentInfo>emptyList(), removedAgentIds);
 		}
 	}
 
@@ -27,4 +27,7 @@ public interface ClusterConstants {
 	public static final String PROP_CLUSTER_HOST = "cluster.host";
 	public static final String PROP_CLUSTER_MODE = "cluster.mode";
 	public static final String PROP_CLUSTER_SAFE_DIST = "cluster.safe_dist";
+	public static final String PROP_CLUSTER_REPLICATION = "cluster.replication";
+	public static final String PROP_CLUSTER_REPLICATION_INTERVAL = "cluster.replication_interval";
+	public static final String PROP_CLUSTER_AGENT_ANTI_ENTROPY_INTERVAL = "cluster.agent_anti_entropy_interval";
 }
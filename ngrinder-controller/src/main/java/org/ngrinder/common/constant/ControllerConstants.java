@@ -84,4 +84,8 @@ public interface ControllerConstants {
 	public static final String PROP_CONTROLLER_INACTIVE_CLIENT_TIME_OUT = "controller.inactive_client_time_out";
 	public static final String PROP_CONTROLLER_ENABLE_STATISTICS = "controller.enable_statistics";
 	public static final String PROP_CONTROLLER_CSV_SEPARATOR = "controller.csv_separator";
+	public static final String PROP_CONTROLLER_PLUGIN_SAMPLING_QUEUE_SIZE = "controller.plugin_sampling_queue_size";
+	public static final String PROP_CONTROLLER_PLUGIN_SAMPLING_QUEUE_POLICY = "controller.plugin_sampling_queue_policy";
+	public static final String PROP_CONTROLLER_REPORT_ARCHIVE_DAYS = "controller.report_archive_days";
+	public static final String PROP_CONTROLLER_MAVEN_DEPENDENCY_CACHE_SIZE = "controller.maven_dependency_cache_size";
 }
@@ -51,6 +51,7 @@ public class Home {
 	private static final String PATH_REPORT = "report";
 	private static final String PATH_DIST = "dist";
 	private static final String PATH_STAT = "stat";
+	private static final String PATH_MAVEN_DEPENDENCY_CACHE = "maven_dependency_cache";
 	private final static Logger LOGGER = LoggerFactory.getLogger(Home.class);
 	private final File directory;
 	public static final String REPORT_CSV = "output.csv";
@@ -341,6 +342,34 @@ public class Home {
 		return getPerfTestSubDirectory(id, PATH_REPORT);
 	}
 
+	/**
+	 * Get the report directory for given {@link PerfTest} id without creating it.
+	 *
+	 * @param id perftest id
+	 * @return {@link PerfTest} report directory. null if the perftest directory doesn't exist.
+	 * @since 3.4.1
+	 */
+	public File getExistingPerfTestReportDirectory(String id) {
+		File file = getPerfTestReportPath(id);
+		return file.getParentFile().isDirectory() ? file : null;
+	}
+
+	/**
+	 * Get the path of the report directory for given {@link PerfTest} id. Neither the report
+	 * directory nor the perftest directory is created.
+	 *
+	 * @param id perftest id
+	 * @return {@link PerfTest} report directory path
+	 * @since 3.4.1
+	 */
+	public File getPerfTestReportPath(String id) {
+		File file = new File(getPerfTestDirectory(), id);
+		if (!file.isDirectory()) {
+			file = getDistributedFolderName(id);
+		}
+		return new File(file, PATH_REPORT);
+	}
+
 	/**
 	 * Get the report directory for given {@link PerfTest}.
 	 *
@@ -379,6 +408,17 @@ public class Home {
 		return getSubFile(PATH_DOWNLOAD);
 	}
 
+	/**
+	 * Get the directory in which the resolved maven dependencies are cached.
+	 *
+	 * @return maven dependency cache directory
+	 */
+	public File getMavenDependencyCacheDirectory() {
+		File cacheDir = getSubFile(PATH_MAVEN_DEPENDENCY_CACHE);
+		cacheDir.mkdirs();
+		return cacheDir;
+	}
+
 
 	/**
 	 * Get global log file.
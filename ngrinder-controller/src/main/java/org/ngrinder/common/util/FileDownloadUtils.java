@@ -83,4 +83,36 @@ public abstract class FileDownloadUtils {
 		}
 		return result;
 	}
+
+	/**
+	 * Download the content of the given stream to the given {@link HttpServletResponse}. The
+	 * stream is not closed.
+	 *
+	 * @param response {@link HttpServletResponse}
+	 * @param in       content to be downloaded
+	 * @param fileName file name shown to the user
+	 * @param length   content length. negative if it's unknown.
+	 * @return true if succeeded
+	 * @since 3.4.1
+	 */
+	public static boolean downloadFile(HttpServletResponse response, InputStream in, String fileName, long length) {
+		response.reset();
+		response.addHeader("Content-Disposition", "attachment;filename=" + fileName);
+		response.setContentType("application/octet-stream");
+		if (length >= 0) {
+			response.addHeader("Content-Length", "" + length);
+		}
+		OutputStream toClient = null;
+		try {
+			toClient = new BufferedOutputStream(response.getOutputStream());
+			IOUtils.copy(in, toClient);
+			toClient.flush();
+			return true;
+		} catch (IOException e) {
+			LOGGER.error("read file error:" + fileName, e);
+			return false;
+		} finally {
+			IOUtils.closeQuietly(toClient);
+		}
+	}
 }
@@ -0,0 +1,172 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ngrinder.infra.cluster;
+
+import net.sf.ehcache.CacheException;
+import net.sf.ehcache.Ehcache;
+import net.sf.ehcache.Element;
+import net.sf.ehcache.distribution.CacheReplicator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Serializable;
+import java.util.Properties;
+
+/**
+ * Ehcache listener which publishes the changes of a cache through the {@link ClusterNode} and
+ * applies the changes received from the other nodes.
+ *
+ * It takes the same replicatePuts, replicateUpdates, replicateUpdatesViaCopy and
+ * replicateRemovals properties of RMICacheReplicatorFactory. Because it is a
+ * {@link CacheReplicator}, the changes applied from the other nodes are not published again.
+ *
+ * @author JunHo Yoon
+ * @since 3.4.1
+ */
+public class ClusterCacheReplicator implements CacheReplicator {
+	private static final Logger LOGGER = LoggerFactory.getLogger(ClusterCacheReplicator.class);
+
+	private final ClusterNode clusterNode;
+	private final Ehcache cache;
+	private final boolean replicatePuts;
+	private final boolean replicateUpdates;
+	private final boolean replicateUpdatesViaCopy;
+	private final boolean replicateRemovals;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param clusterNode cluster node
+	 * @param cache       cache to be replicated
+	 * @param properties  replication properties
+	 */
+	public ClusterCacheReplicator(ClusterNode clusterNode, Ehcache cache, Properties properties) {
+		this.clusterNode = clusterNode;
+		this.cache = cache;
+		this.replicatePuts = getBoolean(properties, "replicatePuts");
+		this.replicateUpdates = getBoolean(properties, "replicateUpdates");
+		this.replicateUpdatesViaCopy = getBoolean(properties, "replicateUpdatesViaCopy");
+		this.replicateRemovals = getBoolean(properties, "replicateRemovals");
+	}
+
+	private static boolean getBoolean(Properties properties, String key) {
+		return Boolean.valueOf(properties.getProperty(key, "true").trim());
+	}
+
+	/**
+	 * Create a replicator and register it to the given cache and cluster node.
+	 *
+	 * @param clusterNode cluster node
+	 * @param cache       cache to be replicated
+	 * @param properties  replication properties
+	 * @return registered replicator
+	 */
+	public static ClusterCacheReplicator bind(ClusterNode clusterNode, Ehcache cache, Properties properties) {
+		ClusterCacheReplicator replicator = new ClusterCacheReplicator(clusterNode, cache, properties);
+		clusterNode.register(replicator);
+		cache.getCacheEventNotificationService().registerListener(replicator);
+		return replicator;
+	}
+
+	public String getCacheName() {
+		return cache.getName();
+	}
+
+	/**
+	 * Apply the change received from the other node.
+	 *
+	 * @param delta change
+	 */
+	void apply(ClusterDelta delta) {
+		if (delta.getKey() == null) {
+			cache.removeAll(true);
+		} else if (delta.isRemoval()) {
+			cache.remove(delta.getKey(), true);
+		} else {
+			cache.put(new Element(delta.getKey(), delta.getValue()), true);
+		}
+	}
+
+	private void publish(Element element, boolean removal) {
+		Object key = element.getObjectKey();
+		Object value = removal ? null : element.getObjectValue();
+		if (!(key instanceof Serializable) || (value != null && !(value instanceof Serializable))) {
+			LOGGER.warn("The entry {} of {} is not replicated because it's not serializable.", key, getCacheName());
+			return;
+		}
+		clusterNode.publish(getCacheName(), (Serializable) key, (Serializable) value);
+	}
+
+	@Override
+	public void notifyElementPut(Ehcache cache, Element element) throws CacheException {
+		if (replicatePuts) {
+			publish(element, false);
+		}
+	}
+
+	@Override
+	public void notifyElementUpdated(Ehcache cache, Element element) throws CacheException {
+		if (replicateUpdates) {
+			publish(element, !replicateUpdatesViaCopy);
+		}
+	}
+
+	@Override
+	public void notifyElementRemoved(Ehcache cache, Element element) throws CacheException {
+		if (replicateRemovals) {
+			publish(element, true);
+		}
+	}
+
+	@Override
+	public void notifyRemoveAll(Ehcache cache) {
+		if (replicateRemovals) {
+			clusterNode.publish(getCacheName(), null, null);
+		}
+	}
+
+	@Override
+	public void notifyElementExpired(Ehcache cache, Element element) {
+		clusterNode.forget(getCacheName(), element.getObjectKey());
+	}
+
+	@Override
+	public void notifyElementEvicted(Ehcache cache, Element element) {
+		clusterNode.forget(getCacheName(), element.getObjectKey());
+	}
+
+	@Override
+	public boolean isReplicateUpdatesViaCopy() {
+		return replicateUpdatesViaCopy;
+	}
+
+	@Override
+	public boolean notAlive() {
+		return false;
+	}
+
+	@Override
+	public boolean alive() {
+		return true;
+	}
+
+	@Override
+	public void dispose() {
+	}
+
+	@Override
+	public Object clone() throws CloneNotSupportedException {
+		throw new CloneNotSupportedException("ClusterCacheReplicator can not be cloned");
+	}
+}
@@ -0,0 +1,96 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ngrinder.infra.cluster;
+
+import java.io.Serializable;
+
+/**
+ * Versioned change of a replicated cache entry.
+ *
+ * The version is the logical clock of the {@link ClusterNode} which made the change. When two
+ * nodes change the same entry, the one with the higher version wins and the origin breaks the tie.
+ *
+ * @author JunHo Yoon
+ * @since 3.4.1
+ */
+public class ClusterDelta implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private final String cacheName;
+
+	private final Serializable key;
+
+	private final Serializable value;
+
+	private final long version;
+
+	private final String origin;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param cacheName cache name
+	 * @param key       key. null if all entries are removed.
+	 * @param value     value. null if the entry is removed.
+	 * @param version   logical clock of the origin
+	 * @param origin    id of the node which made the change
+	 */
+	public ClusterDelta(String cacheName, Serializable key, Serializable value, long version, String origin) {
+		this.cacheName = cacheName;
+		this.key = key;
+		this.value = value;
+		this.version = version;
+		this.origin = origin;
+	}
+
+	public String getCacheName() {
+		return cacheName;
+	}
+
+	public Serializable getKey() {
+		return key;
+	}
+
+	public Serializable getValue() {
+		return value;
+	}
+
+	public long getVersion() {
+		return version;
+	}
+
+	public String getOrigin() {
+		return origin;
+	}
+
+	public boolean isRemoval() {
+		return value == null;
+	}
+
+	/**
+	 * Check if this delta is made after the given delta on the same entry.
+	 *
+	 * @param other other delta
+	 * @return true if this delta wins
+	 */
+	public boolean isNewerThan(ClusterDelta other) {
+		return version > other.version || (version == other.version && origin.compareTo(other.origin) > 0);
+	}
+
+	@Override
+	public String toString() {
+		return "ClusterDelta{" + cacheName + ", " + key + ", " + (isRemoval() ? "removed" : "updated") + ", "
+				+ version + "@" + origin + "}";
+	}
+}
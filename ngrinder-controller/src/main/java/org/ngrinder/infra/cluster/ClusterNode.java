@@ -0,0 +1,688 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ngrinder.infra.cluster;
+
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Embedded cluster member which replicates the cache changes to the other controllers.
+ *
+ * Each node listens on the cluster port and keeps a single outbound TCP connection per peer.
+ * The changes are queued per peer, coalesced by the entry and sent in a batch every replication
+ * interval by the sender thread of the peer, so a slow or dead peer never blocks the caller nor
+ * the other peers. An empty batch is sent as the heartbeat. A member is alive while its batches
+ * keep arriving within the failure timeout.
+ *
+ * Only the connections from the peer hosts are accepted and only the classes of the cached
+ * models are deserialized from them.
+ *
+ * @author JunHo Yoon
+ * @since 3.4.1
+ */
+public class ClusterNode {
+	private static final Logger LOGGER = LoggerFactory.getLogger(ClusterNode.class);
+
+	private static final int CONNECT_TIMEOUT = 3000;
+
+	private static final int FAILURE_TIMEOUT_FACTOR = 5;
+
+	private static final int MAX_TRACKED_ENTRIES = 10000;
+
+	private static final String[] ALLOWED_PACKAGES = {"java.lang.", "java.util.", "java.math.", "java.sql.",
+			"org.ngrinder.", "net.grinder.", "org.springframework.cache.", "org.hibernate.collection."};
+
+	private final ServerSocket serverSocket;
+
+	private final String id;
+
+	private final long replicationInterval;
+
+	private final long heartbeatInterval;
+
+	private final Map<String, Peer> peers = new ConcurrentHashMap<String, Peer>();
+
+	private final Map<String, ClusterCacheReplicator> replicators = new ConcurrentHashMap<String, ClusterCacheReplicator>();
+
+	private final Set<InetAddress> peerAddresses = Collections.newSetFromMap(
+			new ConcurrentHashMap<InetAddress, Boolean>());
+
+	/**
+	 * Last changes of the recently changed entries. The least recently changed ones are forgotten
+	 * so that it doesn't grow with every entry ever replicated.
+	 */
+	private final Map<List<Object>, ClusterDelta> lastDeltas = new LinkedHashMap<List<Object>, ClusterDelta>(16,
+			0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<List<Object>, ClusterDelta> eldest) {
+			return size() > MAX_TRACKED_ENTRIES;
+		}
+	};
+
+	private final ConcurrentMap<String, Long> lastSeen = new ConcurrentHashMap<String, Long>();
+
+	private final Set<Socket> inboundSockets = Collections.newSetFromMap(new ConcurrentHashMap<Socket, Boolean>());
+
+	private final AtomicLong clock = new AtomicLong();
+
+	private final AtomicLong sentDeltas = new AtomicLong();
+	private final AtomicLong sentBatches = new AtomicLong();
+	private final AtomicLong receivedDeltas = new AtomicLong();
+	private final AtomicLong appliedDeltas = new AtomicLong();
+	private final AtomicLong staleDeltas = new AtomicLong();
+	private volatile long lastReplicationLag;
+
+	private volatile boolean running;
+
+	/**
+	 * Constructor. It binds the listener socket.
+	 *
+	 * @param host                host to listen
+	 * @param port                port to listen. 0 for any free port.
+	 * @param replicationInterval milliseconds between the batches
+	 * @param heartbeatInterval   milliseconds between the heartbeats
+	 * @throws IOException if the port can not be bound.
+	 */
+	public ClusterNode(String host, int port, long replicationInterval, long heartbeatInterval) throws IOException {
+		this.serverSocket = new ServerSocket();
+		this.serverSocket.setReuseAddress(true);
+		this.serverSocket.bind(new InetSocketAddress(host, port));
+		this.id = host + ":" + serverSocket.getLocalPort();
+		this.replicationInterval = replicationInterval;
+		this.heartbeatInterval = heartbeatInterval;
+	}
+
+	/**
+	 * Constructor of the node which doesn't listen. The batches are delivered by the
+	 * {@link BatchSender}s of the peers.
+	 *
+	 * @param id                  node id
+	 * @param replicationInterval milliseconds between the batches
+	 * @param heartbeatInterval   milliseconds between the heartbeats
+	 */
+	ClusterNode(String id, long replicationInterval, long heartbeatInterval) {
+		this.serverSocket = null;
+		this.id = id;
+		this.replicationInterval = replicationInterval;
+		this.heartbeatInterval = heartbeatInterval;
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public int getPort() {
+		return serverSocket == null ? -1 : serverSocket.getLocalPort();
+	}
+
+	/**
+	 * Add the peer to which the changes are replicated.
+	 *
+	 * @param host peer host
+	 * @param port peer cluster port
+	 */
+	public void addPeer(String host, int port) {
+		InetSocketAddress address = new InetSocketAddress(host, port);
+		if (address.getAddress() != null) {
+			peerAddresses.add(address.getAddress());
+		}
+		addPeer(host + ":" + port, new SocketSender(address));
+	}
+
+	/**
+	 * Add the peer to which the batches are sent by the given sender.
+	 *
+	 * @param peerId peer id
+	 * @param sender batch sender
+	 */
+	void addPeer(String peerId, BatchSender sender) {
+		Peer peer = new Peer(peerId, sender);
+		peers.put(peerId, peer);
+		if (running) {
+			peer.start();
+		}
+	}
+
+	/**
+	 * Check if the connection from the given address is accepted.
+	 *
+	 * @param address remote address
+	 * @return true if it's one of the peer hosts
+	 */
+	boolean isPeerAddress(InetAddress address) {
+		return address != null && peerAddresses.contains(address);
+	}
+
+	void register(ClusterCacheReplicator replicator) {
+		replicators.put(replicator.getCacheName(), replicator);
+	}
+
+	/**
+	 * Start to accept the peer connections and to send the batches.
+	 */
+	public void start() {
+		running = true;
+		if (serverSocket == null) {
+			startPeers();
+			return;
+		}
+		Thread acceptor = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				accept();
+			}
+		}, "cluster-acceptor-" + id);
+		acceptor.setDaemon(true);
+		acceptor.start();
+		startPeers();
+	}
+
+	private void startPeers() {
+		for (Peer each : peers.values()) {
+			each.start();
+		}
+		LOGGER.info("Cluster node {} is started with peers {}", id, peers.keySet());
+	}
+
+	/**
+	 * Stop the node and close all connections.
+	 */
+	public void shutdown() {
+		running = false;
+		try {
+			if (serverSocket != null) {
+				serverSocket.close();
+			}
+		} catch (IOException e) {
+			LOGGER.debug("Error while closing the cluster listener : {}", e.getMessage());
+		}
+		for (Peer each : peers.values()) {
+			each.stop();
+		}
+		for (Socket each : inboundSockets) {
+			IOUtils.closeQuietly(each);
+		}
+	}
+
+	/**
+	 * Publish the change made in this node.
+	 *
+	 * @param cacheName cache name
+	 * @param key       key. null if all entries are removed.
+	 * @param value     value. null if the entry is removed.
+	 */
+	public void publish(String cacheName, Serializable key, Serializable value) {
+		ClusterDelta delta = new ClusterDelta(cacheName, key, value, clock.incrementAndGet(), id);
+		accept(delta);
+		for (Peer each : peers.values()) {
+			each.enqueue(delta);
+		}
+	}
+
+	/**
+	 * Send the queued changes to all peers immediately.
+	 */
+	public void flush() {
+		for (Peer each : peers.values()) {
+			each.send();
+		}
+	}
+
+	private void accept() {
+		while (running) {
+			try {
+				final Socket socket = serverSocket.accept();
+				if (!isPeerAddress(socket.getInetAddress())) {
+					LOGGER.warn("The connection from {} is refused because it's not a cluster peer.",
+							socket.getRemoteSocketAddress());
+					IOUtils.closeQuietly(socket);
+					continue;
+				}
+				inboundSockets.add(socket);
+				Thread receiver = new Thread(new Runnable() {
+					@Override
+					public void run() {
+						receive(socket);
+					}
+				}, "cluster-receiver-" + socket.getRemoteSocketAddress());
+				receiver.setDaemon(true);
+				receiver.start();
+			} catch (IOException e) {
+				if (running) {
+					LOGGER.error("Error while accepting the cluster peer : {}", e.getMessage());
+				}
+			}
+		}
+	}
+
+	private void receive(Socket socket) {
+		ObjectInputStream in = null;
+		try {
+			in = new BatchInputStream(new BufferedInputStream(socket.getInputStream()));
+			while (running) {
+				apply((Batch) in.readObject());
+			}
+		} catch (InvalidClassException e) {
+			LOGGER.warn("Cluster peer {} is disconnected because it sent {}", socket.getRemoteSocketAddress(),
+					e.getMessage());
+		} catch (Exception e) {
+			if (running) {
+				LOGGER.debug("Cluster peer {} is disconnected : {}", socket.getRemoteSocketAddress(), e.getMessage());
+			}
+		} finally {
+			IOUtils.closeQuietly(in);
+			IOUtils.closeQuietly(socket);
+			inboundSockets.remove(socket);
+		}
+	}
+
+	void apply(Batch batch) {
+		long now = System.currentTimeMillis();
+		lastSeen.put(batch.origin, now);
+		if (batch.deltas.isEmpty()) {
+			return;
+		}
+		lastReplicationLag = Math.max(now - batch.sentTime, 0);
+		for (ClusterDelta each : batch.deltas) {
+			receivedDeltas.incrementAndGet();
+			advanceClock(each.getVersion());
+			if (!accept(each)) {
+				staleDeltas.incrementAndGet();
+				continue;
+			}
+			ClusterCacheReplicator replicator = replicators.get(each.getCacheName());
+			if (replicator != null) {
+				try {
+					replicator.apply(each);
+					appliedDeltas.incrementAndGet();
+				} catch (Exception e) {
+					LOGGER.error("Error while applying {} : {}", each, e.getMessage());
+				}
+			}
+		}
+	}
+
+	private void advanceClock(long version) {
+		long current;
+		while ((current = clock.get()) < version) {
+			if (clock.compareAndSet(current, version)) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Remember the given delta if it's newer than the last change on the same entry.
+	 *
+	 * @param delta delta
+	 * @return false if a newer change was already made on the entry
+	 */
+	private boolean accept(ClusterDelta delta) {
+		if (delta.getKey() == null) {
+			forgetAll(delta.getCacheName());
+			return true;
+		}
+		List<Object> entry = Arrays.<Object>asList(delta.getCacheName(), delta.getKey());
+		synchronized (lastDeltas) {
+			ClusterDelta last = lastDeltas.get(entry);
+			if (last != null && !delta.isNewerThan(last)) {
+				return false;
+			}
+			lastDeltas.put(entry, delta);
+			return true;
+		}
+	}
+
+	/**
+	 * Forget the last change of the entry which is evicted or expired in this node.
+	 *
+	 * @param cacheName cache name
+	 * @param key       key
+	 */
+	void forget(String cacheName, Object key) {
+		synchronized (lastDeltas) {
+			lastDeltas.remove(Arrays.<Object>asList(cacheName, key));
+		}
+	}
+
+	private void forgetAll(String cacheName) {
+		synchronized (lastDeltas) {
+			Iterator<List<Object>> iterator = lastDeltas.keySet().iterator();
+			while (iterator.hasNext()) {
+				if (cacheName.equals(iterator.next().get(0))) {
+					iterator.remove();
+				}
+			}
+		}
+	}
+
+	int getTrackedEntryCount() {
+		synchronized (lastDeltas) {
+			return lastDeltas.size();
+		}
+	}
+
+	/**
+	 * Get the members from which the batches arrived within the failure timeout.
+	 *
+	 * @return ids of the alive members
+	 */
+	public Set<String> getAliveMembers() {
+		long deadline = System.currentTimeMillis() - heartbeatInterval * FAILURE_TIMEOUT_FACTOR;
+		Set<String> alive = new TreeSet<String>();
+		for (Map.Entry<String, Long> each : lastSeen.entrySet()) {
+			if (each.getValue() >= deadline) {
+				alive.add(each.getKey());
+			}
+		}
+		return alive;
+	}
+
+	/**
+	 * Get the count of the changes which are not sent to the peers yet.
+	 *
+	 * @return pending delta count
+	 */
+	public int getPendingDeltaCount() {
+		int count = 0;
+		for (Peer each : peers.values()) {
+			count += each.getPendingCount();
+		}
+		return count;
+	}
+
+	public long getSentDeltaCount() {
+		return sentDeltas.get();
+	}
+
+	public long getSentBatchCount() {
+		return sentBatches.get();
+	}
+
+	public long getReceivedDeltaCount() {
+		return receivedDeltas.get();
+	}
+
+	public long getAppliedDeltaCount() {
+		return appliedDeltas.get();
+	}
+
+	public long getStaleDeltaCount() {
+		return staleDeltas.get();
+	}
+
+	/**
+	 * Get the milliseconds between sending and receiving the last batch. It depends on the clock
+	 * synchronization between the controllers.
+	 *
+	 * @return milliseconds
+	 */
+	public long getLastReplicationLag() {
+		return lastReplicationLag;
+	}
+
+	/**
+	 * Get the membership and convergence statistics.
+	 *
+	 * @return statistics map
+	 */
+	public Map<String, Object> getStatistics() {
+		Map<String, Object> stat = new LinkedHashMap<String, Object>();
+		stat.put("id", id);
+		stat.put("peers", new TreeSet<String>(peers.keySet()));
+		stat.put("aliveMembers", getAliveMembers());
+		stat.put("pendingDeltas", getPendingDeltaCount());
+		stat.put("sentDeltas", getSentDeltaCount());
+		stat.put("sentBatches", getSentBatchCount());
+		stat.put("receivedDeltas", getReceivedDeltaCount());
+		stat.put("appliedDeltas", getAppliedDeltaCount());
+		stat.put("staleDeltas", getStaleDeltaCount());
+		stat.put("lastReplicationLag", getLastReplicationLag());
+		return stat;
+	}
+
+	/**
+	 * Changes sent at once.
+	 */
+	static final class Batch implements Serializable {
+		private static final long serialVersionUID = 1L;
+		private final String origin;
+		private final long sentTime;
+		private final List<ClusterDelta> deltas;
+
+		Batch(String origin, long sentTime, List<ClusterDelta> deltas) {
+			this.origin = origin;
+			this.sentTime = sentTime;
+			this.deltas = deltas;
+		}
+	}
+
+	/**
+	 * Sends the batches to a peer. It's called by one thread at a time.
+	 */
+	interface BatchSender {
+		/**
+		 * Send the batch.
+		 *
+		 * @param batch batch
+		 * @throws IOException if the peer is not reachable
+		 */
+		void send(Batch batch) throws IOException;
+
+		/**
+		 * Close the connection. The next batch opens it again.
+		 */
+		void close();
+	}
+
+	/**
+	 * Input stream which deserializes only the batches and the classes of the cached models.
+	 */
+	static final class BatchInputStream extends ObjectInputStream {
+		BatchInputStream(InputStream in) throws IOException {
+			super(in);
+		}
+
+		@Override
+		protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+			if (!isAllowedClass(desc.getName())) {
+				throw new InvalidClassException(desc.getName(), "not allowed in the cluster replication");
+			}
+			return super.resolveClass(desc);
+		}
+
+		@Override
+		protected Class<?> resolveProxyClass(String[] interfaces) throws IOException, ClassNotFoundException {
+			throw new InvalidClassException("proxy", "not allowed in the cluster replication");
+		}
+
+		static boolean isAllowedClass(String name) {
+			String className = name;
+			if (className.startsWith("[")) {
+				className = className.replaceFirst("^\\[+", "");
+				if (!className.startsWith("L")) {
+					// array of the primitive type
+					return className.length() == 1;
+				}
+				className = className.substring(1, className.length() - 1);
+			}
+			for (String each : ALLOWED_PACKAGES) {
+				if (className.startsWith(each)) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * Outbound TCP connection to a peer.
+	 */
+	private final class SocketSender implements BatchSender {
+		private final InetSocketAddress address;
+		private Socket socket;
+		private ObjectOutputStream out;
+		private long nextConnectTime;
+
+		private SocketSender(InetSocketAddress address) {
+			this.address = address;
+		}
+
+		@Override
+		public void send(Batch batch) throws IOException {
+			connect(batch.sentTime);
+			out.writeObject(batch);
+			out.flush();
+			out.reset();
+		}
+
+		private void connect(long now) throws IOException {
+			if (out != null) {
+				return;
+			}
+			if (now < nextConnectTime) {
+				throw new IOException("Waiting for reconnection");
+			}
+			nextConnectTime = now + heartbeatInterval;
+			Socket newSocket = new Socket();
+			try {
+				newSocket.setTcpNoDelay(true);
+				newSocket.connect(address, CONNECT_TIMEOUT);
+				out = new ObjectOutputStream(new BufferedOutputStream(newSocket.getOutputStream()));
+				socket = newSocket;
+			} catch (IOException e) {
+				IOUtils.closeQuietly(newSocket);
+				throw e;
+			}
+		}
+
+		@Override
+		public void close() {
+			IOUtils.closeQuietly(out);
+			IOUtils.closeQuietly(socket);
+			out = null;
+			socket = null;
+		}
+	}
+
+	/**
+	 * Queued changes to a peer and its sender thread.
+	 */
+	private final class Peer implements Runnable {
+		private final String peerId;
+		private final BatchSender sender;
+		private final Map<List<Object>, ClusterDelta> pending = new LinkedHashMap<List<Object>, ClusterDelta>();
+		private long lastSentTime;
+		private Thread thread;
+
+		private Peer(String peerId, BatchSender sender) {
+			this.peerId = peerId;
+			this.sender = sender;
+		}
+
+		void start() {
+			thread = new Thread(this, "cluster-sender-" + peerId);
+			thread.setDaemon(true);
+			thread.start();
+		}
+
+		void stop() {
+			if (thread != null) {
+				thread.interrupt();
+			}
+			close();
+		}
+
+		void enqueue(ClusterDelta delta) {
+			synchronized (pending) {
+				// Only the last change of each entry is sent.
+				List<Object> entry = Arrays.<Object>asList(delta.getCacheName(), delta.getKey());
+				pending.remove(entry);
+				pending.put(entry, delta);
+			}
+		}
+
+		int getPendingCount() {
+			synchronized (pending) {
+				return pending.size();
+			}
+		}
+
+		@Override
+		public void run() {
+			while (running) {
+				try {
+					Thread.sleep(replicationInterval);
+				} catch (InterruptedException e) {
+					break;
+				}
+				send();
+			}
+			close();
+		}
+
+		synchronized void send() {
+			List<ClusterDelta> deltas;
+			synchronized (pending) {
+				deltas = new ArrayList<ClusterDelta>(pending.values());
+				pending.clear();
+			}
+			long now = System.currentTimeMillis();
+			if (deltas.isEmpty() && now - lastSentTime < heartbeatInterval) {
+				return;
+			}
+			try {
+				sender.send(new Batch(id, now, deltas));
+				lastSentTime = now;
+				sentBatches.incrementAndGet();
+				sentDeltas.addAndGet(deltas.size());
+			} catch (IOException e) {
+				LOGGER.debug("Error while sending to the cluster peer {} : {}", peerId, e.getMessage());
+				sender.close();
+				requeue(deltas);
+			}
+		}
+
+		private void requeue(List<ClusterDelta> deltas) {
+			synchronized (pending) {
+				Map<List<Object>, ClusterDelta> newer = new LinkedHashMap<List<Object>, ClusterDelta>(pending);
+				pending.clear();
+				for (ClusterDelta each : deltas) {
+					pending.put(Arrays.<Object>asList(each.getCacheName(), each.getKey()), each);
+				}
+				for (Map.Entry<List<Object>, ClusterDelta> each : newer.entrySet()) {
+					pending.remove(each.getKey());
+					pending.put(each.getKey(), each.getValue());
+				}
+			}
+		}
+
+		private synchronized void close() {
+			sender.close();
+		}
+	}
+}
@@ -0,0 +1,4 @@
+/**
+ * package containing the embedded cluster membership and cache replication.
+ */
+package org.ngrinder.infra.cluster;
\ No newline at end of file
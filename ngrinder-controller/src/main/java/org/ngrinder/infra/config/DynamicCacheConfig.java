@@ -23,10 +23,13 @@ import net.sf.ehcache.config.ConfigurationFactory;
 import net.sf.ehcache.config.FactoryConfiguration;
 import net.sf.ehcache.distribution.RMICacheManagerPeerListenerFactory;
 import net.sf.ehcache.distribution.RMICacheManagerPeerProviderFactory;
+import net.sf.ehcache.util.PropertyUtil;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
 import org.ngrinder.common.constant.ClusterConstants;
 import org.ngrinder.common.util.Preconditions;
+import org.ngrinder.infra.cluster.ClusterCacheReplicator;
+import org.ngrinder.infra.cluster.ClusterNode;
 import org.ngrinder.infra.logger.CoreLogger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.ehcache.EhCacheCacheManager;
@@ -34,12 +37,16 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PreDestroy;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.InetAddress;
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
 
 import static org.ngrinder.common.util.TypeConvertUtils.cast;
 
@@ -55,9 +62,15 @@ import static org.ngrinder.common.util.TypeConvertUtils.cast;
 @Component
 public class DynamicCacheConfig implements ClusterConstants {
 
+	private static final String RMI_CACHE_REPLICATOR_FACTORY = "net.sf.ehcache.distribution.RMICacheReplicatorFactory";
+
+	private static final long CLUSTER_HEARTBEAT_INTERVAL = 1000;
+
 	@Autowired
 	private Config config;
 
+	private ClusterNode clusterNode;
+
 	/**
 	 * Create cache manager dynamically according to the configuration.
 	 *
@@ -68,6 +81,7 @@ public class DynamicCacheConfig implements ClusterConstants {
 	public EhCacheCacheManager dynamicCacheManager() {
 		EhCacheCacheManager cacheManager = new EhCacheCacheManager();
 		Configuration cacheManagerConfig;
+		Map<String, Properties> replicatedCaches = null;
 		InputStream inputStream = null;
 		try {
 			if (!isClustered()) {
@@ -77,14 +91,25 @@ public class DynamicCacheConfig implements ClusterConstants {
 				CoreLogger.LOGGER.info("In cluster mode.");
 				inputStream = new ClassPathResource("ehcache-dist.xml").getInputStream();
 				cacheManagerConfig = ConfigurationFactory.parseConfiguration(inputStream);
-				Pair<FactoryConfiguration, NetworkUtils.IPPortPair> result =
-						createRMICacheManagerPeerProviderFactory(cacheManagerConfig);
-				cacheManagerConfig.addCacheManagerPeerProviderFactory(result.getFirst());
-				cacheManagerConfig.addCacheManagerPeerListenerFactory(
-						createPearListenerFactory(result.getSecond().getIP(), result.getSecond().getPort()));
+				if (isEmbeddedReplication()) {
+					replicatedCaches = removeRMICacheReplicators(cacheManagerConfig);
+				} else {
+					Pair<FactoryConfiguration, NetworkUtils.IPPortPair> result =
+							createRMICacheManagerPeerProviderFactory(cacheManagerConfig);
+					cacheManagerConfig.addCacheManagerPeerProviderFactory(result.getFirst());
+					cacheManagerConfig.addCacheManagerPeerListenerFactory(
+							createPearListenerFactory(result.getSecond().getIP(), result.getSecond().getPort()));
+				}
 			}
 			cacheManagerConfig.setName(getCacheName());
 			CacheManager mgr = CacheManager.create(cacheManagerConfig);
+			if (replicatedCaches != null && clusterNode == null) {
+				clusterNode = createClusterNode();
+				for (Map.Entry<String, Properties> each : replicatedCaches.entrySet()) {
+					ClusterCacheReplicator.bind(clusterNode, mgr.getEhcache(each.getKey()), each.getValue());
+				}
+				clusterNode.start();
+			}
 			cacheManager.setCacheManager(mgr);
 
 		} catch (IOException e) {
@@ -99,6 +124,84 @@ public class DynamicCacheConfig implements ClusterConstants {
 		return config.isClustered();
 	}
 
+	/**
+	 * Check if the caches are replicated by the embedded {@link ClusterNode} instead of RMI. It's
+	 * used in the advanced cluster mode unless cluster.replication is rmi.
+	 *
+	 * @return true if embedded
+	 */
+	protected boolean isEmbeddedReplication() {
+		return StringUtils.equals(getClusterMode(), "advanced") && !StringUtils.equalsIgnoreCase(
+				config.getClusterProperties().getProperty(PROP_CLUSTER_REPLICATION), "rmi");
+	}
+
+	/**
+	 * Remove the RMI replicators from the cache configurations.
+	 *
+	 * @param cacheManagerConfig cache manager configuration
+	 * @return replication properties of each removed cache
+	 */
+	Map<String, Properties> removeRMICacheReplicators(Configuration cacheManagerConfig) {
+		Map<String, Properties> replicatedCaches = new LinkedHashMap<String, Properties>();
+		for (Map.Entry<String, CacheConfiguration> eachConfig : cacheManagerConfig.getCacheConfigurations()
+				.entrySet()) {
+			List<CacheEventListenerFactoryConfiguration> list = cast(eachConfig.getValue()
+					.getCacheEventListenerConfigurations());
+			Iterator<CacheEventListenerFactoryConfiguration> iterator = list.iterator();
+			while (iterator.hasNext()) {
+				CacheEventListenerFactoryConfiguration each = iterator.next();
+				if (each.getFullyQualifiedClassPath().equals(RMI_CACHE_REPLICATOR_FACTORY)) {
+					Properties properties = PropertyUtil.parseProperties(each.getProperties(),
+							each.getPropertySeparator());
+					replicatedCaches.put(eachConfig.getKey(), properties == null ? new Properties() : properties);
+					iterator.remove();
+				}
+			}
+		}
+		return replicatedCaches;
+	}
+
+	private ClusterNode createClusterNode() throws IOException {
+		int clusterPort = getClusterPort();
+		NetworkUtils.IPPortPair local = null;
+		List<NetworkUtils.IPPortPair> peers = new ArrayList<NetworkUtils.IPPortPair>();
+		for (String ip : getClusterURIs()) {
+			NetworkUtils.IPPortPair ipAndPortPair = NetworkUtils.convertIPAndPortPair(ip, clusterPort);
+			if (ipAndPortPair.isLocalHost() && ipAndPortPair.getPort() == clusterPort) {
+				local = ipAndPortPair;
+			} else {
+				peers.add(ipAndPortPair);
+			}
+		}
+		Preconditions.checkNotNull(local, "localhost ip does not exists in the cluster uris");
+		ClusterNode node = new ClusterNode(local.getIP(), local.getPort(),
+				config.getClusterProperties().getPropertyInt(PROP_CLUSTER_REPLICATION_INTERVAL),
+				CLUSTER_HEARTBEAT_INTERVAL);
+		for (NetworkUtils.IPPortPair each : peers) {
+			node.addPeer(each.getIP(), each.getPort());
+		}
+		return node;
+	}
+
+	/**
+	 * Get the embedded cluster node.
+	 *
+	 * @return {@link ClusterNode}. null if the embedded replication is not used.
+	 */
+	public ClusterNode getClusterNode() {
+		return clusterNode;
+	}
+
+	/**
+	 * Stop the embedded cluster node.
+	 */
+	@PreDestroy
+	public void destroy() {
+		if (clusterNode != null) {
+			clusterNode.shutdown();
+		}
+	}
+
 	private Pair<FactoryConfiguration, NetworkUtils.IPPortPair> createRMICacheManagerPeerProviderFactory
 			(Configuration cacheManagerConfig) {
 		FactoryConfiguration peerProviderConfig = new FactoryConfiguration();
@@ -203,7 +306,7 @@ public class DynamicCacheConfig implements ClusterConstants {
 			List<CacheEventListenerFactoryConfiguration> list = cast(eachConfig.getValue()
 					.getCacheEventListenerConfigurations());
 			for (CacheEventListenerFactoryConfiguration each : list) {
-				if (each.getFullyQualifiedClassPath().equals("net.sf.ehcache.distribution.RMICacheReplicatorFactory")) {
+				if (each.getFullyQualifiedClassPath().equals(RMI_CACHE_REPLICATOR_FACTORY)) {
 					replicatedCacheNames.add(eachConfig.getKey());
 				}
 			}
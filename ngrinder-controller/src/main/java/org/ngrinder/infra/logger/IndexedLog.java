@@ -0,0 +1,567 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ngrinder.infra.logger;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.ByteArrayOutputStream;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Log which can be paged, searched and tailed by line range without loading it whole.
+ *
+ * The log is split into blocks of about {@link #BLOCK_SIZE} bytes at the line boundaries. Each
+ * block keeps its first line number, its line count and a bloom filter of the trigrams in its
+ * lines. So a line range reads only the blocks covering it and a search skips the blocks which
+ * can not contain the keyword.
+ *
+ * A plain log file such as ngrinder.log is indexed in place and the index is extended by
+ * {@link #refresh()} as the file grows. A zipped log such as the agent log is converted once into
+ * a file of deflated blocks with the index file next to it.
+ *
+ * @author JunHo Yoon
+ * @since 3.4.1
+ */
+public class IndexedLog {
+	static final int BLOCK_SIZE = 64 * 1024;
+	private static final int BLOOM_BITS = 8192;
+	private static final int BLOOM_SHIFT = 32 - 13;
+	private static final int INDEX_MAGIC = 0x4E474C49;
+	private static final int INDEX_VERSION = 1;
+
+	private final File dataFile;
+	private final boolean compressed;
+	private final Charset charset = Charset.defaultCharset();
+
+	private volatile List<Block> blocks = Collections.emptyList();
+
+	// Only for the plain log. The blocks before the sealed length are not changed anymore.
+	private final List<Block> sealedBlocks = new ArrayList<Block>();
+	private long sealedLength = 0;
+	private Object sealedIdentity;
+
+	private IndexedLog(File dataFile, boolean compressed) {
+		this.dataFile = dataFile;
+		this.compressed = compressed;
+	}
+
+	/**
+	 * Index the given plain log file.
+	 *
+	 * @param file log file
+	 * @return indexed log
+	 */
+	public static IndexedLog plain(File file) {
+		IndexedLog log = new IndexedLog(file, false);
+		log.refresh();
+		return log;
+	}
+
+	/**
+	 * Convert the given log into the compressed blocks in the given directory. If it was already
+	 * converted after the log is modified, the existing blocks are used.
+	 *
+	 * @param source         log file. If it's a zip file, all entries are concatenated.
+	 * @param indexDirectory directory in which the blocks and the index are stored
+	 * @return indexed log
+	 * @throws IOException if the log can not be read or written
+	 */
+	public static IndexedLog compressed(File source, File indexDirectory) throws IOException {
+		IndexedLog log = new IndexedLog(new File(indexDirectory, source.getName() + ".blocks"), true);
+		File indexFile = new File(indexDirectory, source.getName() + ".idx");
+		if (!log.load(indexFile, source)) {
+			FileUtils.forceMkdir(indexDirectory);
+			log.build(source, indexFile);
+		}
+		return log;
+	}
+
+	/**
+	 * Index the lines appended since the last refresh. It's only meaningful for the plain log.
+	 */
+	public synchronized void refresh() {
+		if (compressed) {
+			return;
+		}
+		long length = dataFile.length();
+		Object identity = getIdentity(dataFile);
+		if (length < sealedLength || (identity != null && !identity.equals(sealedIdentity))) {
+			// The log is rolled or recreated.
+			sealedBlocks.clear();
+			sealedLength = 0;
+		}
+		sealedIdentity = identity;
+		List<Block> result = new ArrayList<Block>(sealedBlocks);
+		if (length > sealedLength) {
+			RandomAccessFile file = null;
+			try {
+				file = new RandomAccessFile(dataFile, "r");
+				file.seek(sealedLength);
+				BlockScanner scanner = new BlockScanner(getNextLine(sealedBlocks)) {
+					@Override
+					Block seal(byte[] raw, int rawLength, long firstLine, int lineCount, long[] bloom) {
+						Block block = new Block(firstLine, lineCount, sealedLength, rawLength, rawLength, bloom);
+						sealedLength += rawLength;
+						sealedBlocks.add(block);
+						return block;
+					}
+				};
+				byte[] buffer = new byte[8192];
+				long remaining = length - sealedLength;
+				int count;
+				while (remaining > 0 && (count = file.read(buffer, 0, (int) Math.min(buffer.length, remaining))) != -1) {
+					scanner.feed(buffer, count);
+					remaining -= count;
+				}
+				result = new ArrayList<Block>(sealedBlocks);
+				// The last block is not sealed because more lines can be appended to it.
+				Block last = scanner.toBlock(sealedLength);
+				if (last != null) {
+					result.add(last);
+				}
+			} catch (IOException e) {
+				CoreLogger.LOGGER.error("Error while indexing {} : {}", dataFile, e.getMessage());
+			} finally {
+				IOUtils.closeQuietly(file);
+			}
+		}
+		blocks = Collections.unmodifiableList(result);
+	}
+
+	/**
+	 * Get what identifies the file even when a new file of the same name grows past the old
+	 * length. It's the file key such as the inode or the creation time if there is no file key.
+	 */
+	private static Object getIdentity(File file) {
+		try {
+			BasicFileAttributes attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+			return attributes.fileKey() != null ? attributes.fileKey() : attributes.creationTime();
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	private static long getNextLine(List<Block> blocks) {
+		if (blocks.isEmpty()) {
+			return 0;
+		}
+		Block last = blocks.get(blocks.size() - 1);
+		return last.firstLine + last.lineCount;
+	}
+
+	private void build(File source, File indexFile) throws IOException {
+		File tempDataFile = new File(dataFile.getPath() + ".tmp");
+		File tempIndexFile = new File(indexFile.getPath() + ".tmp");
+		final List<Block> result = new ArrayList<Block>();
+		final OutputStream output = new BufferedOutputStream(new FileOutputStream(tempDataFile));
+		final Deflater deflater = new Deflater();
+		InputStream input = null;
+		try {
+			BlockScanner scanner = new BlockScanner(0) {
+				private final byte[] buffer = new byte[8192];
+				private long offset = 0;
+
+				@Override
+				Block seal(byte[] raw, int rawLength, long firstLine, int lineCount, long[] bloom) {
+					deflater.reset();
+					deflater.setInput(raw, 0, rawLength);
+					deflater.finish();
+					int length = 0;
+					try {
+						while (!deflater.finished()) {
+							int count = deflater.deflate(buffer);
+							output.write(buffer, 0, count);
+							length += count;
+						}
+					} catch (IOException e) {
+						throw new IllegalStateException(e);
+					}
+					Block block = new Block(firstLine, lineCount, offset, length, rawLength, bloom);
+					offset += length;
+					result.add(block);
+					return block;
+				}
+			};
+			byte[] buffer = new byte[8192];
+			int count;
+			if (FilenameUtils.isExtension(source.getName(), "zip")) {
+				ZipInputStream zipInputStream = new ZipInputStream(new FileInputStream(source));
+				input = zipInputStream;
+				while (zipInputStream.getNextEntry() != null) {
+					while ((count = zipInputStream.read(buffer)) != -1) {
+						scanner.feed(buffer, count);
+					}
+					scanner.endLine();
+				}
+			} else {
+				input = new FileInputStream(source);
+				while ((count = input.read(buffer)) != -1) {
+					scanner.feed(buffer, count);
+				}
+				scanner.endLine();
+			}
+			scanner.sealRemaining();
+		} catch (IllegalStateException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			throw e;
+		} finally {
+			deflater.end();
+			IOUtils.closeQuietly(input);
+			IOUtils.closeQuietly(output);
+		}
+		writeIndex(tempIndexFile, source, result);
+		FileUtils.deleteQuietly(dataFile);
+		FileUtils.deleteQuietly(indexFile);
+		FileUtils.moveFile(tempDataFile, dataFile);
+		FileUtils.moveFile(tempIndexFile, indexFile);
+		blocks = Collections.unmodifiableList(result);
+	}
+
+	private void writeIndex(File indexFile, File source, List<Block> blocks) throws IOException {
+		DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexFile)));
+		try {
+			output.writeInt(INDEX_MAGIC);
+			output.writeInt(INDEX_VERSION);
+			output.writeLong(source.lastModified());
+			output.writeLong(source.length());
+			output.writeInt(blocks.size());
+			for (Block each : blocks) {
+				output.writeLong(each.firstLine);
+				output.writeInt(each.lineCount);
+				output.writeLong(each.offset);
+				output.writeInt(each.length);
+				output.writeInt(each.rawLength);
+				for (long bits : each.bloom) {
+					output.writeLong(bits);
+				}
+			}
+		} finally {
+			IOUtils.closeQuietly(output);
+		}
+	}
+
+	private boolean load(File indexFile, File source) {
+		if (!indexFile.exists() || !dataFile.exists()) {
+			return false;
+		}
+		DataInputStream input = null;
+		try {
+			input = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)));
+			if (input.readInt() != INDEX_MAGIC || input.readInt() != INDEX_VERSION
+					|| input.readLong() != source.lastModified() || input.readLong() != source.length()) {
+				return false;
+			}
+			int blockCount = input.readInt();
+			List<Block> result = new ArrayList<Block>(blockCount);
+			for (int i = 0; i < blockCount; i++) {
+				long firstLine = input.readLong();
+				int lineCount = input.readInt();
+				long offset = input.readLong();
+				int length = input.readInt();
+				int rawLength = input.readInt();
+				long[] bloom = new long[BLOOM_BITS / 64];
+				for (int j = 0; j < bloom.length; j++) {
+					bloom[j] = input.readLong();
+				}
+				result.add(new Block(firstLine, lineCount, offset, length, rawLength, bloom));
+			}
+			blocks = Collections.unmodifiableList(result);
+			return true;
+		} catch (IOException e) {
+			CoreLogger.LOGGER.info("The log index {} is rebuilt because it can not be read. {}", indexFile,
+					e.getMessage());
+			return false;
+		} finally {
+			IOUtils.closeQuietly(input);
+		}
+	}
+
+	/**
+	 * Get the count of the indexed lines.
+	 *
+	 * @return line count
+	 */
+	public long getLineCount() {
+		return getNextLine(blocks);
+	}
+
+	/**
+	 * Get the lines in the given range.
+	 *
+	 * @param fromLine first line number starting from 0
+	 * @param count    max count of the lines
+	 * @return lines
+	 * @throws IOException if the log can not be read
+	 */
+	public List<Line> getLines(long fromLine, int count) throws IOException {
+		List<Line> result = new ArrayList<Line>();
+		List<Block> current = blocks;
+		for (int i = findBlock(current, fromLine); i < current.size() && result.size() < count; i++) {
+			Block block = current.get(i);
+			List<String> lines = readLines(block);
+			for (int j = (int) Math.max(fromLine - block.firstLine, 0); j < lines.size() && result.size() < count; j++) {
+				result.add(new Line(block.firstLine + j, lines.get(j)));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Get the last lines.
+	 *
+	 * @param count max count of the lines
+	 * @return lines
+	 * @throws IOException if the log can not be read
+	 */
+	public List<Line> tail(int count) throws IOException {
+		return getLines(Math.max(getLineCount() - count, 0), count);
+	}
+
+	/**
+	 * Search the lines containing the given keyword ignoring the case.
+	 *
+	 * @param keyword  keyword
+	 * @param fromLine line number from which the search starts
+	 * @param count    max count of the found lines
+	 * @return found lines
+	 * @throws IOException if the log can not be read
+	 */
+	public List<Line> search(String keyword, long fromLine, int count) throws IOException {
+		List<Line> result = new ArrayList<Line>();
+		String lowerKeyword = keyword.toLowerCase(Locale.ENGLISH);
+		long[] query = new long[BLOOM_BITS / 64];
+		addTrigrams(query, lowerKeyword);
+		List<Block> current = blocks;
+		for (int i = findBlock(current, fromLine); i < current.size() && result.size() < count; i++) {
+			Block block = current.get(i);
+			if (!block.mightContain(query)) {
+				continue;
+			}
+			List<String> lines = readLines(block);
+			for (int j = (int) Math.max(fromLine - block.firstLine, 0); j < lines.size() && result.size() < count; j++) {
+				if (lines.get(j).toLowerCase(Locale.ENGLISH).contains(lowerKeyword)) {
+					result.add(new Line(block.firstLine + j, lines.get(j)));
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Get the index of the block containing the given line.
+	 */
+	private static int findBlock(List<Block> blocks, long line) {
+		int low = 0;
+		int high = blocks.size() - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			Block block = blocks.get(mid);
+			if (block.firstLine + block.lineCount <= line) {
+				low = mid + 1;
+			} else if (block.firstLine > line) {
+				high = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+		return low;
+	}
+
+	private List<String> readLines(Block block) throws IOException {
+		byte[] stored = new byte[block.length];
+		RandomAccessFile file = new RandomAccessFile(dataFile, "r");
+		try {
+			file.seek(block.offset);
+			file.readFully(stored);
+		} finally {
+			IOUtils.closeQuietly(file);
+		}
+		byte[] raw = stored;
+		if (compressed) {
+			raw = new byte[block.rawLength];
+			Inflater inflater = new Inflater();
+			try {
+				inflater.setInput(stored);
+				inflater.inflate(raw);
+			} catch (DataFormatException e) {
+				throw new IOException("The log block is broken. " + e.getMessage());
+			} finally {
+				inflater.end();
+			}
+		}
+		List<String> lines = new ArrayList<String>(block.lineCount);
+		int start = 0;
+		for (int i = 0; i < block.rawLength; i++) {
+			if (raw[i] == '\n') {
+				int end = (i > start && raw[i - 1] == '\r') ? i - 1 : i;
+				lines.add(new String(raw, start, end - start, charset));
+				start = i + 1;
+			}
+		}
+		return lines;
+	}
+
+	private static void addTrigrams(long[] bloom, String lowerText) {
+		for (int i = 0; i + 3 <= lowerText.length(); i++) {
+			int hash = (lowerText.charAt(i) * 31 + lowerText.charAt(i + 1)) * 31 + lowerText.charAt(i + 2);
+			int first = (hash * 0x9E3779B1) >>> BLOOM_SHIFT;
+			int second = ((hash ^ (hash >>> 16)) * 0x85EBCA6B) >>> BLOOM_SHIFT;
+			bloom[first >>> 6] |= 1L << first;
+			bloom[second >>> 6] |= 1L << second;
+		}
+	}
+
+	/**
+	 * Line of the log.
+	 */
+	public static class Line {
+		private final long line;
+		private final String text;
+
+		public Line(long line, String text) {
+			this.line = line;
+			this.text = text;
+		}
+
+		public long getLine() {
+			return line;
+		}
+
+		public String getText() {
+			return text;
+		}
+	}
+
+	/**
+	 * Lines stored together.
+	 */
+	private static class Block {
+		private final long firstLine;
+		private final int lineCount;
+		private final long offset;
+		private final int length;
+		private final int rawLength;
+		private final long[] bloom;
+
+		Block(long firstLine, int lineCount, long offset, int length, int rawLength, long[] bloom) {
+			this.firstLine = firstLine;
+			this.lineCount = lineCount;
+			this.offset = offset;
+			this.length = length;
+			this.rawLength = rawLength;
+			this.bloom = bloom;
+		}
+
+		boolean mightContain(long[] query) {
+			for (int i = 0; i < query.length; i++) {
+				if ((bloom[i] & query[i]) != query[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * Split the fed bytes into the lines and seal them into a block whenever the block is full.
+	 */
+	private abstract class BlockScanner {
+		private final ByteArrayOutputStream blockBytes = new ByteArrayOutputStream(BLOCK_SIZE + 1024);
+		private final ByteArrayOutputStream lineBytes = new ByteArrayOutputStream(256);
+		private long[] bloom = new long[BLOOM_BITS / 64];
+		private long firstLine;
+		private int lineCount = 0;
+
+		BlockScanner(long firstLine) {
+			this.firstLine = firstLine;
+		}
+
+		void feed(byte[] buffer, int count) {
+			int start = 0;
+			for (int i = 0; i < count; i++) {
+				if (buffer[i] == '\n') {
+					lineBytes.write(buffer, start, i - start + 1);
+					start = i + 1;
+					completeLine();
+				}
+			}
+			lineBytes.write(buffer, start, count - start);
+		}
+
+		/**
+		 * Complete the current line if it doesn't end with a new line.
+		 */
+		void endLine() {
+			if (lineBytes.size() > 0) {
+				lineBytes.write('\n');
+				completeLine();
+			}
+		}
+
+		private void completeLine() {
+			byte[] line = lineBytes.toByteArray();
+			lineBytes.reset();
+			addTrigrams(bloom, new String(line, charset).toLowerCase(Locale.ENGLISH));
+			blockBytes.write(line, 0, line.length);
+			lineCount++;
+			if (blockBytes.size() >= BLOCK_SIZE) {
+				sealRemaining();
+			}
+		}
+
+		/**
+		 * Seal the complete lines which are not sealed yet.
+		 */
+		void sealRemaining() {
+			if (lineCount == 0) {
+				return;
+			}
+			seal(blockBytes.toByteArray(), blockBytes.size(), firstLine, lineCount, bloom);
+			firstLine += lineCount;
+			lineCount = 0;
+			blockBytes.reset();
+			bloom = new long[BLOOM_BITS / 64];
+		}
+
+		/**
+		 * Get the block of the complete lines which are not sealed yet.
+		 *
+		 * @param offset offset of the block
+		 * @return block. null if there is no such line.
+		 */
+		Block toBlock(long offset) {
+			if (lineCount == 0) {
+				return null;
+			}
+			return new Block(firstLine, lineCount, offset, blockBytes.size(), blockBytes.size(), bloom.clone());
+		}
+
+		abstract Block seal(byte[] raw, int rawLength, long firstLine, int lineCount, long[] bloom);
+	}
+}
@@ -0,0 +1,127 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ngrinder.infra.logger;
+
+import org.apache.commons.io.FilenameUtils;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Keeps the recently opened {@link IndexedLog}s so that the index is not built again for each
+ * page or search request.
+ *
+ * A log is indexed by the first request for it without holding the store lock. The other requests
+ * for the same log wait for it and the requests for the other logs are not blocked.
+ *
+ * @author JunHo Yoon
+ * @since 3.4.1
+ */
+@Component
+public class IndexedLogStore {
+
+	/**
+	 * Directory name in which the compressed blocks of the zipped logs are stored. It's placed
+	 * next to the zipped log.
+	 */
+	public static final String INDEX_DIRECTORY = ".index";
+
+	private static final int MAX_OPENED_LOGS = 32;
+
+	private final Map<String, FutureTask<IndexedLog>> logs = new LinkedHashMap<String, FutureTask<IndexedLog>>(16,
+			0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, FutureTask<IndexedLog>> eldest) {
+			return size() > MAX_OPENED_LOGS;
+		}
+	};
+
+	private final Map<String, Long> lastModified = new LinkedHashMap<String, Long>();
+
+	/**
+	 * Get the indexed log of the given file. The plain log is refreshed to the current end of
+	 * the file and the zipped log is converted into the compressed blocks at first.
+	 *
+	 * @param file log file
+	 * @return indexed log
+	 * @throws IOException if the log can not be indexed
+	 */
+	public IndexedLog get(final File file) throws IOException {
+		String key = file.getAbsolutePath();
+		FutureTask<IndexedLog> task;
+		boolean created = false;
+		synchronized (logs) {
+			task = logs.get(key);
+			Long modified = lastModified.get(key);
+			// The zipped log being converted is used until the conversion ends.
+			if (task != null && task.isDone() && isZip(file)
+					&& (modified == null || modified != file.lastModified())) {
+				task = null;
+			}
+			if (task == null) {
+				task = new FutureTask<IndexedLog>(new Callable<IndexedLog>() {
+					@Override
+					public IndexedLog call() throws IOException {
+						return isZip(file) ? IndexedLog.compressed(file, new File(file.getParentFile(),
+								INDEX_DIRECTORY)) : IndexedLog.plain(file);
+					}
+				});
+				logs.put(key, task);
+				lastModified.keySet().retainAll(logs.keySet());
+				lastModified.put(key, file.lastModified());
+				created = true;
+			}
+		}
+		if (created) {
+			task.run();
+		}
+		IndexedLog log = getIndexedLog(key, task);
+		if (!created) {
+			log.refresh();
+		}
+		return log;
+	}
+
+	private IndexedLog getIndexedLog(String key, FutureTask<IndexedLog> task) throws IOException {
+		try {
+			return task.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while indexing " + key);
+		} catch (ExecutionException e) {
+			synchronized (logs) {
+				// The failure is not kept so that the next request tries again.
+				if (logs.get(key) == task) {
+					logs.remove(key);
+				}
+			}
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			} else if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IOException(e.getCause());
+		}
+	}
+
+	private boolean isZip(File file) {
+		return FilenameUtils.isExtension(file.getName(), "zip");
+	}
+}
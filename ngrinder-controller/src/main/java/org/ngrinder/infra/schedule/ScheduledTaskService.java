@@ -13,13 +13,20 @@
  */
 package org.ngrinder.infra.schedule;
 
+import org.apache.commons.lang.StringUtils;
+import org.ngrinder.common.metrics.Counter;
+import org.ngrinder.common.metrics.Gauge;
+import org.ngrinder.common.metrics.Histogram;
+import org.ngrinder.common.metrics.MetricRegistry;
 import org.ngrinder.infra.transaction.TransactionService;
 import org.ngrinder.service.IScheduledTaskService;
 import org.springframework.beans.factory.BeanCreationNotAllowedException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledFuture;
@@ -35,6 +42,11 @@ import static net.grinder.util.NoOp.noOp;
 @Service
 public class ScheduledTaskService implements IScheduledTaskService {
 
+	private static final Histogram TASK_DURATION = MetricRegistry.getDefault().histogram(
+			"ngrinder_scheduled_task_duration_seconds", "Time taken by each run of the scheduled tasks.", "task");
+	private static final Counter TASK_ERRORS = MetricRegistry.getDefault().counter(
+			"ngrinder_scheduled_task_errors_total", "Runs of the scheduled tasks which threw an exception.", "task");
+
 	@Autowired
 	private TaskScheduler taskScheduler;
 
@@ -46,8 +58,60 @@ public class ScheduledTaskService implements IScheduledTaskService {
 	@Autowired
 	private TransactionService transactionService;
 
+	@PostConstruct
+	public void init() {
+		Gauge gauge = MetricRegistry.getDefault().gauge("ngrinder_scheduler",
+				"Scheduled tasks and the state of the scheduler pool.", "state");
+		gauge.register(new Gauge.Source() {
+			@Override
+			public double get() {
+				return scheduledRunnable.size();
+			}
+		}, "registered_tasks");
+		if (taskScheduler instanceof ThreadPoolTaskScheduler) {
+			final ThreadPoolTaskScheduler threadPoolTaskScheduler = (ThreadPoolTaskScheduler) taskScheduler;
+			gauge.register(new Gauge.Source() {
+				@Override
+				public double get() {
+					return threadPoolTaskScheduler.getActiveCount();
+				}
+			}, "active_threads");
+			gauge.register(new Gauge.Source() {
+				@Override
+				public double get() {
+					return threadPoolTaskScheduler.getScheduledThreadPoolExecutor().getQueue().size();
+				}
+			}, "queued");
+		}
+	}
+
+	/**
+	 * Wrap the given task to measure each run of it.
+	 *
+	 * @param task     task whose class names the measurement
+	 * @param runnable runnable which runs the task
+	 * @return measured runnable
+	 */
+	private Runnable measure(Runnable task, final Runnable runnable) {
+		final String name = StringUtils.substringAfterLast("." + task.getClass().getName(), ".");
+		return new Runnable() {
+			@Override
+			public void run() {
+				long startNanos = System.nanoTime();
+				try {
+					runnable.run();
+				} catch (RuntimeException e) {
+					TASK_ERRORS.inc(name);
+					throw e;
+				} finally {
+					TASK_DURATION.observeSince(startNanos, name);
+				}
+			}
+		};
+	}
+
 	public void addFixedDelayedScheduledTask(Runnable runnable, int delay) {
-		final ScheduledFuture scheduledFuture = taskScheduler.scheduleWithFixedDelay(runnable, delay);
+		final ScheduledFuture scheduledFuture = taskScheduler.scheduleWithFixedDelay(measure(runnable, runnable), delay);
 		scheduledRunnable.put(runnable, scheduledFuture);
 	}
 
@@ -65,7 +129,8 @@ public class ScheduledTaskService implements IScheduledTaskService {
 				}
 			}
 		};
-		final ScheduledFuture scheduledFuture = taskScheduler.scheduleWithFixedDelay(transactionalRunnable, delay);
+		final ScheduledFuture scheduledFuture = taskScheduler.scheduleWithFixedDelay(measure(runnable,
+				transactionalRunnable), delay);
 		scheduledRunnable.put(runnable, scheduledFuture);
 	}
 
@@ -13,9 +13,12 @@
  */
 package org.ngrinder.operation.cotroller;
 
-import org.apache.commons.io.input.Tailer;
-import org.apache.commons.io.input.TailerListenerAdapter;
+import org.apache.commons.lang.StringUtils;
 import org.ngrinder.common.controller.BaseController;
+import org.ngrinder.infra.logger.CoreLogger;
+import org.ngrinder.infra.logger.IndexedLog;
+import org.ngrinder.infra.logger.IndexedLogStore;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
@@ -23,18 +26,19 @@ import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 
-import javax.annotation.PostConstruct;
-import javax.annotation.PreDestroy;
 import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
 
 import static org.ngrinder.common.util.CollectionUtils.buildMap;
 
 /**
  * Log monitor controller.
  *
- * This class runs with {@link Tailer} implementation. Whenever the underlying log file is changed. this class gets the
- * changes. and keep them(max 10000 byte) in the memory. Whenever user requests the log, it returns latest changes with
- * the index of the log.
+ * The log file is indexed by {@link IndexedLog}. Whenever user requests the log, the index is extended to the end of
+ * the file and only the requested lines are read. The latest log is returned by the page of {@link #PAGE_LINES} lines
+ * with the index of the page.
  *
  * This is only available in the non-clustered instance.
  *
@@ -45,59 +49,12 @@ import static org.ngrinder.common.util.CollectionUtils.buildMap;
 @PreAuthorize("hasAnyRole('A')")
 public class LogMonitorController extends BaseController {
 
-	private static final int LOGGER_BUFFER_SIZE = 10000;
+	private static final int PAGE_LINES = 50;
 
-	/**
-	 * Buffer to store the latest log.
-	 */
-	private volatile StringBuffer stringBuffer = new StringBuffer(LOGGER_BUFFER_SIZE);
+	private static final int MAX_LINES = 1000;
 
-	private Tailer tailer;
-
-	private long count = 0;
-	private long modification = 0;
-
-	/**
-	 * Initialize.
-	 */
-	@PostConstruct
-	public void init() {
-		if (!isClustered()) {
-			initTailer();
-		}
-	}
-
-	/**
-	 * Initialize the {@link Tailer}.
-	 */
-	private synchronized void initTailer() {
-		File logFile = getLogFile();
-		if (tailer != null) {
-			tailer.stop();
-		}
-		tailer = Tailer.create(logFile, new TailerListenerAdapter() {
-			/**
-			 * Handles a line from a Tailer.
-			 *
-			 * @param line
-			 *            the line.
-			 */
-			public void handle(String line) {
-				synchronized (this) {
-					if (stringBuffer.length() + line.length() > 5000) {
-						count++;
-						modification = 0;
-						stringBuffer = new StringBuffer();
-					}
-					modification++;
-					if (stringBuffer.length() > 0) {
-						stringBuffer.append("<br>");
-					}
-					stringBuffer.append(line.replace("\n", "<br>"));
-				}
-			}
-		}, 1000, true);
-	}
+	@Autowired
+	private IndexedLogStore indexedLogStore;
 
 	/**
 	 * Get the log file.
@@ -109,13 +66,20 @@ public class LogMonitorController extends BaseController {
 		return new File(getConfig().getHome().getGlobalLogFile(), logFileName);
 	}
 
-	/**
-	 * Finalize bean.
-	 */
-	@PreDestroy
-	public void destroy() {
-		if (!isClustered()) {
-			tailer.stop();
+	private List<IndexedLog.Line> readLines(long from, int count, String keyword) {
+		if (isClustered()) {
+			return Collections.emptyList();
+		}
+		try {
+			IndexedLog log = indexedLogStore.get(getLogFile());
+			count = Math.min(count, MAX_LINES);
+			if (StringUtils.isNotEmpty(keyword)) {
+				return log.search(keyword, Math.max(from, 0), count);
+			}
+			return from < 0 ? log.tail(count) : log.getLines(from, count);
+		} catch (IOException e) {
+			CoreLogger.LOGGER.error("Error while reading {} : {}", getLogFile(), e.getMessage());
+			return Collections.emptyList();
 		}
 	}
 
@@ -138,7 +102,32 @@ public class LogMonitorController extends BaseController {
 	 */
 	@RequestMapping("/last")
 	public HttpEntity<String> getLast() {
-		return toJsonHttpEntity(buildMap("index", count, "modification", modification, "log", stringBuffer));
+		List<IndexedLog.Line> lines = readLines(-1, 1, null);
+		long index = lines.isEmpty() ? 0 : lines.get(0).getLine() / PAGE_LINES;
+		lines = readLines(index * PAGE_LINES, PAGE_LINES, null);
+		StringBuilder log = new StringBuilder();
+		for (IndexedLog.Line each : lines) {
+			if (log.length() > 0) {
+				log.append("<br>");
+			}
+			log.append(each.getText());
+		}
+		return toJsonHttpEntity(buildMap("index", index, "modification", lines.size(), "log", log.toString()));
+	}
+
+	/**
+	 * Get the log lines in the form of json.
+	 *
+	 * @param from    first line number. If it's negative, the last lines are returned.
+	 * @param count   max count of the lines
+	 * @param keyword if provided, only the lines containing it from the given line are returned.
+	 * @return lines json
+	 */
+	@RequestMapping("/lines")
+	public HttpEntity<String> getLines(@RequestParam(value = "from", defaultValue = "-1") long from,
+	                                   @RequestParam(value = "count", defaultValue = "100") int count,
+	                                   @RequestParam(value = "keyword", required = false) String keyword) {
+		return toJsonHttpEntity(buildMap("lines", readLines(from, count, keyword)));
 	}
 
 	/**
@@ -150,7 +139,6 @@ public class LogMonitorController extends BaseController {
 	@RequestMapping("/verbose")
 	public HttpEntity<String> enableVerbose(@RequestParam(value = "verbose", defaultValue = "false") Boolean verbose) {
 		getConfig().initLogger(verbose);
-		initTailer();
 		return toJsonHttpEntity(buildMap("success", true));
 	}
 
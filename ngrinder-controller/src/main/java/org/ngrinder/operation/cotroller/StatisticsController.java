@@ -18,14 +18,22 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 
+import net.grinder.console.model.SamplingScheduler;
 import org.apache.commons.dbcp.BasicDataSource;
 import org.ngrinder.common.constant.ControllerConstants;
 import org.ngrinder.common.controller.BaseController;
+import org.ngrinder.common.metrics.Gauge;
+import org.ngrinder.common.metrics.MetricRegistry;
 import org.ngrinder.infra.config.Config;
+import org.ngrinder.infra.config.DynamicCacheConfig;
+import org.ngrinder.perftest.service.PerfTestReportArchiver;
+import org.ngrinder.perftest.service.samplinglistener.SamplingPluginMonitor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
@@ -33,6 +41,8 @@ import org.springframework.web.bind.annotation.ResponseBody;
 
 import net.sf.ehcache.Statistics;
 
+import javax.annotation.PostConstruct;
+
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 
@@ -58,6 +68,50 @@ public class StatisticsController extends BaseController implements ControllerCo
 	@Autowired
 	BasicDataSource dataSource;
 
+	@Autowired
+	@Qualifier("dynamicCacheConfig")
+	private DynamicCacheConfig dynamicCacheConfig;
+
+	@Autowired
+	private SamplingPluginMonitor samplingPluginMonitor;
+
+	@Autowired
+	private PerfTestReportArchiver perfTestReportArchiver;
+
+	/**
+	 * Register the gauges of the jvm and the dbcp.
+	 */
+	@PostConstruct
+	public void init() {
+		Gauge memory = MetricRegistry.getDefault().gauge("ngrinder_jvm_memory_bytes", "JVM heap memory.", "area");
+		memory.register(new Gauge.Source() {
+			@Override
+			public double get() {
+				return Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory();
+			}
+		}, "used");
+		memory.register(new Gauge.Source() {
+			@Override
+			public double get() {
+				return Runtime.getRuntime().maxMemory();
+			}
+		}, "max");
+		Gauge connections = MetricRegistry.getDefault().gauge("ngrinder_db_connections",
+				"Connections of the database connection pool.", "state");
+		connections.register(new Gauge.Source() {
+			@Override
+			public double get() {
+				return dataSource.getNumActive();
+			}
+		}, "active");
+		connections.register(new Gauge.Source() {
+			@Override
+			public double get() {
+				return dataSource.getNumIdle();
+			}
+		}, "idle");
+	}
+
 	/**
 	 * Get collect current statistics.
 	 * 
@@ -78,11 +132,38 @@ public class StatisticsController extends BaseController implements ControllerCo
 		data.put("jvm", getJVMStat());
 		data.put("ehcache", getEhcacheStat());
 		data.put("dbcp", getDbcpStat());
+		data.put("samplingPlugins", samplingPluginMonitor.getStatistics());
+		data.put("samplingScheduler", SamplingScheduler.getStatistics());
+		data.put("reportArchiver", perfTestReportArchiver.getStatistics());
+		if (dynamicCacheConfig.getClusterNode() != null) {
+			data.put("cluster", dynamicCacheConfig.getClusterNode().getStatistics());
+		}
 
 		result.put("success", true);
 		result.put("data", data);
 		return toJsonHttpEntity(result, gson);
 	}
+
+	/**
+	 * Get the controller metrics in the Prometheus text format.
+	 *
+	 * @return metrics text
+	 * @since 3.4.1
+	 */
+	@ResponseBody
+	@RequestMapping(value = "/metrics", method = RequestMethod.GET)
+	public HttpEntity<String> getMetrics() {
+		if (!config.isEnableStatistics()) {
+			Map<String, Object> result = new HashMap<String, Object>();
+			result.put("success", false);
+			result.put("data", "Disable statistics, You can set controller.enable_statistics=true");
+			return toJsonHttpEntity(result, gson);
+		}
+		HttpHeaders responseHeaders = new HttpHeaders();
+		responseHeaders.set("content-type", MetricRegistry.CONTENT_TYPE);
+		responseHeaders.setPragma("no-cache");
+		return toHttpEntity(MetricRegistry.getDefault().scrape(), responseHeaders);
+	}
 	
 	/**
 	 * Get current jvm stat
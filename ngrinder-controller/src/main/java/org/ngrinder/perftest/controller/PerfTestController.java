@@ -16,7 +16,6 @@ package org.ngrinder.perftest.controller;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 
-import net.grinder.util.LogCompressUtils;
 import net.grinder.util.Pair;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.io.IOUtils;
@@ -27,14 +26,20 @@ import org.ngrinder.agent.service.AgentManagerService;
 import org.ngrinder.common.constant.ControllerConstants;
 import org.ngrinder.common.controller.BaseController;
 import org.ngrinder.common.controller.RestAPI;
+import org.ngrinder.common.model.Home;
 import org.ngrinder.common.util.DateUtils;
 import org.ngrinder.common.util.FileDownloadUtils;
 import org.ngrinder.infra.config.Config;
 import org.ngrinder.infra.logger.CoreLogger;
+import org.ngrinder.infra.logger.IndexedLog;
+import org.ngrinder.infra.logger.IndexedLogStore;
 import org.ngrinder.infra.spring.RemainedPath;
 import org.ngrinder.model.*;
+import org.ngrinder.perftest.model.PerfTestSummary;
 import org.ngrinder.perftest.service.AgentManager;
+import org.ngrinder.perftest.service.PerfTestComparisonService;
 import org.ngrinder.perftest.service.PerfTestService;
+import org.ngrinder.perftest.service.ReportArchive;
 import org.ngrinder.perftest.service.TagService;
 import org.ngrinder.region.service.RegionService;
 import org.ngrinder.script.handler.ScriptHandlerFactory;
@@ -61,6 +66,10 @@ import javax.servlet.ServletOutputStream;
 import javax.servlet.http.HttpServletResponse;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.net.URL;
 import java.util.*;
 
@@ -84,6 +93,10 @@ import static org.ngrinder.common.util.Preconditions.*;
 @RequestMapping("/perftest")
 public class PerfTestController extends BaseController {
 
+	private static final int MAX_LOG_LINES = 10000;
+
+	private static final int MAX_SUMMARIES = 100;
+
 	@Autowired
 	private PerfTestService perfTestService;
 
@@ -108,6 +121,12 @@ public class PerfTestController extends BaseController {
 	@Autowired
 	private RegionService regionService;
 
+	@Autowired
+	private IndexedLogStore indexedLogStore;
+
+	@Autowired
+	private PerfTestComparisonService perfTestComparisonService;
+
 	private Gson fileEntryGson;
 
 	/**
@@ -248,6 +267,7 @@ public class PerfTestController extends BaseController {
 	 */
 	public void addDefaultAttributeOnModel(ModelMap model) {
 		model.addAttribute(PARAM_AVAILABLE_RAMP_UP_TYPE, RampUp.values());
+		model.addAttribute(PARAM_AVAILABLE_JVM_PROFILE, JvmProfile.values());
 		model.addAttribute(PARAM_MAX_VUSER_PER_AGENT, agentManager.getMaxVuserPerAgent());
 		model.addAttribute(PARAM_MAX_RUN_COUNT, agentManager.getMaxRunCount());
 		model.addAttribute(PARAM_SECURITY_MODE, getConfig().isSecurityEnabled());
@@ -540,10 +560,19 @@ public class PerfTestController extends BaseController {
 	 */
 	@RequestMapping(value = "/{id}/download_csv")
 	public void downloadCSV(User user, @PathVariable("id") long id, HttpServletResponse response) {
-		PerfTest test = getOneWithPermissionCheck(user, id, false);
-		File targetFile = perfTestService.getCsvReportFile(test);
-		checkState(targetFile.exists(), "File %s doesn't exist!", targetFile.getName());
-		FileDownloadUtils.downloadFile(response, targetFile);
+		getOneWithPermissionCheck(user, id, false);
+		// The report may be archived.
+		ReportArchive report = perfTestService.getReportArchive(id);
+		checkState(report.exists(Home.REPORT_CSV), "File %s doesn't exist!", Home.REPORT_CSV);
+		InputStream in = null;
+		try {
+			in = report.open(Home.REPORT_CSV);
+			FileDownloadUtils.downloadFile(response, in, Home.REPORT_CSV, report.length(Home.REPORT_CSV));
+		} catch (IOException e) {
+			throw processException(e);
+		} finally {
+			IOUtils.closeQuietly(in);
+		}
 	}
 
 	/**
@@ -579,14 +608,19 @@ public class PerfTestController extends BaseController {
 		response.setCharacterEncoding("UTF-8");
 		FileInputStream fileInputStream = null;
 		try {
-			fileInputStream = new FileInputStream(targetFile);
 			ServletOutputStream outputStream = response.getOutputStream();
 			if (FilenameUtils.isExtension(targetFile.getName(), "zip")) {
-				// Limit log view to 1MB
-				outputStream.println(" Only the last 1MB of a log shows.\n");
+				// Only the last lines are read from the indexed log.
+				outputStream.println(" Only the last " + MAX_LOG_LINES + " lines of a log shows.\n");
 				outputStream.println("==========================================================================\n\n");
-				LogCompressUtils.decompress(fileInputStream, outputStream, 1 * 1024 * 1204);
+				Writer writer = new OutputStreamWriter(outputStream, "UTF-8");
+				for (IndexedLog.Line each : indexedLogStore.get(targetFile).tail(MAX_LOG_LINES)) {
+					writer.write(each.getText());
+					writer.write("\n");
+				}
+				writer.flush();
 			} else {
+				fileInputStream = new FileInputStream(targetFile);
 				IOUtils.copy(fileInputStream, outputStream);
 			}
 		} catch (Exception e) {
@@ -794,6 +828,39 @@ public class PerfTestController extends BaseController {
 		return toJsonHttpEntity(perfTestService.getLogFiles(id));
 	}
 
+	/**
+	 * Get the lines of the given log of the given perf test.
+	 *
+	 * @param user    user
+	 * @param id      perftest id
+	 * @param path    path in the log folder
+	 * @param from    first line number. If it's negative, the last lines are returned.
+	 * @param count   max count of the lines
+	 * @param keyword if provided, only the lines containing it from the given line are returned.
+	 * @return JSON message containing the line count and the lines
+	 * @throws IOException if the log can not be read
+	 */
+	@RestAPI
+	@RequestMapping("/api/{id}/log/**")
+	public HttpEntity<String> getLogLines(User user, @PathVariable("id") Long id, @RemainedPath String path,
+	                                      @RequestParam(value = "from", defaultValue = "-1") long from,
+	                                      @RequestParam(value = "count", defaultValue = "100") int count,
+	                                      @RequestParam(value = "keyword", required = false) String keyword)
+			throws IOException {
+		getOneWithPermissionCheck(user, id, false);
+		File targetFile = perfTestService.getLogFile(id, path);
+		checkState(targetFile.exists(), "File %s doesn't exist!", targetFile.getName());
+		IndexedLog log = indexedLogStore.get(targetFile);
+		count = Math.min(count, MAX_LOG_LINES);
+		List<IndexedLog.Line> lines;
+		if (StringUtils.isNotEmpty(keyword)) {
+			lines = log.search(keyword, Math.max(from, 0), count);
+		} else {
+			lines = from < 0 ? log.tail(count) : log.getLines(from, count);
+		}
+		return toJsonHttpEntity(buildMap("lineCount", log.getLineCount(), "lines", lines));
+	}
+
 	/**
 	 * Get the detailed report graph data for the given perf test id.
 	 * This method returns the appropriate points based on the given imgWidth.
@@ -872,9 +939,48 @@ public class PerfTestController extends BaseController {
 	@RequestMapping(value = {"/api/last", "/api", "/api/"}, method = RequestMethod.GET)
 	public HttpEntity<String> getAll(User user, @RequestParam(value = "page", defaultValue = "0") int page,
 	                                 @RequestParam(value = "size", defaultValue = "1") int size) {
-		PageRequest pageRequest = new PageRequest(page, size, new Sort(Direction.DESC, "id"));
-		Page<PerfTest> testList = perfTestService.getPagedAll(user, null, null, null, pageRequest);
-		return toJsonHttpEntity(testList.getContent());
+		return toJsonHttpEntity(perfTestService.getLatest(user, page * size, size));
+	}
+
+	/**
+	 * Get the perf test summaries in the form of json by the keyset pagination. The summaries
+	 * don't contain the running statistics and the description.
+	 *
+	 * @param user        user
+	 * @param query       query string to search the perf test
+	 * @param tag         tag
+	 * @param queryFilter "F" means get only finished, "S" means get only scheduled tests.
+	 * @param cursor      nextCursor returned with the previous page. empty for the first page.
+	 * @param size        max count of the summaries
+	 * @return json message containing the summaries and the cursor of the next page.
+	 */
+	@RestAPI
+	@RequestMapping(value = "/api/summaries", method = RequestMethod.GET)
+	public HttpEntity<String> getSummaries(User user, @RequestParam(required = false) String query,
+	                                       @RequestParam(required = false) String tag,
+	                                       @RequestParam(required = false) String queryFilter,
+	                                       @RequestParam(value = "cursor", defaultValue = "") String cursor,
+	                                       @RequestParam(value = "size", defaultValue = "10") int size) {
+		size = Math.max(Math.min(size, MAX_SUMMARIES), 1);
+		Date createdDate = null;
+		Long id = null;
+		if (StringUtils.isNotEmpty(cursor)) {
+			String[] keys = StringUtils.split(cursor, "_");
+			checkArgument(keys.length == 2 && StringUtils.isNumeric(keys[0]) && StringUtils.isNumeric(keys[1]),
+					"cursor should be in the form of createdTime_id");
+			createdDate = new Date(Long.parseLong(keys[0]));
+			id = Long.parseLong(keys[1]);
+		}
+		List<PerfTestSummary> summaries = perfTestService.getSummaries(user, query, tag, queryFilter, createdDate, id,
+				size);
+		String nextCursor = "";
+		if (summaries.size() == size) {
+			PerfTestSummary last = summaries.get(summaries.size() - 1);
+			if (last.getCreatedDate() != null) {
+				nextCursor = last.getCreatedDate().getTime() + "_" + last.getId();
+			}
+		}
+		return toJsonHttpEntity(buildMap("tests", summaries, "nextCursor", nextCursor));
 	}
 
 	/**
@@ -982,7 +1088,8 @@ public class PerfTestController extends BaseController {
 	 *
 	 * @param user     user
 	 * @param id       perf test id to be cloned
-	 * @param perftest option to override while cloning.
+	 * @param perftest option to override while cloning. The baselineId is the test which the
+	 *                 new test is checked against by {@link #checkBaseline(User, Long, Long, double)}.
 	 * @return json string
 	 */
 	@SuppressWarnings("MVCPathVariableInspection")
@@ -1004,6 +1111,9 @@ public class PerfTestController extends BaseController {
 			if (perftest.getAgentCount() != null) {
 				newOne.setAgentCount(perftest.getAgentCount());
 			}
+			if (perftest.getBaselineId() != null) {
+				newOne.setBaselineId(perftest.getBaselineId());
+			}
 		}
 		if (newOne.getAgentCount() == null) {
 			newOne.setAgentCount(0);
@@ -1020,4 +1130,54 @@ public class PerfTestController extends BaseController {
 		return toJsonHttpEntity(savePerfTest);
 	}
 
+	/**
+	 * Compare the given finished perf tests with the first one.
+	 *
+	 * @param user      user
+	 * @param ids       comma separated perf test IDs. The first one is the baseline.
+	 * @param alignment "elapsed" to compare the same elapsed time window or "steady_state" to
+	 *                  compare the steady state window of each test
+	 * @param from      start of the elapsed time window in second
+	 * @param to        end of the elapsed time window in second. 0 for the end of the shortest test.
+	 * @return json message containing the window and the deltas of each test
+	 */
+	@RestAPI
+	@RequestMapping(value = "/api/compare", method = RequestMethod.GET)
+	public HttpEntity<String> compare(User user, @RequestParam("ids") String ids,
+	                                  @RequestParam(value = "alignment", defaultValue = "steady_state") String alignment,
+	                                  @RequestParam(value = "from", defaultValue = "0") int from,
+	                                  @RequestParam(value = "to", defaultValue = "0") int to) {
+		List<PerfTest> perfTests = newArrayList();
+		for (Long each : convertString2Long(ids)) {
+			PerfTest perfTest = checkNotNull(getOneWithPermissionCheck(user, each, false),
+					"no perftest for %s exits", each);
+			checkArgument(perfTest.getStatus().isReportable(), "perftest %s is not finished", each);
+			perfTests.add(perfTest);
+		}
+		return toJsonHttpEntity(perfTestComparisonService.compare(perfTests,
+				PerfTestComparisonService.Alignment.valueOf(alignment.toUpperCase()), from, to));
+	}
+
+	/**
+	 * Check if the given perf test doesn't regress from its baseline. The result is PASS, FAIL,
+	 * PENDING if the test is not finished yet or NO_BASELINE.
+	 *
+	 * @param user      user
+	 * @param id        perf test id
+	 * @param baseline  baseline perf test id. If not provided, the baselineId of the perf test is used.
+	 * @param tolerance tolerance of the significant degradation in percent
+	 * @return json message containing the result and the regressions
+	 */
+	@RestAPI
+	@RequestMapping(value = "/api/{id}/regression", method = RequestMethod.GET)
+	public HttpEntity<String> checkBaseline(User user, @PathVariable("id") Long id,
+	                                        @RequestParam(value = "baseline", required = false) Long baseline,
+	                                        @RequestParam(value = "tolerance", defaultValue = "5") double tolerance) {
+		PerfTest perfTest = checkNotNull(getOneWithPermissionCheck(user, id, false), "no perftest for %s exits", id);
+		Long baselineId = defaultIfNull(baseline, perfTest.getBaselineId());
+		PerfTest baselineTest = baselineId == null ? null : checkNotNull(getOneWithPermissionCheck(user, baselineId,
+				false), "no perftest for %s exits", baselineId);
+		return toJsonHttpEntity(perfTestComparisonService.checkBaseline(baselineTest, perfTest, tolerance));
+	}
+
 }
@@ -0,0 +1,214 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ngrinder.perftest.model;
+
+import com.google.gson.annotations.Expose;
+import org.ngrinder.model.PerfTest;
+import org.ngrinder.model.Status;
+
+import java.util.Date;
+
+/**
+ * Lightweight projection of {@link PerfTest} for the list queries.
+ *
+ * It contains only the columns shown in the test list, so the running sample, the agent and
+ * monitor states and the description are not loaded.
+ *
+ * @author JunHo Yoon
+ * @since 3.4.1
+ */
+@SuppressWarnings("UnusedDeclaration")
+public class PerfTestSummary {
+
+	/**
+	 * {@link PerfTest} attributes selected in the order of the constructor parameters.
+	 */
+	public static final String[] ATTRIBUTES = {"id", "testName", "tagString", "status", "region", "scriptName",
+			"scriptRevision", "threshold", "duration", "runCount", "agentCount", "vuserPerAgent", "scheduledTime",
+			"startTime", "finishTime", "tests", "errors", "meanTestTime", "tps", "peakTps", "createdDate",
+			"lastModifiedDate"};
+
+	@Expose
+	private final Long id;
+	@Expose
+	private final String testName;
+	@Expose
+	private final String tagString;
+	@Expose
+	private final Status status;
+	@Expose
+	private final String region;
+	@Expose
+	private final String scriptName;
+	@Expose
+	private final Long scriptRevision;
+	@Expose
+	private final String threshold;
+	@Expose
+	private final Long duration;
+	@Expose
+	private final Integer runCount;
+	@Expose
+	private final Integer agentCount;
+	@Expose
+	private final Integer vuserPerAgent;
+	@Expose
+	private final Date scheduledTime;
+	@Expose
+	private final Date startTime;
+	@Expose
+	private final Date finishTime;
+	@Expose
+	private final Long tests;
+	@Expose
+	private final Long errors;
+	@Expose
+	private final Double meanTestTime;
+	@Expose
+	private final Double tps;
+	@Expose
+	private final Double peakTps;
+	@Expose
+	private final Date createdDate;
+	@Expose
+	private final Date lastModifiedDate;
+	@Expose
+	private final String createdUserId;
+
+	/**
+	 * Constructor called by the JPA constructor expression with the values of {@link #ATTRIBUTES}
+	 * and the id of the creator.
+	 */
+	public PerfTestSummary(Long id, String testName, String tagString, Status status, String region,
+	                       String scriptName, Long scriptRevision, String threshold, Long duration, Integer runCount,
+	                       Integer agentCount, Integer vuserPerAgent, Date scheduledTime, Date startTime,
+	                       Date finishTime, Long tests, Long errors, Double meanTestTime, Double tps, Double peakTps,
+	                       Date createdDate, Date lastModifiedDate, String createdUserId) {
+		this.id = id;
+		this.testName = testName;
+		this.tagString = tagString;
+		this.status = status;
+		this.region = region;
+		this.scriptName = scriptName;
+		this.scriptRevision = scriptRevision;
+		this.threshold = threshold;
+		this.duration = duration;
+		this.runCount = runCount;
+		this.agentCount = agentCount;
+		this.vuserPerAgent = vuserPerAgent;
+		this.scheduledTime = scheduledTime;
+		this.startTime = startTime;
+		this.finishTime = finishTime;
+		this.tests = tests;
+		this.errors = errors;
+		this.meanTestTime = meanTestTime;
+		this.tps = tps;
+		this.peakTps = peakTps;
+		this.createdDate = createdDate;
+		this.lastModifiedDate = lastModifiedDate;
+		this.createdUserId = createdUserId;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public String getTestName() {
+		return testName;
+	}
+
+	public String getTagString() {
+		return tagString;
+	}
+
+	public Status getStatus() {
+		return status;
+	}
+
+	public String getRegion() {
+		return region;
+	}
+
+	public String getScriptName() {
+		return scriptName;
+	}
+
+	public Long getScriptRevision() {
+		return scriptRevision;
+	}
+
+	public String getThreshold() {
+		return threshold;
+	}
+
+	public Long getDuration() {
+		return duration;
+	}
+
+	public Integer getRunCount() {
+		return runCount;
+	}
+
+	public Integer getAgentCount() {
+		return agentCount;
+	}
+
+	public Integer getVuserPerAgent() {
+		return vuserPerAgent;
+	}
+
+	public Date getScheduledTime() {
+		return scheduledTime;
+	}
+
+	public Date getStartTime() {
+		return startTime;
+	}
+
+	public Date getFinishTime() {
+		return finishTime;
+	}
+
+	public Long getTests() {
+		return tests;
+	}
+
+	public Long getErrors() {
+		return errors;
+	}
+
+	public Double getMeanTestTime() {
+		return meanTestTime;
+	}
+
+	public Double getTps() {
+		return tps;
+	}
+
+	public Double getPeakTps() {
+		return peakTps;
+	}
+
+	public Date getCreatedDate() {
+		return createdDate;
+	}
+
+	public Date getLastModifiedDate() {
+		return lastModifiedDate;
+	}
+
+	public String getCreatedUserId() {
+		return createdUserId;
+	}
+}
@@ -0,0 +1,115 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ngrinder.perftest.model;
+
+import com.google.gson.annotations.Expose;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Summary of a report data series within a time window.
+ *
+ * The interval samples of a series are autocorrelated, so the variance is estimated from the
+ * means of consecutive batches of samples instead of the samples themselves.
+ *
+ * @author JunHo Yoon
+ * @since 3.4.1
+ */
+public class ReportWindowStatistics implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Max count of the batches.
+	 */
+	public static final int MAX_BATCH_COUNT = 20;
+
+	@Expose
+	private final int count;
+	@Expose
+	private final double mean;
+	private final int batchCount;
+	private final double batchVariance;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param count         sample count
+	 * @param mean          mean of the samples
+	 * @param batchCount    batch count
+	 * @param batchVariance sample variance of the batch means
+	 */
+	public ReportWindowStatistics(int count, double mean, int batchCount, double batchVariance) {
+		this.count = count;
+		this.mean = mean;
+		this.batchCount = batchCount;
+		this.batchVariance = batchVariance;
+	}
+
+	/**
+	 * Summarize the given samples.
+	 *
+	 * @param samples samples. The null samples are not collected and skipped.
+	 * @return {@link ReportWindowStatistics}
+	 */
+	public static ReportWindowStatistics of(List<Double> samples) {
+		List<Double> values = new ArrayList<Double>(samples.size());
+		for (Double each : samples) {
+			if (each != null) {
+				values.add(each);
+			}
+		}
+		int count = values.size();
+		int batchCount = Math.min(MAX_BATCH_COUNT, count);
+		if (batchCount == 0) {
+			return new ReportWindowStatistics(0, 0, 0, 0);
+		}
+		int batchSize = count / batchCount;
+		// The samples left over are dropped from the head, where the window is less steady.
+		int offset = count - batchSize * batchCount;
+		double sum = 0;
+		double[] batchMeans = new double[batchCount];
+		for (int i = 0; i < batchCount; i++) {
+			double batchSum = 0;
+			for (int j = 0; j < batchSize; j++) {
+				batchSum += values.get(offset + i * batchSize + j);
+			}
+			batchMeans[i] = batchSum / batchSize;
+			sum += batchSum;
+		}
+		double mean = sum / (batchSize * batchCount);
+		double squareSum = 0;
+		for (double each : batchMeans) {
+			squareSum += (each - mean) * (each - mean);
+		}
+		return new ReportWindowStatistics(count, mean, batchCount, batchCount > 1 ? squareSum / (batchCount - 1) : 0);
+	}
+
+	public int getCount() {
+		return count;
+	}
+
+	public double getMean() {
+		return mean;
+	}
+
+	public int getBatchCount() {
+		return batchCount;
+	}
+
+	public double getBatchVariance() {
+		return batchVariance;
+	}
+}
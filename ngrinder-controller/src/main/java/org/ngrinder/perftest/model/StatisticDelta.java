@@ -0,0 +1,142 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ngrinder.perftest.model;
+
+import com.google.gson.annotations.Expose;
+
+/**
+ * Difference of a statistic between a baseline test and a compared test.
+ *
+ * The significance is decided by the Welch's t-test on the batch means of both windows at the
+ * 95% confidence level.
+ *
+ * @author JunHo Yoon
+ * @since 3.4.1
+ */
+public class StatisticDelta {
+	private static final double Z_975 = 1.959964;
+
+	@Expose
+	private final String statistic;
+	@Expose
+	private final String testName;
+	@Expose
+	private final double baseline;
+	@Expose
+	private final double value;
+	@Expose
+	private final double delta;
+	@Expose
+	private final Double deltaPercent;
+	@Expose
+	private final Double t;
+	@Expose
+	private final boolean significant;
+	@Expose
+	private boolean regression;
+
+	private StatisticDelta(String statistic, String testName, double baseline, double value, Double t,
+	                       boolean significant) {
+		this.statistic = statistic;
+		this.testName = testName;
+		this.baseline = baseline;
+		this.value = value;
+		this.delta = value - baseline;
+		this.deltaPercent = baseline == 0 ? null : delta * 100 / Math.abs(baseline);
+		this.t = t;
+		this.significant = significant;
+	}
+
+	/**
+	 * Compare the given window statistics.
+	 *
+	 * @param statistic statistic name
+	 * @param testName  test name. "Total" for the whole tests.
+	 * @param baseline  baseline statistics
+	 * @param compared  compared statistics
+	 * @return {@link StatisticDelta}
+	 */
+	public static StatisticDelta compare(String statistic, String testName, ReportWindowStatistics baseline,
+	                                     ReportWindowStatistics compared) {
+		double difference = compared.getMean() - baseline.getMean();
+		if (baseline.getBatchCount() < 2 || compared.getBatchCount() < 2) {
+			return new StatisticDelta(statistic, testName, baseline.getMean(), compared.getMean(), null, false);
+		}
+		double baselineError = baseline.getBatchVariance() / baseline.getBatchCount();
+		double comparedError = compared.getBatchVariance() / compared.getBatchCount();
+		double standardError = Math.sqrt(baselineError + comparedError);
+		if (standardError == 0) {
+			return new StatisticDelta(statistic, testName, baseline.getMean(), compared.getMean(), null,
+					difference != 0);
+		}
+		double t = difference / standardError;
+		double degreesOfFreedom = Math.pow(baselineError + comparedError, 2)
+				/ (baselineError * baselineError / (baseline.getBatchCount() - 1)
+				+ comparedError * comparedError / (compared.getBatchCount() - 1));
+		return new StatisticDelta(statistic, testName, baseline.getMean(), compared.getMean(), t,
+				Math.abs(t) > getCriticalValue(degreesOfFreedom));
+	}
+
+	/**
+	 * Get the two sided 95% critical value of the Student's t-distribution by the Cornish-Fisher
+	 * expansion.
+	 */
+	static double getCriticalValue(double degreesOfFreedom) {
+		double z = Z_975;
+		double z3 = z * z * z;
+		double z5 = z3 * z * z;
+		return z + (z3 + z) / (4 * degreesOfFreedom)
+				+ (5 * z5 + 16 * z3 + 3 * z) / (96 * degreesOfFreedom * degreesOfFreedom);
+	}
+
+	public String getStatistic() {
+		return statistic;
+	}
+
+	public String getTestName() {
+		return testName;
+	}
+
+	public double getBaseline() {
+		return baseline;
+	}
+
+	public double getValue() {
+		return value;
+	}
+
+	public double getDelta() {
+		return delta;
+	}
+
+	public Double getDeltaPercent() {
+		return deltaPercent;
+	}
+
+	public Double getT() {
+		return t;
+	}
+
+	public boolean isSignificant() {
+		return significant;
+	}
+
+	public boolean isRegression() {
+		return regression;
+	}
+
+	public void setRegression(boolean regression) {
+		this.regression = regression;
+	}
+}
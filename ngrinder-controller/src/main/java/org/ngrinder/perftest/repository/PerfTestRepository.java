@@ -23,6 +23,7 @@ import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 
@@ -32,7 +33,8 @@ import java.util.List;
  * @author junHo Yoon
  * @since 3.0
  */
-public interface PerfTestRepository extends JpaRepository<PerfTest, Long>, JpaSpecificationExecutor<PerfTest> {
+public interface PerfTestRepository extends JpaRepository<PerfTest, Long>, JpaSpecificationExecutor<PerfTest>,
+		PerfTestRepositoryCustom {
 	/**
 	 * Find the paged {@link PerfTest}s based on the given spec.
 	 *
@@ -105,4 +107,52 @@ public interface PerfTestRepository extends JpaRepository<PerfTest, Long>, JpaSp
 	 */
 	@Query("select p from PerfTest  p where p.startTime between ?1 and ?2")
 	List<PerfTest> findAllByCreatedTime(Date start, Date end);
+
+	/**
+	 * Find the ids of all {@link PerfTest}s finished before the given time and having one of the given statuses.
+	 *
+	 * @param finishTime time
+	 * @param statuses   statuses
+	 * @return {@link PerfTest} id list
+	 */
+	@Query("select p.id from PerfTest p where p.finishTime < ?1 and p.status in ?2")
+	List<Long> findAllIdsByFinishTimeBefore(Date finishTime, Collection<Status> statuses);
+
+	/**
+	 * Find the ids of all {@link PerfTest}s finished before the given time and having one of the given statuses and
+	 * the given region.
+	 *
+	 * @param finishTime time
+	 * @param statuses   statuses
+	 * @param region     region
+	 * @return {@link PerfTest} id list
+	 */
+	@Query("select p.id from PerfTest p where p.finishTime < ?1 and p.status in ?2 and p.region = ?3")
+	List<Long> findAllIdsByFinishTimeBeforeAndRegion(Date finishTime, Collection<Status> statuses, String region);
+
+	/**
+	 * Find the ids of all {@link PerfTest}s finished in the given period and having one of the given statuses.
+	 *
+	 * @param from     start time inclusive
+	 * @param to       end time exclusive
+	 * @param statuses statuses
+	 * @return {@link PerfTest} id list
+	 */
+	@Query("select p.id from PerfTest p where p.finishTime >= ?1 and p.finishTime < ?2 and p.status in ?3")
+	List<Long> findAllIdsByFinishTimeBetween(Date from, Date to, Collection<Status> statuses);
+
+	/**
+	 * Find the ids of all {@link PerfTest}s finished in the given period and having one of the given statuses and
+	 * region.
+	 *
+	 * @param from     start time inclusive
+	 * @param to       end time exclusive
+	 * @param statuses statuses
+	 * @param region   region
+	 * @return {@link PerfTest} id list
+	 */
+	@Query("select p.id from PerfTest p where p.finishTime >= ?1 and p.finishTime < ?2 and p.status in ?3 "
+			+ "and p.region = ?4")
+	List<Long> findAllIdsByFinishTimeBetweenAndRegion(Date from, Date to, Collection<Status> statuses,
+	                                                  String region);
 }
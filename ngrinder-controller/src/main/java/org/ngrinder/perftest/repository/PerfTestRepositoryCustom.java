@@ -0,0 +1,40 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ngrinder.perftest.repository;
+
+import org.ngrinder.model.PerfTest;
+import org.ngrinder.perftest.model.PerfTestSummary;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * {@link PerfTest} queries which are not derived by Spring Data.
+ *
+ * @author JunHo Yoon
+ * @since 3.4.1
+ */
+public interface PerfTestRepositoryCustom {
+
+	/**
+	 * Find the {@link PerfTestSummary}s of the {@link PerfTest}s matching the given spec ordered
+	 * by the created date and id descending. No count query is run.
+	 *
+	 * @param spec   {@link Specification} of {@link PerfTest} query
+	 * @param offset the count of the summaries to skip
+	 * @param size   max count of the summaries
+	 * @return {@link PerfTestSummary} list
+	 */
+	List<PerfTestSummary> findAllSummaries(Specification<PerfTest> spec, int offset, int size);
+}
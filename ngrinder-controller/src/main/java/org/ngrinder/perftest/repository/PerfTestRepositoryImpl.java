@@ -0,0 +1,59 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ngrinder.perftest.repository;
+
+import org.ngrinder.model.PerfTest;
+import org.ngrinder.model.User;
+import org.ngrinder.perftest.model.PerfTestSummary;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Implementation of {@link PerfTestRepositoryCustom}. It's merged into {@link PerfTestRepository}
+ * by Spring Data.
+ *
+ * @author JunHo Yoon
+ * @since 3.4.1
+ */
+public class PerfTestRepositoryImpl implements PerfTestRepositoryCustom {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Override
+	public List<PerfTestSummary> findAllSummaries(Specification<PerfTest> spec, int offset, int size) {
+		CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+		CriteriaQuery<PerfTestSummary> query = cb.createQuery(PerfTestSummary.class);
+		Root<PerfTest> root = query.from(PerfTest.class);
+		Predicate predicate = spec.toPredicate(root, query, cb);
+		if (predicate != null) {
+			query.where(predicate);
+		}
+		List<Selection<?>> selections = new ArrayList<Selection<?>>();
+		for (String each : PerfTestSummary.ATTRIBUTES) {
+			selections.add(root.get(each));
+		}
+		// The creator may be deleted already.
+		Join<PerfTest, User> createdUser = root.join("createdUser", JoinType.LEFT);
+		selections.add(createdUser.get("userId"));
+		query.select(cb.construct(PerfTestSummary.class, selections.toArray(new Selection<?>[selections.size()])));
+		query.orderBy(cb.desc(root.get("createdDate")), cb.desc(root.get("id")));
+		return entityManager.createQuery(query).setFirstResult(offset).setMaxResults(size).getResultList();
+	}
+}
@@ -19,6 +19,8 @@ import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
 import javax.persistence.criteria.SetJoin;
 
+import java.util.Date;
+
 import org.ngrinder.model.PerfTest;
 import org.ngrinder.model.Status;
 import org.ngrinder.model.User;
@@ -93,6 +95,25 @@ public abstract class PerfTestSpecification {
 		};
 	}
 
+	/**
+	 * Get the keyset {@link Specification} checking if the {@link PerfTest} comes after the given
+	 * created date and id in the descending order of them.
+	 *
+	 * @param createdDate created date of the last test in the previous page
+	 * @param id          id of the last test in the previous page
+	 * @return {@link Specification}
+	 * @since 3.4.1
+	 */
+	public static Specification<PerfTest> createdBefore(final Date createdDate, final Long id) {
+		return new Specification<PerfTest>() {
+			@Override
+			public Predicate toPredicate(Root<PerfTest> root, CriteriaQuery<?> query, CriteriaBuilder cb) {
+				return cb.or(cb.lessThan(root.<Date>get("createdDate"), createdDate),
+						cb.and(cb.equal(root.get("createdDate"), createdDate), cb.lessThan(root.<Long>get("id"), id)));
+			}
+		};
+	}
+
 	/**
 	 * Get the {@link Specification} checking if the {@link PerfTest} has the given region.
 	 *
@@ -34,6 +34,9 @@ import org.apache.commons.lang.StringUtils;
 import org.ngrinder.agent.service.AgentPackageService;
 import org.ngrinder.agent.service.LocalAgentService;
 import org.ngrinder.common.constant.ControllerConstants;
+import org.ngrinder.common.metrics.Counter;
+import org.ngrinder.common.metrics.Gauge;
+import org.ngrinder.common.metrics.MetricRegistry;
 import org.ngrinder.common.util.CRC32ChecksumUtils;
 import org.ngrinder.infra.config.Config;
 import org.ngrinder.model.AgentInfo;
@@ -50,11 +53,17 @@ import javax.annotation.PreDestroy;
 import java.io.File;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Agent manager.
@@ -70,6 +79,15 @@ public class AgentManager implements ControllerConstants, AgentDownloadRequestLi
 	public static final Logger LOGGER = LoggerFactory.getLogger(AgentManager.class);
 	private AgentControllerServerDaemon agentControllerServerDaemon;
 	private static final int NUMBER_OF_THREAD = 3;
+	private static final Counter AGENT_LOG_BYTES = MetricRegistry.getDefault().counter(
+			"ngrinder_agent_log_bytes_total", "Bytes of the test logs received from each agent.", "agent");
+	private static final Counter AGENT_PACKAGE_BYTES = MetricRegistry.getDefault().counter(
+			"ngrinder_agent_package_bytes_total", "Bytes of the agent package chunks served to the agents.");
+	private final Set<String> loggedAgents = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+	private final Object agentPackageLock = new Object();
+	private volatile OpenedAgentPackage openedAgentPackage;
+	private final AtomicLong servedAgentPackages = new AtomicLong();
+	private final AtomicLong servedAgentPackageBytes = new AtomicLong();
 
 	@Autowired
 	private Config config;
@@ -95,12 +113,29 @@ public class AgentManager implements ControllerConstants, AgentDownloadRequestLi
 		agentControllerServerDaemon = new AgentControllerServerDaemon(config.getCurrentIP(), port, consoleCommunicationSetting);
 		agentControllerServerDaemon.start();
 		agentControllerServerDaemon.setAgentDownloadRequestListener(this);
+		Gauge agents = MetricRegistry.getDefault().gauge("ngrinder_agents", "Agents attached to the controller.",
+				"state");
+		agents.register(new Gauge.Source() {
+			@Override
+			public double get() {
+				return getAllAttachedAgents().size();
+			}
+		}, "attached");
+		agents.register(new Gauge.Source() {
+			@Override
+			public double get() {
+				return getAllFreeAgents().size();
+			}
+		}, "free");
 		agentControllerServerDaemon.addLogArrivedListener(new LogArrivedListener() {
 			@Override
 			public void logArrived(String testId, AgentAddress agentAddress, byte[] logs) {
 				AgentControllerIdentityImplementation agentIdentity = convert(agentAddress.getIdentity());
 				if (ArrayUtils.isEmpty(logs)) {
 					LOGGER.error("Log is arrived from {} but no log content", agentIdentity.getIp());
+				} else {
+					AGENT_LOG_BYTES.add(logs.length, agentIdentity.getName());
+					loggedAgents.add(agentIdentity.getName());
 				}
 				File logFile = null;
 				try {
@@ -122,6 +157,10 @@ public class AgentManager implements ControllerConstants, AgentDownloadRequestLi
 	@PreDestroy
 	public void destroy() {
 		agentControllerServerDaemon.shutdown();
+		OpenedAgentPackage opened = openedAgentPackage;
+		if (opened != null) {
+			opened.release();
+		}
 	}
 
 	/**
@@ -179,6 +218,25 @@ public class AgentManager implements ControllerConstants, AgentDownloadRequestLi
 		return agentControllerServerDaemon.getAllAvailableAgents();
 	}
 
+	/**
+	 * Remove the per agent metrics of the agents which are detached so that the metrics don't
+	 * keep growing with every agent ever attached.
+	 */
+	public void removeDetachedAgentMetrics() {
+		Set<String> attached = new HashSet<String>();
+		for (AgentIdentity each : getAllAttachedAgents()) {
+			attached.add(each.getName());
+		}
+		Iterator<String> iterator = loggedAgents.iterator();
+		while (iterator.hasNext()) {
+			String each = iterator.next();
+			if (!attached.contains(each)) {
+				iterator.remove();
+				AGENT_LOG_BYTES.remove(each);
+			}
+		}
+	}
+
 	/**
 	 * Get the max agent size per console.
 	 *
@@ -506,31 +564,140 @@ public class AgentManager implements ControllerConstants, AgentDownloadRequestLi
 		});
 	}
 
+	/**
+	 * Read the requested chunk of the agent package.
+	 *
+	 * The package is opened once and each chunk is read by the positional read of the shared
+	 * {@link FileChannel}, so the requests from many agents are served concurrently. The channel is
+	 * retained while reading so that it's not closed by the swap to a rebuilt package.
+	 */
 	@Override
-	public synchronized AgentUpdateGrinderMessage onAgentDownloadRequested(String version, int offset) {
+	public AgentUpdateGrinderMessage onAgentDownloadRequested(String version, int offset) {
 		final int updateChunkSize = getUpdateChunkSize();
-		byte[] buffer = new byte[updateChunkSize];
-		RandomAccessFile agentPackageReader = null;
+		OpenedAgentPackage opened = null;
 		try {
-			agentPackageReader = new RandomAccessFile(agentPackageService.createAgentPackage(), "r");
-			agentPackageReader.seek(offset);
-			int count = agentPackageReader.read(buffer, 0, updateChunkSize);
-			byte[] bytes = buffer;
-			int next = offset + count;
-			if (count != updateChunkSize) {
-				bytes = Arrays.copyOf(buffer, count);
+			opened = openAgentPackage(agentPackageService.createAgentPackage());
+			FileChannel channel = opened.channel;
+			int count = (int) Math.max(Math.min(updateChunkSize, channel.size() - offset), 0);
+			ByteBuffer buffer = ByteBuffer.allocate(count);
+			while (buffer.hasRemaining()) {
+				if (channel.read(buffer, offset + buffer.position()) < 0) {
+					break;
+				}
+			}
+			byte[] bytes = buffer.array();
+			if (buffer.position() != count) {
+				bytes = Arrays.copyOf(bytes, buffer.position());
+			}
+			int next = offset + bytes.length;
+			if (bytes.length != updateChunkSize) {
 				next = 0;
 			}
+			servedAgentPackageBytes.addAndGet(bytes.length);
+			AGENT_PACKAGE_BYTES.add(bytes.length);
+			if (next == 0) {
+				LOGGER.info("Agent package download is completed. {} packages / {} bytes are served in total.",
+						servedAgentPackages.incrementAndGet(), servedAgentPackageBytes.get());
+			}
 			return new AgentUpdateGrinderMessage(version, bytes, offset, next,
 					CRC32ChecksumUtils.getCRC32Checksum(bytes));
 		} catch (Exception e) {
 			LOGGER.error("Error while reading agent package, its offset is {} and details {}:", offset, e);
 		} finally {
-			IOUtils.closeQuietly(agentPackageReader);
+			if (opened != null) {
+				opened.release();
+			}
 		}
 		return AgentUpdateGrinderMessage.getNullAgentUpdateGrinderMessage(version);
 	}
 
+	/**
+	 * Get the opened agent package retained for the caller. The caller should release it after
+	 * reading. If the package file is changed, the new one is opened and the old one is closed when
+	 * its last reader releases it.
+	 *
+	 * @param agentPackage agent package file
+	 * @return retained agent package
+	 * @throws IOException if the package can not be opened
+	 */
+	OpenedAgentPackage openAgentPackage(File agentPackage) throws IOException {
+		OpenedAgentPackage opened = openedAgentPackage;
+		if (opened != null && opened.isOpenedFrom(agentPackage) && opened.retain()) {
+			return opened;
+		}
+		synchronized (agentPackageLock) {
+			opened = openedAgentPackage;
+			if (opened != null && opened.isOpenedFrom(agentPackage) && opened.retain()) {
+				return opened;
+			}
+			OpenedAgentPackage newlyOpened = new OpenedAgentPackage(agentPackage);
+			newlyOpened.retain();
+			openedAgentPackage = newlyOpened;
+			if (opened != null) {
+				// Drop the reference held by this manager.
+				opened.release();
+			}
+			return newlyOpened;
+		}
+	}
+
+	/**
+	 * Get the count of the agent packages served to the agents.
+	 *
+	 * @return served package count
+	 */
+	public long getServedAgentPackages() {
+		return servedAgentPackages.get();
+	}
+
+	/**
+	 * Get the total bytes of the agent package chunks served to the agents.
+	 *
+	 * @return served bytes
+	 */
+	public long getServedAgentPackageBytes() {
+		return servedAgentPackageBytes.get();
+	}
+
+	/**
+	 * Reference counted channel of the agent package. The manager holds one reference until the
+	 * package is swapped and each reader holds one while reading.
+	 */
+	static class OpenedAgentPackage {
+		private final File file;
+		private final long lastModified;
+		final FileChannel channel;
+		private final AtomicInteger references = new AtomicInteger(1);
+
+		OpenedAgentPackage(File file) throws IOException {
+			this.file = file;
+			this.lastModified = file.lastModified();
+			this.channel = new RandomAccessFile(file, "r").getChannel();
+		}
+
+		boolean isOpenedFrom(File file) {
+			return this.file.equals(file) && this.lastModified == file.lastModified();
+		}
+
+		boolean retain() {
+			while (true) {
+				int count = references.get();
+				if (count <= 0) {
+					return false;
+				}
+				if (references.compareAndSet(count, count + 1)) {
+					return true;
+				}
+			}
+		}
+
+		void release() {
+			if (references.decrementAndGet() == 0) {
+				IOUtils.closeQuietly(channel);
+			}
+		}
+	}
+
 	private int getUpdateChunkSize() {
 		return config.getControllerProperties().getPropertyInt(ControllerConstants.PROP_CONTROLLER_UPDATE_CHUNK_SIZE);
 	}
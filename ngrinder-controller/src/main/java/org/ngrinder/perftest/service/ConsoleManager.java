@@ -17,6 +17,9 @@ import net.grinder.SingleConsole;
 import net.grinder.console.model.ConsoleCommunicationSetting;
 import net.grinder.console.model.ConsoleProperties;
 import org.h2.util.StringUtils;
+import org.ngrinder.common.metrics.Gauge;
+import org.ngrinder.common.metrics.Histogram;
+import org.ngrinder.common.metrics.MetricRegistry;
 import org.ngrinder.infra.config.Config;
 import org.ngrinder.perftest.model.NullSingleConsole;
 import org.slf4j.Logger;
@@ -51,6 +54,8 @@ import static org.ngrinder.common.util.NoOp.noOp;
 public class ConsoleManager {
 	private static final int MAX_PORT_NUMBER = 65000;
 	private static final Logger LOG = LoggerFactory.getLogger(ConsoleManager.class);
+	private static final Histogram CONSOLE_WAIT_DURATION = MetricRegistry.getDefault().histogram(
+			"ngrinder_console_wait_duration_seconds", "Time taken to get an available console from the pool.");
 	private volatile ArrayBlockingQueue<ConsoleEntry> consoleQueue;
 	private volatile List<SingleConsole> consoleInUse = Collections.synchronizedList(new ArrayList<SingleConsole>());
 
@@ -79,6 +84,20 @@ public class ConsoleManager {
 			}
 
 		}
+		Gauge pool = MetricRegistry.getDefault().gauge("ngrinder_console_pool", "Consoles in the console pool.",
+				"state");
+		pool.register(new Gauge.Source() {
+			@Override
+			public double get() {
+				return getAvailableConsoleSize();
+			}
+		}, "available");
+		pool.register(new Gauge.Source() {
+			@Override
+			public double get() {
+				return getConsoleInUse().size();
+			}
+		}, "in_use");
 	}
 
 	/**
@@ -124,7 +143,9 @@ public class ConsoleManager {
 	public SingleConsole getAvailableConsole(ConsoleProperties baseConsoleProperties) {
 		ConsoleEntry consoleEntry = null;
 		try {
+			long startNanos = System.nanoTime();
 			consoleEntry = consoleQueue.poll(getMaxWaitingMilliSecond(), TimeUnit.MILLISECONDS);
+			CONSOLE_WAIT_DURATION.observeSince(startNanos);
 			if (consoleEntry == null) {
 				throw processException("no console entry available");
 			}
@@ -0,0 +1,227 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ngrinder.perftest.service;
+
+import org.ngrinder.model.PerfTest;
+import org.ngrinder.model.RampUp;
+import org.ngrinder.model.Status;
+import org.ngrinder.perftest.model.ReportWindowStatistics;
+import org.ngrinder.perftest.model.StatisticDelta;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+import static org.ngrinder.common.util.AccessUtils.getSafe;
+import static org.ngrinder.common.util.Preconditions.checkArgument;
+
+/**
+ * Regression comparison of the finished tests over their stored reports.
+ *
+ * The tests are aligned by the elapsed time or by the steady state window, and each statistic of
+ * the whole tests and of each test name is compared with the first test.
+ *
+ * @author JunHo Yoon
+ * @since 3.4.1
+ */
+@Service
+public class PerfTestComparisonService {
+
+	/**
+	 * Compared statistics and whether the higher value is better.
+	 */
+	public static final Map<String, Boolean> COMPARED_STATISTICS = new LinkedHashMap<String, Boolean>();
+
+	static {
+		COMPARED_STATISTICS.put("TPS", true);
+		COMPARED_STATISTICS.put("Mean_Test_Time_(ms)", false);
+		COMPARED_STATISTICS.put("Mean_time_to_first_byte", false);
+		COMPARED_STATISTICS.put("Errors", false);
+	}
+
+	/**
+	 * How the compared tests are aligned.
+	 */
+	public enum Alignment {
+		/**
+		 * The same elapsed time window of each test.
+		 */
+		ELAPSED,
+		/**
+		 * The steady state window of each test.
+		 */
+		STEADY_STATE
+	}
+
+	/**
+	 * Gate result of a test against its baseline.
+	 */
+	public enum GateResult {
+		PASS, FAIL, PENDING, NO_BASELINE
+	}
+
+	@Autowired
+	private PerfTestService perfTestService;
+
+	/**
+	 * Compare the given tests with the first one.
+	 *
+	 * @param tests      finished tests
+	 * @param alignment  alignment
+	 * @param fromSecond start of the elapsed time window. It's used only for {@link Alignment#ELAPSED}.
+	 * @param toSecond   end of the elapsed time window. 0 for the end of the shortest test.
+	 * @return map containing the window and the deltas of each test
+	 */
+	public Map<String, Object> compare(List<PerfTest> tests, Alignment alignment, int fromSecond, int toSecond) {
+		checkArgument(tests.size() >= 2, "at least 2 tests should be provided");
+		if (alignment == Alignment.ELAPSED && toSecond <= 0) {
+			toSecond = Integer.MAX_VALUE;
+			for (PerfTest each : tests) {
+				toSecond = Math.min(toSecond, getRunningSecond(each));
+			}
+			checkArgument(toSecond > fromSecond, "tests are shorter than %s seconds", fromSecond);
+		}
+		Map<Long, int[]> windows = new LinkedHashMap<Long, int[]>();
+		Map<Long, List<StatisticDelta>> deltas = new LinkedHashMap<Long, List<StatisticDelta>>();
+		PerfTest baseline = tests.get(0);
+		int[] baselineWindow = getWindow(baseline, alignment, fromSecond, toSecond);
+		windows.put(baseline.getId(), baselineWindow);
+		for (PerfTest each : tests.subList(1, tests.size())) {
+			int[] window = getWindow(each, alignment, fromSecond, toSecond);
+			windows.put(each.getId(), window);
+			deltas.put(each.getId(), compare(baseline, baselineWindow, each, window));
+		}
+		Map<String, Object> result = new LinkedHashMap<String, Object>();
+		result.put("baselineId", baseline.getId());
+		result.put("alignment", alignment);
+		result.put("windows", windows);
+		result.put("deltas", deltas);
+		return result;
+	}
+
+	/**
+	 * Check if the given test doesn't regress from its baseline. A statistic regresses when it
+	 * gets significantly worse by more than the given tolerance.
+	 *
+	 * @param baseline         baseline test. null if the test has no baseline.
+	 * @param test             test
+	 * @param tolerancePercent tolerance in percent
+	 * @return map containing the {@link GateResult} and the deltas
+	 */
+	public Map<String, Object> checkBaseline(PerfTest baseline, PerfTest test, double tolerancePercent) {
+		Map<String, Object> result = new LinkedHashMap<String, Object>();
+		if (baseline == null) {
+			result.put("result", GateResult.NO_BASELINE);
+			return result;
+		}
+		result.put("baselineId", baseline.getId());
+		if (!test.getStatus().isReportable()) {
+			result.put("result", GateResult.PENDING);
+			return result;
+		}
+		if (test.getStatus() != Status.FINISHED) {
+			result.put("result", GateResult.FAIL);
+			result.put("message", "test is " + test.getStatus());
+			return result;
+		}
+		List<StatisticDelta> deltas = compare(baseline, getWindow(baseline, Alignment.STEADY_STATE, 0, 0), test,
+				getWindow(test, Alignment.STEADY_STATE, 0, 0));
+		List<StatisticDelta> regressions = new ArrayList<StatisticDelta>();
+		for (StatisticDelta each : deltas) {
+			if (isRegression(each, tolerancePercent)) {
+				each.setRegression(true);
+				regressions.add(each);
+			}
+		}
+		result.put("result", regressions.isEmpty() ? GateResult.PASS : GateResult.FAIL);
+		result.put("regressions", regressions);
+		result.put("deltas", deltas);
+		return result;
+	}
+
+	static boolean isRegression(StatisticDelta delta, double tolerancePercent) {
+		if (!delta.isSignificant()) {
+			return false;
+		}
+		boolean higherIsBetter = COMPARED_STATISTICS.get(delta.getStatistic());
+		if (higherIsBetter ? delta.getDelta() >= 0 : delta.getDelta() <= 0) {
+			return false;
+		}
+		// A new failure of the statistic which was zero in the baseline is always a regression.
+		return delta.getDeltaPercent() == null || Math.abs(delta.getDeltaPercent()) > tolerancePercent;
+	}
+
+	private List<StatisticDelta> compare(PerfTest baseline, int[] baselineWindow, PerfTest test, int[] window) {
+		Map<String, Map<String, ReportWindowStatistics>> baselineStatistics = getReportStatistics(baseline,
+				baselineWindow);
+		Map<String, Map<String, ReportWindowStatistics>> statistics = getReportStatistics(test, window);
+		List<StatisticDelta> deltas = new ArrayList<StatisticDelta>();
+		for (String statistic : COMPARED_STATISTICS.keySet()) {
+			Map<String, ReportWindowStatistics> baselinePerTest = baselineStatistics.get(statistic);
+			Map<String, ReportWindowStatistics> perTest = statistics.get(statistic);
+			if (baselinePerTest == null || perTest == null) {
+				continue;
+			}
+			for (Map.Entry<String, ReportWindowStatistics> each : baselinePerTest.entrySet()) {
+				ReportWindowStatistics compared = perTest.get(each.getKey());
+				if (compared != null && compared.getCount() > 0 && each.getValue().getCount() > 0) {
+					deltas.add(StatisticDelta.compare(statistic, each.getKey(), each.getValue(), compared));
+				}
+			}
+		}
+		return deltas;
+	}
+
+	private Map<String, Map<String, ReportWindowStatistics>> getReportStatistics(PerfTest test, int[] window) {
+		return perfTestService.getReportStatistics(test.getId(), getSafe(test.getSamplingInterval()), window[0],
+				window[1], COMPARED_STATISTICS.keySet());
+	}
+
+	/**
+	 * Get the window of the given test in the elapsed seconds. The steady state window detected
+	 * when the test finished is used if it exists.
+	 */
+	int[] getWindow(PerfTest test, Alignment alignment, int fromSecond, int toSecond) {
+		if (alignment == Alignment.ELAPSED) {
+			return new int[]{fromSecond, toSecond};
+		}
+		if (test.getSteadyStateStart() != null && test.getSteadyStateEnd() != null) {
+			return new int[]{test.getSteadyStateStart(), test.getSteadyStateEnd()};
+		}
+		return new int[]{getWarmUpSecond(test), 0};
+	}
+
+	/**
+	 * Get the seconds until all the vusers are started and the ignored samples are passed. It's
+	 * used for the tests finished before the steady state detection.
+	 */
+	int getWarmUpSecond(PerfTest test) {
+		long warmUp = getSafe(test.getIgnoreSampleCount()) * Math.max(getSafe(test.getSamplingInterval()), 1) * 1000L;
+		if (getSafe(test.getUseRampUp())) {
+			int target = getSafe(test.getRampUpType() == RampUp.THREAD ? test.getThreads() : test.getProcesses());
+			int step = Math.max(getSafe(test.getRampUpStep()), 1);
+			int steps = (Math.max(target - getSafe(test.getRampUpInitCount()), 0) + step - 1) / step;
+			warmUp = Math.max(warmUp, getSafe(test.getRampUpInitSleepTime())
+					+ (long) steps * getSafe(test.getRampUpIncrementInterval()));
+		}
+		return (int) ((warmUp + 999) / 1000);
+	}
+
+	private int getRunningSecond(PerfTest test) {
+		if (test.getStartTime() == null || test.getFinishTime() == null) {
+			return 0;
+		}
+		return (int) ((test.getFinishTime().getTime() - test.getStartTime().getTime()) / 1000);
+	}
+}
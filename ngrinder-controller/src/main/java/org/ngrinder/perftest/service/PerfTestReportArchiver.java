@@ -0,0 +1,142 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ngrinder.perftest.service;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang.time.DateUtils;
+import org.ngrinder.infra.config.Config;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.ngrinder.common.constant.ControllerConstants.PROP_CONTROLLER_REPORT_ARCHIVE_DAYS;
+
+/**
+ * Compact the reports of the old tests into {@link ReportArchive}s. It executes once each day.
+ *
+ * Each run scans only the tests finished since the finish time the previous run reached. The
+ * statistics are kept in an immutable snapshot so that reading them doesn't wait for the run.
+ *
+ * @author JunHo Yoon
+ * @since 3.4.1
+ */
+@Service
+public class PerfTestReportArchiver {
+	private static final Logger LOGGER = LoggerFactory.getLogger(PerfTestReportArchiver.class);
+
+	@Autowired
+	private Config config;
+
+	@Autowired
+	private PerfTestService perfTestService;
+
+	// The finish time before which all tests are archived. Guarded by this.
+	private Date archivedUntil;
+
+	private volatile Statistics statistics = new Statistics(null, 0, 0, 0, 0);
+
+	/**
+	 * Archive the reports of the tests finished before the configured days.
+	 */
+	@Scheduled(cron = "0 31 2 * * ?")
+	public void archive() {
+		int days = config.getControllerProperties().getPropertyInt(PROP_CONTROLLER_REPORT_ARCHIVE_DAYS);
+		if (days <= 0) {
+			return;
+		}
+		archive(DateUtils.addDays(new Date(), -days));
+	}
+
+	/**
+	 * Archive the reports of the tests finished before the given time. The tests finished before
+	 * the time which the previous call reached without an error are skipped.
+	 *
+	 * @param finishTime finish time
+	 */
+	public synchronized void archive(Date finishTime) {
+		int archivedTests = 0;
+		long reclaimedBytes = 0;
+		boolean failed = false;
+		for (Long each : perfTestService.getFinishedTestIds(archivedUntil, finishTime)) {
+			File reportDirectory = config.getHome().getExistingPerfTestReportDirectory(String.valueOf(each));
+			if (reportDirectory == null || !reportDirectory.isDirectory()) {
+				continue;
+			}
+			ReportArchive report = new ReportArchive(reportDirectory);
+			boolean archived = report.isArchived();
+			try {
+				reclaimedBytes += report.archive();
+				if (!archived && report.isArchived()) {
+					archivedTests++;
+				}
+			} catch (IOException e) {
+				failed = true;
+				LOGGER.error("Failed to archive the report of test {} : {}", each, e.getMessage());
+			}
+		}
+		// The failed tests are tried again in the next run.
+		if (!failed && (archivedUntil == null || finishTime.after(archivedUntil))) {
+			archivedUntil = finishTime;
+		}
+		Statistics previous = statistics;
+		statistics = new Statistics(new Date(), archivedTests, reclaimedBytes,
+				previous.totalArchivedTests + archivedTests, previous.totalReclaimedBytes + reclaimedBytes);
+		LOGGER.info("{} test reports finished before {} are archived and {} is reclaimed.", new Object[]{
+				archivedTests, finishTime, FileUtils.byteCountToDisplaySize(Math.max(reclaimedBytes, 0))});
+	}
+
+	/**
+	 * Get the statistics of the archiving.
+	 *
+	 * @return statistics map
+	 */
+	public Map<String, Object> getStatistics() {
+		Statistics current = statistics;
+		Map<String, Object> result = new LinkedHashMap<String, Object>();
+		result.put("lastRun", current.lastRun);
+		result.put("archivedTests", current.archivedTests);
+		result.put("reclaimedBytes", current.reclaimedBytes);
+		result.put("totalArchivedTests", current.totalArchivedTests);
+		result.put("totalReclaimedBytes", current.totalReclaimedBytes);
+		return result;
+	}
+
+	/**
+	 * Statistics at the end of a run.
+	 */
+	private static final class Statistics {
+		private final Date lastRun;
+		private final int archivedTests;
+		private final long reclaimedBytes;
+		private final long totalArchivedTests;
+		private final long totalReclaimedBytes;
+
+		Statistics(Date lastRun, int archivedTests, long reclaimedBytes, long totalArchivedTests,
+		           long totalReclaimedBytes) {
+			this.lastRun = lastRun;
+			this.archivedTests = archivedTests;
+			this.reclaimedBytes = reclaimedBytes;
+			this.totalArchivedTests = totalArchivedTests;
+			this.totalReclaimedBytes = totalReclaimedBytes;
+		}
+	}
+}
@@ -87,6 +87,9 @@ public class PerfTestRunnable implements ControllerConstants {
 	@Autowired
 	private ScheduledTaskService scheduledTaskService;
 
+	@Autowired
+	private SamplingPluginMonitor samplingPluginMonitor;
+
 	private Runnable startRunnable;
 
 	private Runnable finishRunnable;
@@ -365,7 +368,7 @@ public class PerfTestRunnable implements ControllerConstants {
 				(OnTestSamplingRunnable.class, new MonitorCollectorPlugin(config, scheduledTaskService,
 						perfTestService, perfTest.getId()));
 		singleConsole.addSamplingLifeCyleListener(new PluginRunListener(testSamplingPlugins, singleConsole,
-				perfTest, perfTestService));
+				perfTest, perfTestService, samplingPluginMonitor));
 		singleConsole.addSamplingLifeCyleListener(new AgentDieHardListener(singleConsole, perfTest, perfTestService,
 				agentManager, scheduledTaskService));
 	}
@@ -30,18 +30,23 @@ import org.apache.commons.collections.Predicate;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.io.IOUtils;
-import org.apache.commons.io.filefilter.WildcardFileFilter;
 import org.apache.commons.io.output.ByteArrayOutputStream;
 import org.apache.commons.lang.BooleanUtils;
 import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang.math.NumberUtils;
 import org.hibernate.Hibernate;
 import org.ngrinder.common.constant.ControllerConstants;
 import org.ngrinder.common.constants.GrinderConstants;
+import org.ngrinder.common.metrics.Histogram;
+import org.ngrinder.common.metrics.MetricRegistry;
 import org.ngrinder.infra.config.Config;
+import org.ngrinder.infra.logger.IndexedLogStore;
 import org.ngrinder.model.*;
 import org.ngrinder.monitor.controller.model.SystemDataModel;
 import org.ngrinder.perftest.model.PerfTestStatistics;
+import org.ngrinder.perftest.model.PerfTestSummary;
 import org.ngrinder.perftest.model.ProcessAndThread;
+import org.ngrinder.perftest.model.ReportWindowStatistics;
 import org.ngrinder.perftest.repository.PerfTestRepository;
 import org.ngrinder.script.handler.NullScriptHandler;
 import org.ngrinder.script.handler.ProcessingResultPrintStream;
@@ -60,13 +65,12 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specifications;
 import org.springframework.transaction.annotation.Transactional;
 
-import javax.script.ScriptEngine;
-import javax.script.ScriptEngineManager;
-import javax.script.ScriptException;
 import java.io.*;
 import java.util.*;
 import java.util.Map.Entry;
 
+import static org.apache.commons.io.filefilter.FileFilterUtils.nameFileFilter;
+import static org.apache.commons.io.filefilter.FileFilterUtils.notFileFilter;
 import static org.ngrinder.common.constants.MonitorConstants.MONITOR_FILE_PREFIX;
 import static org.ngrinder.common.util.AccessUtils.getSafe;
 import static org.ngrinder.common.util.CollectionUtils.*;
@@ -94,6 +98,12 @@ public class PerfTestService extends AbstractPerfTestService implements Controll
 
 	private static final String DATA_FILE_EXTENSION = ".data";
 
+	private static final Histogram DB_WRITE_DURATION = MetricRegistry.getDefault().histogram(
+			"ngrinder_db_write_duration_seconds", "Time taken to write the perf test to the database.", "operation");
+
+	private static final Histogram REPORT_READ_DURATION = MetricRegistry.getDefault().histogram(
+			"ngrinder_report_read_duration_seconds", "Time taken to read the report data of a perf test.");
+
 	@Autowired
 	private PerfTestRepository perfTestRepository;
 
@@ -115,6 +125,8 @@ public class PerfTestService extends AbstractPerfTestService implements Controll
 	@Autowired
 	private ScriptHandlerFactory scriptHandlerFactory;
 
+	private volatile ProcessAndThreadPolicy processAndThreadPolicy;
+
 	/**
 	 * Get {@link PerfTest} list for the given user.
 	 *
@@ -126,6 +138,64 @@ public class PerfTestService extends AbstractPerfTestService implements Controll
 	 * @return found {@link PerfTest} list
 	 */
 	public Page<PerfTest> getPagedAll(User user, String query, String tag, String queryFilter, Pageable pageable) {
+		return perfTestRepository.findAll(createListSpec(user, query, tag, queryFilter), pageable);
+	}
+
+	/**
+	 * Get {@link PerfTestSummary} list for the given user by the keyset pagination on the created
+	 * date and id. The next page starts after the last summary of the previous page.
+	 *
+	 * @param user        user
+	 * @param query       query string on test name or description
+	 * @param tag         search tag.
+	 * @param queryFilter "S" for querying scheduled test, "F" for querying finished test
+	 * @param createdDate created date of the last test in the previous page. null for the first page.
+	 * @param id          id of the last test in the previous page. null for the first page.
+	 * @param size        max count of the summaries
+	 * @return found {@link PerfTestSummary} list
+	 * @since 3.4.1
+	 */
+	public List<PerfTestSummary> getSummaries(User user, String query, String tag, String queryFilter,
+	                                          Date createdDate, Long id, int size) {
+		Specifications<PerfTest> spec = createListSpec(user, query, tag, queryFilter);
+		if (createdDate != null && id != null) {
+			spec = spec.and(createdBefore(createdDate, id));
+		}
+		return perfTestRepository.findAllSummaries(spec, 0, size);
+	}
+
+	/**
+	 * Get the lastly created {@link PerfTest}s for the given user. Unlike
+	 * {@link #getPagedAll(User, String, String, String, Pageable)}, no count query is run and only
+	 * the tests in the page are loaded as the entities.
+	 *
+	 * @param user   user
+	 * @param offset the count of the tests to skip
+	 * @param size   max count of the tests
+	 * @return found {@link PerfTest} list ordered by the created date descending
+	 * @since 3.4.1
+	 */
+	public List<PerfTest> getLatest(User user, int offset, int size) {
+		List<PerfTestSummary> summaries = perfTestRepository.findAllSummaries(createListSpec(user, null, null, null),
+				offset, size);
+		Long[] ids = new Long[summaries.size()];
+		for (int i = 0; i < ids.length; i++) {
+			ids[i] = summaries.get(i).getId();
+		}
+		Map<Long, PerfTest> tests = newHashMap();
+		for (PerfTest each : getAll(user, ids)) {
+			tests.put(each.getId(), each);
+		}
+		List<PerfTest> result = newArrayList();
+		for (Long each : ids) {
+			if (tests.containsKey(each)) {
+				result.add(tests.get(each));
+			}
+		}
+		return result;
+	}
+
+	private Specifications<PerfTest> createListSpec(User user, String query, String tag, String queryFilter) {
 		Specifications<PerfTest> spec = Specifications.where(idEmptyPredicate());
 		// User can see only his own test
 		if (user.getRole().equals(Role.USER)) {
@@ -146,7 +216,7 @@ public class PerfTestService extends AbstractPerfTestService implements Controll
 		if (StringUtils.isNotBlank(query)) {
 			spec = spec.and(likeTestNameOrDescription(query));
 		}
-		return perfTestRepository.findAll(spec, pageable);
+		return spec;
 	}
 
 	/**
@@ -612,6 +682,8 @@ public class PerfTestService extends AbstractPerfTestService implements Controll
 			grinderProperties.setProperty(GRINDER_PROP_JVM_CLASSPATH, getCustomClassPath(perfTest));
 			grinderProperties.setInt(GRINDER_PROP_IGNORE_SAMPLE_COUNT, getSafe(perfTest.getIgnoreSampleCount()));
 			grinderProperties.setBoolean(GRINDER_PROP_SECURITY, config.isSecurityEnabled());
+			grinderProperties.setProperty(GRINDER_PROP_JVM_PROFILE,
+					getSafe(perfTest.getJvmProfile(), JvmProfile.DEFAULT).name());
 			// For backward agent compatibility.
 			// If the security is not enabled, pass it as jvm argument.
 			// If enabled, pass it to grinder.param. In this case, I drop the
@@ -682,17 +754,23 @@ public class PerfTestService extends AbstractPerfTestService implements Controll
 	 * @return optimal process thread count
 	 */
 	public ProcessAndThread calcProcessAndThread(int newVuser) {
-		try {
-			String script = getProcessAndThreadPolicyScript();
-			ScriptEngine engine = new ScriptEngineManager().getEngineByName("javascript");
-			engine.eval(script);
-			int processCount = ((Double) engine.eval("getProcessCount(" + newVuser + ")")).intValue();
-			int threadCount = ((Double) engine.eval("getThreadCount(" + newVuser + ")")).intValue();
-			return new ProcessAndThread(processCount, threadCount);
-		} catch (ScriptException e) {
-			LOGGER.error("Error occurs while calc process and thread", e);
+		return getProcessAndThreadPolicy().calculate(newVuser);
+	}
+
+	/**
+	 * Get the compiled process and thread policy. It's compiled again only when the policy script
+	 * is changed.
+	 *
+	 * @return compiled policy
+	 */
+	ProcessAndThreadPolicy getProcessAndThreadPolicy() {
+		String script = getProcessAndThreadPolicyScript();
+		ProcessAndThreadPolicy policy = processAndThreadPolicy;
+		if (policy == null || !policy.isCompiledFrom(script)) {
+			policy = new ProcessAndThreadPolicy(script);
+			processAndThreadPolicy = policy;
 		}
-		return new ProcessAndThread(1, 1);
+		return policy;
 	}
 
 	/**
@@ -706,33 +784,45 @@ public class PerfTestService extends AbstractPerfTestService implements Controll
 	 */
 	public int getReportDataInterval(long testId, String dataType, int imgWidth) {
 		int pointCount = Math.max(imgWidth, MAX_POINT_COUNT);
-		File reportFolder = config.getHome().getPerfTestReportDirectory(String.valueOf(testId));
+		ReportArchive report = getReportArchive(testId);
 		int interval = 0;
-		File targetFile = new File(reportFolder, dataType + DATA_FILE_EXTENSION);
-		if (!targetFile.exists()) {
+		String path = dataType + DATA_FILE_EXTENSION;
+		if (!report.exists(path)) {
 			LOGGER.warn("Report {} for test {} does not exist.", dataType, testId);
 			return 0;
 		}
-		LineNumberReader lnr = null;
-
-		FileInputStream in = null;
-		InputStreamReader isr = null;
 		try {
-			in = new FileInputStream(targetFile);
-			isr = new InputStreamReader(in);
-			lnr = new LineNumberReader(isr);
-			lnr.skip(targetFile.length());
-			int lineNumber = lnr.getLineNumber() + 1;
-			interval = Math.max(lineNumber / pointCount, 1);
+			interval = Math.max(getLineCount(report, path) / pointCount, 1);
 		} catch (Exception e) {
 			LOGGER.error("Failed to get report data for {}", dataType, e);
+		}
+		return interval;
+	}
+
+	/*
+	 * Get the line count of the given report file. The empty last line is counted as well.
+	 */
+	private int getLineCount(ReportArchive report, String path) throws IOException {
+		LineNumberReader lnr = null;
+		try {
+			lnr = new LineNumberReader(new InputStreamReader(report.open(path)));
+			lnr.skip(Long.MAX_VALUE);
+			return lnr.getLineNumber() + 1;
 		} finally {
 			IOUtils.closeQuietly(lnr);
-			IOUtils.closeQuietly(isr);
-			IOUtils.closeQuietly(in);
 		}
+	}
 
-		return interval;
+	/**
+	 * Get the report files of the given test. They may be compacted into an archive by
+	 * {@link PerfTestReportArchiver}. Reading them doesn't create the report directory.
+	 *
+	 * @param testId test id
+	 * @return {@link ReportArchive}
+	 * @since 3.4.1
+	 */
+	public ReportArchive getReportArchive(long testId) {
+		return new ReportArchive(config.getHome().getPerfTestReportPath(String.valueOf(testId)));
 	}
 
 	/**
@@ -789,7 +879,7 @@ public class PerfTestService extends AbstractPerfTestService implements Controll
 		if (!logFileDirectory.exists() || !logFileDirectory.isDirectory()) {
 			return Collections.emptyList();
 		}
-		return Arrays.asList(logFileDirectory.list());
+		return Arrays.asList(logFileDirectory.list(notFileFilter(nameFileFilter(IndexedLogStore.INDEX_DIRECTORY))));
 	}
 
 
@@ -814,7 +904,9 @@ public class PerfTestService extends AbstractPerfTestService implements Controll
 	public void saveStatistics(SingleConsole singleConsole, Long perfTestId) {
 		String runningSample = getProperSizeRunningSample(singleConsole);
 		String agentState = getProperSizedStatusString(singleConsole);
+		long startNanos = System.nanoTime();
 		updateRuntimeStatistics(perfTestId, runningSample, agentState);
+		DB_WRITE_DURATION.observeSince(startNanos, "save_statistics");
 	}
 
 	private String getProperSizeRunningSample(SingleConsole singleConsole) {
@@ -964,7 +1056,57 @@ public class PerfTestService extends AbstractPerfTestService implements Controll
 		perfTest.setPeakTps(parseDoubleWithSafety(totalStatistics, "Peak_TPS", 0D));
 		perfTest.setTests(MapUtils.getDouble(totalStatistics, "Tests", 0D).longValue());
 		perfTest.setErrors(MapUtils.getDouble(totalStatistics, "Errors", 0D).longValue());
+		updateSteadyStateStatistics(perfTest);
+	}
 
+	/**
+	 * Detect the steady state window from the TPS and the mean test time reports and record the
+	 * statistics within the window apart from the total statistics.
+	 *
+	 * @param perfTest perf test
+	 * @since 3.4.1
+	 */
+	void updateSteadyStateStatistics(PerfTest perfTest) {
+		ReportArchive report = getReportArchive(perfTest.getId());
+		List<Double> tps;
+		List<Double> meanTestTime;
+		try {
+			tps = getFileData(report, "TPS" + DATA_FILE_EXTENSION, 0, Integer.MAX_VALUE);
+			meanTestTime = getFileData(report, "Mean_Test_Time_(ms)" + DATA_FILE_EXTENSION, 0, Integer.MAX_VALUE);
+		} catch (IOException e) {
+			LOGGER.info("Steady state of test {} is not detected : {}", perfTest.getId(), e.getMessage());
+			return;
+		}
+		int[] window = SteadyStateDetector.detect(Lists.newArrayList(tps, meanTestTime));
+		if (window[1] <= window[0]) {
+			return;
+		}
+		double tpsSum = 0;
+		int tpsCount = 0;
+		double peakTps = 0;
+		double testTimeSum = 0;
+		double testTimeWeight = 0;
+		for (int i = window[0]; i < window[1]; i++) {
+			Double eachTps = tps.get(i);
+			if (eachTps == null) {
+				continue;
+			}
+			tpsSum += eachTps;
+			tpsCount++;
+			peakTps = Math.max(peakTps, eachTps);
+			// The mean test time of each sample is weighted by the tests executed in it.
+			Double eachTestTime = meanTestTime.get(i);
+			if (eachTestTime != null) {
+				testTimeSum += eachTestTime * eachTps;
+				testTimeWeight += eachTps;
+			}
+		}
+		int samplingInterval = Math.max(getSafe(perfTest.getSamplingInterval()), 1);
+		perfTest.setSteadyStateStart(window[0] * samplingInterval);
+		perfTest.setSteadyStateEnd(window[1] * samplingInterval);
+		perfTest.setSteadyTps(tpsCount == 0 ? 0D : tpsSum / tpsCount);
+		perfTest.setSteadyPeakTps(peakTps);
+		perfTest.setSteadyMeanTestTime(testTimeWeight == 0 ? 0D : testTimeSum / testTimeWeight);
 	}
 
 	/**
@@ -1185,29 +1327,15 @@ public class PerfTestService extends AbstractPerfTestService implements Controll
 	 * @return interval value.
 	 */
 	public int getMonitorGraphInterval(long testId, String targetIP, int imageWidth) {
-		File monitorDataFile = new File(config.getHome().getPerfTestReportDirectory(String.valueOf(testId)),
-				MONITOR_FILE_PREFIX + targetIP + ".data");
-
+		String monitorDataFile = MONITOR_FILE_PREFIX + targetIP + DATA_FILE_EXTENSION;
 		int pointCount = Math.max(imageWidth, MAX_POINT_COUNT);
-		FileInputStream in = null;
-		InputStreamReader isr = null;
-		LineNumberReader lnr = null;
 		int interval = 0;
 		try {
-			in = new FileInputStream(monitorDataFile);
-			isr = new InputStreamReader(in);
-			lnr = new LineNumberReader(isr);
-			lnr.skip(monitorDataFile.length());
-			int lineNumber = lnr.getLineNumber() + 1;
-			interval = Math.max(lineNumber / pointCount, 1);
+			interval = Math.max(getLineCount(getReportArchive(testId), monitorDataFile) / pointCount, 1);
 		} catch (FileNotFoundException e) {
 			LOGGER.info("Monitor data file does not exist at {}", monitorDataFile);
 		} catch (IOException e) {
 			LOGGER.info("Error while getting monitor:{} data file:{}", targetIP, monitorDataFile);
-		} finally {
-			IOUtils.closeQuietly(lnr);
-			IOUtils.closeQuietly(isr);
-			IOUtils.closeQuietly(in);
 		}
 		return interval;
 	}
@@ -1223,8 +1351,7 @@ public class PerfTestService extends AbstractPerfTestService implements Controll
 	 */
 	public Map<String, String> getMonitorGraph(long testId, String targetIP, int dataInterval) {
 		Map<String, String> returnMap = Maps.newHashMap();
-		File monitorDataFile = new File(config.getHome().getPerfTestReportDirectory(String.valueOf(testId)),
-				MONITOR_FILE_PREFIX + targetIP + ".data");
+		String monitorDataFile = MONITOR_FILE_PREFIX + targetIP + DATA_FILE_EXTENSION;
 		BufferedReader br = null;
 		try {
 
@@ -1238,7 +1365,7 @@ public class PerfTestService extends AbstractPerfTestService implements Controll
 			StringBuilder customData4 = new StringBuilder("[");
 			StringBuilder customData5 = new StringBuilder("[");
 
-			br = new BufferedReader(new FileReader(monitorDataFile));
+			br = new BufferedReader(new InputStreamReader(getReportArchive(testId).open(monitorDataFile)));
 			br.readLine(); // skip the header.
 			// "ip,system,collectTime,freeMemory,totalMemory,cpuUsedPercentage,receivedPerSec,sentPerSec"
 			String line = br.readLine();
@@ -1320,7 +1447,7 @@ public class PerfTestService extends AbstractPerfTestService implements Controll
 	 * @return interval value.
 	 */
 	public int getReportPluginGraphInterval(long testId, String plugin, String kind, int imageWidth) {
-		return getRecordInterval(imageWidth, getReportPluginDataFile(testId, plugin, kind));
+		return getRecordInterval(imageWidth, getReportArchive(testId), getReportPluginDataFile(plugin, kind));
 	}
 
 	/**
@@ -1331,16 +1458,10 @@ public class PerfTestService extends AbstractPerfTestService implements Controll
 	 */
 	public List<Pair<String, String>> getAvailableReportPlugins(Long testId) {
 		List<Pair<String, String>> result = newArrayList();
-		File reportDir = getReportFileDirectory(testId);
-		if (reportDir.exists()) {
-			for (File plugin : checkNotNull(reportDir.listFiles())) {
-				if (plugin.isDirectory()) {
-					for (String kind : checkNotNull(plugin.list())) {
-						if (kind.endsWith(".data")) {
-							result.add(Pair.of(plugin.getName(), FilenameUtils.getBaseName(kind)));
-						}
-					}
-				}
+		for (String each : getReportArchive(testId).list()) {
+			String[] paths = StringUtils.split(each, "/");
+			if (paths.length == 2 && paths[1].endsWith(DATA_FILE_EXTENSION)) {
+				result.add(Pair.of(paths[0], FilenameUtils.getBaseName(paths[1])));
 			}
 		}
 		return result;
@@ -1349,10 +1470,8 @@ public class PerfTestService extends AbstractPerfTestService implements Controll
 	/*
 	 * Plugin monitor data should be {TestReportDir}/{plugin}/{kind}.data
 	 */
-	private File getReportPluginDataFile(Long testId, String plugin, String kind) {
-		File reportDir = getReportFileDirectory(testId);
-		File pluginDir = new File(reportDir, plugin);
-		return new File(pluginDir, kind + ".data");
+	private String getReportPluginDataFile(String plugin, String kind) {
+		return plugin + "/" + kind + DATA_FILE_EXTENSION;
 	}
 
 	/*
@@ -1360,28 +1479,17 @@ public class PerfTestService extends AbstractPerfTestService implements Controll
 	 * there will be too many points in the chart. So we will calculate the interval to get appropriate count of data to
 	 * display. For example, interval value "2" means, get one record for every "2" records.
 	 */
-	private int getRecordInterval(int imageWidth, File dataFile) {
+	private int getRecordInterval(int imageWidth, ReportArchive report, String dataFile) {
 		int pointCount = Math.max(imageWidth, MAX_POINT_COUNT);
-		FileInputStream in = null;
-		InputStreamReader isr = null;
-		LineNumberReader lnr = null;
 		int interval = 0;
 		try {
-			in = new FileInputStream(dataFile);
-			isr = new InputStreamReader(in);
-			lnr = new LineNumberReader(isr);
-			lnr.skip(dataFile.length());
-			interval = Math.max((lnr.getLineNumber() + 1) / pointCount, 1);
+			interval = Math.max(getLineCount(report, dataFile) / pointCount, 1);
 		} catch (FileNotFoundException e) {
 			LOGGER.error("data file not exist:{}", dataFile);
 			LOGGER.error(e.getMessage(), e);
 		} catch (IOException e) {
 			LOGGER.error("Error while getting data file:{}", dataFile);
 			LOGGER.error(e.getMessage(), e);
-		} finally {
-			IOUtils.closeQuietly(lnr);
-			IOUtils.closeQuietly(isr);
-			IOUtils.closeQuietly(in);
 		}
 		return interval;
 	}
@@ -1398,10 +1506,10 @@ public class PerfTestService extends AbstractPerfTestService implements Controll
 	 */
 	public Map<String, Object> getReportPluginGraph(long testId, String plugin, String kind, int interval) {
 		Map<String, Object> returnMap = Maps.newHashMap();
-		File pluginDataFile = getReportPluginDataFile(testId, plugin, kind);
+		String pluginDataFile = getReportPluginDataFile(plugin, kind);
 		BufferedReader br = null;
 		try {
-			br = new BufferedReader(new FileReader(pluginDataFile));
+			br = new BufferedReader(new InputStreamReader(getReportArchive(testId).open(pluginDataFile)));
 			String header = br.readLine();
 
 			StringBuilder headerSB = new StringBuilder("[");
@@ -1464,8 +1572,7 @@ public class PerfTestService extends AbstractPerfTestService implements Controll
 	 * @return json list
 	 */
 	public String getSingleReportDataAsJson(long testId, String key, int interval) {
-		File reportDataFile = getReportDataFile(testId, key);
-		return getFileDataAsJson(reportDataFile, interval);
+		return getFileDataAsJson(getReportArchive(testId), getReportDataFile(key), interval);
 	}
 
 	/**
@@ -1478,10 +1585,12 @@ public class PerfTestService extends AbstractPerfTestService implements Controll
 	 * @return list containing label and tps value list
 	 */
 	public Pair<ArrayList<String>, ArrayList<String>> getReportData(long testId, String key, boolean onlyTotal, int interval) {
+		long startNanos = System.nanoTime();
 		Pair<ArrayList<String>, ArrayList<String>> resultPair = Pair.of(new ArrayList<String>(),
 				new ArrayList<String>());
-		List<File> reportDataFiles = onlyTotal ? Lists.newArrayList(getReportDataFile(testId, key)) : getReportDataFiles(testId, key);
-		for (File file : reportDataFiles) {
+		ReportArchive report = getReportArchive(testId);
+		List<String> reportDataFiles = onlyTotal ? Lists.newArrayList(getReportDataFile(key)) : getReportDataFiles(report, key);
+		for (String file : reportDataFiles) {
 			String buildReportName = buildReportName(key, file);
 			if (key.equals(buildReportName)) {
 				buildReportName = "Total";
@@ -1489,13 +1598,14 @@ public class PerfTestService extends AbstractPerfTestService implements Controll
 				buildReportName = buildReportName.replace("_", " ");
 			}
 			resultPair.getFirst().add(buildReportName);
-			resultPair.getSecond().add(getFileDataAsJson(file, interval));
+			resultPair.getSecond().add(getFileDataAsJson(report, file, interval));
 		}
+		REPORT_READ_DURATION.observeSince(startNanos);
 		return resultPair;
 	}
 
-	private String buildReportName(String key, File file) {
-		String reportName = FilenameUtils.removeExtension(file.getName());
+	private String buildReportName(String key, String file) {
+		String reportName = FilenameUtils.removeExtension(file);
 		if (key.equals(reportName)) {
 			return reportName;
 		}
@@ -1506,54 +1616,111 @@ public class PerfTestService extends AbstractPerfTestService implements Controll
 		return reportName;
 	}
 
-	/**
-	 * Get a single file for the given report key.
-	 *
-	 * @param testId test id
-	 * @param key    key
-	 * @return return file
+	/*
+	 * Get a single report file path for the given report key.
 	 */
-	public File getReportDataFile(long testId, String key) {
-		File reportFolder = config.getHome().getPerfTestReportDirectory(String.valueOf(testId));
-		return new File(reportFolder, key + ".data");
+	private String getReportDataFile(String key) {
+		return key + DATA_FILE_EXTENSION;
 	}
 
-	/**
-	 * Get files respectively if there are multiple tests.
-	 *
-	 * @param testId test id
-	 * @param key    report key
-	 * @return return file list
-	 */
-	public List<File> getReportDataFiles(long testId, String key) {
-		File reportFolder = config.getHome().getPerfTestReportDirectory(String.valueOf(testId));
-		FileFilter fileFilter = new WildcardFileFilter(key + "*.data");
-		File[] files = reportFolder.listFiles(fileFilter);
-		Arrays.sort(files, new Comparator<File>() {
+	/*
+	 * Get report file paths respectively if there are multiple tests.
+	 */
+	private List<String> getReportDataFiles(ReportArchive report, String key) {
+		List<String> files = newArrayList();
+		for (String each : report.list()) {
+			if (each.indexOf('/') < 0 && FilenameUtils.wildcardMatch(each, key + "*" + DATA_FILE_EXTENSION)) {
+				files.add(each);
+			}
+		}
+		Collections.sort(files, new Comparator<String>() {
 			@Override
-			public int compare(File o1, File o2) {
-				return FilenameUtils.getBaseName(o1.getName()).compareTo(FilenameUtils.getBaseName(o2.getName()));
+			public int compare(String o1, String o2) {
+				return FilenameUtils.getBaseName(o1).compareTo(FilenameUtils.getBaseName(o2));
 			}
 		});
-		return Arrays.asList(files);
+		return files;
+	}
+
+	/**
+	 * Get the summaries of the given report statistics within the given time window. The
+	 * summaries are cached because the report of a finished test doesn't change.
+	 *
+	 * @param testId           test id
+	 * @param samplingInterval sampling interval of the test in second
+	 * @param fromSecond       start of the window in the elapsed second
+	 * @param toSecond         end of the window in the elapsed second. 0 for the end of the test.
+	 * @param statistics       statistic names
+	 * @return map of the statistic name to the map of the test name to the summary. The test name
+	 * of the whole tests is "Total".
+	 * @since 3.4.1
+	 */
+	@Cacheable("perftest_report_statistics")
+	public Map<String, Map<String, ReportWindowStatistics>> getReportStatistics(long testId, int samplingInterval,
+	                                                                            int fromSecond, int toSecond,
+	                                                                            Collection<String> statistics) {
+		ReportArchive report = getReportArchive(testId);
+		int interval = Math.max(samplingInterval, 1);
+		int fromRow = fromSecond / interval;
+		int toRow = toSecond <= 0 ? Integer.MAX_VALUE : (toSecond + interval - 1) / interval;
+		Map<String, Map<String, ReportWindowStatistics>> result = new HashMap<String, Map<String,
+				ReportWindowStatistics>>();
+		for (String statistic : statistics) {
+			Map<String, ReportWindowStatistics> perTest = new TreeMap<String, ReportWindowStatistics>();
+			for (String file : getReportDataFiles(report, statistic)) {
+				String name = buildReportName(statistic, file);
+				if (!statistic.equals(name) && FilenameUtils.getBaseName(file).equals(name)) {
+					// Another statistic having this statistic name as the prefix.
+					continue;
+				}
+				try {
+					perTest.put(statistic.equals(name) ? "Total" : name,
+							ReportWindowStatistics.of(getFileData(report, file, fromRow, toRow)));
+				} catch (IOException e) {
+					LOGGER.error("Report data retrieval is failed: {}", e.getMessage());
+				}
+			}
+			result.put(statistic, perTest);
+		}
+		return result;
+	}
+
+	/*
+	 * Get the rows of the given report file. The rows which are not collected are null.
+	 */
+	private List<Double> getFileData(ReportArchive report, String file, int fromRow, int toRow) throws IOException {
+		List<Double> values = new ArrayList<Double>();
+		BufferedReader reader = new BufferedReader(new InputStreamReader(report.open(file)));
+		try {
+			String line;
+			for (int row = 0; row < toRow && (line = reader.readLine()) != null; row++) {
+				if (row >= fromRow) {
+					values.add(NumberUtils.isNumber(line.trim()) ? Double.valueOf(line.trim()) : null);
+				}
+			}
+		} finally {
+			IOUtils.closeQuietly(reader);
+		}
+		return values;
 	}
 
 	/**
 	 * Get the test report data as a json string.
 	 *
-	 * @param targetFile target file
+	 * @param report     report files of the test
+	 * @param targetFile target file path
 	 * @param interval   interval to collect data
 	 * @return json string
 	 */
-	private String getFileDataAsJson(File targetFile, int interval) {
-		if (!targetFile.exists()) {
+	private String getFileDataAsJson(ReportArchive report, String targetFile, int interval) {
+		if (!report.exists(targetFile)) {
 			return "[]";
 		}
 		StringBuilder reportData = new StringBuilder("[");
-		FileReader reader = null;
+		Reader reader = null;
 		BufferedReader br = null;
 		try {
-			reader = new FileReader(targetFile);
+			reader = new InputStreamReader(report.open(targetFile));
 			br = new BufferedReader(reader);
 			String data = br.readLine();
 			int current = 0;
@@ -1600,5 +1767,53 @@ public class PerfTestService extends AbstractPerfTestService implements Controll
 		return perfTestRepository.findAllByCreatedTimeAndRegion(start, end, region);
 	}
 
+	/**
+	 * Get the ids of the tests in this region which have reports and were finished before the
+	 * given time.
+	 *
+	 * @param finishTime finish time
+	 * @return test ids
+	 * @since 3.4.1
+	 */
+	public List<Long> getFinishedTestIds(Date finishTime) {
+		List<Status> statuses = getReportableStatuses();
+		if (config.isClustered()) {
+			return perfTestRepository.findAllIdsByFinishTimeBeforeAndRegion(finishTime, statuses,
+					config.getRegion());
+		}
+		return perfTestRepository.findAllIdsByFinishTimeBefore(finishTime, statuses);
+	}
+
+	/**
+	 * Get the ids of the tests in this region which have reports and were finished in the given
+	 * period.
+	 *
+	 * @param from start time inclusive. null if all tests finished before the end time.
+	 * @param to   end time exclusive
+	 * @return test ids
+	 * @since 3.4.1
+	 */
+	public List<Long> getFinishedTestIds(Date from, Date to) {
+		if (from == null) {
+			return getFinishedTestIds(to);
+		}
+		List<Status> statuses = getReportableStatuses();
+		if (config.isClustered()) {
+			return perfTestRepository.findAllIdsByFinishTimeBetweenAndRegion(from, to, statuses,
+					config.getRegion());
+		}
+		return perfTestRepository.findAllIdsByFinishTimeBetween(from, to, statuses);
+	}
+
+	private List<Status> getReportableStatuses() {
+		List<Status> statuses = new ArrayList<Status>();
+		for (Status each : Status.values()) {
+			if (each.isReportable()) {
+				statuses.add(each);
+			}
+		}
+		return statuses;
+	}
+
 
 }
@@ -0,0 +1,157 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ngrinder.perftest.service;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.StringUtils;
+import org.ngrinder.perftest.model.ProcessAndThread;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.script.Invocable;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineManager;
+import javax.script.ScriptException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Compiled "process_and_thread_policy.js" policy.
+ *
+ * The script is evaluated once per policy content and the results are memoised per vuser count.
+ * When the script is the default one shipped with nGrinder, the same rule runs in java without
+ * any script engine.
+ *
+ * @author JunHo Yoon
+ * @since 3.4.1
+ */
+public class ProcessAndThreadPolicy {
+	private static final Logger LOGGER = LoggerFactory.getLogger(ProcessAndThreadPolicy.class);
+
+	private static final String DEFAULT_POLICY_RESOURCE = "/ngrinder_home_template/process_and_thread_policy.js";
+
+	private static final int MAX_MEMOISED_VUSERS = 4096;
+
+	private static String defaultPolicyScript;
+
+	private final String script;
+	private final ScriptEngine engine;
+	private final ConcurrentMap<Integer, ProcessAndThread> memo = new ConcurrentHashMap<Integer, ProcessAndThread>();
+
+	/**
+	 * Constructor.
+	 *
+	 * @param script policy script
+	 */
+	public ProcessAndThreadPolicy(String script) {
+		this.script = script;
+		this.engine = isDefaultPolicy(script) ? null : compile(script);
+	}
+
+	private static ScriptEngine compile(String script) {
+		try {
+			ScriptEngine engine = new ScriptEngineManager().getEngineByName("javascript");
+			engine.eval(script);
+			return engine;
+		} catch (ScriptException e) {
+			LOGGER.error("Error occurs while compiling process and thread policy. The default policy is used.", e);
+			return null;
+		}
+	}
+
+	/**
+	 * Check if the given script is the same as the default policy except the white spaces.
+	 *
+	 * @param script policy script
+	 * @return true if default
+	 */
+	static boolean isDefaultPolicy(String script) {
+		return StringUtils.isBlank(script) || normalize(script).equals(normalize(getDefaultPolicyScript()));
+	}
+
+	private static synchronized String getDefaultPolicyScript() {
+		if (defaultPolicyScript == null) {
+			InputStream inputStream = ProcessAndThreadPolicy.class.getResourceAsStream(DEFAULT_POLICY_RESOURCE);
+			try {
+				defaultPolicyScript = inputStream == null ? "" : IOUtils.toString(inputStream);
+			} catch (IOException e) {
+				defaultPolicyScript = "";
+			} finally {
+				IOUtils.closeQuietly(inputStream);
+			}
+		}
+		return defaultPolicyScript;
+	}
+
+	private static String normalize(String script) {
+		return StringUtils.deleteWhitespace(script);
+	}
+
+	/**
+	 * Check if this policy was compiled from the given script.
+	 *
+	 * @param script policy script
+	 * @return true if same
+	 */
+	public boolean isCompiledFrom(String script) {
+		return StringUtils.equals(this.script, script);
+	}
+
+	/**
+	 * Get the process and thread count of the given vuser count.
+	 *
+	 * @param vuser the count of virtual users per agent
+	 * @return process and thread count
+	 */
+	public ProcessAndThread calculate(int vuser) {
+		ProcessAndThread result = memo.get(vuser);
+		if (result == null) {
+			result = engine == null ? calculateDefault(vuser) : calculateByScript(vuser);
+			if (memo.size() < MAX_MEMOISED_VUSERS) {
+				memo.putIfAbsent(vuser, result);
+			}
+		}
+		// ProcessAndThread is mutable. Callers get their own copy.
+		return new ProcessAndThread(result.getProcessCount(), result.getThreadCount());
+	}
+
+	/**
+	 * Same rule with the default process_and_thread_policy.js.
+	 */
+	static ProcessAndThread calculateDefault(int vuser) {
+		int processCount = 1;
+		if (vuser >= 2) {
+			processCount = vuser > 80 ? (vuser / 40) + 1 : 2;
+			processCount = Math.min(processCount, 10);
+		}
+		return new ProcessAndThread(processCount, vuser / processCount);
+	}
+
+	private ProcessAndThread calculateByScript(int vuser) {
+		try {
+			// The script engine is not guaranteed to be thread safe.
+			synchronized (engine) {
+				Invocable invocable = (Invocable) engine;
+				int processCount = ((Number) invocable.invokeFunction("getProcessCount", vuser)).intValue();
+				int threadCount = ((Number) invocable.invokeFunction("getThreadCount", vuser)).intValue();
+				return new ProcessAndThread(processCount, threadCount);
+			}
+		} catch (Exception e) {
+			LOGGER.error("Error occurs while calc process and thread", e);
+		}
+		return new ProcessAndThread(1, 1);
+	}
+}
@@ -0,0 +1,277 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ngrinder.perftest.service;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.time.DateUtils;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import static org.ngrinder.common.util.NoOp.noOp;
+
+/**
+ * Report files of a perf test which are in the report directory or compacted into a single
+ * archive.
+ *
+ * The archive is a zip file placed next to the report directory. Each report file is compressed
+ * as a separate entry and the entries are located by the central directory of the zip, so a
+ * single report file is read without reading the others.
+ *
+ * The paths are relative to the report directory and separated by "/".
+ *
+ * The controllers of a cluster share the home, so archiving a perf test is guarded by a lock file
+ * next to the archive and each archiving writes its own temp file.
+ *
+ * @author JunHo Yoon
+ * @since 3.4.1
+ */
+public class ReportArchive {
+
+	/**
+	 * Archive file name in the perf test directory.
+	 */
+	public static final String ARCHIVE_FILE = "report.zip";
+
+	private static final String LOCK_FILE = ARCHIVE_FILE + ".lock";
+
+	/**
+	 * The lock file older than this is left by a controller which died while archiving.
+	 */
+	private static final long LOCK_EXPIRATION = DateUtils.MILLIS_PER_HOUR;
+
+	private final File reportDirectory;
+	private final File archiveFile;
+	private final File lockFile;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param reportDirectory report directory of a perf test
+	 */
+	public ReportArchive(File reportDirectory) {
+		this.reportDirectory = reportDirectory;
+		this.archiveFile = new File(reportDirectory.getParentFile(), ARCHIVE_FILE);
+		this.lockFile = new File(reportDirectory.getParentFile(), LOCK_FILE);
+	}
+
+	/**
+	 * Check if the report is archived.
+	 *
+	 * @return true if archived
+	 */
+	public boolean isArchived() {
+		return archiveFile.isFile();
+	}
+
+	/**
+	 * Check if the given report file exists.
+	 *
+	 * @param path report file path
+	 * @return true if exists
+	 */
+	public boolean exists(String path) {
+		if (!isArchived()) {
+			return new File(reportDirectory, path).isFile();
+		}
+		ZipFile zipFile = null;
+		try {
+			zipFile = new ZipFile(archiveFile);
+			return zipFile.getEntry(path) != null;
+		} catch (IOException e) {
+			return false;
+		} finally {
+			closeQuietly(zipFile);
+		}
+	}
+
+	/**
+	 * Open the given report file. The returned stream should be closed by the caller.
+	 *
+	 * @param path report file path
+	 * @return input stream
+	 * @throws FileNotFoundException if the report file doesn't exist
+	 * @throws IOException           if the archive can not be read
+	 */
+	public InputStream open(String path) throws IOException {
+		if (!isArchived()) {
+			return new FileInputStream(new File(reportDirectory, path));
+		}
+		final ZipFile zipFile = new ZipFile(archiveFile);
+		ZipEntry entry = zipFile.getEntry(path);
+		if (entry == null) {
+			closeQuietly(zipFile);
+			throw new FileNotFoundException(path + " doesn't exist in " + archiveFile);
+		}
+		return new FilterInputStream(zipFile.getInputStream(entry)) {
+			@Override
+			public void close() throws IOException {
+				try {
+					super.close();
+				} finally {
+					zipFile.close();
+				}
+			}
+		};
+	}
+
+	/**
+	 * Get the uncompressed size of the given report file.
+	 *
+	 * @param path report file path
+	 * @return size in byte. -1 if it doesn't exist.
+	 */
+	public long length(String path) {
+		if (!isArchived()) {
+			File file = new File(reportDirectory, path);
+			return file.isFile() ? file.length() : -1;
+		}
+		ZipFile zipFile = null;
+		try {
+			zipFile = new ZipFile(archiveFile);
+			ZipEntry entry = zipFile.getEntry(path);
+			return entry == null ? -1 : entry.getSize();
+		} catch (IOException e) {
+			return -1;
+		} finally {
+			closeQuietly(zipFile);
+		}
+	}
+
+	/**
+	 * List all report file paths.
+	 *
+	 * @return sorted report file paths
+	 */
+	public List<String> list() {
+		List<String> paths = new ArrayList<String>();
+		if (!isArchived()) {
+			if (reportDirectory.isDirectory()) {
+				for (File each : FileUtils.listFiles(reportDirectory, null, true)) {
+					paths.add(getRelativePath(each));
+				}
+			}
+		} else {
+			ZipFile zipFile = null;
+			try {
+				zipFile = new ZipFile(archiveFile);
+				Enumeration<? extends ZipEntry> entries = zipFile.entries();
+				while (entries.hasMoreElements()) {
+					ZipEntry entry = entries.nextElement();
+					if (!entry.isDirectory()) {
+						paths.add(entry.getName());
+					}
+				}
+			} catch (IOException e) {
+				return paths;
+			} finally {
+				closeQuietly(zipFile);
+			}
+		}
+		Collections.sort(paths);
+		return paths;
+	}
+
+	/**
+	 * Compact the report files into the archive and delete the report directory. If the report is
+	 * already archived, the remaining report directory is just deleted. Nothing is done if another
+	 * controller is archiving the same report.
+	 *
+	 * @return the size of the reclaimed space in byte
+	 * @throws IOException if the archive can not be written
+	 */
+	public long archive() throws IOException {
+		if (!reportDirectory.isDirectory() || !lock()) {
+			return 0;
+		}
+		try {
+			return archiveInLock();
+		} finally {
+			FileUtils.deleteQuietly(lockFile);
+		}
+	}
+
+	private boolean lock() throws IOException {
+		if (lockFile.exists() && System.currentTimeMillis() - lockFile.lastModified() > LOCK_EXPIRATION) {
+			FileUtils.deleteQuietly(lockFile);
+		}
+		return lockFile.createNewFile();
+	}
+
+	private long archiveInLock() throws IOException {
+		if (!reportDirectory.isDirectory()) {
+			return 0;
+		}
+		long directorySize = FileUtils.sizeOfDirectory(reportDirectory);
+		if (isArchived()) {
+			FileUtils.deleteDirectory(reportDirectory);
+			return directorySize;
+		}
+		Collection<File> files = FileUtils.listFiles(reportDirectory, null, true);
+		if (files.isEmpty()) {
+			return 0;
+		}
+		File temp = File.createTempFile(ARCHIVE_FILE, ".tmp", archiveFile.getParentFile());
+		ZipOutputStream out = null;
+		try {
+			out = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+			for (File each : files) {
+				ZipEntry entry = new ZipEntry(getRelativePath(each));
+				entry.setTime(each.lastModified());
+				out.putNextEntry(entry);
+				InputStream in = new FileInputStream(each);
+				try {
+					IOUtils.copy(in, out);
+				} finally {
+					IOUtils.closeQuietly(in);
+				}
+				out.closeEntry();
+			}
+			out.close();
+			out = null;
+			// The archive appears at once, so the readers see either the directory or the archive.
+			if (!temp.renameTo(archiveFile)) {
+				throw new IOException("Failed to rename " + temp + " to " + archiveFile);
+			}
+		} finally {
+			IOUtils.closeQuietly(out);
+			FileUtils.deleteQuietly(temp);
+		}
+		FileUtils.deleteDirectory(reportDirectory);
+		return directorySize - archiveFile.length();
+	}
+
+	private String getRelativePath(File file) {
+		String base = reportDirectory.getAbsolutePath();
+		return file.getAbsolutePath().substring(base.length() + 1).replace(File.separatorChar, '/');
+	}
+
+	private static void closeQuietly(ZipFile zipFile) {
+		if (zipFile != null) {
+			try {
+				zipFile.close();
+			} catch (IOException e) {
+				noOp();
+			}
+		}
+	}
+}
@@ -0,0 +1,117 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ngrinder.perftest.service;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Steady state window detection of the report data series.
+ *
+ * The series is averaged in batches of 5 samples. The latter half of the batches gives the steady
+ * band of the median plus or minus 5 standard deviations, and the warm-up is truncated after the
+ * last batch out of the band in the first half. The same rule applied from the end of the series
+ * truncates the cool-down. When several series are given, the narrowest window is taken.
+ *
+ * @author JunHo Yoon
+ * @since 3.4.1
+ */
+public abstract class SteadyStateDetector {
+	private static final int BATCH_SIZE = 5;
+	private static final int MIN_BATCH_COUNT = 4;
+	private static final double BAND_WIDTH = 5;
+	private static final double MAD_TO_STANDARD_DEVIATION = 1.4826;
+
+	/**
+	 * Detect the steady state window of the given series which have the same sampling rows. The
+	 * null values in the series are the samples which are not collected.
+	 *
+	 * @param series data series
+	 * @return the first row and the row after the last row of the window
+	 */
+	public static int[] detect(List<List<Double>> series) {
+		int rows = Integer.MAX_VALUE;
+		for (List<Double> each : series) {
+			rows = Math.min(rows, each.size());
+		}
+		if (series.isEmpty() || rows == 0) {
+			return new int[]{0, 0};
+		}
+		int from = 0;
+		for (List<Double> each : series) {
+			from = Math.max(from, getTruncation(toArray(each, 0, rows, false)));
+		}
+		int to = rows;
+		for (List<Double> each : series) {
+			to = Math.min(to, rows - getTruncation(toArray(each, from, rows, true)));
+		}
+		return new int[]{from, to};
+	}
+
+	private static double[] toArray(List<Double> series, int from, int to, boolean reverse) {
+		double[] values = new double[to - from];
+		double last = 0;
+		for (int i = from; i < to; i++) {
+			Double value = series.get(i);
+			if (value != null && !value.isNaN()) {
+				last = value;
+			}
+			values[reverse ? to - 1 - i : i - from] = last;
+		}
+		return values;
+	}
+
+	/**
+	 * Get the count of the head samples to be truncated. At most the half of the series is
+	 * truncated.
+	 *
+	 * @param values samples
+	 * @return truncated count
+	 */
+	static int getTruncation(double[] values) {
+		int batchCount = values.length / BATCH_SIZE;
+		if (batchCount < MIN_BATCH_COUNT) {
+			return 0;
+		}
+		double[] batchMeans = new double[batchCount];
+		for (int i = 0; i < batchCount; i++) {
+			double sum = 0;
+			for (int j = 0; j < BATCH_SIZE; j++) {
+				sum += values[i * BATCH_SIZE + j];
+			}
+			batchMeans[i] = sum / BATCH_SIZE;
+		}
+		// The median and the median absolute deviation are not affected by the cool-down batches.
+		int half = batchCount / 2;
+		double[] reference = Arrays.copyOfRange(batchMeans, half, batchCount);
+		double median = getMedian(reference);
+		for (int i = 0; i < reference.length; i++) {
+			reference[i] = Math.abs(reference[i] - median);
+		}
+		double band = BAND_WIDTH * MAD_TO_STANDARD_DEVIATION * getMedian(reference);
+		for (int i = half - 1; i >= 0; i--) {
+			if (Math.abs(batchMeans[i] - median) > band) {
+				return (i + 1) * BATCH_SIZE;
+			}
+		}
+		return 0;
+	}
+
+	private static double getMedian(double[] values) {
+		double[] sorted = values.clone();
+		Arrays.sort(sorted);
+		int middle = sorted.length / 2;
+		return sorted.length % 2 == 1 ? sorted[middle] : (sorted[middle - 1] + sorted[middle]) / 2;
+	}
+}
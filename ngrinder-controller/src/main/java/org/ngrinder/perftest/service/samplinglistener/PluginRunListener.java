@@ -23,21 +23,44 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.ngrinder.common.util.CollectionUtils.newArrayList;
 
 /**
  * Sampling LifeCycle listener to run the pluings implementing {@link OnTestSamplingRunnable}.
  *
+ * The plugins are run on the dedicated threads, not on the sampling thread of the console. Each
+ * plugin has its own queue whose callbacks are run in order, so a slow plugin delays neither the
+ * sampling nor the other plugins. When the queued samples of a plugin reach the queue size, the
+ * new sample replaces the last queued one or is dropped depending on the queue policy. The
+ * built-in {@link MonitorCollectorPlugin} gets every sample because it records them.
+ *
+ * The sampling end waits until all plugins finish their callbacks, so the test is finalized after
+ * the plugins close their files.
+ *
  * @author JunHo Yoon
  * @since 3.1
  */
 public class PluginRunListener implements SamplingLifeCycleListener {
 	private static final Logger LOGGER = LoggerFactory.getLogger(MonitorCollectorPlugin.class);
 
-	private final List<OnTestSamplingRunnable> plugins;
+	private static final int MAX_THREADS = 4;
+
+	private static final long END_SAMPLING_TIMEOUT_SECONDS = 60;
+
 	private final SingleConsole singleConsole;
 	private final PerfTest perfTest;
 	private final PerfTestService perfTestService;
+	private final List<PluginQueue> pluginQueues;
+	private final ExecutorService executor;
 
 	/**
 	 * Constructor.
@@ -46,50 +69,176 @@ public class PluginRunListener implements SamplingLifeCycleListener {
 	 * @param singleConsole   singleConsole
 	 * @param perfTest        perfTest
 	 * @param perfTestService perfTestService
+	 * @param monitor         monitor which keeps the queue settings and the statistics
 	 */
 	public PluginRunListener(List<OnTestSamplingRunnable> plugins, SingleConsole singleConsole, PerfTest perfTest,
-	                         PerfTestService perfTestService) {
-		this.plugins = plugins;
+	                         PerfTestService perfTestService, SamplingPluginMonitor monitor) {
 		this.singleConsole = singleConsole;
 		this.perfTest = perfTest;
 		this.perfTestService = perfTestService;
+		this.executor = Executors.newFixedThreadPool(Math.max(Math.min(plugins.size(), MAX_THREADS), 1),
+				new PluginThreadFactory("sampling-plugin-" + perfTest.getId()));
+		this.pluginQueues = newArrayList(plugins.size());
+		for (OnTestSamplingRunnable each : plugins) {
+			int queueSize = (each instanceof MonitorCollectorPlugin) ? Integer.MAX_VALUE : monitor.getQueueSize();
+			pluginQueues.add(new PluginQueue(each, monitor.getStatistics(each), queueSize, monitor.isCoalescing()));
+		}
 	}
 
 	@Override
 	public void onSamplingStarted() {
-		for (OnTestSamplingRunnable each : plugins) {
-			try {
-				each.startSampling(singleConsole, perfTest, perfTestService);
-			} catch (Exception e) {
-				LOGGER.error("While running plugins, the error occurred : {}", e.getMessage());
-				LOGGER.debug("Details : ", e);
-			}
+		for (PluginQueue each : pluginQueues) {
+			each.add(new Callback(false) {
+				@Override
+				void run(OnTestSamplingRunnable plugin) {
+					plugin.startSampling(singleConsole, perfTest, perfTestService);
+				}
+			});
 		}
 	}
 
 	@Override
 	public void onSampling(File file, StatisticsSet intervalStatistics, StatisticsSet cumulativeStatistics) {
-		for (OnTestSamplingRunnable each : plugins) {
-			try {
-				each.sampling(singleConsole, perfTest, perfTestService, intervalStatistics, cumulativeStatistics);
-			} catch (Exception e) {
-				LOGGER.error("While running plugin the following error occurred : {}", e.getMessage());
-				LOGGER.debug("Details : ", e);
-			}
+		// The console keeps updating the given statistics. The plugins get the snapshots.
+		final StatisticsSet intervalSnapshot = intervalStatistics.snapshot();
+		final StatisticsSet cumulativeSnapshot = cumulativeStatistics.snapshot();
+		for (PluginQueue each : pluginQueues) {
+			each.add(new Callback(true) {
+				@Override
+				void run(OnTestSamplingRunnable plugin) {
+					plugin.sampling(singleConsole, perfTest, perfTestService, intervalSnapshot, cumulativeSnapshot);
+				}
+			});
 		}
-
 	}
 
 	@Override
 	public void onSamplingEnded() {
-		for (OnTestSamplingRunnable each : plugins) {
+		for (PluginQueue each : pluginQueues) {
+			each.add(new Callback(false) {
+				@Override
+				void run(OnTestSamplingRunnable plugin) {
+					plugin.endSampling(singleConsole, perfTest, perfTestService);
+				}
+			});
+		}
+		// The queued callbacks are still run.
+		executor.shutdown();
+		try {
+			if (!executor.awaitTermination(END_SAMPLING_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+				LOGGER.warn("The sampling plugins of the test {} are not finished in {} seconds.", perfTest.getId(),
+						END_SAMPLING_TIMEOUT_SECONDS);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Plugin callback.
+	 */
+	private abstract static class Callback {
+		private final boolean sample;
+
+		Callback(boolean sample) {
+			this.sample = sample;
+		}
+
+		abstract void run(OnTestSamplingRunnable plugin);
+	}
+
+	/**
+	 * Callbacks of a plugin run in order.
+	 */
+	private class PluginQueue implements Runnable {
+		private final OnTestSamplingRunnable plugin;
+		private final SamplingPluginMonitor.PluginStatistics statistics;
+		private final int queueSize;
+		private final boolean coalescing;
+		private final LinkedList<Callback> callbacks = new LinkedList<Callback>();
+		private int queuedSamples = 0;
+		private boolean scheduled = false;
+
+		PluginQueue(OnTestSamplingRunnable plugin, SamplingPluginMonitor.PluginStatistics statistics, int queueSize,
+		            boolean coalescing) {
+			this.plugin = plugin;
+			this.statistics = statistics;
+			this.queueSize = queueSize;
+			this.coalescing = coalescing;
+		}
+
+		void add(Callback callback) {
+			synchronized (this) {
+				if (callback.sample && queuedSamples >= queueSize) {
+					if (!coalescing || !callbacks.getLast().sample) {
+						statistics.recordDropped();
+						return;
+					}
+					callbacks.removeLast();
+					callbacks.addLast(callback);
+					statistics.recordCoalesced();
+				} else {
+					callbacks.addLast(callback);
+					statistics.changeBacklog(1);
+					if (callback.sample) {
+						queuedSamples++;
+					}
+				}
+				if (scheduled) {
+					return;
+				}
+				scheduled = true;
+			}
 			try {
-				each.endSampling(singleConsole, perfTest, perfTestService);
-			} catch (Exception e) {
-				LOGGER.error("While running plugin the following error occurs : {}", e.getMessage());
-				LOGGER.debug("Details : ", e);
+				executor.execute(this);
+			} catch (RejectedExecutionException e) {
+				LOGGER.debug("The sampling of {} is already ended.", plugin.getClass().getName());
 			}
 		}
 
+		@Override
+		public void run() {
+			while (true) {
+				Callback callback;
+				synchronized (this) {
+					callback = callbacks.pollFirst();
+					if (callback == null) {
+						scheduled = false;
+						return;
+					}
+					statistics.changeBacklog(-1);
+					if (callback.sample) {
+						queuedSamples--;
+					}
+				}
+				long start = System.nanoTime();
+				try {
+					callback.run(plugin);
+				} catch (Exception e) {
+					LOGGER.error("While running plugin the following error occurred : {}", e.getMessage());
+					LOGGER.debug("Details : ", e);
+				}
+				statistics.recordCall(System.nanoTime() - start);
+			}
+		}
+	}
+
+	/**
+	 * Daemon thread factory for the plugin threads.
+	 */
+	private static class PluginThreadFactory implements ThreadFactory {
+		private final String prefix;
+		private final AtomicInteger count = new AtomicInteger();
+
+		PluginThreadFactory(String prefix) {
+			this.prefix = prefix;
+		}
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, prefix + "-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
 	}
 }
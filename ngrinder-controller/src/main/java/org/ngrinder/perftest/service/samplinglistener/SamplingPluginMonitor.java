@@ -0,0 +1,190 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ngrinder.perftest.service.samplinglistener;
+
+import org.apache.commons.lang.StringUtils;
+import org.ngrinder.common.metrics.Counter;
+import org.ngrinder.common.metrics.Gauge;
+import org.ngrinder.common.metrics.Histogram;
+import org.ngrinder.common.metrics.MetricRegistry;
+import org.ngrinder.extension.OnTestSamplingRunnable;
+import org.ngrinder.infra.config.Config;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.ngrinder.common.constant.ControllerConstants.PROP_CONTROLLER_PLUGIN_SAMPLING_QUEUE_POLICY;
+import static org.ngrinder.common.constant.ControllerConstants.PROP_CONTROLLER_PLUGIN_SAMPLING_QUEUE_SIZE;
+
+/**
+ * Queue settings and run statistics of the {@link OnTestSamplingRunnable} plugins.
+ *
+ * The statistics are accumulated per plugin class across the running tests.
+ *
+ * @author JunHo Yoon
+ * @since 3.4.1
+ */
+@Component
+public class SamplingPluginMonitor {
+	private static final Histogram PLUGIN_DURATION = MetricRegistry.getDefault().histogram(
+			"ngrinder_sampling_plugin_duration_seconds", "Time taken by each sampling plugin call.", "plugin");
+	private static final Counter PLUGIN_SKIPPED = MetricRegistry.getDefault().counter(
+			"ngrinder_sampling_plugin_skipped_samples_total", "Samples not delivered to the sampling plugins.",
+			"plugin", "reason");
+	private static final Gauge PLUGIN_BACKLOG = MetricRegistry.getDefault().gauge(
+			"ngrinder_sampling_plugin_backlog", "Samples queued for the sampling plugins.", "plugin");
+
+	@Autowired
+	private Config config;
+
+	private final ConcurrentMap<String, PluginStatistics> statistics = new ConcurrentHashMap<String, PluginStatistics>();
+
+	/**
+	 * Get the max count of the samples queued per plugin.
+	 *
+	 * @return queue size
+	 */
+	public int getQueueSize() {
+		return Math.max(config.getControllerProperties().getPropertyInt(PROP_CONTROLLER_PLUGIN_SAMPLING_QUEUE_SIZE), 1);
+	}
+
+	/**
+	 * Check if the last queued sample is replaced by the new sample when the queue is full. If
+	 * false, the new sample is dropped.
+	 *
+	 * @return true if coalescing
+	 */
+	public boolean isCoalescing() {
+		return !StringUtils.equalsIgnoreCase(config.getControllerProperties().getProperty(
+				PROP_CONTROLLER_PLUGIN_SAMPLING_QUEUE_POLICY), "drop");
+	}
+
+	/**
+	 * Get the statistics of the given plugin.
+	 *
+	 * @param plugin plugin
+	 * @return {@link PluginStatistics}
+	 */
+	public PluginStatistics getStatistics(OnTestSamplingRunnable plugin) {
+		String name = plugin.getClass().getName();
+		PluginStatistics pluginStatistics = statistics.get(name);
+		if (pluginStatistics == null) {
+			statistics.putIfAbsent(name, new PluginStatistics(plugin.getClass().getSimpleName()));
+			pluginStatistics = statistics.get(name);
+		}
+		return pluginStatistics;
+	}
+
+	/**
+	 * Get the statistics of all plugins.
+	 *
+	 * @return statistics map keyed by the plugin class name
+	 */
+	public Map<String, Map<String, Object>> getStatistics() {
+		Map<String, Map<String, Object>> result = new TreeMap<String, Map<String, Object>>();
+		for (Map.Entry<String, PluginStatistics> each : statistics.entrySet()) {
+			result.put(each.getKey(), each.getValue().toMap());
+		}
+		return result;
+	}
+
+	/**
+	 * Run statistics of a plugin.
+	 */
+	public static class PluginStatistics {
+		private final String name;
+		private final AtomicLong calls = new AtomicLong();
+		private final AtomicLong totalNanos = new AtomicLong();
+		private final AtomicLong maxNanos = new AtomicLong();
+		private final AtomicLong dropped = new AtomicLong();
+		private final AtomicLong coalesced = new AtomicLong();
+		private final AtomicInteger backlog = new AtomicInteger();
+
+		/**
+		 * Constructor.
+		 *
+		 * @param name plugin name used as the metric label
+		 */
+		public PluginStatistics(String name) {
+			this.name = name;
+			PLUGIN_BACKLOG.register(new Gauge.Source() {
+				@Override
+				public double get() {
+					return backlog.get();
+				}
+			}, name);
+		}
+
+		void recordCall(long nanos) {
+			PLUGIN_DURATION.observe(nanos / 1e9, name);
+			calls.incrementAndGet();
+			totalNanos.addAndGet(nanos);
+			long max;
+			while ((max = maxNanos.get()) < nanos) {
+				if (maxNanos.compareAndSet(max, nanos)) {
+					break;
+				}
+			}
+		}
+
+		void recordDropped() {
+			dropped.incrementAndGet();
+			PLUGIN_SKIPPED.inc(name, "dropped");
+		}
+
+		void recordCoalesced() {
+			coalesced.incrementAndGet();
+			PLUGIN_SKIPPED.inc(name, "coalesced");
+		}
+
+		void changeBacklog(int delta) {
+			backlog.addAndGet(delta);
+		}
+
+		public long getCalls() {
+			return calls.get();
+		}
+
+		public long getDropped() {
+			return dropped.get();
+		}
+
+		public long getCoalesced() {
+			return coalesced.get();
+		}
+
+		public int getBacklog() {
+			return backlog.get();
+		}
+
+		Map<String, Object> toMap() {
+			Map<String, Object> map = new LinkedHashMap<String, Object>();
+			long callCount = calls.get();
+			map.put("calls", callCount);
+			map.put("averageLatency", callCount == 0 ? 0 : totalNanos.get() / callCount / 1000000);
+			map.put("maxLatency", maxNanos.get() / 1000000);
+			map.put("backlog", backlog.get());
+			map.put("dropped", dropped.get());
+			map.put("coalesced", coalesced.get());
+			return map;
+		}
+	}
+}
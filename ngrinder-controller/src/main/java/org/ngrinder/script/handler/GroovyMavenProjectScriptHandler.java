@@ -20,23 +20,33 @@ import static org.ngrinder.common.util.ExceptionUtils.processException;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.maven.cli.MavenCli;
+import org.ngrinder.common.constant.ControllerConstants;
 import org.ngrinder.common.util.PathUtils;
 import org.ngrinder.common.util.PropertiesWrapper;
 import org.ngrinder.common.util.UrlUtils;
+import org.ngrinder.infra.config.Config;
 import org.ngrinder.model.User;
 import org.ngrinder.script.model.FileCategory;
 import org.ngrinder.script.model.FileEntry;
 import org.ngrinder.script.model.FileType;
 import org.ngrinder.script.repository.FileEntryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
 import org.tmatesoft.svn.core.wc.SVNRevision;
 
 /**
@@ -59,6 +69,10 @@ public class GroovyMavenProjectScriptHandler extends GroovyScriptHandler impleme
 	private static final String JAVA = "/src/main/java/";
 	private static final String GROOVY = "/src/main/groovy/";
 	private static final String LIB = "/lib/";
+	private static final Pattern VERSION_PATTERN = Pattern.compile("<version>\\s*([^<]*?)\\s*</version>");
+
+	@Autowired
+	private Config config;
 
 	@Override
 	public boolean canHandle(FileEntry fileEntry) {
@@ -142,16 +156,29 @@ public class GroovyMavenProjectScriptHandler extends GroovyScriptHandler impleme
 	protected void prepareDistMore(Long testId, User user, FileEntry script, File distDir,
 	                               PropertiesWrapper properties, ProcessingResultPrintStream processingResult) {
 		String pomPathInSVN = PathUtils.join(getBasePath(script), "pom.xml");
-		MavenCli cli = new MavenCli();
-		processingResult.println("\nCopy dependencies by running 'mvn dependency:copy-dependencies"
-				+ " -DoutputDirectory=./lib -DexcludeScope=provided'");
-
-		int result = cli.doMain(new String[]{ // goal specification
-				"dependency:copy-dependencies", // run dependency goal
-				"-DoutputDirectory=./lib", // to the lib folder
-				"-DexcludeScope=provided" // but exclude the provided
-				// library
-		}, distDir.getAbsolutePath(), processingResult, processingResult);
+		File cachedDependencies = getCachedDependencyDirectory(new File(distDir, "pom.xml"));
+		int result;
+		if (cachedDependencies != null && cachedDependencies.isDirectory()) {
+			processingResult.println("\nCopy dependencies from the cache resolved with the same pom.xml");
+			// Mark it as recently used so that it's not evicted.
+			//noinspection ResultOfMethodCallIgnored
+			cachedDependencies.setLastModified(System.currentTimeMillis());
+			result = linkDependencies(cachedDependencies, new File(distDir, "lib"));
+		} else {
+			File outputDirectory = (cachedDependencies == null) ? new File(distDir, "lib") : new File(
+					cachedDependencies.getParentFile(), cachedDependencies.getName() + "_" + testId);
+			result = copyDependencies(distDir, outputDirectory, processingResult);
+			if (result == 0 && cachedDependencies != null) {
+				if (!outputDirectory.renameTo(cachedDependencies)) {
+					// The same dependencies are cached by the other test.
+					FileUtils.deleteQuietly(outputDirectory);
+				}
+				result = linkDependencies(cachedDependencies, new File(distDir, "lib"));
+				evictDependencyCache(cachedDependencies.getParentFile(), getMaxDependencyCacheSize());
+			} else if (cachedDependencies != null) {
+				FileUtils.deleteQuietly(outputDirectory);
+			}
+		}
 		boolean success = (result == 0);
 		if (success) {
 			processingResult.printf("\nDependencies in %s was copied.\n", pomPathInSVN);
@@ -165,6 +192,140 @@ public class GroovyMavenProjectScriptHandler extends GroovyScriptHandler impleme
 		processingResult.setSuccess(result == 0);
 	}
 
+	private int copyDependencies(File distDir, File outputDirectory, ProcessingResultPrintStream processingResult) {
+		MavenCli cli = new MavenCli();
+		processingResult.println("\nCopy dependencies by running 'mvn dependency:copy-dependencies"
+				+ " -DoutputDirectory=./lib -DexcludeScope=provided'");
+
+		return cli.doMain(new String[]{ // goal specification
+				"dependency:copy-dependencies", // run dependency goal
+				"-DoutputDirectory=" + outputDirectory.getAbsolutePath(), // to the lib folder
+				"-DexcludeScope=provided" // but exclude the provided
+				// library
+		}, distDir.getAbsolutePath(), processingResult, processingResult);
+	}
+
+	/**
+	 * Get the directory in which the dependencies of the given pom.xml are cached. The directory is
+	 * identified by the hash of the pom.xml content.
+	 *
+	 * @param pomFile pom.xml
+	 * @return cache directory. null if the dependencies should not be cached.
+	 */
+	File getCachedDependencyDirectory(File pomFile) {
+		if (config == null || !pomFile.exists()) {
+			return null;
+		}
+		try {
+			byte[] pom = FileUtils.readFileToByteArray(pomFile);
+			if (hasChangingVersion(new String(pom, "UTF-8"))) {
+				return null;
+			}
+			return new File(config.getHome().getMavenDependencyCacheDirectory(), DigestUtils.md5DigestAsHex(pom));
+		} catch (IOException e) {
+			LOGGER.error("Error while reading {}", pomFile.getAbsolutePath(), e);
+			return null;
+		}
+	}
+
+	/**
+	 * Check if the given pom.xml has a version which can be resolved differently without the pom.xml
+	 * modification. SNAPSHOT versions, version ranges, LATEST / RELEASE meta versions and the
+	 * versions given by properties are such versions.
+	 *
+	 * @param pom pom.xml content
+	 * @return true if the pom.xml has the changing version
+	 */
+	static boolean hasChangingVersion(String pom) {
+		Matcher matcher = VERSION_PATTERN.matcher(pom);
+		while (matcher.find()) {
+			String version = matcher.group(1);
+			if (version.endsWith("-SNAPSHOT") || version.startsWith("[") || version.startsWith("(")
+					|| "LATEST".equals(version) || "RELEASE".equals(version) || version.contains("${")) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private int getMaxDependencyCacheSize() {
+		return config.getControllerProperties().getPropertyInt(
+				ControllerConstants.PROP_CONTROLLER_MAVEN_DEPENDENCY_CACHE_SIZE);
+	}
+
+	/**
+	 * Delete the least recently used cached dependencies so that at most the given count of them are
+	 * kept. The dependencies being resolved now are not counted.
+	 *
+	 * @param cacheDirectory maven dependency cache directory
+	 * @param maxSize        max count of the cached dependencies
+	 * @return the count of the deleted cached dependencies
+	 */
+	int evictDependencyCache(File cacheDirectory, int maxSize) {
+		File[] files = cacheDirectory.listFiles();
+		if (files == null) {
+			return 0;
+		}
+		List<File> cached = newArrayList();
+		for (File each : files) {
+			// The directories having "_" are being resolved by a test.
+			if (each.isDirectory() && !each.getName().contains("_")) {
+				cached.add(each);
+			}
+		}
+		if (cached.size() <= maxSize) {
+			return 0;
+		}
+		File[] sorted = cached.toArray(new File[cached.size()]);
+		Arrays.sort(sorted, new Comparator<File>() {
+			@Override
+			public int compare(File o1, File o2) {
+				long l1 = o1.lastModified();
+				long l2 = o2.lastModified();
+				return (l1 < l2) ? 1 : ((l1 == l2) ? 0 : -1);
+			}
+		});
+		int deleted = 0;
+		for (int i = Math.max(maxSize, 0); i < sorted.length; i++) {
+			LOGGER.info("Evict the cached dependencies {}", sorted[i].getAbsolutePath());
+			FileUtils.deleteQuietly(sorted[i]);
+			deleted++;
+		}
+		return deleted;
+	}
+
+	/**
+	 * Link the cached dependencies into the lib directory. If the hard link is not supported, the
+	 * files are copied.
+	 *
+	 * @param cachedDependencies cached dependency directory
+	 * @param libDirectory       lib directory
+	 * @return 0 if succeeded
+	 */
+	int linkDependencies(File cachedDependencies, File libDirectory) {
+		//noinspection ResultOfMethodCallIgnored
+		libDirectory.mkdirs();
+		File[] files = cachedDependencies.listFiles();
+		if (files == null) {
+			return 1;
+		}
+		for (File each : files) {
+			File target = new File(libDirectory, each.getName());
+			try {
+				Files.deleteIfExists(target.toPath());
+				try {
+					Files.createLink(target.toPath(), each.toPath());
+				} catch (Exception e) {
+					Files.copy(each.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+				}
+			} catch (IOException e) {
+				LOGGER.error("Error while copying the cached dependency {}", each.getAbsolutePath(), e);
+				return 1;
+			}
+		}
+		return 0;
+	}
+
 	@Override
 	public boolean prepareScriptEnv(User user, String path, String fileName, String name, // LF
 	                                String url, boolean createLib, String scriptContent) {
@@ -0,0 +1,71 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ngrinder.script.repository;
+
+import org.ngrinder.script.model.FileEntry;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SortedMap;
+
+/**
+ * All {@link FileEntry}s of an user repository at a revision.
+ *
+ * The index is immutable. {@link FileEntryRepository#updateIndex(org.ngrinder.model.User, FileEntryIndex)}
+ * creates a new index by applying only the paths changed after {@link #getRevision()}.
+ *
+ * @author JunHo Yoon
+ * @since 3.4.1
+ */
+public class FileEntryIndex implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final long revision;
+
+	private final SortedMap<String, FileEntry> entries;
+
+	private final List<FileEntry> fileEntries;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param revision revision at which the entries are listed
+	 * @param entries  file entries sorted by the path
+	 */
+	FileEntryIndex(long revision, SortedMap<String, FileEntry> entries) {
+		this.revision = revision;
+		this.entries = entries;
+		this.fileEntries = Collections.unmodifiableList(new ArrayList<FileEntry>(entries.values()));
+	}
+
+	public long getRevision() {
+		return revision;
+	}
+
+	/**
+	 * Get all {@link FileEntry}s in the index.
+	 *
+	 * @return unmodifiable {@link FileEntry} list
+	 */
+	public List<FileEntry> getFileEntries() {
+		return fileEntries;
+	}
+
+	SortedMap<String, FileEntry> getEntries() {
+		return entries;
+	}
+}
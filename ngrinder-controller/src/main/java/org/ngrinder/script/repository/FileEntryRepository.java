@@ -48,8 +48,7 @@ import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.InputStream;
-import java.util.EmptyStackException;
-import java.util.List;
+import java.util.*;
 import java.util.Map.Entry;
 
 import static org.ngrinder.common.util.CollectionUtils.newArrayList;
@@ -173,27 +172,22 @@ public class FileEntryRepository {
 	 * @return found {@link FileEntry}s
 	 */
 	public List<FileEntry> findAll(final User user) {
+		return findAll(user, SVNRevision.HEAD);
+	}
+
+	private List<FileEntry> findAll(final User user, SVNRevision revision) {
 		final List<FileEntry> scripts = newArrayList();
 		SVNClientManager svnClientManager = getSVNClientManager();
 		try {
-			svnClientManager.getLogClient().doList(SVNURL.fromFile(getUserRepoDirectory(user)), SVNRevision.HEAD,
-					SVNRevision.HEAD, false, true, new ISVNDirEntryHandler() {
+			svnClientManager.getLogClient().doList(SVNURL.fromFile(getUserRepoDirectory(user)), revision,
+					revision, false, true, new ISVNDirEntryHandler() {
 				@Override
 				public void handleDirEntry(SVNDirEntry dirEntry) throws SVNException {
-					FileEntry script = new FileEntry();
 					String relativePath = dirEntry.getRelativePath();
 					if (StringUtils.isBlank(relativePath)) {
 						return;
 					}
-					script.setCreatedDate(dirEntry.getDate());
-					script.setLastModifiedDate(dirEntry.getDate());
-					script.setPath(relativePath);
-					script.setDescription(dirEntry.getCommitMessage());
-					long reversion = dirEntry.getRevision();
-					script.setRevision(reversion);
-					script.setFileType(dirEntry.getKind() == SVNNodeKind.DIR ? FileType.DIR : null);
-					script.setFileSize(dirEntry.getSize());
-					scripts.add(script);
+					scripts.add(createFileEntry(relativePath, dirEntry, dirEntry.getCommitMessage()));
 				}
 			});
 		} catch (Exception e) {
@@ -207,6 +201,157 @@ public class FileEntryRepository {
 
 	}
 
+	private FileEntry createFileEntry(String path, SVNDirEntry dirEntry, String commitMessage) {
+		FileEntry script = new FileEntry();
+		script.setCreatedDate(dirEntry.getDate());
+		script.setLastModifiedDate(dirEntry.getDate());
+		script.setPath(path);
+		script.setDescription(commitMessage);
+		script.setRevision(dirEntry.getRevision());
+		script.setFileType(dirEntry.getKind() == SVNNodeKind.DIR ? FileType.DIR : null);
+		script.setFileSize(dirEntry.getSize());
+		return script;
+	}
+
+	/**
+	 * Create the {@link FileEntryIndex} containing all {@link FileEntry}s which user have at the
+	 * latest revision.
+	 *
+	 * @param user user
+	 * @return created index
+	 */
+	public FileEntryIndex createIndex(User user) {
+		long revision = getLatestRevision(user);
+		return createIndex(user, revision);
+	}
+
+	private FileEntryIndex createIndex(User user, long revision) {
+		SortedMap<String, FileEntry> entries = new TreeMap<String, FileEntry>();
+		for (FileEntry each : findAll(user, SVNRevision.create(revision))) {
+			entries.put(each.getPath(), each);
+		}
+		return new FileEntryIndex(revision, entries);
+	}
+
+	/**
+	 * Update the given {@link FileEntryIndex} to the latest revision.
+	 *
+	 * Only the paths changed after the revision of the index and their parent directories are looked
+	 * up. The whole repository is listed again only when the changes contain any copy, because the
+	 * copied directory doesn't report its children.
+	 *
+	 * @param user  user
+	 * @param index index to be updated
+	 * @return the given index if it's up to date. Otherwise, the updated new index.
+	 */
+	public FileEntryIndex updateIndex(User user, FileEntryIndex index) {
+		SVNClientManager svnClientManager = null;
+		try {
+			svnClientManager = getSVNClientManager();
+			SVNRepository repo = svnClientManager.createRepository(SVNURL.fromFile(getUserRepoDirectory(user)), true);
+			long latestRevision = repo.getLatestRevision();
+			if (latestRevision == index.getRevision()) {
+				return index;
+			} else if (latestRevision < index.getRevision()) {
+				return createIndex(user, latestRevision);
+			}
+
+			final Map<Long, SVNLogEntry> logEntries = new HashMap<Long, SVNLogEntry>();
+			final Set<String> changedPaths = new TreeSet<String>();
+			final Set<String> deletedPaths = new HashSet<String>();
+			final boolean[] copied = {false};
+			repo.log(new String[]{""}, index.getRevision() + 1, latestRevision, true, false,
+					new ISVNLogEntryHandler() {
+						@Override
+						public void handleLogEntry(SVNLogEntry logEntry) throws SVNException {
+							logEntries.put(logEntry.getRevision(), logEntry);
+							for (SVNLogEntryPath each : logEntry.getChangedPaths().values()) {
+								String path = StringUtils.removeStart(each.getPath(), "/");
+								if (each.getType() == SVNLogEntryPath.TYPE_DELETED
+										|| each.getType() == SVNLogEntryPath.TYPE_REPLACED) {
+									deletedPaths.add(path);
+								}
+								if (each.getCopyPath() != null) {
+									copied[0] = true;
+								}
+								changedPaths.add(path);
+							}
+						}
+					});
+			if (copied[0]) {
+				return createIndex(user, latestRevision);
+			}
+
+			SortedMap<String, FileEntry> entries = new TreeMap<String, FileEntry>(index.getEntries());
+			for (String each : deletedPaths) {
+				removeWithChildren(entries, each);
+			}
+			Set<String> lookupPaths = new TreeSet<String>();
+			for (String each : changedPaths) {
+				lookupPaths.add(each);
+				lookupPaths.addAll(Arrays.asList(getParentPaths(each)));
+			}
+			for (String each : lookupPaths) {
+				if (StringUtils.isBlank(each)) {
+					continue;
+				}
+				SVNDirEntry dirEntry = repo.info(each, latestRevision);
+				if (dirEntry == null) {
+					removeWithChildren(entries, each);
+				} else {
+					SVNLogEntry logEntry = logEntries.get(dirEntry.getRevision());
+					String commitMessage = (logEntry == null) ? dirEntry.getCommitMessage() : logEntry.getMessage();
+					entries.put(each, createFileEntry(each, dirEntry, commitMessage));
+				}
+			}
+			return new FileEntryIndex(latestRevision, entries);
+		} catch (Exception e) {
+			LOG.error("Error while updating the file index of {}", user.getUserId());
+			LOG.debug("Error details :", e);
+			throw new NGrinderRuntimeException(e);
+		} finally {
+			closeSVNClientManagerQuietly(svnClientManager);
+		}
+	}
+
+	private void removeWithChildren(SortedMap<String, FileEntry> entries, String path) {
+		entries.remove(path);
+		// '/' + 1 is '0'. So the sub map contains all children of the given path.
+		entries.subMap(path + "/", path + "0").clear();
+	}
+
+	private String[] getParentPaths(String path) {
+		String[] fragments = StringUtils.split(path, "/");
+		String[] parents = new String[Math.max(fragments.length - 1, 0)];
+		String current = "";
+		for (int i = 0; i < parents.length; i++) {
+			current = current.isEmpty() ? fragments[i] : current + "/" + fragments[i];
+			parents[i] = current;
+		}
+		return parents;
+	}
+
+	/**
+	 * Get the latest revision of the user repository.
+	 *
+	 * @param user user
+	 * @return latest revision
+	 */
+	public long getLatestRevision(User user) {
+		SVNClientManager svnClientManager = null;
+		try {
+			svnClientManager = getSVNClientManager();
+			SVNRepository repo = svnClientManager.createRepository(SVNURL.fromFile(getUserRepoDirectory(user)), true);
+			return repo.getLatestRevision();
+		} catch (Exception e) {
+			LOG.error("Error while getting the latest revision of {}", user.getUserId());
+			LOG.debug("Error details :", e);
+			throw new NGrinderRuntimeException(e);
+		} finally {
+			closeSVNClientManagerQuietly(svnClientManager);
+		}
+	}
+
 	/**
 	 * Return a {@link FileEntry} for the given path and revision.
 	 *
@@ -32,6 +32,7 @@ import org.ngrinder.script.model.FileEntry;
 import org.ngrinder.script.model.FileType;
 import org.ngrinder.script.model.HAR;
 import org.ngrinder.script.model.Request;
+import org.ngrinder.script.repository.FileEntryIndex;
 import org.ngrinder.script.repository.FileEntryRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,15 +40,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 import org.tmatesoft.svn.core.SVNException;
 import org.tmatesoft.svn.core.SVNURL;
-import org.tmatesoft.svn.core.internal.io.fs.FSHook;
-import org.tmatesoft.svn.core.internal.io.fs.FSHookEvent;
-import org.tmatesoft.svn.core.internal.io.fs.FSHooks;
 import org.tmatesoft.svn.core.wc.SVNClientManager;
 import org.tmatesoft.svn.core.wc.SVNRevision;
 
@@ -58,7 +55,6 @@ import java.net.URL;
 import java.util.*;
 
 import static com.google.common.collect.Lists.newArrayList;
-import static java.util.Collections.unmodifiableList;
 import static org.ngrinder.common.util.CollectionUtils.buildMap;
 import static org.ngrinder.common.util.CollectionUtils.newHashMap;
 import static org.ngrinder.common.util.ExceptionUtils.processException;
@@ -102,16 +98,8 @@ public class FileEntryService {
 	 */
 	@PostConstruct
 	public void init() {
-		// Add cache invalidation hook.
-		FSHooks.registerHook(new FSHook() {
-			@Override
-			public void onHook(FSHookEvent event) throws SVNException {
-				if (event.getType().equals(FSHooks.SVN_REPOS_HOOK_POST_COMMIT)) {
-					String name = event.getReposRootDir().getName();
-					invalidateCache(name);
-				}
-			}
-		});
+		// The cached file entry index is updated by the revision on each read. So commits don't
+		// need to invalidate it.
 		svnClientManager = fileEntityRepository.getSVNClientManager();
 		fileEntryCache = cacheManager.getCache("file_entries");
 
@@ -154,24 +142,29 @@ public class FileEntryService {
 	}
 
 	/**
-	 * Get all {@link FileEntry} for the given user. This method is subject to
-	 * be cached because it takes time.
+	 * Get all {@link FileEntry} for the given user. The {@link FileEntryIndex} of the user is cached
+	 * and only the changes after the cached revision are applied on each call.
 	 *
 	 * @param user user
 	 * @return cached {@link FileEntry} list
 	 */
-	@Cacheable(value = "file_entries", key = "#user.userId")
 	public List<FileEntry> getAll(User user) {
 		prepare(user);
-		List<FileEntry> allFileEntries;
+		Cache.ValueWrapper cached = fileEntryCache.get(user.getUserId());
+		FileEntryIndex index = (cached == null) ? null : (FileEntryIndex) cached.get();
+		FileEntryIndex updated;
 		try {
-			allFileEntries = fileEntityRepository.findAll(user);
+			updated = (index == null) ? fileEntityRepository.createIndex(user) : fileEntityRepository.updateIndex(
+					user, index);
 		} catch (Exception e) {
 			// Try once more for the case of the underlying file system fault.
 			ThreadUtils.sleep(3000);
-			allFileEntries = fileEntityRepository.findAll(user);
+			updated = fileEntityRepository.createIndex(user);
+		}
+		if (updated != index) {
+			fileEntryCache.put(user.getUserId(), updated);
 		}
-		return unmodifiableList(allFileEntries);
+		return updated.getFileEntries();
 	}
 
 	/**
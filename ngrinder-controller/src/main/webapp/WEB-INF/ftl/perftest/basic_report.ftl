@@ -34,6 +34,17 @@
 					<code>MS</code>
 				</@control_group>
 
+				<#if test.steadyTps??>
+				<@control_group lable_extra_class="control-label-wide non-cursor" label_message_key="perfTest.report.steadyTPS">
+					<strong>${test.steadyTps?string(",##0.#")}</strong>
+				</@control_group>
+
+				<@control_group lable_extra_class="control-label-wide non-cursor" label_message_key="perfTest.report.steadyMeantime">
+					${(test.steadyMeanTestTime!0)?string("0.##")}
+					<code>MS</code>
+				</@control_group>
+				</#if>
+
 				<@control_group lable_extra_class="control-label-wide non-cursor" label_message_key="perfTest.report.totalTests">
 					${(test.tests!0) + (test.errors!0)}
 				</@control_group>
@@ -197,6 +197,19 @@
 						</@control_group>
 					</div>
 				</div>
+
+				<div class="row">
+					<div class="span3">
+						<@control_group name="jvmProfile" label_message_key="perfTest.config.jvmProfile"
+							label_help_message_key="perfTest.config.jvmProfile">
+							<select id="jvm_profile" class="span2" name="jvmProfile">
+							<#list availJvmProfile as each>
+								<option value="${each}" <#if test.jvmProfile?? && test.jvmProfile == each>selected</#if>><@spring.message "perfTest.config.jvmProfile.${each.messageKey}"/></option>
+							</#list>
+							</select>
+						</@control_group>
+					</div>
+				</div>
 			</div>
 		</div>
 	</div>
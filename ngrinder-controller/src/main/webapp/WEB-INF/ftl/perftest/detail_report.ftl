@@ -115,6 +115,10 @@
 					<th><@spring.message "perfTest.report.ignoreSampleCount"/></th>
 					<td><span>${test.ignoreSampleCount}</span></td>
 				</tr>
+				<tr>
+					<th><@spring.message "perfTest.report.jvmProfile"/></th>
+					<td><span><#if test.jvmProfile??><@spring.message "perfTest.config.jvmProfile.${test.jvmProfile.messageKey}"/></#if></span></td>
+				</tr>
 				<tr>
 					<td colspan=2></td>
 				</tr>
@@ -130,6 +134,24 @@
 					<th><@spring.message "perfTest.report.meantime"/></th>
 					<td><span>${(test.meanTestTime!0)?string(",##0.##")}</span>&nbsp;&nbsp; <code>ms</code></td>
 				</tr>
+				<#if test.steadyTps??>
+				<tr>
+					<th><@spring.message "perfTest.report.steadyState"/></th>
+					<td>${test.steadyStateStart!0} ~ ${test.steadyStateEnd!0}&nbsp;&nbsp; <code>s</code></td>
+				</tr>
+				<tr>
+					<th><@spring.message "perfTest.report.steadyTPS"/></th>
+					<td><strong>${test.steadyTps?string(",##0.#")}</strong></td>
+				</tr>
+				<tr>
+					<th><@spring.message "perfTest.report.steadyPeakTPS"/></th>
+					<td><strong>${test.steadyPeakTps!""}</strong></td>
+				</tr>
+				<tr>
+					<th><@spring.message "perfTest.report.steadyMeantime"/></th>
+					<td><span>${(test.steadyMeanTestTime!0)?string(",##0.##")}</span>&nbsp;&nbsp; <code>ms</code></td>
+				</tr>
+				</#if>
 				<tr>
 					<th><@spring.message "perfTest.report.totalTests"/></th>
 					<td>${(test.tests + test.errors)!""}</td>
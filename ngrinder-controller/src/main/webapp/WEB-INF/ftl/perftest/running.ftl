@@ -272,17 +272,37 @@
 					"<span title='" + name + "'><b>" + getShortenString(name) + "</b></span>" +
 					" CPU-" + formatPercentage(null, value.cpuUsedPercentage) +
 					" MEM-" + formatPercentage(null, ((value.totalMemory - value.freeMemory) / value.totalMemory) * 100);
+			if (value.cpuStealPercentage > 0) {
+				monitorStatusString = monitorStatusString + " ST-" + formatPercentage(null, value.cpuStealPercentage);
+			}
 			if (value.receivedPerSec != 0 || value.sentPerSec != 0) {
 				monitorStatusString = monitorStatusString + "/" +
 						" RX-" + formatNetwork(null, value.receivedPerSec) +
 						" TX-" + formatNetwork(null, value.sentPerSec) +
 						"</dv></li>";
 			}
+			if (value.worstWorker !== undefined && value.worstWorker !== null) {
+				monitorStatusString = monitorStatusString + createWorkerStatusString(value.workerCount, value.worstWorker);
+			}
 		});
 		monitorStatusString += "</ul>";
 		return monitorStatusString;
 	}
 
+	/** Summarize the worker processes of an agent by the worst one, whose details are in the title. */
+	function createWorkerStatusString(workerCount, worker) {
+		var heap = worker.heapMax > 0 ? worker.heapUsed / worker.heapMax * 100 : 0;
+		var title = worker.name + " GC-" + toNum(worker.gcTime) + "ms THREAD-" + worker.threads +
+				" LATE-" + worker.lateReports + " DROP-" + worker.droppedReports;
+		return "<li class='monitor-state' style='height:20px'><div style='width:100%;' class='ellipsis' title='" +
+				title + "'>&nbsp;&nbsp;WORKER-" + workerCount +
+				" HEAP-" + formatPercentage(null, heap) + " GC-" + formatPercentage(null, worker.gcPercent) +
+				" LAG-" + toNum(worker.maxReportLatency) + "ms" +
+				(worker.lateReports + worker.droppedReports > 0 ?
+						" LATE-" + worker.lateReports + " DROP-" + worker.droppedReports : "") +
+				"</div></li>";
+	}
+
 	function showRunTime(s) {
 		if (s < 60) {
 			return "" + s + "s";
@@ -21,6 +21,7 @@ import org.apache.commons.lang.mutable.MutableInt;
 import org.junit.Before;
 import org.junit.Test;
 import org.ngrinder.AbstractNGrinderTransactionalTest;
+import org.ngrinder.agent.model.ClusteredAgentStateEvent;
 import org.ngrinder.agent.repository.AgentManagerRepository;
 import org.ngrinder.infra.config.Config;
 import org.ngrinder.model.AgentInfo;
@@ -34,6 +35,7 @@ import java.util.List;
 import java.util.Map;
 
 import static net.grinder.util.NetworkUtils.DEFAULT_LOCAL_ADDRESSES;
+import static org.ngrinder.agent.repository.AgentManagerSpecification.startWithRegion;
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
@@ -155,6 +157,99 @@ public class ClusteredAgentManagerServiceTest extends AbstractNGrinderTransactio
 		assertThat(agentInDB.getState(), is(AgentControllerState.INACTIVE));
 	}
 
+	@Test
+	public void testApplyAgentStateEvent() {
+		String currRegion = spiedConfig.getRegion();
+		saveAgent("_event", currRegion, AgentControllerState.READY);
+		agentManagerService.expireLocalCache();
+		int readyCount = agentManagerService.getAllReady().size();
+
+		// The changed agent is applied without reloading the DB when the version follows.
+		List<AgentInfo> agents = agentRepository.findAll(startWithRegion(currRegion));
+		AgentInfo changed = null;
+		for (AgentInfo each : agents) {
+			if (each.getName().equals(currRegion + "_event")) {
+				changed = new AgentInfo();
+				changed.setId(each.getId());
+				changed.setIp(each.getIp());
+				changed.setName(each.getName());
+				changed.setPort(each.getPort());
+				changed.setRegion(each.getRegion());
+				changed.setApproved(each.getApproved());
+				changed.setState(AgentControllerState.BUSY);
+				agents.set(agents.indexOf(each), changed);
+				break;
+			}
+		}
+		assertThat(changed, notNullValue());
+		List<AgentInfo> changedAgents = new ArrayList<AgentInfo>();
+		changedAgents.add(changed);
+		agentManagerService.applyAgentStateEvent(new ClusteredAgentStateEvent(currRegion, 0,
+				ClusteredAgentStateEvent.checksum(agents), changedAgents));
+		assertThat(agentManagerService.getAllReady().size(), is(readyCount - 1));
+
+		// The agents are reloaded when the checksum doesn't match.
+		agentManagerService.applyAgentStateEvent(new ClusteredAgentStateEvent(currRegion, 0, 0,
+				new ArrayList<AgentInfo>()));
+		assertThat(agentManagerService.getAllReady().size(), is(readyCount));
+	}
+
+	@Test
+	public void testApprovePublishesAgentStateEvent() {
+		String currRegion = spiedConfig.getRegion();
+		saveAgent("_approve", currRegion, AgentControllerState.READY);
+		AgentInfo saved = agentRepository.findByIpAndHostName("1.1.1.1", currRegion + "_approve");
+		saved.setSystemStat("{\"freeMemory\":1024}");
+		agentRepository.save(saved);
+
+		agentManagerService.approve(saved.getId(), false);
+		ClusteredAgentStateEvent event = (ClusteredAgentStateEvent) cacheManager.getCache("agent_state")
+				.get(currRegion).get();
+		assertThat(event.getChangedAgents().size(), is(1));
+		assertThat(event.getChangedAgents().get(0).getId(), is(saved.getId()));
+		assertThat(event.getChangedAgents().get(0).getApproved(), is(false));
+		assertThat(event.getChangedAgents().get(0).getSystemStat(), is(saved.getSystemStat()));
+
+		agentManagerService.approve(saved.getId(), true);
+		ClusteredAgentStateEvent approved = (ClusteredAgentStateEvent) cacheManager.getCache("agent_state")
+				.get(currRegion).get();
+		assertThat(approved.getVersion(), is(event.getVersion() + 1));
+		assertThat(approved.getChangedAgents().get(0).getApproved(), is(true));
+	}
+
+	@Test
+	public void testApplyRemovedAgents() {
+		String currRegion = spiedConfig.getRegion();
+		saveAgent("_removed", currRegion, AgentControllerState.READY);
+		AgentInfo saved = agentRepository.findByIpAndHostName("1.1.1.1", currRegion + "_removed");
+		agentManagerService.applyAgentStateEvent(new ClusteredAgentStateEvent(currRegion, 0, 0,
+				new ArrayList<AgentInfo>()));
+
+		// The removed agent is dropped when the version follows.
+		agentRepository.delete(saved);
+		List<AgentInfo> agents = agentRepository.findAll(startWithRegion(currRegion));
+		List<Long> removedAgentIds = new ArrayList<Long>();
+		removedAgentIds.add(saved.getId());
+		agentManagerService.applyAgentStateEvent(new ClusteredAgentStateEvent(currRegion, 1,
+				ClusteredAgentStateEvent.checksum(agents), new ArrayList<AgentInfo>(), removedAgentIds));
+		for (AgentInfo each : agentManagerService.getAllVisible()) {
+			assertThat(each.getId(), not(saved.getId()));
+		}
+	}
+
+	@Test
+	public void testCleanupPublishesRemovedAgents() {
+		String currRegion = spiedConfig.getRegion();
+		saveAgent("_inactive", currRegion, AgentControllerState.INACTIVE);
+		AgentInfo saved = agentRepository.findByIpAndHostName("1.1.1.1", currRegion + "_inactive");
+
+		agentManagerService.cleanup();
+		assertThat(agentRepository.findOne(saved.getId()), nullValue());
+		ClusteredAgentStateEvent event = (ClusteredAgentStateEvent) cacheManager.getCache("agent_state")
+				.get(currRegion).get();
+		assertThat(event.getRemovedAgentIds().contains(saved.getId()), is(true));
+	}
+
 	@Test
 	public void getReadyAgentCountOwnedAdmin() throws Exception {
 		String currRegion = spiedConfig.getRegion();
@@ -0,0 +1,136 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ngrinder.infra.cluster;
+
+import net.sf.ehcache.Element;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectOutputStream;
+import java.net.InetAddress;
+import java.util.Collections;
+import java.util.Properties;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+/**
+ * {@link ClusterNode} test running three controllers in one JVM.
+ *
+ * @author JunHo Yoon
+ * @since 3.4.1
+ */
+public class ClusterNodeTest {
+
+	private InProcessCluster cluster;
+
+	@Before
+	public void before() throws Exception {
+		cluster = new InProcessCluster(3, new Properties(), "agent_request");
+	}
+
+	@After
+	public void after() {
+		cluster.shutdown();
+	}
+
+	@Test
+	public void testReplication() throws Exception {
+		cluster.getCache(0, "agent_request").put(new Element("region|agent", "STOP_AGENT"));
+		cluster.getCache(1, "agent_request").put(new Element("region|other", "UPDATE_AGENT"));
+		assertThat(cluster.converge(), is(true));
+		assertThat(cluster.getCache(2, "agent_request").get("region|agent").getObjectValue(),
+				is((Object) "STOP_AGENT"));
+
+		cluster.getCache(2, "agent_request").remove("region|agent");
+		assertThat(cluster.converge(), is(true));
+		assertThat(cluster.getCache(0, "agent_request").get("region|agent"), nullValue());
+		assertThat(cluster.getCache(0, "agent_request").get("region|other"), notNullValue());
+		assertThat(cluster.getNode(1).getAliveMembers(), hasItem(cluster.getNode(2).getId()));
+	}
+
+	@Test
+	public void testCoalescedBatch() throws Exception {
+		for (int i = 0; i < 100; i++) {
+			cluster.getCache(0, "agent_request").put(new Element("key", i));
+		}
+		assertThat(cluster.getNode(0).getPendingDeltaCount(), is(2));
+		assertThat(cluster.converge(), is(true));
+		assertThat(cluster.getCache(1, "agent_request").get("key").getObjectValue(), is((Object) 99));
+		assertThat(cluster.getNode(0).getSentDeltaCount(), is(2L));
+	}
+
+	@Test
+	public void testStaleDeltaIsIgnored() throws Exception {
+		ClusterNode node = cluster.getNode(0);
+		node.publish("agent_request", "key", "newer");
+		ClusterDelta older = new ClusterDelta("agent_request", "key", "older", 0, "127.0.0.1:1");
+		node.apply(new ClusterNode.Batch("127.0.0.1:1", System.currentTimeMillis(),
+				Collections.singletonList(older)));
+		assertThat(node.getStaleDeltaCount(), is(1L));
+		assertThat(cluster.getCache(0, "agent_request").get("key"), nullValue());
+	}
+
+	@Test
+	public void testTrackedEntriesAreForgotten() throws Exception {
+		ClusterNode node = cluster.getNode(0);
+		for (int i = 0; i < 10100; i++) {
+			node.publish("agent_request", "key" + i, i);
+		}
+		assertThat(node.getTrackedEntryCount(), is(10000));
+
+		node.forget("agent_request", "key10099");
+		assertThat(node.getTrackedEntryCount(), is(9999));
+
+		node.publish("agent_request", null, null);
+		assertThat(node.getTrackedEntryCount(), is(0));
+	}
+
+	@Test
+	public void testOnlyPeerHostsAreAccepted() throws Exception {
+		ClusterNode node = new ClusterNode("127.0.0.1", 0, 100, 100);
+		try {
+			assertThat(node.isPeerAddress(InetAddress.getByName("127.0.0.1")), is(false));
+			node.addPeer("127.0.0.1", 1);
+			assertThat(node.isPeerAddress(InetAddress.getByName("127.0.0.1")), is(true));
+			assertThat(node.isPeerAddress(InetAddress.getByName("10.0.0.1")), is(false));
+		} finally {
+			node.shutdown();
+		}
+	}
+
+	@Test(expected = InvalidClassException.class)
+	public void testUnknownClassIsNotDeserialized() throws Exception {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(new ClusterNode.Batch("127.0.0.1:1", 0, Collections.singletonList(
+				new ClusterDelta("agent_request", "key", new Element("key", "value"), 1, "127.0.0.1:1"))));
+		out.close();
+		new ClusterNode.BatchInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+	}
+
+	@Test
+	public void testAllowedClasses() {
+		assertThat(ClusterNode.BatchInputStream.isAllowedClass("java.lang.String"), is(true));
+		assertThat(ClusterNode.BatchInputStream.isAllowedClass("[B"), is(true));
+		assertThat(ClusterNode.BatchInputStream.isAllowedClass("[Lorg.ngrinder.model.AgentInfo;"), is(true));
+		assertThat(ClusterNode.BatchInputStream.isAllowedClass(
+				"org.apache.commons.collections.functors.InvokerTransformer"), is(false));
+		assertThat(ClusterNode.BatchInputStream.isAllowedClass("[Lnet.sf.ehcache.Element;"), is(false));
+	}
+}
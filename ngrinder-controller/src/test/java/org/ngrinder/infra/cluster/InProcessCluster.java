@@ -0,0 +1,171 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ngrinder.infra.cluster;
+
+import net.sf.ehcache.Cache;
+import net.sf.ehcache.CacheManager;
+import net.sf.ehcache.Ehcache;
+import net.sf.ehcache.config.CacheConfiguration;
+import net.sf.ehcache.config.Configuration;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Several controllers' caches replicated by {@link ClusterNode}s in one JVM.
+ *
+ * The nodes don't open sockets. A batch is serialized and applied to the peer node in the thread
+ * which flushes the sender node, and the batches are sent only when {@link #converge()} flushes
+ * the nodes, so the tests decide when the replication happens without waiting.
+ *
+ * @author JunHo Yoon
+ * @since 3.4.1
+ */
+public class InProcessCluster {
+	private static final long NEVER = Long.MAX_VALUE / 2;
+
+	private final List<ClusterNode> nodes = new ArrayList<ClusterNode>();
+	private final List<CacheManager> cacheManagers = new ArrayList<CacheManager>();
+	private final String[] cacheNames;
+
+	/**
+	 * Start the cluster.
+	 *
+	 * @param size       controller count
+	 * @param properties replication properties of the caches
+	 * @param cacheNames replicated cache names
+	 */
+	public InProcessCluster(int size, Properties properties, String... cacheNames) {
+		this.cacheNames = cacheNames;
+		for (int i = 0; i < size; i++) {
+			nodes.add(new ClusterNode("node" + i, NEVER, NEVER));
+		}
+		for (int i = 0; i < size; i++) {
+			ClusterNode node = nodes.get(i);
+			for (ClusterNode each : nodes) {
+				if (each != node) {
+					node.addPeer(each.getId(), new InProcessSender(each));
+				}
+			}
+			Configuration configuration = new Configuration();
+			configuration.setName("in_process_cluster_" + System.identityHashCode(this) + "_" + i);
+			CacheManager cacheManager = new CacheManager(configuration);
+			for (String each : cacheNames) {
+				cacheManager.addCache(new Cache(new CacheConfiguration(each, 1000)));
+				ClusterCacheReplicator.bind(node, cacheManager.getEhcache(each), properties);
+			}
+			cacheManagers.add(cacheManager);
+			node.start();
+		}
+	}
+
+	public ClusterNode getNode(int index) {
+		return nodes.get(index);
+	}
+
+	public Ehcache getCache(int index, String cacheName) {
+		return cacheManagers.get(index).getEhcache(cacheName);
+	}
+
+	/**
+	 * Flush all nodes until every controller has the same cache entries. Because the batches are
+	 * applied while flushing, a round per node is enough.
+	 *
+	 * @return true if converged
+	 */
+	public boolean converge() {
+		for (int i = 0; i < nodes.size(); i++) {
+			for (ClusterNode each : nodes) {
+				each.flush();
+			}
+			if (isConverged()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private boolean isConverged() {
+		for (ClusterNode each : nodes) {
+			if (each.getPendingDeltaCount() != 0) {
+				return false;
+			}
+		}
+		for (String cacheName : cacheNames) {
+			Map<Object, Object> expected = getEntries(getCache(0, cacheName));
+			for (int i = 1; i < nodes.size(); i++) {
+				if (!expected.equals(getEntries(getCache(i, cacheName)))) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	private Map<Object, Object> getEntries(Ehcache cache) {
+		Map<Object, Object> entries = new HashMap<Object, Object>();
+		for (Object each : cache.getKeys()) {
+			entries.put(each, cache.get(each) == null ? null : cache.get(each).getObjectValue());
+		}
+		return entries;
+	}
+
+	/**
+	 * Sender which serializes the batch as the socket does and applies it to the peer node.
+	 */
+	private static class InProcessSender implements ClusterNode.BatchSender {
+		private final ClusterNode peer;
+
+		InProcessSender(ClusterNode peer) {
+			this.peer = peer;
+		}
+
+		@Override
+		public void send(ClusterNode.Batch batch) throws IOException {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			ObjectOutputStream out = new ObjectOutputStream(bytes);
+			out.writeObject(batch);
+			out.close();
+			try {
+				peer.apply((ClusterNode.Batch) new ClusterNode.BatchInputStream(
+						new ByteArrayInputStream(bytes.toByteArray())).readObject());
+			} catch (ClassNotFoundException e) {
+				throw new IOException(e.getMessage());
+			}
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+
+	/**
+	 * Stop all nodes and cache managers.
+	 */
+	public void shutdown() {
+		for (ClusterNode each : nodes) {
+			each.shutdown();
+		}
+		for (CacheManager each : cacheManagers) {
+			each.shutdown();
+		}
+	}
+}
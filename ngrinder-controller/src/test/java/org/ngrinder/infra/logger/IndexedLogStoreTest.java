@@ -0,0 +1,93 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ngrinder.infra.logger;
+
+import net.grinder.util.LogCompressUtils;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+/**
+ * {@link IndexedLogStore} test.
+ *
+ * @author JunHo Yoon
+ * @since 3.4.1
+ */
+public class IndexedLogStoreTest {
+	private File directory;
+
+	@Before
+	public void before() throws IOException {
+		directory = new File(System.getProperty("java.io.tmpdir"), "indexed_log_store_test");
+		FileUtils.deleteQuietly(directory);
+		FileUtils.forceMkdir(directory);
+	}
+
+	@After
+	public void after() {
+		FileUtils.deleteQuietly(directory);
+	}
+
+	@Test
+	public void testGet() throws IOException {
+		IndexedLogStore store = new IndexedLogStore();
+		File plain = new File(directory, "ngrinder.log");
+		FileUtils.writeStringToFile(plain, "hello\n");
+		IndexedLog log = store.get(plain);
+		FileUtils.writeStringToFile(plain, "world\n", true);
+		assertThat(store.get(plain), sameInstance(log));
+		assertThat(log.getLineCount(), is(2L));
+
+		File zip = new File(directory, "agent-log.zip");
+		FileUtils.writeByteArrayToFile(zip, LogCompressUtils.compress(plain));
+		IndexedLog zipped = store.get(zip);
+		assertThat(store.get(zip), sameInstance(zipped));
+		assertThat(zipped.getLineCount(), is(2L));
+
+		// The modified zip is converted again.
+		FileUtils.writeByteArrayToFile(zip, LogCompressUtils.compress(plain));
+		assertThat(zip.setLastModified(zip.lastModified() - 60000), is(true));
+		assertThat(store.get(zip), not(sameInstance(zipped)));
+	}
+
+	@Test
+	public void testFailureIsNotKept() throws IOException {
+		IndexedLogStore store = new IndexedLogStore();
+		File zip = new File(directory, "broken-log.zip");
+		File indexDirectory = new File(directory, IndexedLogStore.INDEX_DIRECTORY);
+		// The index directory can not be created because a file takes its name.
+		FileUtils.writeStringToFile(indexDirectory, "not a directory");
+		File plain = new File(directory, "broken.log");
+		FileUtils.writeStringToFile(plain, "hello\n");
+		FileUtils.writeByteArrayToFile(zip, LogCompressUtils.compress(plain));
+		try {
+			store.get(zip);
+			fail("The log can not be converted.");
+		} catch (IOException e) {
+			// expected
+		}
+		FileUtils.deleteQuietly(indexDirectory);
+		assertThat(store.get(zip).getLineCount(), is(1L));
+	}
+}
@@ -0,0 +1,142 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ngrinder.infra.logger;
+
+import net.grinder.util.LogCompressUtils;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.List;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * {@link IndexedLog} test.
+ *
+ * @author JunHo Yoon
+ * @since 3.4.1
+ */
+public class IndexedLogTest {
+	private static final int LINE_COUNT = 20000;
+
+	private File directory;
+
+	@Before
+	public void before() throws IOException {
+		directory = new File(System.getProperty("java.io.tmpdir"), "indexed_log_test");
+		FileUtils.deleteQuietly(directory);
+		FileUtils.forceMkdir(directory);
+	}
+
+	@After
+	public void after() {
+		FileUtils.deleteQuietly(directory);
+	}
+
+	private void appendLines(File file, int from, int to) throws IOException {
+		FileWriter writer = new FileWriter(file, true);
+		try {
+			for (int i = from; i < to; i++) {
+				writer.write("2014-01-01 00:00:00 INFO  line " + i + (i % 5000 == 1234 ? " NullPointerException" : "")
+						+ "\n");
+			}
+		} finally {
+			writer.close();
+		}
+	}
+
+	@Test
+	public void testPlainLog() throws IOException {
+		File file = new File(directory, "ngrinder.log");
+		appendLines(file, 0, LINE_COUNT);
+		IndexedLog log = IndexedLog.plain(file);
+		assertThat(log.getLineCount(), is((long) LINE_COUNT));
+		assertLines(log);
+
+		// Partial line is not indexed until it's completed.
+		FileUtils.writeStringToFile(file, "partial", true);
+		log.refresh();
+		assertThat(log.getLineCount(), is((long) LINE_COUNT));
+		appendLines(file, LINE_COUNT, LINE_COUNT + 10);
+		log.refresh();
+		assertThat(log.getLineCount(), is((long) LINE_COUNT + 10));
+		assertThat(log.getLines(LINE_COUNT, 1).get(0).getText(), is("partial2014-01-01 00:00:00 INFO  line "
+				+ LINE_COUNT));
+		assertThat(log.tail(1).get(0).getText().endsWith("line " + (LINE_COUNT + 9)), is(true));
+
+		// The log is recreated.
+		FileUtils.writeStringToFile(file, "new\n");
+		log.refresh();
+		assertThat(log.getLineCount(), is(1L));
+	}
+
+	@Test
+	public void testRolledLogLongerThanBefore() throws IOException {
+		File file = new File(directory, "ngrinder.log");
+		appendLines(file, 0, 10);
+		IndexedLog log = IndexedLog.plain(file);
+		assertThat(log.getLineCount(), is(10L));
+
+		// The log is rolled and the new one grows past the old length before the refresh.
+		File rolled = new File(directory, "ngrinder.log.new");
+		FileUtils.writeStringToFile(rolled, "rolled\n");
+		appendLines(rolled, 0, 20);
+		assertThat(file.renameTo(new File(directory, "ngrinder.log.1")), is(true));
+		assertThat(rolled.renameTo(file), is(true));
+		log.refresh();
+		assertThat(log.getLineCount(), is(21L));
+		assertThat(log.getLines(0, 1).get(0).getText(), is("rolled"));
+	}
+
+	@Test
+	public void testCompressedLog() throws IOException {
+		File file = new File(directory, "agent.log");
+		appendLines(file, 0, LINE_COUNT);
+		File zip = new File(directory, "agent-log.zip");
+		FileUtils.writeByteArrayToFile(zip, LogCompressUtils.compress(file));
+
+		File indexDirectory = new File(directory, ".index");
+		IndexedLog log = IndexedLog.compressed(zip, indexDirectory);
+		assertThat(log.getLineCount(), is((long) LINE_COUNT));
+		assertLines(log);
+
+		File blocks = new File(indexDirectory, "agent-log.zip.blocks");
+		long lastModified = blocks.lastModified();
+		assertThat(blocks.length() < file.length(), is(true));
+		// The existing index is loaded.
+		log = IndexedLog.compressed(zip, indexDirectory);
+		assertThat(blocks.lastModified(), is(lastModified));
+		assertLines(log);
+	}
+
+	private void assertLines(IndexedLog log) throws IOException {
+		List<IndexedLog.Line> lines = log.getLines(12345, 3000);
+		assertThat(lines.size(), is(3000));
+		for (int i = 0; i < lines.size(); i++) {
+			assertThat(lines.get(i).getLine(), is(12345L + i));
+			assertThat(lines.get(i).getText().startsWith("2014-01-01 00:00:00 INFO  line " + (12345 + i)), is(true));
+		}
+		List<IndexedLog.Line> found = log.search("nullpointer", 2000, 10);
+		assertThat(found.size(), is(3));
+		assertThat(found.get(0).getLine(), is(6234L));
+		assertThat(log.search("no such keyword", 0, 10).size(), is(0));
+		assertThat(log.getLines(LINE_COUNT + 1, 10).size(), is(0));
+	}
+}
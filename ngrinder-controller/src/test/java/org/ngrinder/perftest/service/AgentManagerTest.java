@@ -13,12 +13,22 @@
  */
 package org.ngrinder.perftest.service;
 
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
 import net.grinder.engine.controller.AgentControllerIdentityImplementation;
 
+import org.apache.commons.io.FileUtils;
 import org.junit.Test;
 import org.ngrinder.AbstractNGrinderTransactionalTest;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
 /**
  * Class description.
  *
@@ -55,4 +65,36 @@ public class AgentManagerTest extends AbstractNGrinderTransactionalTest {
 		agentManager.filterSharedAgents(agentManager.getAllAttachedAgents());
 	}
 
+	@Test
+	public void testAgentPackageSwapWhileReading() throws IOException {
+		File agentPackage = new File(System.getProperty("java.io.tmpdir"), "agent_package_swap_test.tar");
+		FileUtils.writeStringToFile(agentPackage, "old package");
+		AgentManager manager = new AgentManager();
+		try {
+			AgentManager.OpenedAgentPackage reading = manager.openAgentPackage(agentPackage);
+
+			// The package is rebuilt while the old one is being read.
+			FileUtils.writeStringToFile(agentPackage, "new package");
+			assertThat(agentPackage.setLastModified(agentPackage.lastModified() - 60000), is(true));
+			AgentManager.OpenedAgentPackage rebuilt = manager.openAgentPackage(agentPackage);
+			assertThat(rebuilt, not(sameInstance(reading)));
+
+			// The old channel is still readable until its reader releases it.
+			assertThat(reading.channel.isOpen(), is(true));
+			assertThat(reading.channel.read(ByteBuffer.allocate(3), 0), is(3));
+			reading.release();
+			assertThat(reading.channel.isOpen(), is(false));
+
+			// The manager still holds the rebuilt one.
+			rebuilt.release();
+			assertThat(rebuilt.channel.isOpen(), is(true));
+			assertThat(manager.openAgentPackage(agentPackage), sameInstance(rebuilt));
+			rebuilt.release();
+			rebuilt.release();
+			assertThat(rebuilt.channel.isOpen(), is(false));
+		} finally {
+			FileUtils.deleteQuietly(agentPackage);
+		}
+	}
+
 }
@@ -0,0 +1,91 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ngrinder.perftest.service;
+
+import org.junit.Test;
+import org.ngrinder.model.PerfTest;
+import org.ngrinder.model.RampUp;
+import org.ngrinder.perftest.model.ReportWindowStatistics;
+import org.ngrinder.perftest.model.StatisticDelta;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * {@link PerfTestComparisonService} test.
+ *
+ * @author JunHo Yoon
+ * @since 3.4.1
+ */
+public class PerfTestComparisonServiceTest {
+
+	private ReportWindowStatistics createStatistics(double mean, double noise, int count) {
+		Random random = new Random(count);
+		List<Double> values = new ArrayList<Double>();
+		for (int i = 0; i < count; i++) {
+			values.add(mean + (random.nextDouble() - 0.5) * noise);
+		}
+		return ReportWindowStatistics.of(values);
+	}
+
+	@Test
+	public void testSignificance() {
+		ReportWindowStatistics baseline = createStatistics(100, 20, 300);
+		StatisticDelta same = StatisticDelta.compare("TPS", "Total", baseline, createStatistics(100, 20, 301));
+		assertThat(same.isSignificant(), is(false));
+		assertThat(PerfTestComparisonService.isRegression(same, 5), is(false));
+
+		StatisticDelta slower = StatisticDelta.compare("TPS", "Total", baseline, createStatistics(80, 20, 301));
+		assertThat(slower.isSignificant(), is(true));
+		assertThat(slower.getDeltaPercent() < -15, is(true));
+		assertThat(PerfTestComparisonService.isRegression(slower, 5), is(true));
+		assertThat(PerfTestComparisonService.isRegression(slower, 30), is(false));
+
+		StatisticDelta faster = StatisticDelta.compare("TPS", "Total", baseline, createStatistics(120, 20, 301));
+		assertThat(PerfTestComparisonService.isRegression(faster, 5), is(false));
+		StatisticDelta longer = StatisticDelta.compare("Mean_Test_Time_(ms)", "Total", baseline,
+				createStatistics(120, 20, 301));
+		assertThat(PerfTestComparisonService.isRegression(longer, 5), is(true));
+	}
+
+	@Test
+	public void testNewErrorsAreRegression() {
+		ReportWindowStatistics baseline = createStatistics(0, 0, 100);
+		StatisticDelta errors = StatisticDelta.compare("Errors", "1_test", baseline, createStatistics(1, 0, 100));
+		assertThat(errors.getDeltaPercent() == null, is(true));
+		assertThat(PerfTestComparisonService.isRegression(errors, 5), is(true));
+	}
+
+	@Test
+	public void testWarmUpSecond() {
+		PerfTest perfTest = new PerfTest();
+		perfTest.setSamplingInterval(2);
+		perfTest.setIgnoreSampleCount(5);
+		PerfTestComparisonService comparisonService = new PerfTestComparisonService();
+		assertThat(comparisonService.getWarmUpSecond(perfTest), is(10));
+
+		perfTest.setUseRampUp(true);
+		perfTest.setRampUpType(RampUp.THREAD);
+		perfTest.setThreads(100);
+		perfTest.setRampUpInitCount(10);
+		perfTest.setRampUpStep(10);
+		perfTest.setRampUpInitSleepTime(1000);
+		perfTest.setRampUpIncrementInterval(2000);
+		assertThat(comparisonService.getWarmUpSecond(perfTest), is(19));
+	}
+}
@@ -13,7 +13,9 @@
  */
 package org.ngrinder.perftest.service;
 
+import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
 
 import org.junit.Test;
@@ -40,4 +42,36 @@ public class PerfTestProcessAndThreadPolicyServiceTest extends AbstractNGrinderT
 		System.out.println(calcProcessAndThread);
 
 	}
+
+	@Test
+	public void testPolicyIsCompiledOnce() {
+		ProcessAndThreadPolicy policy = perfTestService.getProcessAndThreadPolicy();
+		perfTestService.calcProcessAndThread(10);
+		assertThat(perfTestService.getProcessAndThreadPolicy(), sameInstance(policy));
+	}
+
+	@Test
+	public void testDefaultPolicyIsSameWithScript() {
+		String script = perfTestService.getProcessAndThreadPolicyScript();
+		assertThat(ProcessAndThreadPolicy.isDefaultPolicy(script), is(true));
+		// Add a comment so that the script engine is used.
+		ProcessAndThreadPolicy scriptPolicy = new ProcessAndThreadPolicy(script + "\n// custom");
+		for (int vuser = 0; vuser < 1000; vuser += 7) {
+			ProcessAndThread expected = scriptPolicy.calculate(vuser);
+			ProcessAndThread actual = ProcessAndThreadPolicy.calculateDefault(vuser);
+			assertThat(actual.getProcessCount(), is(expected.getProcessCount()));
+			assertThat(actual.getThreadCount(), is(expected.getThreadCount()));
+		}
+	}
+
+	@Test
+	public void testCustomPolicy() {
+		ProcessAndThreadPolicy policy = new ProcessAndThreadPolicy("function getProcessCount(total) { return 3; }\n"
+				+ "function getThreadCount(total) { return total * 2; }");
+		ProcessAndThread processAndThread = policy.calculate(5);
+		assertThat(processAndThread.getProcessCount(), is(3));
+		assertThat(processAndThread.getThreadCount(), is(10));
+		processAndThread.setThreadCount(1);
+		assertThat(policy.calculate(5).getThreadCount(), is(10));
+	}
 }
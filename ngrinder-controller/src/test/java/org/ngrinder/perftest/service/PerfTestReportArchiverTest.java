@@ -0,0 +1,109 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ngrinder.perftest.service;
+
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.ngrinder.common.model.Home;
+import org.ngrinder.infra.config.Config;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link PerfTestReportArchiver} test.
+ *
+ * @author JunHo Yoon
+ * @since 3.4.1
+ */
+public class PerfTestReportArchiverTest {
+
+	@Test
+	public void testArchiveScansIncrementally() {
+		PerfTestService perfTestService = mock(PerfTestService.class);
+		PerfTestReportArchiver archiver = createArchiver(perfTestService);
+		Date first = new Date(1000000);
+		Date second = new Date(2000000);
+		when(perfTestService.getFinishedTestIds(any(Date.class), any(Date.class))).thenReturn(
+				Collections.<Long>emptyList());
+		when(perfTestService.getFinishedTestIds((Date) isNull(), any(Date.class))).thenReturn(
+				Collections.singletonList(1L));
+
+		archiver.archive(first);
+		verify(perfTestService).getFinishedTestIds(null, first);
+		archiver.archive(second);
+		verify(perfTestService).getFinishedTestIds(first, second);
+		// The watermark doesn't go back.
+		archiver.archive(first);
+		verify(perfTestService).getFinishedTestIds(second, first);
+	}
+
+	@Test
+	public void testStatisticsAreReadDuringArchiving() throws Exception {
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		PerfTestService perfTestService = mock(PerfTestService.class);
+		when(perfTestService.getFinishedTestIds(any(Date.class), any(Date.class))).thenAnswer(
+				new Answer<List<Long>>() {
+					@Override
+					public List<Long> answer(InvocationOnMock invocation) throws Throwable {
+						started.countDown();
+						release.await();
+						return Collections.emptyList();
+					}
+				});
+		final PerfTestReportArchiver archiver = createArchiver(perfTestService);
+		Thread thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				archiver.archive(new Date());
+			}
+		});
+		thread.start();
+		try {
+			assertThat(started.await(5, TimeUnit.SECONDS), is(true));
+			assertThat(archiver.getStatistics().get("lastRun"), nullValue());
+		} finally {
+			release.countDown();
+			thread.join();
+		}
+		assertThat(archiver.getStatistics().get("totalArchivedTests"), is((Object) 0L));
+	}
+
+	private PerfTestReportArchiver createArchiver(PerfTestService perfTestService) {
+		Config config = mock(Config.class);
+		Home home = mock(Home.class);
+		when(config.getHome()).thenReturn(home);
+		when(home.getExistingPerfTestReportDirectory(anyString())).thenReturn(null);
+		PerfTestReportArchiver archiver = new PerfTestReportArchiver();
+		ReflectionTestUtils.setField(archiver, "config", config);
+		ReflectionTestUtils.setField(archiver, "perfTestService", perfTestService);
+		return archiver;
+	}
+}
@@ -25,6 +25,7 @@ import org.ngrinder.model.PerfTest;
 import org.ngrinder.model.Status;
 import org.ngrinder.monitor.controller.model.SystemDataModel;
 import org.ngrinder.monitor.share.domain.SystemInfo;
+import org.ngrinder.perftest.model.PerfTestSummary;
 import org.ngrinder.perftest.repository.PerfTestRepository;
 import org.ngrinder.perftest.service.monitor.MonitorClientService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -63,6 +64,33 @@ public class PerfTestServiceTest extends AbstractPerfTestTransactionalTest {
 	}
 
 
+	@Test
+	public void testGetSummaries() {
+		for (int i = 0; i < 5; i++) {
+			createPerfTest("new Test" + i, i % 2 == 0 ? Status.FINISHED : Status.READY, new Date());
+		}
+		List<PerfTestSummary> firstPage = testService.getSummaries(getTestUser(), null, null, null, null, null, 3);
+		assertThat(firstPage.size(), is(3));
+		PerfTestSummary last = firstPage.get(2);
+		List<PerfTestSummary> secondPage = testService.getSummaries(getTestUser(), null, null, null,
+				last.getCreatedDate(), last.getId(), 3);
+		assertThat(secondPage.size(), is(2));
+		Set<Long> ids = new HashSet<Long>();
+		for (PerfTestSummary each : firstPage) {
+			ids.add(each.getId());
+		}
+		for (PerfTestSummary each : secondPage) {
+			assertThat(ids.add(each.getId()), is(true));
+			assertThat(each.getCreatedUserId(), is(getTestUser().getUserId()));
+		}
+		assertThat(testService.getSummaries(getTestUser(), null, null, "F", null, null, 10).size(), is(3));
+
+		List<PerfTest> latest = testService.getLatest(getTestUser(), 1, 2);
+		assertThat(latest.size(), is(2));
+		assertThat(latest.get(0).getId(), is(firstPage.get(1).getId()));
+		assertThat(latest.get(1).getId(), is(firstPage.get(2).getId()));
+	}
+
 	@Test
 	public void testGetTestListAll() {
 		createPerfTest("new Test1", Status.TESTING, new Date());
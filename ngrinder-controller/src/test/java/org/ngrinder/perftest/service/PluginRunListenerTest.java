@@ -0,0 +1,156 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ngrinder.perftest.service;
+
+import net.grinder.SingleConsole;
+import net.grinder.statistics.ImmutableStatisticsSet;
+import net.grinder.statistics.StatisticsSet;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.ngrinder.extension.OnTestSamplingRunnable;
+import org.ngrinder.model.PerfTest;
+import org.ngrinder.perftest.service.samplinglistener.MonitorCollectorPlugin;
+import org.ngrinder.perftest.service.samplinglistener.PluginRunListener;
+import org.ngrinder.perftest.service.samplinglistener.SamplingPluginMonitor;
+import org.ngrinder.service.IPerfTestService;
+import org.ngrinder.service.ISingleConsole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link PluginRunListener} test.
+ *
+ * @author JunHo Yoon
+ * @since 3.4.1
+ */
+public class PluginRunListenerTest {
+
+	@Test
+	public void testSlowPluginDoesNotBlockSampling() throws Exception {
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		final CountDownLatch ended = new CountDownLatch(1);
+		final List<Integer> samples = new ArrayList<Integer>();
+		OnTestSamplingRunnable slowPlugin = new OnTestSamplingRunnable() {
+			@Override
+			public void startSampling(ISingleConsole singleConsole, PerfTest perfTest,
+			                          IPerfTestService perfTestService) {
+				started.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					throw new IllegalStateException(e);
+				}
+			}
+
+			@Override
+			public void sampling(ISingleConsole singleConsole, PerfTest perfTest, IPerfTestService perfTestService,
+			                     ImmutableStatisticsSet intervalStatistics,
+			                     ImmutableStatisticsSet cumulativeStatistics) {
+				samples.add(samples.size());
+			}
+
+			@Override
+			public void endSampling(ISingleConsole singleConsole, PerfTest perfTest, IPerfTestService perfTestService) {
+				ended.countDown();
+			}
+		};
+		List<OnTestSamplingRunnable> plugins = new ArrayList<OnTestSamplingRunnable>();
+		plugins.add(slowPlugin);
+		SamplingPluginMonitor monitor = mock(SamplingPluginMonitor.class);
+		SamplingPluginMonitor.PluginStatistics statistics = new SamplingPluginMonitor.PluginStatistics("TestPlugin");
+		when(monitor.getQueueSize()).thenReturn(2);
+		when(monitor.isCoalescing()).thenReturn(true);
+		when(monitor.getStatistics(slowPlugin)).thenReturn(statistics);
+
+		PerfTest perfTest = new PerfTest();
+		perfTest.setId(1L);
+		PluginRunListener listener = new PluginRunListener(plugins, mock(SingleConsole.class), perfTest,
+				mock(PerfTestService.class), monitor);
+		StatisticsSet statisticsSet = mock(StatisticsSet.class);
+		when(statisticsSet.snapshot()).thenReturn(statisticsSet);
+
+		listener.onSamplingStarted();
+		assertThat(started.await(5, TimeUnit.SECONDS), is(true));
+		for (int i = 0; i < 5; i++) {
+			listener.onSampling(null, statisticsSet, statisticsSet);
+		}
+		// Two samples are queued and the last one is replaced by the following samples.
+		assertThat(statistics.getBacklog(), is(2));
+		assertThat(statistics.getCoalesced(), is(3L));
+
+		release.countDown();
+		// It returns after the plugin ends the sampling.
+		listener.onSamplingEnded();
+		assertThat(ended.getCount(), is(0L));
+		assertThat(samples.size(), is(2));
+		assertThat(statistics.getBacklog(), is(0));
+		assertThat(statistics.getDropped(), is(0L));
+	}
+
+	@Test
+	public void testMonitorCollectorGetsEverySample() throws Exception {
+		final CountDownLatch release = new CountDownLatch(1);
+		MonitorCollectorPlugin monitorCollector = mock(MonitorCollectorPlugin.class);
+		doAnswer(new Answer<Void>() {
+			@Override
+			public Void answer(InvocationOnMock invocation) throws Throwable {
+				release.await();
+				return null;
+			}
+		}).when(monitorCollector).startSampling(any(ISingleConsole.class), any(PerfTest.class),
+				any(IPerfTestService.class));
+		List<OnTestSamplingRunnable> plugins = new ArrayList<OnTestSamplingRunnable>();
+		plugins.add(monitorCollector);
+		SamplingPluginMonitor monitor = mock(SamplingPluginMonitor.class);
+		SamplingPluginMonitor.PluginStatistics statistics = new SamplingPluginMonitor.PluginStatistics(
+				"MonitorCollectorPlugin");
+		when(monitor.getQueueSize()).thenReturn(2);
+		when(monitor.isCoalescing()).thenReturn(true);
+		when(monitor.getStatistics(monitorCollector)).thenReturn(statistics);
+
+		PerfTest perfTest = new PerfTest();
+		perfTest.setId(2L);
+		PluginRunListener listener = new PluginRunListener(plugins, mock(SingleConsole.class), perfTest,
+				mock(PerfTestService.class), monitor);
+		StatisticsSet statisticsSet = mock(StatisticsSet.class);
+		when(statisticsSet.snapshot()).thenReturn(statisticsSet);
+
+		listener.onSamplingStarted();
+		for (int i = 0; i < 5; i++) {
+			listener.onSampling(null, statisticsSet, statisticsSet);
+		}
+		release.countDown();
+		listener.onSamplingEnded();
+		verify(monitorCollector, times(5)).sampling(any(ISingleConsole.class), any(PerfTest.class),
+				any(IPerfTestService.class), any(ImmutableStatisticsSet.class), any(ImmutableStatisticsSet.class));
+		verify(monitorCollector).endSampling(any(ISingleConsole.class), any(PerfTest.class),
+				any(IPerfTestService.class));
+		assertThat(statistics.getCoalesced(), is(0L));
+		assertThat(statistics.getDropped(), is(0L));
+	}
+}
@@ -0,0 +1,109 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ngrinder.perftest.service;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * {@link ReportArchive} test.
+ *
+ * @author JunHo Yoon
+ * @since 3.4.1
+ */
+public class ReportArchiveTest {
+
+	private File directory;
+	private File reportDirectory;
+
+	@Before
+	public void before() throws IOException {
+		directory = new File(System.getProperty("java.io.tmpdir"), "report_archive_test");
+		FileUtils.deleteQuietly(directory);
+		reportDirectory = new File(directory, "report");
+		StringBuilder tps = new StringBuilder();
+		for (int i = 0; i < 1000; i++) {
+			tps.append(i % 100).append(",");
+		}
+		FileUtils.writeStringToFile(new File(reportDirectory, "TPS.data"), tps.toString());
+		FileUtils.writeStringToFile(new File(reportDirectory, "Errors-1.data"), "0,0,1");
+		FileUtils.writeStringToFile(new File(reportDirectory, "plugin/kind.data"), "header\n1,2");
+	}
+
+	@After
+	public void after() {
+		FileUtils.deleteQuietly(directory);
+	}
+
+	@Test
+	public void testArchive() throws IOException {
+		ReportArchive report = new ReportArchive(reportDirectory);
+		assertThat(report.isArchived(), is(false));
+		assertThat(report.list(), is(Arrays.asList("Errors-1.data", "TPS.data", "plugin/kind.data")));
+
+		assertThat(report.archive() > 0, is(true));
+		assertThat(report.isArchived(), is(true));
+		assertThat(reportDirectory.exists(), is(false));
+
+		assertThat(report.list(), is(Arrays.asList("Errors-1.data", "TPS.data", "plugin/kind.data")));
+		assertThat(report.exists("plugin/kind.data"), is(true));
+		assertThat(report.exists("Errors-2.data"), is(false));
+		assertThat(report.length("Errors-1.data"), is(5L));
+		InputStream in = report.open("plugin/kind.data");
+		try {
+			assertThat(IOUtils.toString(in), is("header\n1,2"));
+		} finally {
+			in.close();
+		}
+	}
+
+	@Test
+	public void testArchiveAgain() throws IOException {
+		ReportArchive report = new ReportArchive(reportDirectory);
+		report.archive();
+		// The report directory is created again by a reader.
+		FileUtils.forceMkdir(reportDirectory);
+		assertThat(report.archive(), is(0L));
+		assertThat(reportDirectory.exists(), is(false));
+		assertThat(report.exists("TPS.data"), is(true));
+	}
+
+	@Test
+	public void testArchiveLockedByAnotherController() throws IOException {
+		ReportArchive report = new ReportArchive(reportDirectory);
+		File lockFile = new File(directory, ReportArchive.ARCHIVE_FILE + ".lock");
+		FileUtils.touch(lockFile);
+		assertThat(report.archive(), is(0L));
+		assertThat(report.isArchived(), is(false));
+		assertThat(reportDirectory.exists(), is(true));
+
+		// The lock left by a dead controller expires.
+		lockFile.setLastModified(System.currentTimeMillis() - 2 * 60 * 60 * 1000L);
+		assertThat(report.archive() > 0, is(true));
+		assertThat(report.isArchived(), is(true));
+		assertThat(lockFile.exists(), is(false));
+		assertThat(directory.list(), is(new String[]{ReportArchive.ARCHIVE_FILE}));
+	}
+}
@@ -0,0 +1,65 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ngrinder.perftest.service;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * {@link SteadyStateDetector} test.
+ *
+ * @author JunHo Yoon
+ * @since 3.4.1
+ */
+public class SteadyStateDetectorTest {
+
+	@Test
+	public void testRampUpAndCoolDownAreExcluded() {
+		Random random = new Random(1);
+		List<Double> tps = new ArrayList<Double>();
+		List<Double> meanTestTime = new ArrayList<Double>();
+		for (int i = 0; i < 30; i++) {
+			tps.add(i * 100.0 / 30 + random.nextGaussian() * 3);
+			meanTestTime.add(50 + random.nextGaussian() * 2);
+		}
+		for (int i = 0; i < 200; i++) {
+			tps.add(100 + random.nextGaussian() * 3);
+			// Some samples are not collected.
+			meanTestTime.add(i % 50 == 7 ? null : 50 + random.nextGaussian() * 2);
+		}
+		for (int i = 0; i < 10; i++) {
+			tps.add(100 - i * 10.0);
+			meanTestTime.add(80.0);
+		}
+		int[] window = SteadyStateDetector.detect(Arrays.asList(tps, meanTestTime));
+		assertThat(window[0], is(30));
+		assertThat(window[1], is(230));
+	}
+
+	@Test
+	public void testShortSeries() {
+		List<Double> tps = Arrays.asList(1D, 2D, 3D, 4D, 5D, 6D, 7D, 8D, 9D, 10D);
+		int[] window = SteadyStateDetector.detect(Collections.singletonList(tps));
+		assertThat(window[0], is(0));
+		assertThat(window[1], is(10));
+	}
+}
@@ -4,12 +4,16 @@ import static org.fest.assertions.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import org.apache.commons.io.FileUtils;
 import org.junit.Test;
 import org.ngrinder.model.Role;
 import org.ngrinder.model.User;
 import org.ngrinder.script.model.FileEntry;
 import org.ngrinder.script.repository.FileEntryRepository;
 
+import java.io.File;
+import java.io.IOException;
+
 @SuppressWarnings("deprecation")
 public class GroovyMavenProjectScriptHandlerTest {
 
@@ -36,4 +40,62 @@ public class GroovyMavenProjectScriptHandlerTest {
 		entry.setPath("/hello/world/src/main/java/Global.groovy");
 		assertThat(handler.canHandle(entry)).isFalse();
 	}
+
+	@Test
+	public void testLinkDependencies() throws IOException {
+		GroovyMavenProjectScriptHandler handler = new GroovyMavenProjectScriptHandler();
+		File base = new File(System.getProperty("java.io.tmpdir"), "maven_dependency_cache_test");
+		FileUtils.deleteQuietly(base);
+		File cached = new File(base, "cache");
+		File lib = new File(base, "dist/lib");
+		FileUtils.writeStringToFile(new File(cached, "hello.jar"), "hello");
+		FileUtils.writeStringToFile(new File(lib, "hello.jar"), "old");
+
+		assertThat(handler.linkDependencies(cached, lib)).isEqualTo(0);
+		assertThat(FileUtils.readFileToString(new File(lib, "hello.jar"))).isEqualTo("hello");
+		// No config means no cache.
+		assertThat(handler.getCachedDependencyDirectory(new File(cached, "hello.jar"))).isNull();
+		FileUtils.deleteQuietly(base);
+	}
+
+	@Test
+	public void testEvictDependencyCache() throws IOException {
+		GroovyMavenProjectScriptHandler handler = new GroovyMavenProjectScriptHandler();
+		File base = new File(System.getProperty("java.io.tmpdir"), "maven_dependency_cache_evict_test");
+		FileUtils.deleteQuietly(base);
+		long now = System.currentTimeMillis();
+		for (int i = 0; i < 4; i++) {
+			File each = new File(base, "cache" + i);
+			FileUtils.writeStringToFile(new File(each, "hello.jar"), "hello");
+			assertThat(each.setLastModified(now - (4 - i) * 60000L)).isTrue();
+		}
+		// Being resolved now.
+		FileUtils.writeStringToFile(new File(base, "cache4_1/hello.jar"), "hello");
+
+		assertThat(handler.evictDependencyCache(base, 4)).isEqualTo(0);
+		assertThat(handler.evictDependencyCache(base, 2)).isEqualTo(2);
+		assertThat(new File(base, "cache0").exists()).isFalse();
+		assertThat(new File(base, "cache1").exists()).isFalse();
+		assertThat(new File(base, "cache2").exists()).isTrue();
+		assertThat(new File(base, "cache3").exists()).isTrue();
+		assertThat(new File(base, "cache4_1").exists()).isTrue();
+		FileUtils.deleteQuietly(base);
+	}
+
+	@Test
+	public void testHasChangingVersion() {
+		assertThat(GroovyMavenProjectScriptHandler.hasChangingVersion(pom("1.0"))).isFalse();
+		assertThat(GroovyMavenProjectScriptHandler.hasChangingVersion(pom("1.0-SNAPSHOT"))).isTrue();
+		assertThat(GroovyMavenProjectScriptHandler.hasChangingVersion(pom("[1.0,)"))).isTrue();
+		assertThat(GroovyMavenProjectScriptHandler.hasChangingVersion(pom("(,2.0]"))).isTrue();
+		assertThat(GroovyMavenProjectScriptHandler.hasChangingVersion(pom(" LATEST "))).isTrue();
+		assertThat(GroovyMavenProjectScriptHandler.hasChangingVersion(pom("RELEASE"))).isTrue();
+		assertThat(GroovyMavenProjectScriptHandler.hasChangingVersion(pom("${lib.version}"))).isTrue();
+	}
+
+	private String pom(String dependencyVersion) {
+		return "<project><version>1.0</version><dependencies><dependency><groupId>a</groupId>"
+				+ "<artifactId>b</artifactId><version>" + dependencyVersion + "</version></dependency>"
+				+ "</dependencies></project>";
+	}
 }
@@ -153,4 +153,35 @@ public class FileEntryRepositoryTest extends AbstractNGrinderTransactionalTest {
 		fileEntry.setContentBytes(byteArray);
 		repo.save(getTestUser(), fileEntry, null);
 	}
+
+	@Test
+	public void testIndexUpdate() {
+		FileEntryIndex index = repo.createIndex(getTestUser());
+		assertThat(repo.updateIndex(getTestUser(), index) == index, is(true));
+
+		FileEntry fileEntry = new FileEntry();
+		fileEntry.setContent("HELLO WORLD");
+		fileEntry.setEncoding("UTF-8");
+		fileEntry.setPath("index/world/hello.txt");
+		fileEntry.setDescription("index");
+		repo.save(getTestUser(), fileEntry, "UTF-8");
+		index = repo.updateIndex(getTestUser(), index);
+		assertIndex(index, repo.createIndex(getTestUser()));
+
+		repo.delete(getTestUser(), Lists.newArrayList("index/world"));
+		index = repo.updateIndex(getTestUser(), index);
+		assertIndex(index, repo.createIndex(getTestUser()));
+	}
+
+	private void assertIndex(FileEntryIndex updated, FileEntryIndex created) {
+		assertThat(updated.getRevision(), is(created.getRevision()));
+		assertThat(updated.getFileEntries().size(), is(created.getFileEntries().size()));
+		for (int i = 0; i < created.getFileEntries().size(); i++) {
+			FileEntry expected = created.getFileEntries().get(i);
+			FileEntry actual = updated.getFileEntries().get(i);
+			assertThat(actual.getPath(), is(expected.getPath()));
+			assertThat(actual.getRevision(), is(expected.getRevision()));
+			assertThat(actual.getFileSize(), is(expected.getFileSize()));
+		}
+	}
 }
@@ -24,6 +24,7 @@ import net.grinder.engine.communication.AgentDownloadGrinderMessage;
 import net.grinder.engine.communication.AgentUpdateGrinderMessage;
 import net.grinder.engine.communication.LogReportGrinderMessage;
 import net.grinder.engine.controller.AgentControllerIdentityImplementation;
+import net.grinder.engine.process.WorkerMetricsRecorder;
 import net.grinder.message.console.AgentControllerProcessReportMessage;
 import net.grinder.message.console.AgentControllerState;
 import net.grinder.messages.agent.StartGrinderMessage;
@@ -38,6 +39,7 @@ import org.ngrinder.common.constants.AgentConstants;
 import org.ngrinder.infra.AgentConfig;
 import org.ngrinder.monitor.collector.SystemDataCollector;
 import org.ngrinder.monitor.controller.model.SystemDataModel;
+import org.ngrinder.monitor.controller.model.WorkerMetrics;
 import org.ngrinder.monitor.share.domain.SystemInfo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -45,7 +47,9 @@ import org.slf4j.LoggerFactory;
 import java.io.File;
 import java.io.FilenameFilter;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Timer;
 import java.util.TimerTask;
 
@@ -87,6 +91,13 @@ public class AgentController implements Agent, AgentConstants {
 
 	private String version;
 
+	/**
+	 * The worker metrics not updated within this time are of the finished workers.
+	 */
+	private static final long WORKER_METRICS_EXPIRATION = 10000;
+
+	private volatile AgentDaemon m_runningAgent;
+
 	/**
 	 * Constructor.
 	 *
@@ -170,6 +181,7 @@ public class AgentController implements Agent, AgentConstants {
 					LOGGER.info("Starting agent... for {}", testId);
 					m_state = AgentControllerState.BUSY;
 					m_connectionPort = startMessage.getProperties().getInt(GrinderProperties.CONSOLE_PORT, 0);
+					m_runningAgent = agent;
 					agent.run(startMessage.getProperties());
 
 					final ConsoleCommunication conCom = consoleCommunication;
@@ -177,6 +189,7 @@ public class AgentController implements Agent, AgentConstants {
 					agent.addListener(new AgentShutDownListener() {
 						@Override
 						public void shutdownAgent() {
+							m_runningAgent = null;
 							LOGGER.info("Send log for {}", testId);
 							sendLog(conCom, testId);
 							m_state = AgentControllerState.READY;
@@ -262,6 +275,7 @@ public class AgentController implements Agent, AgentConstants {
 			m_connectionPort = 0;
 			// Abnormal state.
 			agent.shutdown();
+			agent.destroyWorkerPool();
 			m_state = AgentControllerState.FINISHED;
 			shutdownConsoleCommunication(consoleCommunication);
 			m_timer.cancel();
@@ -343,7 +357,13 @@ public class AgentController implements Agent, AgentConstants {
 	public SystemDataModel getSystemDataModel() {
 		try {
 			SystemInfo systemInfo = agentSystemDataCollector.execute();
-			return new SystemDataModel(systemInfo, this.version);
+			SystemDataModel systemDataModel = new SystemDataModel(systemInfo, this.version);
+			List<WorkerMetrics> workers = getWorkerMetrics();
+			if (workers != null) {
+				systemDataModel.setWorkerCount(workers.size());
+				systemDataModel.setWorstWorker(WorkerMetrics.getWorst(workers));
+			}
+			return systemDataModel;
 		} catch (Exception e) {
 			LOGGER.error("Error while getting system data model : {} ", e.getMessage());
 			LOGGER.debug("The error detail is ", e);
@@ -351,6 +371,42 @@ public class AgentController implements Agent, AgentConstants {
 		}
 	}
 
+	/**
+	 * Get the metrics of the running worker processes, which are recorded in the log folder of
+	 * the running test.
+	 *
+	 * @return worker metrics. null if no test is running.
+	 */
+	private List<WorkerMetrics> getWorkerMetrics() {
+		AgentDaemon runningAgent = m_runningAgent;
+		File logDirectory = runningAgent == null ? null : runningAgent.getLogDirectory();
+		if (logDirectory == null) {
+			return null;
+		}
+		File[] files = logDirectory.listFiles(new FilenameFilter() {
+			@Override
+			public boolean accept(File dir, String name) {
+				return name.endsWith(WorkerMetricsRecorder.FILE_EXTENSION);
+			}
+		});
+		if (files == null) {
+			return null;
+		}
+		Arrays.sort(files);
+		List<WorkerMetrics> workers = new ArrayList<WorkerMetrics>(files.length);
+		long now = System.currentTimeMillis();
+		for (File each : files) {
+			if (now - each.lastModified() > WORKER_METRICS_EXPIRATION) {
+				continue;
+			}
+			WorkerMetrics metrics = WorkerMetrics.load(each);
+			if (metrics != null) {
+				workers.add(metrics);
+			}
+		}
+		return workers;
+	}
+
 	public AgentConfig getAgentConfig() {
 		return agentConfig;
 	}
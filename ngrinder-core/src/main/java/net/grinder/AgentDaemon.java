@@ -18,6 +18,7 @@ import net.grinder.common.GrinderProperties;
 import net.grinder.communication.CommunicationDefaults;
 import net.grinder.engine.agent.Agent;
 import net.grinder.engine.agent.AgentImplementationEx;
+import net.grinder.engine.agent.WarmWorkerPool;
 import net.grinder.util.ListenerSupport;
 import net.grinder.util.ListenerSupport.Informer;
 import org.apache.commons.lang.StringUtils;
@@ -26,6 +27,9 @@ import org.ngrinder.infra.AgentConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
+
+import static org.ngrinder.common.constants.AgentConstants.PROP_AGENT_WORKER_POOL;
 import static org.ngrinder.common.util.ExceptionUtils.processException;
 
 /**
@@ -42,6 +46,7 @@ public class AgentDaemon implements Agent {
 	private boolean forceShutdown = false;
 	public static final Logger LOGGER = LoggerFactory.getLogger("agent daemon");
 	private final AgentConfig m_agentConfig;
+	private final WarmWorkerPool m_workerPool;
 
 	/**
 	 * Constructor.
@@ -51,6 +56,8 @@ public class AgentDaemon implements Agent {
 
 	public AgentDaemon(AgentConfig agentConfig) {
 		this.m_agentConfig = agentConfig;
+		this.m_workerPool = agentConfig.getAgentProperties().getPropertyBoolean(PROP_AGENT_WORKER_POOL) ?
+				new WarmWorkerPool(LOGGER) : null;
 		try {
 			properties = new GrinderProperties(GrinderProperties.DEFAULT_PROPERTIES);
 		} catch (GrinderException e) {
@@ -129,7 +136,9 @@ public class AgentDaemon implements Agent {
 	class AgentThreadRunnable implements Runnable {
 		public void run() {
 			try {
-				setAgent(new AgentImplementationEx(LOGGER, m_agentConfig)).run(getGrinderProperties());
+				AgentImplementationEx agentImplementation = new AgentImplementationEx(LOGGER, m_agentConfig);
+				agentImplementation.setWorkerPool(m_workerPool);
+				setAgent(agentImplementation).run(getGrinderProperties());
 			} catch (Exception e) {
 				LOGGER.error("While running an agent thread, an error occurred", e);
 			}
@@ -203,6 +212,28 @@ public class AgentDaemon implements Agent {
 		}
 	}
 
+	/**
+	 * Get the log directory of the running test.
+	 *
+	 * @return log directory. null if no test is running.
+	 * @since 3.4.1
+	 */
+	public File getLogDirectory() {
+		AgentImplementationEx runningAgent = agent;
+		return runningAgent == null ? null : runningAgent.getLogDirectory();
+	}
+
+	/**
+	 * Destroy the pre-started worker processes if the worker pool is enabled.
+	 *
+	 * @since 3.4.1
+	 */
+	public void destroyWorkerPool() {
+		if (m_workerPool != null) {
+			m_workerPool.shutdown();
+		}
+	}
+
 	private boolean isForceShutdown() {
 		return forceShutdown;
 	}
@@ -35,6 +35,7 @@ import net.grinder.console.distribution.AgentCacheState;
 import net.grinder.console.distribution.FileDistribution;
 import net.grinder.console.distribution.FileDistributionHandler;
 import net.grinder.console.model.*;
+import net.grinder.messages.console.WorkerAddress;
 import net.grinder.statistics.*;
 import net.grinder.util.*;
 import net.grinder.util.ListenerSupport.Informer;
@@ -45,6 +46,9 @@ import org.apache.commons.lang.ArrayUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.mutable.MutableBoolean;
 import org.ngrinder.common.exception.NGrinderRuntimeException;
+import org.ngrinder.common.metrics.Counter;
+import org.ngrinder.common.metrics.Histogram;
+import org.ngrinder.common.metrics.MetricRegistry;
 import org.ngrinder.common.util.DateUtils;
 import org.ngrinder.common.util.ReflectionUtils;
 import org.ngrinder.common.util.ThreadUtils;
@@ -83,6 +87,7 @@ public class SingleConsole extends AbstractSingleConsole implements Listener, Sa
 
 	private static final String REPORT_CSV = "output.csv";
 	private static final String REPORT_DATA = ".data";
+	private static final String REPORT_TIMESTAMP = "Timestamp";
 
 	private final Condition eventSyncCondition = new Condition();
 	private ProcessReports[] processReports;
@@ -107,6 +112,16 @@ public class SingleConsole extends AbstractSingleConsole implements Listener, Sa
 
 	private Map<String, Object> statisticData;
 
+	private static final Histogram SAMPLE_DURATION = MetricRegistry.getDefault().histogram(
+			"ngrinder_console_sample_duration_seconds", "Time taken to process a sample of the console.");
+	private static final Histogram SAMPLING_LISTENER_DURATION = MetricRegistry.getDefault().histogram(
+			"ngrinder_console_sampling_listener_duration_seconds", "Time taken by each sampling listener.",
+			"listener");
+	private static final Histogram REPORT_WRITE_DURATION = MetricRegistry.getDefault().histogram(
+			"ngrinder_console_report_write_duration_seconds", "Time taken to write the report data of a sample.");
+	private static final Counter SKIPPED_SAMPLES = MetricRegistry.getDefault().counter(
+			"ngrinder_console_skipped_samples_total", "Samples filled with the last sample because they're delayed.");
+
 	private boolean headerAdded = false;
 	private GrinderProperties properties;
 
@@ -223,6 +238,7 @@ public class SingleConsole extends AbstractSingleConsole implements Listener, Sa
 				}
 				samplingCount = 0;
 			}
+			retainAgentMetrics(Collections.<String>emptySet());
 		} catch (Exception e) {
 			throw processException("Exception occurred while shutting down console", e);
 		} finally {
@@ -601,6 +617,7 @@ public class SingleConsole extends AbstractSingleConsole implements Listener, Sa
 			if (!capture) {
 				return;
 			}
+			long startNanos = System.nanoTime();
 			samplingCount++;
 			long currentPeriod = cumulativeStatistics.getValue(getSampleModel().getPeriodIndex());
 			setTpsValue(sampleModel.getTPSExpression().getDoubleValue(intervalStatistics));
@@ -615,6 +632,9 @@ public class SingleConsole extends AbstractSingleConsole implements Listener, Sa
 			} else {
 				lastSamplingPeriod = lastSamplingPeriod + interval;
 				gap = ((currentPeriod - lastSamplingPeriod) / interval);
+				if (gap > 0) {
+					SKIPPED_SAMPLES.add(gap);
+				}
 			}
 			// Adjust sampling delay.. run write data multiple times... when it
 			// takes longer than 1 sec.
@@ -622,11 +642,18 @@ public class SingleConsole extends AbstractSingleConsole implements Listener, Sa
 			samplingLifeCycleListener.apply(new Informer<SamplingLifeCycleListener>() {
 				@Override
 				public void inform(SamplingLifeCycleListener listener) {
+					long listenerStartNanos = System.nanoTime();
 					listener.onSampling(getReportPath(), intervalStatistics, cumulativeStatistics);
+					SAMPLING_LISTENER_DURATION.observeSince(listenerStartNanos, getListenerName(listener));
 				}
 			});
+			long writeStartNanos = System.nanoTime();
+			long sampleTime = getSampleTime();
 			for (long index = 0, repeatCounts = gap + 1; index < repeatCounts; index++) {
 				final boolean lastCall = (samplingCount == 1 && index == 0) || (samplingCount != 1 && index == gap);
+				// Each row has the tick time at which it's sampled.
+				long rowTime = sampleTime + interval * (samplingCount == 1 ? index : index - gap);
+				writeReportData(REPORT_TIMESTAMP + REPORT_DATA, String.valueOf(rowTime));
 				writeIntervalSummaryData(intervalStatistics, lastCall);
 				if (interval >= (MIN_SAMPLING_INTERVAL_TO_ACTIVATE_TPS_PER_TEST)) {
 					writeIntervalSummaryDataPerTest(intervalStatisticMapPerTest, lastCall);
@@ -634,12 +661,16 @@ public class SingleConsole extends AbstractSingleConsole implements Listener, Sa
 				samplingLifeCycleFollowupListener.apply(new Informer<SamplingLifeCycleFollowUpListener>() {
 					@Override
 					public void inform(SamplingLifeCycleFollowUpListener listener) {
+						long listenerStartNanos = System.nanoTime();
 						listener.onSampling(getReportPath(), intervalStatistics, cumulativeStatistics, lastCall);
+						SAMPLING_LISTENER_DURATION.observeSince(listenerStartNanos, getListenerName(listener));
 					}
 				});
 			}
+			REPORT_WRITE_DURATION.observeSince(writeStartNanos);
 			checkTooManyError(cumulativeStatistics);
 			lastSamplingPeriod = lastSamplingPeriod + (interval * gap);
+			SAMPLE_DURATION.observeSince(startNanos);
 		} catch (RuntimeException e) {
 			LOGGER.error("Error occurred while updating the statistics : {}", e.getMessage());
 			LOGGER.debug("Details : ", e);
@@ -647,6 +678,15 @@ public class SingleConsole extends AbstractSingleConsole implements Listener, Sa
 		}
 	}
 
+	/**
+	 * Get the class name of the given listener without the package. The anonymous listeners are
+	 * named after their enclosing class.
+	 */
+	private static String getListenerName(Object listener) {
+		return StringUtils.substringBefore(StringUtils.substringAfterLast("." + listener.getClass().getName(), "."),
+				"$");
+	}
+
 	/**
 	 * Write the interval summary data per each test. This is activated only
 	 * when there are more than 1 registed test.
@@ -696,6 +736,16 @@ public class SingleConsole extends AbstractSingleConsole implements Listener, Sa
 		writeReportData("Vuser" + REPORT_DATA, formatValue(runningThread));
 	}
 
+	/**
+	 * Get the tick time of the current sample.
+	 *
+	 * @return sample time
+	 */
+	private long getSampleTime() {
+		long sampleTime = getSampleModel().getLastSampleTime();
+		return sampleTime == 0 ? System.currentTimeMillis() : sampleTime;
+	}
+
 	/**
 	 * Write the each interval statistic data as the form of CSV.
 	 *
@@ -732,7 +782,7 @@ public class SingleConsole extends AbstractSingleConsole implements Listener, Sa
 		}
 
 		StringBuilder csvLine = new StringBuilder();
-		csvLine.append(DateUtils.dateToString(new Date())).append(cvsSeparator).append(runningThread);
+		csvLine.append(DateUtils.dateToString(new Date(getSampleTime()))).append(cvsSeparator).append(runningThread);
 		for (Entry<String, StatisticExpression> each : getExpressionEntrySet()) {
 			if (!each.getKey().equals("Peak_TPS")) {
 				double doubleValue = each.getValue().getDoubleValue(intervalStatistics);
@@ -867,6 +917,7 @@ public class SingleConsole extends AbstractSingleConsole implements Listener, Sa
 		result.put("totalStatistics", totalStatistics);
 		result.put("cumulativeStatistics", cumulativeStatistics);
 		result.put("lastSampleStatistics", lastSampleStatistics);
+		result.put("agentStatistics", getAgentStatistics());
 		result.put("tpsChartData", getTpsValues());
 		result.put("peakTpsForGraph", this.peakTpsForGraph);
 		synchronized (this) {
@@ -878,6 +929,38 @@ public class SingleConsole extends AbstractSingleConsole implements Listener, Sa
 		this.statisticData = result;
 	}
 
+	/**
+	 * Build up the interval statistics of each agent with its clock offset.
+	 *
+	 * @return agent statistics list
+	 */
+	private List<Map<String, Object>> getAgentStatistics() {
+		List<Map<String, Object>> agentStatistics = new ArrayList<Map<String, Object>>();
+		SampleModelImplementationEx sampleModel = getSampleModel();
+		Map<String, SampleAccumulatorEx.Sample> samples = (sampleModel == null) ? null
+				: sampleModel.getLastAgentSamples();
+		if (samples == null) {
+			return agentStatistics;
+		}
+		Map<String, AgentReportClock> clocks = sampleModel.getAgentClocks();
+		for (Entry<String, SampleAccumulatorEx.Sample> each : samples.entrySet()) {
+			Map<String, Object> agentStatisticsMap = newHashMap();
+			agentStatisticsMap.put("agent", each.getKey());
+			StatisticsSet intervalSet = each.getValue().getIntervalStatistics();
+			for (Entry<String, StatisticExpression> expression : getExpressionEntrySet()) {
+				if (INTERESTING_STATISTICS.contains(expression.getKey())) {
+					agentStatisticsMap.put(expression.getKey(),
+							getRealDoubleValue(expression.getValue().getDoubleValue(intervalSet)));
+				}
+			}
+			AgentReportClock clock = clocks == null ? null : clocks.get(each.getKey());
+			agentStatisticsMap.put("clockOffset", clock == null ? 0 : clock.getOffset());
+			agentStatisticsMap.put("delay", clock == null ? 0 : clock.getLastDelay());
+			agentStatistics.add(agentStatisticsMap);
+		}
+		return agentStatistics;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 *
@@ -1020,6 +1103,32 @@ public class SingleConsole extends AbstractSingleConsole implements Listener, Sa
 			updateCurrentProcessAndThread(processReports);
 			eventSyncCondition.notifyAll();
 		}
+		retainAgentMetrics(getAgentNames(processReports));
+	}
+
+	/**
+	 * Drop the per agent metrics of the agents which are not attached anymore.
+	 */
+	private void retainAgentMetrics(Set<String> attachedAgents) {
+		SampleModelImplementationEx sampleModel = getSampleModel();
+		if (sampleModel != null) {
+			sampleModel.retainAgents(attachedAgents);
+		}
+	}
+
+	private Set<String> getAgentNames(ProcessReports[] processReports) {
+		Set<String> agentNames = new HashSet<String>();
+		agentNames.add(SampleModelImplementationEx.UNKNOWN_AGENT);
+		for (ProcessReports agentReport : processReports) {
+			for (WorkerProcessReport processReport : agentReport.getWorkerProcessReports()) {
+				WorkerAddress address = processReport.getProcessAddress();
+				if (address != null && address.getIdentity() != null
+						&& address.getIdentity().getAgentIdentity() != null) {
+					agentNames.add(address.getIdentity().getAgentIdentity().getName());
+				}
+			}
+		}
+		return agentNames;
 	}
 
 	private void checkExecutionErrors(ProcessReports[] processReports) {
@@ -35,9 +35,11 @@ import net.grinder.console.distribution.WireFileDistribution;
 import net.grinder.console.model.*;
 import net.grinder.console.synchronisation.WireDistributedBarriers;
 import net.grinder.engine.console.ErrorHandlerImplementation;
+import net.grinder.messages.console.CompactReportStatisticsMessage;
 import net.grinder.messages.console.RegisterExpressionViewMessage;
 import net.grinder.messages.console.RegisterTestsMessage;
 import net.grinder.messages.console.ReportStatisticsMessage;
+import net.grinder.messages.console.WorkerAddress;
 import net.grinder.statistics.StatisticsServicesImplementation;
 import net.grinder.util.StandardTimeAuthority;
 import net.grinder.util.thread.Condition;
@@ -219,6 +221,18 @@ public class ConsoleFoundationEx {
 				}
 			});
 
+			messageDispatchRegistry.set(CompactReportStatisticsMessage.class,
+					new AbstractHandler<CompactReportStatisticsMessage>() {
+						public void handle(CompactReportStatisticsMessage message) {
+							if (model instanceof SampleModelImplementationEx) {
+								((SampleModelImplementationEx) model).addTestReport(message.getStatisticsDelta(),
+										getAgentName(message.getWorkerAddress()), message.getSendTime());
+							} else {
+								model.addTestReport(message.getStatisticsDelta());
+							}
+						}
+					});
+
 			messageDispatchRegistry.set(RegisterExpressionViewMessage.class,
 							new AbstractHandler<RegisterExpressionViewMessage>() {
 								public void handle(RegisterExpressionViewMessage message) {
@@ -228,5 +242,14 @@ public class ConsoleFoundationEx {
 
 			dispatchClientCommands.registerMessageHandlers(messageDispatchRegistry);
 		}
+
+		private String getAgentName(WorkerAddress workerAddress) {
+			if (workerAddress == null || workerAddress.getIdentity() == null
+					|| workerAddress.getIdentity().getAgentIdentity() == null) {
+				return SampleModelImplementationEx.UNKNOWN_AGENT;
+			}
+			return StringUtils.defaultIfEmpty(workerAddress.getIdentity().getAgentIdentity().getName(),
+					SampleModelImplementationEx.UNKNOWN_AGENT);
+		}
 	}
 }
@@ -0,0 +1,71 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.grinder.console.model;
+
+/**
+ * Clock offset estimation of an agent from the reports it sends.
+ *
+ * The difference between the receive time and the send time of a report is the clock offset
+ * plus the network delay. The minimum difference among the recent reports is taken as the
+ * offset, so the send time converted by the offset excludes the network jitter and never goes
+ * after the receive time.
+ *
+ * @author JunHo Yoon
+ * @since 3.4.1
+ */
+public class AgentReportClock {
+	private static final int WINDOW = 32;
+
+	private final long[] m_differences = new long[WINDOW];
+	private int m_count = 0;
+	private long m_offset = 0;
+	private long m_lastDelay = 0;
+
+	/**
+	 * Convert the send time of a report into the console clock.
+	 *
+	 * @param sendTime    send time in the agent clock
+	 * @param receiveTime receive time in the console clock
+	 * @return send time in the console clock
+	 */
+	public synchronized long toConsoleTime(long sendTime, long receiveTime) {
+		long difference = receiveTime - sendTime;
+		m_differences[m_count++ % WINDOW] = difference;
+		long offset = Long.MAX_VALUE;
+		for (int i = 0, size = Math.min(m_count, WINDOW); i < size; i++) {
+			offset = Math.min(offset, m_differences[i]);
+		}
+		m_offset = offset;
+		m_lastDelay = difference - offset;
+		return sendTime + offset;
+	}
+
+	/**
+	 * Get the estimated clock offset. It's positive when the agent clock is behind.
+	 *
+	 * @return offset in millisecond including the minimum network delay
+	 */
+	public synchronized long getOffset() {
+		return m_offset;
+	}
+
+	/**
+	 * Get how much the last report was delayed more than the fastest recent report.
+	 *
+	 * @return delay in millisecond
+	 */
+	public synchronized long getLastDelay() {
+		return m_lastDelay;
+	}
+}
@@ -30,6 +30,10 @@ import net.grinder.util.ListenerSupport;
  * Extended {@link SampleAccumulator} class to enable snapshot of existing {@link SampleAccumulator}
  * object. .
  *
+ * The statistics are guarded by this object. {@link #swapSample(long, long)} swaps the interval
+ * statistics with a new one, so that the listeners are fired out of the lock without copying the
+ * interval statistics.
+ *
  * @author Grinder Developers.
  * @author JunHo Yoon (modified for nGrinder)
  * @since 3.1.3
@@ -65,22 +69,6 @@ public class SampleAccumulatorEx implements Cloneable {
 		m_lastSampleStatistics = m_statisticsSetFactory.create();
 	}
 
-	/**
-	 * Constructor which copies the given {@link SampleAccumulatorEx} object.
-	 * 
-	 * @param original	{@link SampleAccumulatorEx} original object.
-	 */
-	public SampleAccumulatorEx(SampleAccumulatorEx original) {
-		m_peakTPSExpression = original.m_peakTPSExpression;
-		m_periodIndex = original.m_periodIndex;
-		m_statisticsSetFactory = original.m_statisticsSetFactory;
-
-		m_cumulativeStatistics = original.m_cumulativeStatistics.snapshot();
-		m_intervalStatistics = original.m_intervalStatistics.snapshot();
-		m_lastSampleStatistics = original.m_lastSampleStatistics.snapshot();
-		m_listeners = original.m_listeners;
-	}
-
 	/**
 	 * Add sampling listener.
 	 * 
@@ -95,7 +83,7 @@ public class SampleAccumulatorEx implements Cloneable {
 	 * 
 	 * @param report	report
 	 */
-	public void addIntervalStatistics(StatisticsSet report) {
+	public synchronized void addIntervalStatistics(StatisticsSet report) {
 		m_intervalStatistics.add(report);
 	}
 
@@ -104,58 +92,81 @@ public class SampleAccumulatorEx implements Cloneable {
 	 * 
 	 * @param report	report
 	 */
-	public void addCumulativeStatistics(StatisticsSet report) {
+	public synchronized void addCumulativeStatistics(StatisticsSet report) {
 		m_cumulativeStatistics.add(report);
 	}
 
 	/**
-	 * Fire sampling.
+	 * Close the current interval and start new interval statistics.
+	 * 
+	 * The closed interval statistics are handed over to the returned sample as they are, and only
+	 * the cumulative statistics are copied.
 	 * 
 	 * @param sampleInterval	sampling interval
 	 * @param period			period
+	 * @return closed sample
 	 */
-	public void fireSample(long sampleInterval, long period) {
-		m_intervalStatistics.setValue(m_periodIndex, sampleInterval);
+	public synchronized Sample swapSample(long sampleInterval, long period) {
+		final StatisticsSet intervalStatistics = m_intervalStatistics;
+		intervalStatistics.setValue(m_periodIndex, sampleInterval);
 		m_cumulativeStatistics.setValue(m_periodIndex, period);
-		m_listeners.apply(new ListenerSupport.Informer<SampleListener>() {
-			public void inform(SampleListener l) {
-				l.update(m_intervalStatistics, m_cumulativeStatistics);
-			}
-		});
-		m_lastSampleStatistics = m_intervalStatistics;
-
+		m_peakTPSExpression.update(intervalStatistics, m_cumulativeStatistics);
 		// We create new statistics each time to ensure that
 		// m_lastSampleStatistics is always valid and fixed.
+		m_intervalStatistics = m_statisticsSetFactory.create();
+		m_lastSampleStatistics = intervalStatistics;
+		return new Sample(intervalStatistics, m_cumulativeStatistics.snapshot());
 	}
 
 	/**
-	 * Start new interval statistics.
+	 * Fire sampling with the given sample.
 	 * 
-	 * @param sampleInterval	sampleInterval
-	 * @param period			period
+	 * @param sample	sample returned by {@link #swapSample(long, long)}
 	 */
-	public void refreshIntervalStatistics(long sampleInterval, long period) {
-		m_intervalStatistics.setValue(m_periodIndex, sampleInterval);
-		m_cumulativeStatistics.setValue(m_periodIndex, period);
-		m_peakTPSExpression.update(m_intervalStatistics, m_cumulativeStatistics);
-		m_intervalStatistics = m_statisticsSetFactory.create();
+	public void fireSample(final Sample sample) {
+		m_listeners.apply(new ListenerSupport.Informer<SampleListener>() {
+			public void inform(SampleListener l) {
+				l.update(sample.getIntervalStatistics(), sample.getCumulativeStatistics());
+			}
+		});
 	}
 
 	/**
 	 * Reset all statistics.
 	 */
-	public void zero() {
+	public synchronized void zero() {
 		m_intervalStatistics.reset();
 		m_lastSampleStatistics.reset();
 		m_cumulativeStatistics.reset();
 	}
 
 	@SuppressWarnings("UnusedDeclaration")
-	public StatisticsSet getLastSampleStatistics() {
+	public synchronized StatisticsSet getLastSampleStatistics() {
 		return m_lastSampleStatistics;
 	}
 
-	public StatisticsSet getCumulativeStatistics() {
-		return m_cumulativeStatistics;
+	public synchronized StatisticsSet getCumulativeStatistics() {
+		return m_cumulativeStatistics.snapshot();
+	}
+
+	/**
+	 * Interval and cumulative statistics of a closed interval.
+	 */
+	public static class Sample {
+		private final StatisticsSet m_intervalStatistics;
+		private final StatisticsSet m_cumulativeStatistics;
+
+		Sample(StatisticsSet intervalStatistics, StatisticsSet cumulativeStatistics) {
+			m_intervalStatistics = intervalStatistics;
+			m_cumulativeStatistics = cumulativeStatistics;
+		}
+
+		public StatisticsSet getIntervalStatistics() {
+			return m_intervalStatistics;
+		}
+
+		public StatisticsSet getCumulativeStatistics() {
+			return m_cumulativeStatistics;
+		}
 	}
 }
@@ -26,8 +26,12 @@ import net.grinder.console.common.ErrorHandler;
 import net.grinder.console.common.Resources;
 import net.grinder.statistics.*;
 import net.grinder.util.ListenerSupport;
+import org.ngrinder.common.metrics.Counter;
+import org.ngrinder.common.metrics.MetricRegistry;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Collate test reports into samples and distribute to listeners.
@@ -38,6 +42,18 @@ import java.util.*;
  * arrays. This helps because most listeners are Swing dispatched and so can't guarantee the model
  * is in a reasonable state when they call back.
  * </p>
+ * <p>
+ * Each {@link SampleAccumulator} is guarded by itself instead of a lock over all tests. So the
+ * reports of the different tests are merged concurrently and the sampling thread holds the lock of
+ * a test only while the test is sampled.
+ * </p>
+ * <p>
+ * The reports are bucketed by the time when they were sent instead of the time when they arrive.
+ * The send time is converted into the console clock by the {@link AgentReportClock} of each agent,
+ * and the sample is closed a little after the tick so that the reports sent before the tick but
+ * delayed on the network are still counted in the interval. The reports sent after the tick are
+ * held until the next interval starts. The interval statistics of each agent are kept as well.
+ * </p>
  *
  * @author Grinder Developers.
  * @author JunHo Yoon (modified for nGrinder)
@@ -45,9 +61,15 @@ import java.util.*;
  */
 public class SampleModelImplementationEx implements SampleModel {
 
+	/**
+	 * Agent name of the reports which don't carry where they come from.
+	 */
+	public static final String UNKNOWN_AGENT = "unknown";
+
+	private static final long MAX_GRACE_PERIOD = 500;
+
 	private final ConsoleProperties m_properties;
 	private final StatisticsServices m_statisticsServices;
-	private final Timer m_timer;
 	private final ErrorHandler m_errorHandler;
 
 	private final String m_stateIgnoringString;
@@ -72,20 +94,47 @@ public class SampleModelImplementationEx implements SampleModel {
 	private ModelTestIndex modelTestIndex;
 
 	/**
-	 * A {@link SampleAccumulator} for each test. Guarded by itself.
+	 * A {@link SampleAccumulator} for each test. Each accumulator is guarded by itself.
 	 */
-	private final Map<Test, SampleAccumulator> m_accumulators = Collections
-					.synchronizedMap(new HashMap<Test, SampleAccumulator>());
+	private final Map<Test, SampleAccumulator> m_accumulators = new ConcurrentHashMap<Test, SampleAccumulator>();
 
 	// Guarded by this.
 	private InternalState m_state;
 
+	private volatile long m_lastSampleTime = 0;
+
+	private volatile long m_lastTickLateness = 0;
+
+	private final Map<String, AgentReportClock> m_agentClocks = new ConcurrentHashMap<String, AgentReportClock>();
+
+	/**
+	 * A {@link SampleAccumulatorEx} for each agent. Each accumulator is guarded by itself.
+	 */
+	private final Map<String, SampleAccumulatorEx> m_agentAccumulators =
+			new ConcurrentHashMap<String, SampleAccumulatorEx>();
+
+	private volatile Map<String, SampleAccumulatorEx.Sample> m_lastAgentSamples = Collections.emptyMap();
+
+	private final AtomicLong m_lateReportCount = new AtomicLong();
+
+	/**
+	 * The agents which have a child in {@link #AGENT_REPORTS}.
+	 */
+	private final Set<String> m_reportedAgents = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+	private static final Counter AGENT_REPORTS = MetricRegistry.getDefault().counter(
+			"ngrinder_console_agent_reports_total", "Test reports received from each agent.", "agent");
+
+	private static final Counter LATE_REPORTS = MetricRegistry.getDefault().counter(
+			"ngrinder_console_late_reports_total", "Test reports received after their interval was sampled.");
+
 	/**
 	 * Creates a new <code>SampleModelImplementation</code> instance.
 	 * 
 	 * @param properties			The console properties.
 	 * @param statisticsServices	Statistics services.
-	 * @param timer					A timer.
+	 * @param timer					A timer. It's not used since the samples are scheduled by
+	 * 								{@link SamplingScheduler}.
 	 * @param resources				Console resources.
 	 * @param errorHandler			Error handler.
 	 * @exception GrinderException	if an error occurs
@@ -95,7 +144,6 @@ public class SampleModelImplementationEx implements SampleModel {
 
 		m_properties = properties;
 		m_statisticsServices = statisticsServices;
-		m_timer = timer;
 		m_errorHandler = errorHandler;
 
 		m_stateIgnoringString = resources.getString("state.ignoring.label") + ' ';
@@ -167,17 +215,15 @@ public class SampleModelImplementationEx implements SampleModel {
 
 		final SampleAccumulator[] accumulatorArray = new SampleAccumulator[testArray.length];
 
-		synchronized (m_accumulators) {
-			for (Test test : newTests) {
-				m_accumulators.put(
-								test,
-								new SampleAccumulator(m_peakTPSExpression, m_periodIndex, m_statisticsServices
-												.getStatisticsSetFactory()));
-			}
+		for (Test test : newTests) {
+			m_accumulators.put(
+							test,
+							new SampleAccumulator(m_peakTPSExpression, m_periodIndex, m_statisticsServices
+											.getStatisticsSetFactory()));
+		}
 
-			for (int i = 0; i < accumulatorArray.length; i++) {
-				accumulatorArray[i] = m_accumulators.get(testArray[i]);
-			}
+		for (int i = 0; i < accumulatorArray.length; i++) {
+			accumulatorArray[i] = m_accumulators.get(testArray[i]);
 		}
 
 		final ModelTestIndex modelTestIndex = new ModelTestIndex(testArray, accumulatorArray);
@@ -245,6 +291,10 @@ public class SampleModelImplementationEx implements SampleModel {
 
 		m_accumulators.clear();
 		m_totalSampleAccumulator.zero();
+		m_agentAccumulators.clear();
+		m_agentClocks.clear();
+		m_lastAgentSamples = Collections.emptyMap();
+		m_lateReportCount.set(0);
 
 		m_listeners.apply(new ListenerSupport.Informer<Listener>() {
 			public void inform(Listener l) {
@@ -274,7 +324,68 @@ public class SampleModelImplementationEx implements SampleModel {
 	 *            The new test statistics.
 	 */
 	public void addTestReport(TestStatisticsMap testStatisticsMap) {
-		getInternalState().newTestReport(testStatisticsMap);
+		addTestReport(testStatisticsMap, UNKNOWN_AGENT, 0);
+	}
+
+	/**
+	 * Add a new test report sent by the given agent.
+	 * 
+	 * @param testStatisticsMap	The new test statistics.
+	 * @param agentName			The name of the agent which sent the report.
+	 * @param sendTime			The time when the report was sent in the agent clock. 0 if it's
+	 * 							unknown, then the receive time is used.
+	 */
+	public void addTestReport(TestStatisticsMap testStatisticsMap, String agentName, long sendTime) {
+		final long receiveTime = System.currentTimeMillis();
+		final long origin = sendTime > 0 ? getAgentClock(agentName).toConsoleTime(sendTime, receiveTime)
+				: receiveTime;
+		AGENT_REPORTS.inc(agentName);
+		m_reportedAgents.add(agentName);
+		getInternalState().newTestReport(testStatisticsMap, agentName, origin);
+	}
+
+	/**
+	 * Remove the report counters of the agents which are not attached anymore.
+	 * 
+	 * @param attachedAgents	The names of the attached agents.
+	 */
+	public void retainAgents(Set<String> attachedAgents) {
+		for (Iterator<String> iterator = m_reportedAgents.iterator(); iterator.hasNext();) {
+			String each = iterator.next();
+			if (!attachedAgents.contains(each)) {
+				iterator.remove();
+				AGENT_REPORTS.remove(each);
+			}
+		}
+	}
+
+	private AgentReportClock getAgentClock(String agentName) {
+		AgentReportClock clock = m_agentClocks.get(agentName);
+		if (clock == null) {
+			synchronized (m_agentClocks) {
+				clock = m_agentClocks.get(agentName);
+				if (clock == null) {
+					clock = new AgentReportClock();
+					m_agentClocks.put(agentName, clock);
+				}
+			}
+		}
+		return clock;
+	}
+
+	private SampleAccumulatorEx getAgentAccumulator(String agentName) {
+		SampleAccumulatorEx accumulator = m_agentAccumulators.get(agentName);
+		if (accumulator == null) {
+			synchronized (m_agentAccumulators) {
+				accumulator = m_agentAccumulators.get(agentName);
+				if (accumulator == null) {
+					accumulator = new SampleAccumulatorEx(m_peakTPSExpression, m_periodIndex,
+							m_statisticsServices.getStatisticsSetFactory());
+					m_agentAccumulators.put(agentName, accumulator);
+				}
+			}
+		}
+		return accumulator;
 	}
 
 	/**
@@ -290,12 +401,15 @@ public class SampleModelImplementationEx implements SampleModel {
 	 * Zero the accumulators.
 	 */
 	public void zero() {
-		synchronized (m_accumulators) {
-			for (SampleAccumulator sampleAccumulator : m_accumulators.values()) {
+		for (SampleAccumulator sampleAccumulator : m_accumulators.values()) {
+			synchronized (sampleAccumulator) {
 				sampleAccumulator.zero();
 			}
 		}
 		m_totalSampleAccumulator.zero();
+		for (SampleAccumulatorEx each : m_agentAccumulators.values()) {
+			each.zero();
+		}
 	}
 
 	private InternalState getInternalState() {
@@ -323,7 +437,22 @@ public class SampleModelImplementationEx implements SampleModel {
 
 		void stop();
 
-		void newTestReport(TestStatisticsMap testStatisticsMap);
+		void newTestReport(TestStatisticsMap testStatisticsMap, String agentName, long origin);
+	}
+
+	/**
+	 * Report held until the interval it was sent in starts.
+	 */
+	private static final class PendingReport {
+		private final TestStatisticsMap m_testStatisticsMap;
+		private final String m_agentName;
+		private final long m_origin;
+
+		PendingReport(TestStatisticsMap testStatisticsMap, String agentName, long origin) {
+			m_testStatisticsMap = testStatisticsMap;
+			m_agentName = agentName;
+			m_origin = origin;
+		}
 	}
 
 	private abstract class AbstractInternalState implements InternalState, State {
@@ -353,7 +482,7 @@ public class SampleModelImplementationEx implements SampleModel {
 			zero();
 		}
 
-		public void newTestReport(TestStatisticsMap testStatisticsMap) {
+		public void newTestReport(TestStatisticsMap testStatisticsMap, String agentName, long origin) {
 			if (m_properties.getIgnoreSampleCount() == 0) {
 				setInternalState(new CapturingState());
 			} else {
@@ -361,7 +490,7 @@ public class SampleModelImplementationEx implements SampleModel {
 			}
 
 			// Ensure the the first sample is recorded.
-			getInternalState().newTestReport(testStatisticsMap);
+			getInternalState().newTestReport(testStatisticsMap, agentName, origin);
 		}
 
 		public String getDescription() {
@@ -378,7 +507,7 @@ public class SampleModelImplementationEx implements SampleModel {
 	}
 
 	private final class StoppedState extends AbstractInternalState {
-		public void newTestReport(TestStatisticsMap testStatisticsMap) {
+		public void newTestReport(TestStatisticsMap testStatisticsMap, String agentName, long origin) {
 			// nothing to do
 		}
 
@@ -399,51 +528,156 @@ public class SampleModelImplementationEx implements SampleModel {
 		// Guarded by this.
 		private long mlastTime = 0;
 
+		// Guarded by this. The boundary of the interval which is being collected.
+		private long mlastTick = 0;
+
+		// Guarded by this. The boundary of the interval which was closed lastly.
+		private long mlastSampledTick = 0;
+
+		// Guarded by this.
+		private final List<PendingReport> mpendingReports = new ArrayList<PendingReport>();
+
+		// Guarded by this. True once the held reports are handed over, then no report is held anymore.
+		private boolean mretired = false;
+
 		private volatile long msampleCount = 1;
 
-		public void newTestReport(TestStatisticsMap testStatisticsMap) {
+		public void newTestReport(TestStatisticsMap testStatisticsMap, String agentName, long origin) {
+			final boolean forward;
+			synchronized (this) {
+				forward = mretired && !isActiveState();
+				if (!forward) {
+					if (!mretired && mlastTick != 0 && origin >= mlastTick) {
+						mpendingReports.add(new PendingReport(testStatisticsMap, agentName, origin));
+						return;
+					}
+					if (origin < mlastSampledTick) {
+						// The interval it was sent in is already closed. Count it in the current one.
+						m_lateReportCount.incrementAndGet();
+						LATE_REPORTS.inc();
+					}
+				}
+			}
+			if (forward) {
+				// The report raced with the state change.
+				getInternalState().newTestReport(testStatisticsMap, agentName, origin);
+			} else {
+				mergeTestReport(testStatisticsMap, agentName);
+			}
+		}
+
+		private void mergeTestReport(TestStatisticsMap testStatisticsMap, String agentName) {
+			final boolean accumulateSamples = shouldAccumulateSamples();
+			// The total of the report is merged here and added to the total accumulator at once.
+			final StatisticsSet reportTotal = m_statisticsServices.getStatisticsSetFactory().create();
 			(testStatisticsMap.new ForEach() {
 				public void next(Test test, StatisticsSet statistics) {
 					final SampleAccumulator sampleAccumulator = m_accumulators.get(test);
-					synchronized (m_accumulators) {
-						if (sampleAccumulator == null) {
-							m_errorHandler.handleInformationMessage(m_unknownTestString + " " + test);
-						} else {
-							sampleAccumulator.addIntervalStatistics(statistics);
-
-							if (shouldAccumulateSamples()) {
-								sampleAccumulator.addCumulativeStaticstics(statistics);
-							}
-
-							if (!statistics.isComposite()) {
-								m_totalSampleAccumulator.addIntervalStatistics(statistics);
-
-								if (shouldAccumulateSamples()) {
-									m_totalSampleAccumulator.addCumulativeStatistics(statistics);
-								}
-							}
+					if (sampleAccumulator == null) {
+						m_errorHandler.handleInformationMessage(m_unknownTestString + " " + test);
+						return;
+					}
+					synchronized (sampleAccumulator) {
+						sampleAccumulator.addIntervalStatistics(statistics);
+
+						if (accumulateSamples) {
+							sampleAccumulator.addCumulativeStaticstics(statistics);
 						}
 					}
+
+					if (!statistics.isComposite()) {
+						reportTotal.add(statistics);
+					}
 				}
 				// CHECKSTYLE:OFF
 			}).iterate();
+
+			synchronized (m_totalSampleAccumulator) {
+				m_totalSampleAccumulator.addIntervalStatistics(reportTotal);
+
+				if (accumulateSamples) {
+					m_totalSampleAccumulator.addCumulativeStatistics(reportTotal);
+				}
+			}
+
+			final SampleAccumulatorEx agentAccumulator = getAgentAccumulator(agentName);
+			agentAccumulator.addIntervalStatistics(reportTotal);
+			if (accumulateSamples) {
+				agentAccumulator.addCumulativeStatistics(reportTotal);
+			}
+		}
+
+		/**
+		 * Take all the held reports. The reports given after this are not held anymore.
+		 */
+		private synchronized List<PendingReport> retire() {
+			mretired = true;
+			final List<PendingReport> pendingReports = new ArrayList<PendingReport>(mpendingReports);
+			mpendingReports.clear();
+			return pendingReports;
+		}
+
+		/**
+		 * Hold the reports taken from the previous state until their interval is sampled.
+		 */
+		private synchronized void hold(List<PendingReport> pendingReports) {
+			mpendingReports.addAll(pendingReports);
+		}
+
+		/**
+		 * Stop the model. The held reports are merged so that the final totals include them.
+		 */
+		@Override
+		public void stop() {
+			for (PendingReport each : retire()) {
+				mergeTestReport(each.m_testStatisticsMap, each.m_agentName);
+			}
+			super.stop();
+		}
+
+		/**
+		 * Merge the held reports which were sent before the boundary of the current interval.
+		 */
+		private void mergePendingReports() {
+			final List<PendingReport> readyReports = new ArrayList<PendingReport>();
+			synchronized (this) {
+				final Iterator<PendingReport> iterator = mpendingReports.iterator();
+				while (iterator.hasNext()) {
+					final PendingReport each = iterator.next();
+					if (each.m_origin < mlastTick) {
+						readyReports.add(each);
+						iterator.remove();
+					}
+				}
+			}
+			for (PendingReport each : readyReports) {
+				mergeTestReport(each.m_testStatisticsMap, each.m_agentName);
+			}
 		}
 
 		protected void schedule() {
+			final long sampleInterval = m_properties.getSampleInterval();
+			final long tickTime;
 			synchronized (this) {
+				final long now = System.currentTimeMillis();
 				if (mlastTime == 0) {
-					mlastTime = System.currentTimeMillis();
+					mlastTime = SamplingScheduler.floorTick(now, sampleInterval);
+					mlastTick = mlastTime;
 				}
+				mlastTick = SamplingScheduler.nextTick(mlastTick, sampleInterval, now);
+				tickTime = mlastTick;
 			}
 
-			m_timer.schedule(new TimerTask() {
-				public void run() {
-					sample();
+			// The reports sent just before the tick are waited for a while.
+			SamplingScheduler.scheduleAt(tickTime + getGracePeriod(sampleInterval), new SamplingScheduler.Tick() {
+				public void run(long time, long lateness) {
+					m_lastTickLateness = lateness;
+					sample(tickTime);
 				}
-			}, m_properties.getSampleInterval());
+			});
 		}
 
-		public final void sample() {
+		private void sample(long tickTime) {
 			if (!isActiveState()) {
 				return;
 			}
@@ -452,19 +686,26 @@ public class SampleModelImplementationEx implements SampleModel {
 				final long period;
 
 				synchronized (this) {
-					period = System.currentTimeMillis() - mlastTime;
+					// The period is measured on the ticks, so it's always a multiple of the interval.
+					period = tickTime - mlastTime;
+					mlastSampledTick = tickTime;
 				}
+				m_lastSampleTime = tickTime;
 
 				final long sampleInterval = m_properties.getSampleInterval();
-				SampleAccumulatorEx totalSampleAccumulatorSnapshot;
-				synchronized (m_accumulators) {
-					for (SampleAccumulator sampleAccumulator : m_accumulators.values()) {
+				for (SampleAccumulator sampleAccumulator : m_accumulators.values()) {
+					synchronized (sampleAccumulator) {
 						sampleAccumulator.fireSample(sampleInterval, period);
 					}
-					totalSampleAccumulatorSnapshot = new SampleAccumulatorEx(m_totalSampleAccumulator);
-					m_totalSampleAccumulator.refreshIntervalStatistics(sampleInterval, period);
 				}
-				totalSampleAccumulatorSnapshot.fireSample(sampleInterval, period);
+				// The total listeners are fired out of the lock with the swapped interval statistics.
+				m_totalSampleAccumulator.fireSample(m_totalSampleAccumulator.swapSample(sampleInterval, period));
+				final Map<String, SampleAccumulatorEx.Sample> agentSamples =
+						new TreeMap<String, SampleAccumulatorEx.Sample>();
+				for (Map.Entry<String, SampleAccumulatorEx> each : m_agentAccumulators.entrySet()) {
+					agentSamples.put(each.getKey(), each.getValue().swapSample(sampleInterval, period));
+				}
+				m_lastAgentSamples = Collections.unmodifiableMap(agentSamples);
 				++msampleCount;
 
 				// I'm ignoring a minor race here: the model could have been
@@ -476,7 +717,12 @@ public class SampleModelImplementationEx implements SampleModel {
 					return;
 				}
 
-				setInternalState(nextState());
+				final InternalState nextState = nextState();
+				setInternalState(nextState);
+				if (nextState != this && nextState instanceof AbstractSamplingState) {
+					// The held reports belong to the first interval of the next state.
+					((AbstractSamplingState) nextState).hold(retire());
+				}
 
 				m_listeners.apply(new ListenerSupport.Informer<Listener>() {
 					public void inform(Listener l) {
@@ -489,6 +735,9 @@ public class SampleModelImplementationEx implements SampleModel {
 						schedule();
 					}
 				}
+				if (isActiveState()) {
+					mergePendingReports();
+				}
 			}
 		}
 
@@ -576,4 +825,53 @@ public class SampleModelImplementationEx implements SampleModel {
 	public int getSampleInterval() {
 		return m_properties.getSampleInterval();
 	}
+
+	/**
+	 * Get the tick time of the sample which is being fired or was fired lastly.
+	 *
+	 * @return tick time in millisecond. 0 if no sample is fired yet.
+	 */
+	public long getLastSampleTime() {
+		return m_lastSampleTime;
+	}
+
+	/**
+	 * Get how late the last sample was run from its tick time.
+	 *
+	 * @return lateness in millisecond
+	 */
+	public long getLastTickLateness() {
+		return m_lastTickLateness;
+	}
+
+	/**
+	 * Get the sample of each agent which was fired lastly.
+	 *
+	 * @return map of agent name and its sample
+	 */
+	public Map<String, SampleAccumulatorEx.Sample> getLastAgentSamples() {
+		return m_lastAgentSamples;
+	}
+
+	/**
+	 * Get the clock of each agent which has sent the reports with the send time.
+	 *
+	 * @return map of agent name and its clock
+	 */
+	public Map<String, AgentReportClock> getAgentClocks() {
+		return Collections.unmodifiableMap(m_agentClocks);
+	}
+
+	/**
+	 * Get the count of the reports which arrived after the interval they were sent in was closed.
+	 *
+	 * @return late report count
+	 */
+	public long getLateReportCount() {
+		return m_lateReportCount.get();
+	}
+
+	private static long getGracePeriod(long sampleInterval) {
+		return Math.min(sampleInterval / 4, MAX_GRACE_PERIOD);
+	}
 }
@@ -0,0 +1,141 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.grinder.console.model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Scheduler shared by the sample models of all consoles.
+ *
+ * The sampling ticks are aligned to the wall clock boundaries of the sample interval. For
+ * example, the ticks of 1000ms interval are run at every second. Each tick is scheduled at the
+ * absolute time of the tick, so the time spent by the listeners doesn't accumulate as the drift.
+ * How late the ticks are run is measured for the monitoring.
+ *
+ * @author JunHo Yoon
+ * @since 3.4.1
+ */
+public abstract class SamplingScheduler {
+
+	private static final ScheduledExecutorService EXECUTOR = new ScheduledThreadPoolExecutor(
+			Math.max(Runtime.getRuntime().availableProcessors(), 2), new ThreadFactory() {
+				private final AtomicInteger count = new AtomicInteger();
+
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "sampling-scheduler-" + count.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+
+	private static final AtomicLong TICKS = new AtomicLong();
+	private static final AtomicLong TOTAL_LATENESS = new AtomicLong();
+	private static final AtomicLong MAX_LATENESS = new AtomicLong();
+	private static final AtomicLong SKIPPED_TICKS = new AtomicLong();
+
+	/**
+	 * Task run at each tick.
+	 */
+	public interface Tick {
+		/**
+		 * Run the tick.
+		 *
+		 * @param tickTime time when the tick was supposed to run
+		 * @param lateness how late the tick is run in millisecond
+		 */
+		void run(long tickTime, long lateness);
+	}
+
+	/**
+	 * Get the latest tick boundary which is not after the given time.
+	 *
+	 * @param time     time in millisecond
+	 * @param interval sample interval
+	 * @return tick time
+	 */
+	public static long floorTick(long time, long interval) {
+		return (time / interval) * interval;
+	}
+
+	/**
+	 * Get the next tick after the given tick. If the next tick is already passed more than an
+	 * interval ago, the missed ticks are skipped and the latest passed tick is returned.
+	 *
+	 * @param lastTick last tick time
+	 * @param interval sample interval
+	 * @param now      current time
+	 * @return next tick time
+	 */
+	public static long nextTick(long lastTick, long interval, long now) {
+		long next = lastTick + interval;
+		if (now - next >= interval) {
+			long latest = floorTick(now, interval);
+			SKIPPED_TICKS.addAndGet((latest - next) / interval);
+			return latest;
+		}
+		return next;
+	}
+
+	/**
+	 * Schedule the given task at the given tick time.
+	 *
+	 * @param tickTime tick time
+	 * @param tick     task
+	 */
+	public static void scheduleAt(final long tickTime, final Tick tick) {
+		long delay = Math.max(tickTime - System.currentTimeMillis(), 0);
+		EXECUTOR.schedule(new Runnable() {
+			@Override
+			public void run() {
+				long lateness = Math.max(System.currentTimeMillis() - tickTime, 0);
+				recordLateness(lateness);
+				tick.run(tickTime, lateness);
+			}
+		}, delay, TimeUnit.MILLISECONDS);
+	}
+
+	private static void recordLateness(long lateness) {
+		TICKS.incrementAndGet();
+		TOTAL_LATENESS.addAndGet(lateness);
+		long max;
+		while ((max = MAX_LATENESS.get()) < lateness) {
+			if (MAX_LATENESS.compareAndSet(max, lateness)) {
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Get the tick statistics of all consoles.
+	 *
+	 * @return statistics map containing ticks, skippedTicks, averageLateness and maxLateness.
+	 */
+	public static Map<String, Object> getStatistics() {
+		Map<String, Object> statistics = new LinkedHashMap<String, Object>();
+		long ticks = TICKS.get();
+		statistics.put("ticks", ticks);
+		statistics.put("skippedTicks", SKIPPED_TICKS.get());
+		statistics.put("averageLateness", ticks == 0 ? 0 : TOTAL_LATENESS.get() / ticks);
+		statistics.put("maxLateness", MAX_LATENESS.get());
+		return statistics;
+	}
+}
@@ -72,12 +72,18 @@ public class AgentImplementationEx implements Agent, AgentConstants {
 	private FanOutStreamSender m_fanOutStreamSender;
 	private final ConnectorFactory m_connectorFactory = new ConnectorFactory(ConnectionType.AGENT);
 	private WorkerLauncher m_workerLauncherForShutdown = null;
+	private WarmWorkerPool m_workerPool = null;
 	/**
 	 * We use an most one file store throughout an agent's life, but can't Initialize it until we've
 	 * read the properties and connected to the console.
 	 */
 	private volatile FileStore m_fileStore;
 
+	/**
+	 * The log directory of the running test. null if it's not resolved yet.
+	 */
+	private volatile File m_logDirectory;
+
 	private final AgentConfig m_agentConfig;
 
 	/**
@@ -108,6 +114,17 @@ public class AgentImplementationEx implements Agent, AgentConstants {
 		this(logger, agentConfig, false);
 	}
 
+	/**
+	 * Set the pool of the pre-started worker processes. If it's set, the worker processes are taken
+	 * from the pool when available.
+	 *
+	 * @param workerPool worker pool
+	 * @since 3.4.1
+	 */
+	public void setWorkerPool(WarmWorkerPool workerPool) {
+		m_workerPool = workerPool;
+	}
+
 	/**
 	 * Run grinder with empty {@link GrinderProperties}.
 	 *
@@ -133,6 +150,7 @@ public class AgentImplementationEx implements Agent, AgentConstants {
 				m_logger.info(GrinderBuild.getName());
 				ScriptLocation script = null;
 				GrinderProperties properties;
+				m_logDirectory = null;
 
 				do {
 					properties = createAndMergeProperties(grinderProperties,
@@ -219,11 +237,13 @@ public class AgentImplementationEx implements Agent, AgentConstants {
 						properties.setFile(GrinderProperties.LOG_DIRECTORY, new File(m_agentConfig.getHome()
 								.getLogDirectory(), properties.getProperty(GRINDER_PROP_TEST_ID, "default")));
 					}
-					File logFile = new File(properties.getFile(GrinderProperties.LOG_DIRECTORY, new File(".")),
+					m_logDirectory = properties.getFile(GrinderProperties.LOG_DIRECTORY, new File("."));
+					File logFile = new File(m_logDirectory,
 							m_agentIdentity.getName() + "-" + m_agentIdentity.getNumber() + ".log");
 					m_logger.info("log file : {}", logFile);
 					AbstractLanguageHandler handler = Lang.getByFileName(script.getFile()).getHandler();
 					final WorkerFactory workerFactory;
+					WorkerProcessCommandLine workerCommandLineForPool = null;
 					Properties rebasedSystemProperty = rebaseSystemClassPath(System.getProperties(), m_agentConfig.getCurrentDirectory());
 
 					String jvmArguments = buildTestRunProperties(script, handler, rebasedSystemProperty, properties);
@@ -236,8 +256,17 @@ public class AgentImplementationEx implements Agent, AgentConstants {
 
 						m_logger.info("Worker process command line: {}", workerCommandLine);
 						FileUtils.writeStringToFile(logFile, workerCommandLine.toString() + "\n\n");
-						workerFactory = new ProcessWorkerFactory(workerCommandLine, m_agentIdentity,
-								m_fanOutStreamSender, consoleCommunication != null, script, properties);
+						if (m_workerPool != null) {
+							properties.setProperty(WarmWorkerPool.SYSTEM_PROPERTIES,
+									WarmWorkerPool.getPerTestSystemProperties(workerCommandLine));
+							workerFactory = new PooledProcessWorkerFactory(workerCommandLine, m_workerPool,
+									m_agentIdentity, m_fanOutStreamSender, consoleCommunication != null, script,
+									properties);
+							workerCommandLineForPool = workerCommandLine;
+						} else {
+							workerFactory = new ProcessWorkerFactory(workerCommandLine, m_agentIdentity,
+									m_fanOutStreamSender, consoleCommunication != null, script, properties);
+						}
 					} else {
 						m_logger.info("DEBUG MODE. Spawning threads rather than processes");
 						m_logger.warn("grinder.jvm.arguments ({}) ignored in single process mode", jvmArguments);
@@ -298,6 +327,10 @@ public class AgentImplementationEx implements Agent, AgentConstants {
 					}
 					m_logger.debug("Normal shutdown");
 					workerLauncher.shutdown();
+					if (workerCommandLineForPool != null) {
+						// Prepare the processes for the next test while this agent is idle.
+						m_workerPool.prepare(workerCommandLineForPool, properties.getInt("grinder.processes", 1));
+					}
 					break;
 				}
 
@@ -440,6 +473,16 @@ public class AgentImplementationEx implements Agent, AgentConstants {
 		m_consoleListener.discardMessages(ConsoleListener.ANY);
 	}
 
+	/**
+	 * Get the log directory of the running test, which is grinder.logDirectory if it's given.
+	 *
+	 * @return log directory. null if it's not resolved yet.
+	 * @since 3.4.1
+	 */
+	public File getLogDirectory() {
+		return m_logDirectory;
+	}
+
 	/**
 	 * Clean up resources.
 	 */
@@ -0,0 +1,100 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.grinder.engine.agent;
+
+import net.grinder.common.UncheckedInterruptedException;
+import net.grinder.common.processidentity.WorkerIdentity;
+import org.apache.commons.io.IOUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * {@link Worker} which runs on the process taken from {@link WarmWorkerPool}.
+ *
+ * The stdout and stderr of the process are redirected only after the process is assigned to this
+ * worker.
+ *
+ * @author JunHo Yoon
+ * @since 3.4.1
+ */
+class PooledProcessWorker implements Worker {
+	private final WorkerIdentity m_workerIdentity;
+	private final Process m_process;
+	private final Thread m_stdoutRedirector;
+	private final Thread m_stderrRedirector;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param workerIdentity worker identity
+	 * @param process        running process
+	 * @param outputStream   stream to which the stdout of the process is redirected
+	 * @param errorStream    stream to which the stderr of the process is redirected
+	 */
+	PooledProcessWorker(WorkerIdentity workerIdentity, Process process, OutputStream outputStream,
+	                    OutputStream errorStream) {
+		m_workerIdentity = workerIdentity;
+		m_process = process;
+		m_stdoutRedirector = createRedirector(process.getInputStream(), outputStream, "stdout");
+		m_stderrRedirector = createRedirector(process.getErrorStream(), errorStream, "stderr");
+	}
+
+	private Thread createRedirector(final InputStream inputStream, final OutputStream outputStream,
+	                                String streamName) {
+		Thread thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					IOUtils.copy(inputStream, outputStream);
+					outputStream.flush();
+				} catch (IOException e) {
+					// Stream is closed with the process.
+					IOUtils.closeQuietly(inputStream);
+				}
+			}
+		}, "Redirector for " + m_workerIdentity.getName() + " " + streamName);
+		thread.setDaemon(true);
+		thread.start();
+		return thread;
+	}
+
+	@Override
+	public WorkerIdentity getIdentity() {
+		return m_workerIdentity;
+	}
+
+	@Override
+	public OutputStream getCommunicationStream() {
+		return m_process.getOutputStream();
+	}
+
+	@Override
+	public int waitFor() {
+		try {
+			m_process.waitFor();
+			m_stdoutRedirector.join();
+			m_stderrRedirector.join();
+		} catch (InterruptedException e) {
+			throw new UncheckedInterruptedException(e);
+		}
+		return m_process.exitValue();
+	}
+
+	@Override
+	public void destroy() {
+		m_process.destroy();
+	}
+}
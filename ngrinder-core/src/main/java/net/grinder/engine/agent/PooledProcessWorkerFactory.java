@@ -0,0 +1,64 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.grinder.engine.agent;
+
+import net.grinder.common.GrinderProperties;
+import net.grinder.communication.FanOutStreamSender;
+import net.grinder.engine.agent.AgentIdentityImplementation.WorkerIdentityImplementation;
+import net.grinder.engine.common.EngineException;
+import net.grinder.engine.common.ScriptLocation;
+
+import java.io.OutputStream;
+
+/**
+ * Worker factory which takes the pre-started process from {@link WarmWorkerPool} if available.
+ * Otherwise, it starts a new process as the Grinder's process worker factory does.
+ *
+ * @author JunHo Yoon
+ * @since 3.4.1
+ */
+class PooledProcessWorkerFactory extends AbstractWorkerFactory {
+	private final CommandLine m_commandLine;
+	private final WarmWorkerPool m_workerPool;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param commandLine        command line
+	 * @param workerPool         worker pool
+	 * @param agentIdentity      agent identity
+	 * @param fanOutStreamSender fan out stream sender
+	 * @param reportToConsole    true if the workers report to the console
+	 * @param script             script location
+	 * @param properties         grinder properties
+	 */
+	public PooledProcessWorkerFactory(CommandLine commandLine, WarmWorkerPool workerPool,
+	                                  AgentIdentityImplementation agentIdentity,
+	                                  FanOutStreamSender fanOutStreamSender, boolean reportToConsole,
+	                                  ScriptLocation script, GrinderProperties properties) {
+		super(agentIdentity, fanOutStreamSender, reportToConsole, script, properties);
+		m_commandLine = commandLine;
+		m_workerPool = workerPool;
+	}
+
+	@Override
+	protected Worker createWorker(WorkerIdentityImplementation workerIdentity, OutputStream outputStream,
+	                              OutputStream errorStream) throws EngineException {
+		Process process = m_workerPool.take(m_commandLine);
+		if (process == null) {
+			process = WarmWorkerPool.start(m_commandLine);
+		}
+		return new PooledProcessWorker(workerIdentity, process, outputStream, errorStream);
+	}
+}
@@ -22,14 +22,17 @@ import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.math.NumberUtils;
 import org.hyperic.sigar.Sigar;
 import org.hyperic.sigar.SigarException;
+import org.ngrinder.model.JvmProfile;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.FilenameFilter;
+import java.io.IOException;
 import java.net.InetAddress;
 import java.util.List;
 
+import static org.ngrinder.common.constants.GrinderConstants.GRINDER_PROP_JVM_PROFILE;
 import static org.ngrinder.common.util.Preconditions.checkNotEmpty;
 import static org.ngrinder.common.util.Preconditions.checkNotNull;
 
@@ -202,6 +205,8 @@ public class PropertyBuilder {
 	protected static final long DEFAULT_XMX_SIZE = 500 * 1024 * 1024;
 	protected static final long DEFAULT_MAX_XMX_SIZE = 1024 * 1024 * 1024;
 
+	protected static final long SMALL_THREAD_STACK_SIZE = 256 * 1024;
+
 	protected StringBuilder addMemorySettings(StringBuilder jvmArguments) {
 		String processCountStr = properties.getProperty("grinder.processes", "1");
 		// For compatibility, try both.
@@ -210,15 +215,16 @@ public class PropertyBuilder {
 			reservedMemoryUnit = properties.getInt("grinder.memory.reserved", 300);
 		}
 
-		int reservedMemory = Math.max(reservedMemoryUnit, 0) * 1024 * 1024;
-		int processCount = NumberUtils.toInt(processCountStr, 1);
+		long reservedMemory = Math.max(reservedMemoryUnit, 0) * 1024L * 1024;
+		int processCount = Math.max(NumberUtils.toInt(processCountStr, 1), 1);
+		JvmProfile profile = getJvmProfile();
 		long desirableXmx; // make 500M as default.
 		long permGen = 32 * 1024 * 1024;
 		try {
 			// Make a free memory room size of reservedMemory.
-			long free = new Sigar().getMem().getActualFree() - reservedMemory;
+			long free = getFreeMemory() - reservedMemory;
 			long perProcessTotalMemory = Math.max(free / processCount, MIN_PER_PROCESS_MEM_SIZE);
-			desirableXmx = (long) (perProcessTotalMemory * 0.5);
+			desirableXmx = getDesirableXmx(profile, perProcessTotalMemory);
 			permGen = Math.min(Math.max((long) (perProcessTotalMemory * 0.2), 50L * 1024 * 1024), 128 * 1024 * 1024);
 			if (this.useXmxLimit) {
 				desirableXmx = Math.min(DEFAULT_MAX_XMX_SIZE, desirableXmx);
@@ -232,13 +238,138 @@ public class PropertyBuilder {
 		}
 
 		jvmArguments.append(" -Xms").append(getMemorySize(desirableXmx)).append("m -Xmx").append(getMemorySize(desirableXmx)).append("m ");
-		jvmArguments.append(" -XX:PermSize=")
-				.append(properties.getInt("grinder.memory.permsize", getMemorySize(permGen))).append("m ");
-		jvmArguments.append(" -XX:MaxPermSize=")
-				.append(properties.getInt("grinder.memory.maxpermsize", getMemorySize(permGen))).append("m ");
+		if (getJavaMajorVersion() < 8) {
+			jvmArguments.append(" -XX:PermSize=")
+					.append(properties.getInt("grinder.memory.permsize", getMemorySize(permGen))).append("m ");
+			jvmArguments.append(" -XX:MaxPermSize=")
+					.append(properties.getInt("grinder.memory.maxpermsize", getMemorySize(permGen))).append("m ");
+		} else if (profile != JvmProfile.DEFAULT) {
+			// PermGen is replaced by Metaspace. Start from the same size to avoid the early full GCs.
+			jvmArguments.append(" -XX:MetaspaceSize=")
+					.append(properties.getInt("grinder.memory.permsize", getMemorySize(permGen))).append("m ");
+		}
+		return addProfileSettings(jvmArguments, profile, processCount);
+	}
+
+	/**
+	 * Get the JVM profile given by <code>grinder.jvm.profile</code> property.
+	 *
+	 * @return JVM profile
+	 */
+	JvmProfile getJvmProfile() {
+		return JvmProfile.fromName(properties.getProperty(GRINDER_PROP_JVM_PROFILE, JvmProfile.DEFAULT.name()));
+	}
+
+	long getDesirableXmx(JvmProfile profile, long perProcessTotalMemory) {
+		switch (profile) {
+			case THROUGHPUT:
+				return (long) (perProcessTotalMemory * 0.6);
+			case MANY_THREADS:
+				// Leave the room for the thread stacks which are allocated out of the heap.
+				long threadStacks = properties.getInt("grinder.threads", 1) * SMALL_THREAD_STACK_SIZE;
+				return (long) (Math.max(perProcessTotalMemory - threadStacks, MIN_PER_PROCESS_MEM_SIZE) * 0.5);
+			default:
+				return (long) (perProcessTotalMemory * 0.5);
+		}
+	}
+
+	/**
+	 * Add the GC, thread stack and heap dump settings depending on the given profile.
+	 *
+	 * @param jvmArguments jvm arguments
+	 * @param profile      JVM profile
+	 * @param processCount process count per agent
+	 * @return appended jvm arguments
+	 */
+	StringBuilder addProfileSettings(StringBuilder jvmArguments, JvmProfile profile, int processCount) {
+		if (profile == JvmProfile.DEFAULT) {
+			return jvmArguments;
+		}
+		// Share the cores among the worker processes so that the GCs in them don't compete each other.
+		int gcThreads = Math.max(Runtime.getRuntime().availableProcessors() / processCount, 1);
+		switch (profile) {
+			case LOW_LATENCY:
+				if (getJavaMajorVersion() < 8) {
+					jvmArguments.append(" -XX:+UseConcMarkSweepGC -XX:+UseParNewGC ");
+				} else {
+					jvmArguments.append(" -XX:+UseG1GC -XX:MaxGCPauseMillis=50 ");
+				}
+				jvmArguments.append(" -XX:ParallelGCThreads=").append(gcThreads).append(" ");
+				jvmArguments.append(" -XX:+AlwaysPreTouch ");
+				break;
+			case MANY_THREADS:
+				jvmArguments.append(" -Xss").append(SMALL_THREAD_STACK_SIZE / 1024).append("k ");
+				// Fall through
+			default:
+				jvmArguments.append(" -XX:+UseParallelGC -XX:ParallelGCThreads=").append(gcThreads).append(" ");
+				jvmArguments.append(" -XX:+UseNUMA ");
+		}
+		File logDirectory = properties.getFile(GrinderProperties.LOG_DIRECTORY, null);
+		if (logDirectory != null) {
+			jvmArguments.append(" -XX:+HeapDumpOnOutOfMemoryError -XX:HeapDumpPath=")
+					.append(logDirectory.getAbsolutePath()).append(" ");
+		}
 		return jvmArguments;
 	}
 
+	/**
+	 * Get the free memory of this machine. If the agent runs in the container which has the memory
+	 * limit, the free memory in the limit is returned when it's smaller.
+	 *
+	 * @return free memory in byte
+	 * @throws SigarException when sigar fails
+	 */
+	long getFreeMemory() throws SigarException {
+		long free = new Sigar().getMem().getActualFree();
+		long containerFree = getContainerFreeMemory();
+		return containerFree > 0 ? Math.min(free, containerFree) : free;
+	}
+
+	/**
+	 * Get the free memory in the cgroup memory limit.
+	 *
+	 * @return free memory in byte. -1 if no limit is set.
+	 */
+	static long getContainerFreeMemory() {
+		long limit = readCgroupValue("/sys/fs/cgroup/memory.max");
+		long usage = readCgroupValue("/sys/fs/cgroup/memory.current");
+		if (limit < 0) {
+			limit = readCgroupValue("/sys/fs/cgroup/memory/memory.limit_in_bytes");
+			usage = readCgroupValue("/sys/fs/cgroup/memory/memory.usage_in_bytes");
+		}
+		// cgroup v1 reports the huge number when it's not limited.
+		if (limit <= 0 || limit >= Long.MAX_VALUE / 2) {
+			return -1;
+		}
+		return limit - Math.max(usage, 0);
+	}
+
+	private static long readCgroupValue(String path) {
+		File file = new File(path);
+		if (!file.canRead()) {
+			return -1;
+		}
+		try {
+			return NumberUtils.toLong(StringUtils.trim(FileUtils.readFileToString(file)), -1);
+		} catch (IOException e) {
+			return -1;
+		}
+	}
+
+	/**
+	 * Get the major version of the JVM. The worker processes are supposed to run on the same JVM
+	 * with the agent.
+	 *
+	 * @return major version such as 7, 8 and 11.
+	 */
+	static int getJavaMajorVersion() {
+		String version = StringUtils.defaultIfBlank(System.getProperty("java.specification.version"), "1.7");
+		if (version.startsWith("1.")) {
+			version = version.substring(2);
+		}
+		return NumberUtils.toInt(StringUtils.substringBefore(version, "."), 7);
+	}
+
 	private int getMemorySize(long memoryInByte) {
 		return (int) (memoryInByte / (1024 * 1024));
 	}
@@ -0,0 +1,277 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.grinder.engine.agent;
+
+import net.grinder.engine.common.EngineException;
+import org.apache.commons.lang.ArrayUtils;
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pool of the pre-started worker processes.
+ *
+ * The worker process started by {@link WorkerProcessCommandLine} blocks until it receives the
+ * initialisation message containing the test properties and the script from its stdin. This pool
+ * starts such processes in advance when a test is finished, so that the next test having the same
+ * command line can skip the JVM startup and the class loading.
+ *
+ * A pooled process is used only once. The processes are discarded when the next test has a different
+ * command line or when any of the classpath entries is modified. The heap settings are part of the
+ * command line because they can't be changed after the JVM is started. The per test system properties
+ * and the heap dump path, which is the log directory of each test, don't make the command line
+ * different. The per test system properties are passed to the taken process by the
+ * {@link #SYSTEM_PROPERTIES} grinder property instead, and the worker process points the heap dump path
+ * to the log directory of the test it runs.
+ *
+ * When the security manager is enabled, ngrinder.etc.hosts is not a per test system property because
+ * the security manager reads it only once when the JVM is started.
+ *
+ * @author JunHo Yoon
+ * @since 3.4.1
+ */
+public class WarmWorkerPool {
+	/**
+	 * The grinder property of the system properties which the worker process sets when it's
+	 * initialised. The properties are separated by the new line.
+	 */
+	public static final String SYSTEM_PROPERTIES = "grinder.worker.systemProperties";
+
+	/**
+	 * The prefixes of the JVM options which are specific to each test and set again by the worker
+	 * process.
+	 */
+	private static final String[] PER_TEST_JVM_OPTIONS = {"-XX:HeapDumpPath="};
+
+	/**
+	 * The system properties which are specific to each test.
+	 */
+	private static final String[] PER_TEST_SYSTEM_PROPERTIES = {"ngrinder.etc.hosts", "param"};
+
+	/**
+	 * The system properties which the security manager reads when the JVM is started.
+	 */
+	private static final String[] SECURITY_SYSTEM_PROPERTIES = {"ngrinder.etc.hosts"};
+
+	private static final String SECURITY_MANAGER = "-Djava.security.manager";
+
+	private final Logger m_logger;
+	private final LinkedList<Process> m_processes = new LinkedList<Process>();
+	private String m_signature;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param logger logger
+	 */
+	public WarmWorkerPool(Logger logger) {
+		m_logger = logger;
+	}
+
+	/**
+	 * Take a pre-started process which is started with the given command line.
+	 *
+	 * @param commandLine command line
+	 * @return process. null if no process is available.
+	 */
+	public synchronized Process take(CommandLine commandLine) {
+		if (m_processes.isEmpty()) {
+			return null;
+		}
+		if (!getSignature(commandLine).equals(m_signature)) {
+			m_logger.info("The worker command line is changed. Discard {} pre-started worker processes.",
+					m_processes.size());
+			discardAll();
+			return null;
+		}
+		while (!m_processes.isEmpty()) {
+			Process process = m_processes.removeFirst();
+			if (isAlive(process)) {
+				return process;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Start the processes with the given command line so that the given count of processes become
+	 * available in the pool.
+	 *
+	 * @param commandLine command line
+	 * @param count       count of processes to be prepared
+	 */
+	public synchronized void prepare(CommandLine commandLine, int count) {
+		String signature = getSignature(commandLine);
+		if (!signature.equals(m_signature)) {
+			discardAll();
+			m_signature = signature;
+		}
+		int started = 0;
+		while (m_processes.size() < count) {
+			try {
+				m_processes.add(start(commandLine));
+				started++;
+			} catch (EngineException e) {
+				m_logger.error("Failed to pre-start the worker process : {}", e.getMessage());
+				m_logger.debug("The error detail is ", e);
+				break;
+			}
+		}
+		m_logger.info("{} worker processes are pre-started. {} are available in total.", started,
+				m_processes.size());
+	}
+
+	/**
+	 * Get the count of available processes.
+	 *
+	 * @return process count
+	 */
+	public synchronized int size() {
+		return m_processes.size();
+	}
+
+	/**
+	 * Destroy all pre-started processes.
+	 */
+	public synchronized void shutdown() {
+		discardAll();
+		m_signature = null;
+	}
+
+	/**
+	 * Start the process with the given command line in the same way as the Grinder's process worker.
+	 *
+	 * @param commandLine command line
+	 * @return started process
+	 * @throws EngineException when the process can not be started.
+	 */
+	static Process start(CommandLine commandLine) throws EngineException {
+		final ProcessBuilder processBuilder = new ProcessBuilder(commandLine.getCommandList());
+		processBuilder.directory(commandLine.getWorkingDirectory().getFile());
+		try {
+			return processBuilder.start();
+		} catch (IOException e) {
+			throw new EngineException("Could not start process", e);
+		}
+	}
+
+	private void discardAll() {
+		for (Process each : m_processes) {
+			each.destroy();
+		}
+		m_processes.clear();
+	}
+
+	private boolean isAlive(Process process) {
+		try {
+			process.exitValue();
+			return false;
+		} catch (IllegalThreadStateException e) {
+			return true;
+		}
+	}
+
+	/**
+	 * Get the per test system properties in the given command line in the form of
+	 * {@link #SYSTEM_PROPERTIES}.
+	 *
+	 * The properties which are not in the command line are given without the value, so that they
+	 * are cleared in the process started for the previous test.
+	 *
+	 * @param commandLine command line
+	 * @return system properties separated by the new line
+	 */
+	public static String getPerTestSystemProperties(CommandLine commandLine) {
+		boolean securityEnabled = isSecurityEnabled(commandLine);
+		Map<String, String> systemProperties = new LinkedHashMap<String, String>();
+		for (String each : PER_TEST_SYSTEM_PROPERTIES) {
+			if (isPerTestSystemProperty(each, securityEnabled)) {
+				systemProperties.put(each, each);
+			}
+		}
+		for (String each : commandLine.getCommandList()) {
+			String key = getPerTestSystemProperty(each, securityEnabled);
+			if (key != null) {
+				systemProperties.put(key, each.substring(2));
+			}
+		}
+		return StringUtils.join(systemProperties.values(), '\n');
+	}
+
+	private static String getPerTestSystemProperty(String argument, boolean securityEnabled) {
+		for (String each : PER_TEST_SYSTEM_PROPERTIES) {
+			if (argument.startsWith("-D" + each + "=") && isPerTestSystemProperty(each, securityEnabled)) {
+				return each;
+			}
+		}
+		return null;
+	}
+
+	private static boolean isPerTestSystemProperty(String key, boolean securityEnabled) {
+		return !securityEnabled || !ArrayUtils.contains(SECURITY_SYSTEM_PROPERTIES, key);
+	}
+
+	private static boolean isSecurityEnabled(CommandLine commandLine) {
+		for (String each : commandLine.getCommandList()) {
+			if (each.startsWith(SECURITY_MANAGER)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean isPerTestJvmOption(String argument) {
+		for (String each : PER_TEST_JVM_OPTIONS) {
+			if (argument.startsWith(each)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Get the signature of the command line. It consists of the command list except for the per test
+	 * JVM options and system properties, the working directory and the last modified time and the
+	 * size of each classpath entry.
+	 *
+	 * @param commandLine command line
+	 * @return signature
+	 */
+	String getSignature(CommandLine commandLine) {
+		StringBuilder signature = new StringBuilder();
+		signature.append(commandLine.getWorkingDirectory().getFile().getAbsolutePath());
+		boolean securityEnabled = isSecurityEnabled(commandLine);
+		List<String> commandList = commandLine.getCommandList();
+		for (int i = 0; i < commandList.size(); i++) {
+			String each = commandList.get(i);
+			if (isPerTestJvmOption(each) || getPerTestSystemProperty(each, securityEnabled) != null) {
+				continue;
+			}
+			signature.append('\n').append(each);
+			if (i > 0 && "-classpath".equals(commandList.get(i - 1))) {
+				for (String path : StringUtils.split(each, File.pathSeparator)) {
+					File file = new File(path);
+					signature.append('|').append(file.lastModified()).append(':').append(file.length());
+				}
+			}
+		}
+		return signature.toString();
+	}
+}
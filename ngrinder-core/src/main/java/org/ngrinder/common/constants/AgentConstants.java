@@ -30,5 +30,6 @@ public interface AgentConstants {
 	public static final String PROP_AGENT_REGION = "agent.region";
 	public static final String PROP_AGENT_SERVER_MODE = "agent.server_mode";
 	public static final String PROP_AGENT_ENABLE_LOCAL_DNS = "agent.enable_local_dns";
+	public static final String PROP_AGENT_WORKER_POOL = "agent.worker_pool";
 
 }
@@ -0,0 +1,73 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ngrinder.common.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monotonically increasing count.
+ *
+ * @author JunHo Yoon
+ * @since 3.4.1
+ */
+public class Counter extends Metric<AtomicLong> {
+
+	Counter(String name, String help, String[] labelNames) {
+		super(name, help, labelNames);
+	}
+
+	/**
+	 * Increase the count of the given label values by 1.
+	 *
+	 * @param labelValues label values
+	 */
+	public void inc(String... labelValues) {
+		add(1, labelValues);
+	}
+
+	/**
+	 * Increase the count of the given label values.
+	 *
+	 * @param amount      amount. It should not be negative.
+	 * @param labelValues label values
+	 */
+	public void add(long amount, String... labelValues) {
+		getChild(labelValues).addAndGet(amount);
+	}
+
+	/**
+	 * Get the count of the given label values.
+	 *
+	 * @param labelValues label values
+	 * @return count
+	 */
+	public long get(String... labelValues) {
+		return getChild(labelValues).get();
+	}
+
+	@Override
+	protected String getType() {
+		return "counter";
+	}
+
+	@Override
+	protected AtomicLong newChild() {
+		return new AtomicLong();
+	}
+
+	@Override
+	protected void writeChild(StringBuilder out, String labels, AtomicLong child) {
+		writeSample(out, "", labels, child.get());
+	}
+}
@@ -0,0 +1,89 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ngrinder.common.metrics;
+
+/**
+ * Value which goes up and down. The value is either set or read from a {@link Source} on each
+ * scrape.
+ *
+ * @author JunHo Yoon
+ * @since 3.4.1
+ */
+public class Gauge extends Metric<Gauge.Source> {
+
+	/**
+	 * Source of the gauge value.
+	 */
+	public interface Source {
+		/**
+		 * Get the current value.
+		 *
+		 * @return value
+		 */
+		double get();
+	}
+
+	private static class Value implements Source {
+		private volatile double value;
+
+		@Override
+		public double get() {
+			return value;
+		}
+	}
+
+	Gauge(String name, String help, String[] labelNames) {
+		super(name, help, labelNames);
+	}
+
+	/**
+	 * Set the value of the given label values.
+	 *
+	 * @param value       value
+	 * @param labelValues label values
+	 */
+	public void set(double value, String... labelValues) {
+		Source source = getChild(labelValues);
+		if (!(source instanceof Value)) {
+			source = new Value();
+			putChild(source, labelValues);
+		}
+		((Value) source).value = value;
+	}
+
+	/**
+	 * Read the value of the given label values from the given source on each scrape.
+	 *
+	 * @param source      source
+	 * @param labelValues label values
+	 */
+	public void register(Source source, String... labelValues) {
+		putChild(source, labelValues);
+	}
+
+	@Override
+	protected String getType() {
+		return "gauge";
+	}
+
+	@Override
+	protected Source newChild() {
+		return new Value();
+	}
+
+	@Override
+	protected void writeChild(StringBuilder out, String labels, Source child) {
+		writeSample(out, "", labels, child.get());
+	}
+}
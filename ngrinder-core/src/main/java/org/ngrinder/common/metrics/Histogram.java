@@ -0,0 +1,124 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ngrinder.common.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Distribution of the observed values in the cumulative buckets.
+ *
+ * @author JunHo Yoon
+ * @since 3.4.1
+ */
+public class Histogram extends Metric<Histogram.Child> {
+
+	/**
+	 * Default bucket upper bounds in seconds.
+	 */
+	public static final double[] DEFAULT_BUCKETS = {0.001, 0.005, 0.01, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10};
+
+	private final double[] buckets;
+
+	/**
+	 * Observations of a label combination.
+	 */
+	static class Child {
+		private final long[] counts;
+		private double sum;
+		private long count;
+
+		Child(int bucketCount) {
+			counts = new long[bucketCount];
+		}
+	}
+
+	Histogram(String name, String help, double[] buckets, String[] labelNames) {
+		super(name, help, labelNames);
+		this.buckets = buckets.clone();
+	}
+
+	/**
+	 * Observe the given value.
+	 *
+	 * @param value       value
+	 * @param labelValues label values
+	 */
+	public void observe(double value, String... labelValues) {
+		Child child = getChild(labelValues);
+		synchronized (child) {
+			for (int i = 0; i < buckets.length; i++) {
+				if (value <= buckets[i]) {
+					child.counts[i]++;
+					break;
+				}
+			}
+			child.sum += value;
+			child.count++;
+		}
+	}
+
+	/**
+	 * Observe the seconds elapsed from the given {@link System#nanoTime()}.
+	 *
+	 * @param startNanos  start time from {@link System#nanoTime()}
+	 * @param labelValues label values
+	 */
+	public void observeSince(long startNanos, String... labelValues) {
+		observe((System.nanoTime() - startNanos) / (double) TimeUnit.SECONDS.toNanos(1), labelValues);
+	}
+
+	/**
+	 * Get the observed count of the given label values.
+	 *
+	 * @param labelValues label values
+	 * @return count
+	 */
+	public long getCount(String... labelValues) {
+		Child child = getChild(labelValues);
+		synchronized (child) {
+			return child.count;
+		}
+	}
+
+	@Override
+	protected String getType() {
+		return "histogram";
+	}
+
+	@Override
+	protected Child newChild() {
+		return new Child(buckets.length);
+	}
+
+	@Override
+	protected void writeChild(StringBuilder out, String labels, Child child) {
+		long[] counts;
+		double sum;
+		long count;
+		synchronized (child) {
+			counts = child.counts.clone();
+			sum = child.sum;
+			count = child.count;
+		}
+		String prefix = labels.isEmpty() ? "" : labels + ",";
+		long cumulative = 0;
+		for (int i = 0; i < buckets.length; i++) {
+			cumulative += counts[i];
+			writeSample(out, "_bucket", prefix + formatLabel("le", formatValue(buckets[i])), cumulative);
+		}
+		writeSample(out, "_bucket", prefix + formatLabel("le", "+Inf"), count);
+		writeSample(out, "_sum", labels, sum);
+		writeSample(out, "_count", labels, count);
+	}
+}
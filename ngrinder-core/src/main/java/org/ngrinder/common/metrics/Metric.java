@@ -0,0 +1,172 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ngrinder.common.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import static org.ngrinder.common.util.Preconditions.checkArgument;
+
+/**
+ * Metric family having a value per each combination of the label values.
+ *
+ * @param <T> type of the value of each label combination
+ * @author JunHo Yoon
+ * @since 3.4.1
+ */
+public abstract class Metric<T> {
+	private final String name;
+	private final String help;
+	private final String[] labelNames;
+	private final ConcurrentMap<String, T> children = new ConcurrentSkipListMap<String, T>();
+
+	protected Metric(String name, String help, String[] labelNames) {
+		this.name = name;
+		this.help = help;
+		this.labelNames = labelNames;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Get the Prometheus type name.
+	 *
+	 * @return type name
+	 */
+	protected abstract String getType();
+
+	/**
+	 * Create the value of a new label combination.
+	 *
+	 * @return value
+	 */
+	protected abstract T newChild();
+
+	/**
+	 * Write the samples of the given label combination.
+	 *
+	 * @param out    output
+	 * @param labels formatted label pairs without braces. Empty if no label.
+	 * @param child  value of the label combination
+	 */
+	protected abstract void writeChild(StringBuilder out, String labels, T child);
+
+	/**
+	 * Get the value of the given label values, creating it if not exists.
+	 *
+	 * @param values label values
+	 * @return value
+	 */
+	protected T getChild(String... values) {
+		checkArgument(values.length == labelNames.length, "%s needs %s label values", name, labelNames.length);
+		String key = formatLabels(values);
+		T child = children.get(key);
+		if (child == null) {
+			children.putIfAbsent(key, newChild());
+			child = children.get(key);
+		}
+		return child;
+	}
+
+	/**
+	 * Put the value of the given label values.
+	 *
+	 * @param child  value
+	 * @param values label values
+	 */
+	protected void putChild(T child, String... values) {
+		checkArgument(values.length == labelNames.length, "%s needs %s label values", name, labelNames.length);
+		String key = formatLabels(values);
+		children.put(key, child);
+	}
+
+	/**
+	 * Remove the value of the given label values.
+	 *
+	 * @param values label values
+	 */
+	public void remove(String... values) {
+		children.remove(formatLabels(values));
+	}
+
+	/**
+	 * Write this metric in the Prometheus text format.
+	 *
+	 * @param out output
+	 */
+	void write(StringBuilder out) {
+		if (children.isEmpty()) {
+			return;
+		}
+		out.append("# HELP ").append(name).append(' ').append(help.replace("\\", "\\\\").replace("\n", "\\n"))
+				.append('\n');
+		out.append("# TYPE ").append(name).append(' ').append(getType()).append('\n');
+		for (Map.Entry<String, T> each : children.entrySet()) {
+			writeChild(out, each.getKey(), each.getValue());
+		}
+	}
+
+	/**
+	 * Append a sample line.
+	 *
+	 * @param out    output
+	 * @param suffix metric name suffix
+	 * @param labels formatted label pairs
+	 * @param value  value
+	 */
+	protected void writeSample(StringBuilder out, String suffix, String labels, double value) {
+		out.append(name).append(suffix);
+		if (!labels.isEmpty()) {
+			out.append('{').append(labels).append('}');
+		}
+		out.append(' ').append(formatValue(value)).append('\n');
+	}
+
+	private String formatLabels(String[] values) {
+		StringBuilder labels = new StringBuilder();
+		for (int i = 0; i < values.length; i++) {
+			if (i != 0) {
+				labels.append(',');
+			}
+			labels.append(formatLabel(labelNames[i], values[i]));
+		}
+		return labels.toString();
+	}
+
+	/**
+	 * Format a label pair.
+	 *
+	 * @param labelName  label name
+	 * @param labelValue label value
+	 * @return name="value" with the value escaped
+	 */
+	protected static String formatLabel(String labelName, String labelValue) {
+		String value = String.valueOf(labelValue).replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+		return labelName + "=\"" + value + "\"";
+	}
+
+	static String formatValue(double value) {
+		if (Double.isNaN(value)) {
+			return "NaN";
+		} else if (Double.isInfinite(value)) {
+			return value > 0 ? "+Inf" : "-Inf";
+		} else if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+			return String.valueOf((long) value);
+		}
+		return String.valueOf(value);
+	}
+}
@@ -0,0 +1,107 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ngrinder.common.metrics;
+
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import static org.ngrinder.common.util.Preconditions.checkArgument;
+
+/**
+ * Registry of the metrics which are scraped in the Prometheus text format.
+ *
+ * The metrics are registered once by their name and shared by the instrumented components. The
+ * default registry is scraped by the controller.
+ *
+ * @author JunHo Yoon
+ * @since 3.4.1
+ */
+public class MetricRegistry {
+	/**
+	 * Content type of the scraped text.
+	 */
+	public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+	private static final MetricRegistry DEFAULT = new MetricRegistry();
+
+	private final ConcurrentMap<String, Metric<?>> metrics = new ConcurrentSkipListMap<String, Metric<?>>();
+
+	/**
+	 * Get the default registry.
+	 *
+	 * @return default registry
+	 */
+	public static MetricRegistry getDefault() {
+		return DEFAULT;
+	}
+
+	/**
+	 * Get or register the counter.
+	 *
+	 * @param name       metric name
+	 * @param help       description
+	 * @param labelNames label names
+	 * @return {@link Counter}
+	 */
+	public Counter counter(String name, String help, String... labelNames) {
+		return register(Counter.class, new Counter(name, help, labelNames));
+	}
+
+	/**
+	 * Get or register the gauge.
+	 *
+	 * @param name       metric name
+	 * @param help       description
+	 * @param labelNames label names
+	 * @return {@link Gauge}
+	 */
+	public Gauge gauge(String name, String help, String... labelNames) {
+		return register(Gauge.class, new Gauge(name, help, labelNames));
+	}
+
+	/**
+	 * Get or register the histogram having {@link Histogram#DEFAULT_BUCKETS}.
+	 *
+	 * @param name       metric name
+	 * @param help       description
+	 * @param labelNames label names
+	 * @return {@link Histogram}
+	 */
+	public Histogram histogram(String name, String help, String... labelNames) {
+		return register(Histogram.class, new Histogram(name, help, Histogram.DEFAULT_BUCKETS, labelNames));
+	}
+
+	private <T extends Metric<?>> T register(Class<T> type, T metric) {
+		Metric<?> existing = metrics.putIfAbsent(metric.getName(), metric);
+		if (existing == null) {
+			return metric;
+		}
+		checkArgument(type.isInstance(existing), "%s is already registered as %s", metric.getName(),
+				existing.getType());
+		return type.cast(existing);
+	}
+
+	/**
+	 * Write all the metrics in the Prometheus text format.
+	 *
+	 * @return scraped text
+	 */
+	public String scrape() {
+		StringBuilder out = new StringBuilder();
+		for (Metric<?> each : metrics.values()) {
+			each.write(out);
+		}
+		return out.toString();
+	}
+}
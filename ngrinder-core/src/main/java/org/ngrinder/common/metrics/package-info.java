@@ -0,0 +1,4 @@
+/**
+ * ngrinder metrics classes.
+ */
+package org.ngrinder.common.metrics;
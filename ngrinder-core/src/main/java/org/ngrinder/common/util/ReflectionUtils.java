@@ -54,6 +54,26 @@ public abstract class ReflectionUtils {
 		return null;
 	}
 
+	/**
+	 * Set object field value, bypassing setter method.
+	 *
+	 * @param object	object
+	 * @param fieldName	field Name
+	 * @param value		value to be set
+	 * @since 3.4.1
+	 */
+	public static void setFieldValue(final Object object, final String fieldName, final Object value) {
+		Field field = getDeclaredField(object, fieldName);
+		checkNotNull(field, "Could not find field [%s] on target [%s]", fieldName, object);
+		makeAccessible(field);
+
+		try {
+			field.set(object, value);
+		} catch (IllegalAccessException e) {
+			LOGGER.error(e.getMessage(), e);
+		}
+	}
+
 	private static Field getDeclaredField(final Object object, final String fieldName) {
 		checkNotNull(object);
 		checkArgument(StringUtils.isNotBlank(fieldName));
@@ -0,0 +1,65 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ngrinder.model;
+
+/**
+ * Worker process JVM tuning profile.
+ *
+ * @since 3.4.1
+ */
+public enum JvmProfile {
+	/**
+	 * Half of the free memory per process without GC selection. It's the same as the old versions.
+	 */
+	DEFAULT("default"),
+	/**
+	 * Parallel GC with the larger heap. Suitable for the most of tests.
+	 */
+	THROUGHPUT("throughput"),
+	/**
+	 * Concurrent GC with the short pause target. Suitable when the test time is measured in a few
+	 * milliseconds.
+	 */
+	LOW_LATENCY("lowLatency"),
+	/**
+	 * Small thread stack and parallel GC. Suitable when each process runs hundreds of threads.
+	 */
+	MANY_THREADS("manyThreads");
+
+	private String messageKey;
+
+	JvmProfile(String messageKey) {
+		this.messageKey = messageKey;
+	}
+
+	@SuppressWarnings("UnusedDeclaration")
+	public String getMessageKey() {
+		return messageKey;
+	}
+
+	/**
+	 * Get the profile by its name. {@link #DEFAULT} is returned if no profile matches.
+	 *
+	 * @param name profile name
+	 * @return profile
+	 */
+	public static JvmProfile fromName(String name) {
+		for (JvmProfile each : values()) {
+			if (each.name().equalsIgnoreCase(name)) {
+				return each;
+			}
+		}
+		return DEFAULT;
+	}
+}
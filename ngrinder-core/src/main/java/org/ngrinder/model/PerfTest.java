@@ -237,6 +237,32 @@ public class PerfTest extends BaseModel<PerfTest> {
 	@Column(name = "peak_tps")
 	private Double peakTps;
 
+	/**
+	 * Start of the detected steady state window in the elapsed second.
+	 */
+	@Expose
+	@Column(name = "steady_state_start")
+	private Integer steadyStateStart;
+
+	/**
+	 * End of the detected steady state window in the elapsed second.
+	 */
+	@Expose
+	@Column(name = "steady_state_end")
+	private Integer steadyStateEnd;
+
+	@Expose
+	@Column(name = "steady_tps")
+	private Double steadyTps;
+
+	@Expose
+	@Column(name = "steady_mean_test_time")
+	private Double steadyMeanTestTime;
+
+	@Expose
+	@Column(name = "steady_peak_tps")
+	private Double steadyPeakTps;
+
 	/**
 	 * Console port for this test. This is the identifier for console
 	 */
@@ -314,6 +340,23 @@ public class PerfTest extends BaseModel<PerfTest> {
 	@Column(name = "param")
 	private String param;
 
+	/**
+	 * JVM tuning profile of the worker processes.
+	 */
+	@Expose
+	@Cloneable
+	@Column(name = "jvm_profile")
+	@Enumerated(EnumType.STRING)
+	private JvmProfile jvmProfile;
+
+	/**
+	 * Id of the test which this test is compared with to detect the regression.
+	 */
+	@Expose
+	@Cloneable
+	@Column(name = "baseline_id")
+	private Long baselineId;
+
 	@PrePersist
 	@PreUpdate
 	public void init() {
@@ -350,6 +393,7 @@ public class PerfTest extends BaseModel<PerfTest> {
 		this.rampUpInitSleepTime = getSafe(this.rampUpInitSleepTime, 0);
 		this.rampUpIncrementInterval = getSafe(this.rampUpIncrementInterval, 1000);
 		this.rampUpType = getSafe(this.rampUpType, RampUp.PROCESS);
+		this.jvmProfile = getSafe(this.jvmProfile, JvmProfile.DEFAULT);
 	}
 
 
@@ -841,6 +885,62 @@ public class PerfTest extends BaseModel<PerfTest> {
 		this.samplingInterval = samplingInterval;
 	}
 
+	public JvmProfile getJvmProfile() {
+		return jvmProfile;
+	}
+
+	public void setJvmProfile(JvmProfile jvmProfile) {
+		this.jvmProfile = jvmProfile;
+	}
+
+	public Integer getSteadyStateStart() {
+		return steadyStateStart;
+	}
+
+	public void setSteadyStateStart(Integer steadyStateStart) {
+		this.steadyStateStart = steadyStateStart;
+	}
+
+	public Integer getSteadyStateEnd() {
+		return steadyStateEnd;
+	}
+
+	public void setSteadyStateEnd(Integer steadyStateEnd) {
+		this.steadyStateEnd = steadyStateEnd;
+	}
+
+	public Double getSteadyTps() {
+		return steadyTps;
+	}
+
+	public void setSteadyTps(Double steadyTps) {
+		this.steadyTps = steadyTps;
+	}
+
+	public Double getSteadyMeanTestTime() {
+		return steadyMeanTestTime;
+	}
+
+	public void setSteadyMeanTestTime(Double steadyMeanTestTime) {
+		this.steadyMeanTestTime = steadyMeanTestTime;
+	}
+
+	public Double getSteadyPeakTps() {
+		return steadyPeakTps;
+	}
+
+	public void setSteadyPeakTps(Double steadyPeakTps) {
+		this.steadyPeakTps = steadyPeakTps;
+	}
+
+	public Long getBaselineId() {
+		return baselineId;
+	}
+
+	public void setBaselineId(Long baselineId) {
+		this.baselineId = baselineId;
+	}
+
 	public String getParam() {
 		return param;
 	}
@@ -48,6 +48,9 @@ public class SystemDataModel extends BaseEntity<SystemDataModel> {
 	@Expose
 	private float cpuUsedPercentage;
 
+	@Expose
+	private float cpuStealPercentage;
+
 	@Expose
 	private long receivedPerSec;
 
@@ -58,6 +61,12 @@ public class SystemDataModel extends BaseEntity<SystemDataModel> {
 
 	private String customValues;
 
+	@Expose
+	private int workerCount;
+
+	@Expose
+	private WorkerMetrics worstWorker;
+
 	/**
 	 * Default constructor to create empty SystemDataModel.
 	 */
@@ -85,6 +94,7 @@ public class SystemDataModel extends BaseEntity<SystemDataModel> {
 		this.freeMemory = systemInfo.getFreeMemory();
 		this.totalMemory = systemInfo.getTotalMemory();
 		this.cpuUsedPercentage = systemInfo.getCPUUsedPercentage();
+		this.cpuStealPercentage = systemInfo.getCpuStealPercentage();
 		BandWidth bandWidth = systemInfo.getBandWidth();
 		if (bandWidth != null) {
 			this.receivedPerSec = bandWidth.getReceivedPerSec();
@@ -158,6 +168,14 @@ public class SystemDataModel extends BaseEntity<SystemDataModel> {
 		this.cpuUsedPercentage = cpuUsedPercentage;
 	}
 
+	public float getCpuStealPercentage() {
+		return cpuStealPercentage;
+	}
+
+	public void setCpuStealPercentage(float cpuStealPercentage) {
+		this.cpuStealPercentage = cpuStealPercentage;
+	}
+
 	public String getVersion() {
 		return version;
 	}
@@ -190,4 +208,33 @@ public class SystemDataModel extends BaseEntity<SystemDataModel> {
 		this.customValues = customValues;
 	}
 
+	/**
+	 * Get the count of the worker processes running on the agent.
+	 *
+	 * @return worker count
+	 * @since 3.4.1
+	 */
+	public int getWorkerCount() {
+		return workerCount;
+	}
+
+	public void setWorkerCount(int workerCount) {
+		this.workerCount = workerCount;
+	}
+
+	/**
+	 * Get the metrics of the worst worker process running on the agent. Only the worst one is
+	 * kept so that the agent state of a test stays small enough to be saved.
+	 *
+	 * @return worker metrics. null if no worker is running.
+	 * @since 3.4.1
+	 */
+	public WorkerMetrics getWorstWorker() {
+		return worstWorker;
+	}
+
+	public void setWorstWorker(WorkerMetrics worstWorker) {
+		this.worstWorker = worstWorker;
+	}
+
 }
@@ -0,0 +1,190 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ngrinder.monitor.controller.model;
+
+import com.google.gson.annotations.Expose;
+import net.grinder.engine.process.WorkerMetricsRecorder;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.math.NumberUtils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.util.List;
+import java.util.Properties;
+
+import static net.grinder.engine.process.WorkerMetricsRecorder.*;
+
+/**
+ * Metrics of a worker process recorded by {@link WorkerMetricsRecorder}.
+ *
+ * @author JunHo Yoon
+ * @since 3.4.1
+ */
+public class WorkerMetrics implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	@Expose
+	private String name;
+
+	private long collectTime;
+
+	@Expose
+	private long heapUsed;
+
+	@Expose
+	private long heapMax;
+
+	private long gcCount;
+
+	@Expose
+	private long gcTime;
+
+	@Expose
+	private float gcPercent;
+
+	@Expose
+	private int threads;
+
+	@Expose
+	private long reportLatency;
+
+	@Expose
+	private long maxReportLatency;
+
+	@Expose
+	private long lateReports;
+
+	@Expose
+	private long droppedReports;
+
+	/**
+	 * Load the metrics from the given file.
+	 *
+	 * @param file metrics file
+	 * @return {@link WorkerMetrics}. null if the file can not be read.
+	 */
+	public static WorkerMetrics load(File file) {
+		Properties properties = new Properties();
+		InputStream in = null;
+		try {
+			in = new FileInputStream(file);
+			properties.load(in);
+		} catch (IOException e) {
+			return null;
+		} finally {
+			IOUtils.closeQuietly(in);
+		}
+		WorkerMetrics metrics = new WorkerMetrics();
+		metrics.name = file.getName().substring(0, file.getName().length() - FILE_EXTENSION.length());
+		metrics.collectTime = getLong(properties, KEY_COLLECT_TIME);
+		metrics.heapUsed = getLong(properties, KEY_HEAP_USED);
+		metrics.heapMax = getLong(properties, KEY_HEAP_MAX);
+		metrics.gcCount = getLong(properties, KEY_GC_COUNT);
+		metrics.gcTime = getLong(properties, KEY_GC_TIME);
+		metrics.gcPercent = NumberUtils.toFloat(properties.getProperty(KEY_GC_PERCENT));
+		metrics.threads = (int) getLong(properties, KEY_THREADS);
+		metrics.reportLatency = getLong(properties, KEY_REPORT_LATENCY);
+		metrics.maxReportLatency = getLong(properties, KEY_MAX_REPORT_LATENCY);
+		metrics.lateReports = getLong(properties, KEY_LATE_REPORTS);
+		metrics.droppedReports = getLong(properties, KEY_DROPPED_REPORTS);
+		return metrics.collectTime == 0 ? null : metrics;
+	}
+
+	/**
+	 * Get the worst of the given worker metrics. The worker spending the most time in GC is the
+	 * worst, then the one using the most of its heap, then the one sending its reports the latest.
+	 *
+	 * @param workers worker metrics
+	 * @return the worst {@link WorkerMetrics}. null if workers is empty.
+	 */
+	public static WorkerMetrics getWorst(List<WorkerMetrics> workers) {
+		WorkerMetrics worst = null;
+		for (WorkerMetrics each : workers) {
+			if (worst == null || each.compareSeverity(worst) > 0) {
+				worst = each;
+			}
+		}
+		return worst;
+	}
+
+	private int compareSeverity(WorkerMetrics other) {
+		int result = Float.compare(gcPercent, other.gcPercent);
+		if (result == 0) {
+			result = Double.compare(getHeapUsage(), other.getHeapUsage());
+		}
+		if (result == 0) {
+			result = Long.compare(maxReportLatency, other.maxReportLatency);
+		}
+		return result;
+	}
+
+	private double getHeapUsage() {
+		return heapMax > 0 ? (double) heapUsed / heapMax : 0;
+	}
+
+	private static long getLong(Properties properties, String key) {
+		return NumberUtils.toLong(properties.getProperty(key));
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public long getCollectTime() {
+		return collectTime;
+	}
+
+	public long getHeapUsed() {
+		return heapUsed;
+	}
+
+	public long getHeapMax() {
+		return heapMax;
+	}
+
+	public long getGcCount() {
+		return gcCount;
+	}
+
+	public long getGcTime() {
+		return gcTime;
+	}
+
+	public float getGcPercent() {
+		return gcPercent;
+	}
+
+	public int getThreads() {
+		return threads;
+	}
+
+	public long getReportLatency() {
+		return reportLatency;
+	}
+
+	public long getMaxReportLatency() {
+		return maxReportLatency;
+	}
+
+	public long getLateReports() {
+		return lateReports;
+	}
+
+	public long getDroppedReports() {
+		return droppedReports;
+	}
+}
@@ -63,6 +63,8 @@ public class SystemInfo extends MonitorInfo implements Serializable {
 
 	private float cpuUsedPercentage;
 
+	private float cpuStealPercentage;
+
 	private String ip;
 
 	protected String customValues;
@@ -82,6 +84,9 @@ public class SystemInfo extends MonitorInfo implements Serializable {
 			this.freeMemory = getLong(cd, "freeMemory");
 			this.totalMemory = getLong(cd, "totalMemory");
 			this.cpuUsedPercentage = getFloat(cd, "CPUUsedPercentage");
+			if (containsKey(cd, "cpuStealPercentage")) {
+				this.cpuStealPercentage = getFloat(cd, "cpuStealPercentage");
+			}
 
 			if (containsKey(cd, "bandWidth")) {
 				CompositeData bandWidth = (CompositeData) getObject(cd, "bandWidth");
@@ -128,6 +133,20 @@ public class SystemInfo extends MonitorInfo implements Serializable {
 		return cpuUsedPercentage;
 	}
 
+	/**
+	 * Get the percentage of the time the virtual CPUs waited for the hypervisor.
+	 *
+	 * @return steal percentage. 0 if it's not supported by the system.
+	 * @since 3.4.1
+	 */
+	public float getCpuStealPercentage() {
+		return cpuStealPercentage;
+	}
+
+	public void setCpuStealPercentage(float cpuStealPercentage) {
+		this.cpuStealPercentage = cpuStealPercentage;
+	}
+
 	@SuppressWarnings("UnusedDeclaration")
 	public long getIdlecpu() {
 		return idleCpuValue;
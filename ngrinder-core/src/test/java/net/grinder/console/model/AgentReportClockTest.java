@@ -0,0 +1,49 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.grinder.console.model;
+
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * {@link AgentReportClock} test.
+ *
+ * @author JunHo Yoon
+ * @since 3.4.1
+ */
+public class AgentReportClockTest {
+
+	@Test
+	public void testOffsetExcludesJitter() {
+		AgentReportClock clock = new AgentReportClock();
+		// The agent clock is 10 seconds behind and the network delay is between 20ms and 300ms.
+		assertThat(clock.toConsoleTime(1000, 11300), is(11300L));
+		assertThat(clock.toConsoleTime(2000, 12020), is(12020L));
+		assertThat(clock.getOffset(), is(10020L));
+		assertThat(clock.toConsoleTime(3000, 13250), is(13020L));
+		assertThat(clock.getLastDelay(), is(230L));
+	}
+
+	@Test
+	public void testOldDifferencesAreForgotten() {
+		AgentReportClock clock = new AgentReportClock();
+		clock.toConsoleTime(0, 10);
+		for (int i = 1; i <= 32; i++) {
+			clock.toConsoleTime(i * 1000, i * 1000 + 50);
+		}
+		assertThat(clock.getOffset(), is(50L));
+	}
+}
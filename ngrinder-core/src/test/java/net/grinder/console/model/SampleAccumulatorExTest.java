@@ -0,0 +1,70 @@
+/* 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package net.grinder.console.model;
+
+import net.grinder.statistics.*;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * {@link SampleAccumulatorEx} test.
+ *
+ * @author JunHo Yoon
+ * @since 3.4.1
+ */
+public class SampleAccumulatorExTest {
+	private StatisticsSetFactory statisticsSetFactory;
+	private StatisticsIndexMap.LongIndex errorsIndex;
+	private StatisticsIndexMap.LongIndex periodIndex;
+	private SampleAccumulatorEx accumulator;
+
+	@Before
+	public void before() {
+		StatisticsServices statisticsServices = StatisticsServicesImplementation.getInstance();
+		StatisticsIndexMap indexMap = statisticsServices.getStatisticsIndexMap();
+		statisticsSetFactory = statisticsServices.getStatisticsSetFactory();
+		errorsIndex = indexMap.getLongIndex("errors");
+		periodIndex = indexMap.getLongIndex("period");
+		PeakStatisticExpression peakTPSExpression = statisticsServices.getStatisticExpressionFactory().createPeak(
+				indexMap.getDoubleIndex("peakTPS"), statisticsServices.getTPSExpression());
+		accumulator = new SampleAccumulatorEx(peakTPSExpression, periodIndex, statisticsSetFactory);
+	}
+
+	private void addReport(long errors) {
+		StatisticsSet report = statisticsSetFactory.create();
+		report.setValue(errorsIndex, errors);
+		accumulator.addIntervalStatistics(report);
+		accumulator.addCumulativeStatistics(report);
+	}
+
+	@Test
+	public void testSwapSample() {
+		addReport(10);
+		SampleAccumulatorEx.Sample first = accumulator.swapSample(1000, 1000);
+		addReport(5);
+		SampleAccumulatorEx.Sample second = accumulator.swapSample(1000, 2000);
+
+		// The swapped statistics are not changed by the following reports.
+		assertThat(first.getIntervalStatistics().getValue(errorsIndex), is(10L));
+		assertThat(first.getCumulativeStatistics().getValue(errorsIndex), is(10L));
+		assertThat(first.getCumulativeStatistics().getValue(periodIndex), is(1000L));
+		assertThat(second.getIntervalStatistics().getValue(errorsIndex), is(5L));
+		assertThat(second.getCumulativeStatistics().getValue(errorsIndex), is(15L));
+		assertThat(second.getCumulativeStatistics().getValue(periodIndex), is(2000L));
+		assertThat(accumulator.getLastSampleStatistics().getValue(errorsIndex), is(5L));
+	}
+}
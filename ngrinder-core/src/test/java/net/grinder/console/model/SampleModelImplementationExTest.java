@@ -0,0 +1,126 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.grinder.console.model;
+
+import net.grinder.SingleConsole;
+import net.grinder.common.AbstractTestSemantics;
+import net.grinder.console.common.ErrorHandler;
+import net.grinder.statistics.StatisticsIndexMap;
+import net.grinder.statistics.StatisticsServices;
+import net.grinder.statistics.StatisticsServicesImplementation;
+import net.grinder.statistics.StatisticsSet;
+import net.grinder.statistics.TestStatisticsMap;
+import net.grinder.util.ConsolePropertiesFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.ngrinder.common.util.ThreadUtils;
+
+import java.util.Collections;
+import java.util.Timer;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * {@link SampleModelImplementationEx} test.
+ *
+ * @author JunHo Yoon
+ * @since 3.4.1
+ */
+public class SampleModelImplementationExTest {
+	private static final int SAMPLE_INTERVAL = 2000;
+
+	private final net.grinder.common.Test test = new AbstractTestSemantics() {
+		public int getNumber() {
+			return 1;
+		}
+
+		public String getDescription() {
+			return "test";
+		}
+	};
+
+	private StatisticsServices statisticsServices;
+	private StatisticsIndexMap.LongIndex errorsIndex;
+	private Timer timer;
+
+	@Before
+	public void before() {
+		statisticsServices = StatisticsServicesImplementation.getInstance();
+		errorsIndex = statisticsServices.getStatisticsIndexMap().getLongIndex("errors");
+		timer = new Timer(true);
+	}
+
+	@After
+	public void after() {
+		timer.cancel();
+	}
+
+	private SampleModelImplementationEx createModel(int ignoreSampleCount) throws Exception {
+		ConsoleProperties properties = ConsolePropertiesFactory.createEmptyConsoleProperties();
+		properties.setSampleInterval(SAMPLE_INTERVAL);
+		properties.setIgnoreSampleCount(ignoreSampleCount);
+		SampleModelImplementationEx model = new SampleModelImplementationEx(properties, statisticsServices, timer,
+				SingleConsole.RESOURCE, mock(ErrorHandler.class));
+		model.registerTests(Collections.singletonList(test));
+		model.start();
+		return model;
+	}
+
+	private void addReport(SampleModelImplementationEx model, long errors) {
+		StatisticsSet statistics = statisticsServices.getStatisticsSetFactory().create();
+		statistics.setValue(errorsIndex, errors);
+		TestStatisticsMap testStatisticsMap = new TestStatisticsMap(statisticsServices.getStatisticsSetFactory());
+		testStatisticsMap.put(test, statistics);
+		model.addTestReport(testStatisticsMap, "agent", System.currentTimeMillis());
+	}
+
+	/**
+	 * Wait until the grace period of the next tick, when the reports are held for the next interval.
+	 */
+	private void waitForGracePeriod() {
+		long now = System.currentTimeMillis();
+		ThreadUtils.sleep(SamplingScheduler.floorTick(now, SAMPLE_INTERVAL) + SAMPLE_INTERVAL + 100 - now);
+	}
+
+	private long getCumulativeErrors(SampleModelImplementationEx model) {
+		return model.getTotalCumulativeStatistics().getValue(errorsIndex);
+	}
+
+	@Test
+	public void testStopWhileReportIsHeld() throws Exception {
+		SampleModelImplementationEx model = createModel(0);
+		addReport(model, 1);
+		waitForGracePeriod();
+		addReport(model, 2);
+		model.stop();
+		assertThat(getCumulativeErrors(model), is(3L));
+	}
+
+	@Test
+	public void testReportHeldWhenCapturingStarts() throws Exception {
+		SampleModelImplementationEx model = createModel(1);
+		// The first interval is ignored.
+		addReport(model, 1);
+		waitForGracePeriod();
+		// The report is sent in the first captured interval.
+		addReport(model, 2);
+		ThreadUtils.sleep(SAMPLE_INTERVAL * 2);
+		assertThat(model.getState().isCapturing(), is(true));
+		assertThat(getCumulativeErrors(model), is(2L));
+		model.stop();
+	}
+}
@@ -0,0 +1,61 @@
+/* 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License. 
+ */
+package net.grinder.console.model;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+
+/**
+ * {@link SamplingScheduler} test.
+ *
+ * @author JunHo Yoon
+ * @since 3.4.1
+ */
+public class SamplingSchedulerTest {
+
+	@Test
+	public void testTicksAreAligned() {
+		assertThat(SamplingScheduler.floorTick(12345, 1000), is(12000L));
+		// The next tick doesn't depend on when the last sample finished.
+		assertThat(SamplingScheduler.nextTick(12000, 1000, 12999), is(13000L));
+		assertThat(SamplingScheduler.nextTick(12000, 1000, 13500), is(13000L));
+		// The ticks missed more than an interval are skipped.
+		assertThat(SamplingScheduler.nextTick(12000, 1000, 15500), is(15000L));
+	}
+
+	@Test
+	public void testScheduleAt() throws InterruptedException {
+		final CountDownLatch latch = new CountDownLatch(1);
+		final AtomicLong runTime = new AtomicLong();
+		long tickTime = SamplingScheduler.floorTick(System.currentTimeMillis(), 100) + 200;
+		SamplingScheduler.scheduleAt(tickTime, new SamplingScheduler.Tick() {
+			@Override
+			public void run(long tickTime, long lateness) {
+				runTime.set(System.currentTimeMillis());
+				latch.countDown();
+			}
+		});
+		assertThat(latch.await(5, TimeUnit.SECONDS), is(true));
+		assertThat(runTime.get() >= tickTime, is(true));
+		assertThat(runTime.get() - tickTime, lessThan(100L));
+		assertThat((Long) SamplingScheduler.getStatistics().get("ticks") > 0, is(true));
+	}
+}
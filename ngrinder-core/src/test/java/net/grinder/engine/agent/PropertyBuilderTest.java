@@ -16,6 +16,7 @@ package net.grinder.engine.agent;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.junit.Assert.assertThat;
 
 import java.io.File;
@@ -26,6 +27,7 @@ import net.grinder.util.Directory.DirectoryException;
 import net.grinder.util.NetworkUtils;
 
 import org.junit.Test;
+import org.ngrinder.model.JvmProfile;
 
 public class PropertyBuilderTest {
 	@Test
@@ -62,6 +64,23 @@ public class PropertyBuilderTest {
 		assertThat(buildJVMArgument, containsString("-Xmx"));
 	}
 
+	@Test
+	public void testPropertyBuilderJvmProfile() throws DirectoryException {
+		PropertyBuilder createPropertyBuilder = createPropertyBuilder("www.sample.com,:127.0.0.1");
+		createPropertyBuilder.addProperties("grinder.processes", "2");
+		createPropertyBuilder.addProperties("grinder.threads", "500");
+		assertThat(createPropertyBuilder.buildJVMArgument(), not(containsString("GC")));
+
+		createPropertyBuilder.addProperties("grinder.jvm.profile", "MANY_THREADS");
+		String buildJVMArgument = createPropertyBuilder.buildJVMArgument();
+		assertThat(buildJVMArgument, containsString("-Xss256k"));
+		assertThat(buildJVMArgument, containsString("-XX:+UseParallelGC"));
+
+		createPropertyBuilder.addProperties("grinder.jvm.profile", "LOW_LATENCY");
+		assertThat(createPropertyBuilder.buildJVMArgument(), not(containsString("-Xss")));
+		assertThat(createPropertyBuilder.getDesirableXmx(JvmProfile.THROUGHPUT, 1000), is(600L));
+	}
+
 	public PropertyBuilder createPropertyBuilder(String hostString) throws DirectoryException {
 		Directory directory = new Directory(new File("."));
 		GrinderProperties property = new GrinderProperties();
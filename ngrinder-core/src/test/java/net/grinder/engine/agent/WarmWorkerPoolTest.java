@@ -0,0 +1,97 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.grinder.engine.agent;
+
+import net.grinder.common.GrinderProperties;
+import net.grinder.util.Directory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+/**
+ * {@link WarmWorkerPool} test.
+ *
+ * @author JunHo Yoon
+ * @since 3.4.1
+ */
+public class WarmWorkerPoolTest {
+	private WarmWorkerPool workerPool;
+
+	@Before
+	public void before() {
+		workerPool = new WarmWorkerPool(LoggerFactory.getLogger(WarmWorkerPoolTest.class));
+	}
+
+	@After
+	public void after() {
+		workerPool.shutdown();
+	}
+
+	private CommandLine createCommandLine(String jvmArguments) throws Exception {
+		return new WorkerProcessCommandLine(new GrinderProperties(), System.getProperties(), jvmArguments,
+				new Directory(new File(".")));
+	}
+
+	@Test
+	public void testNextRunOfTheSameScriptReusesTheWorker() throws Exception {
+		// The heap dump path, the hosts and the param are per test.
+		CommandLine firstRun = createCommandLine("-Xmx64m -XX:HeapDumpPath=/tmp/1 -Dngrinder.etc.hosts=a:127.0.0.1 "
+				+ "-Dparam=first");
+		CommandLine secondRun = createCommandLine("-Xmx64m -XX:HeapDumpPath=/tmp/2 -Dngrinder.etc.hosts=b:127.0.0.1");
+		assertThat(workerPool.getSignature(secondRun), is(workerPool.getSignature(firstRun)));
+
+		workerPool.prepare(firstRun, 1);
+		assertThat(workerPool.size(), is(1));
+		// The worker process waits for the initialisation message.
+		Process process = workerPool.take(secondRun);
+		assertThat(process, notNullValue());
+		assertThat(workerPool.size(), is(0));
+		process.destroy();
+		assertThat(WarmWorkerPool.getPerTestSystemProperties(secondRun), is("ngrinder.etc.hosts=b:127.0.0.1\nparam"));
+	}
+
+	@Test
+	public void testHeapSettingsAreInTheSignature() throws Exception {
+		assertThat(workerPool.getSignature(createCommandLine("-Xms48m -Xmx48m")),
+				not(workerPool.getSignature(createCommandLine("-Xms64m -Xmx64m"))));
+		assertThat(workerPool.getSignature(createCommandLine("-Xmx64m -XX:MaxPermSize=128m")),
+				not(workerPool.getSignature(createCommandLine("-Xmx64m -XX:MaxPermSize=64m"))));
+	}
+
+	@Test
+	public void testHostsAreInTheSignatureWhenSecurityIsEnabled() throws Exception {
+		String security = "-Djava.security.manager=org.ngrinder.sm.NGrinderSecurityManager ";
+		CommandLine firstRun = createCommandLine(security + "-Dngrinder.etc.hosts=a:127.0.0.1 -Dparam=first");
+		CommandLine secondRun = createCommandLine(security + "-Dngrinder.etc.hosts=b:127.0.0.1");
+		assertThat(workerPool.getSignature(secondRun), not(workerPool.getSignature(firstRun)));
+		assertThat(WarmWorkerPool.getPerTestSystemProperties(secondRun), is("param"));
+	}
+
+	@Test
+	public void testChangedCommandLineDiscardsTheWorkers() throws Exception {
+		workerPool.prepare(createCommandLine("-Xmx64m"), 1);
+		assertThat(workerPool.size(), is(1));
+		assertThat(workerPool.take(createCommandLine("-Xmx64m -Dngrinder.dns.ip=127.0.0.1")), nullValue());
+		assertThat(workerPool.size(), is(0));
+	}
+}
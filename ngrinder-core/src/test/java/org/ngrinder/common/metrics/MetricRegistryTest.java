@@ -0,0 +1,74 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ngrinder.common.metrics;
+
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * {@link MetricRegistry} test.
+ *
+ * @author JunHo Yoon
+ * @since 3.4.1
+ */
+public class MetricRegistryTest {
+
+	@Test
+	public void testScrape() {
+		MetricRegistry registry = new MetricRegistry();
+		Counter counter = registry.counter("test_bytes_total", "Bytes.", "agent");
+		counter.add(10, "agent\"1");
+		counter.inc("agent\"1");
+		registry.gauge("test_pool", "Pool.", "state").set(3, "available");
+		registry.gauge("test_pool", "Pool.", "state").register(new Gauge.Source() {
+			@Override
+			public double get() {
+				return 2;
+			}
+		}, "in_use");
+		Histogram histogram = registry.histogram("test_duration_seconds", "Duration.");
+		histogram.observe(0.003);
+		histogram.observe(20);
+
+		String text = registry.scrape();
+		assertThat(text, containsString("# TYPE test_bytes_total counter\ntest_bytes_total{agent=\"agent\\\"1\"} 11\n"));
+		assertThat(text, containsString("test_pool{state=\"available\"} 3\ntest_pool{state=\"in_use\"} 2\n"));
+		assertThat(text, containsString("test_duration_seconds_bucket{le=\"0.001\"} 0\n"
+				+ "test_duration_seconds_bucket{le=\"0.005\"} 1\n"));
+		assertThat(text, containsString("test_duration_seconds_bucket{le=\"10\"} 1\n"
+				+ "test_duration_seconds_bucket{le=\"+Inf\"} 2\n"
+				+ "test_duration_seconds_sum 20.003\n"
+				+ "test_duration_seconds_count 2\n"));
+	}
+
+	@Test
+	public void testRegisterTwice() {
+		MetricRegistry registry = new MetricRegistry();
+		Counter counter = registry.counter("test_total", "Test.");
+		counter.inc();
+		assertThat(registry.counter("test_total", "Test.").get(), is(1L));
+		registry.gauge("test_never_set", "Test.", "state");
+		assertThat(registry.scrape().contains("test_never_set"), is(false));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testRegisterWithOtherType() {
+		MetricRegistry registry = new MetricRegistry();
+		registry.counter("test_total", "Test.");
+		registry.gauge("test_total", "Test.");
+	}
+}
@@ -38,4 +38,11 @@ public class ReflectionUtilTest {
 		String rtnUid = (String) ReflectionUtils.getFieldValue(testUser, "userId");
 		assertThat(rtnUid, is("TMP_UID"));
 	}
+
+	@Test
+	public void testSetFieldValue() {
+		User testUser = new User();
+		ReflectionUtils.setFieldValue(testUser, "userId", "TMP_UID");
+		assertThat(testUser.getUserId(), is("TMP_UID"));
+	}
 }
@@ -0,0 +1,115 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ngrinder.monitor.controller.model;
+
+import net.grinder.engine.process.WorkerMetricsRecorder;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.ngrinder.common.util.ThreadUtils;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Properties;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+/**
+ * {@link WorkerMetrics} test.
+ *
+ * @author JunHo Yoon
+ * @since 3.4.1
+ */
+public class WorkerMetricsTest {
+	private File logDirectory;
+
+	@Before
+	public void before() {
+		logDirectory = new File(System.getProperty("java.io.tmpdir"), "worker_metrics");
+		logDirectory.mkdirs();
+	}
+
+	@After
+	public void after() {
+		FileUtils.deleteQuietly(logDirectory);
+	}
+
+	@Test
+	public void testRecordAndLoad() {
+		WorkerMetricsRecorder recorder = new WorkerMetricsRecorder(logDirectory, "agent-0-0");
+		File file = new File(logDirectory, "agent-0-0" + WorkerMetricsRecorder.FILE_EXTENSION);
+		recorder.recordReport(30, false);
+		recorder.recordReport(10, true);
+		recorder.recordDropped();
+		recorder.write();
+		// It's not written until the write interval is passed.
+		assertThat(file.exists(), is(false));
+
+		ThreadUtils.sleep(1100);
+		recorder.write();
+		WorkerMetrics metrics = WorkerMetrics.load(file);
+		assertThat(metrics, notNullValue());
+		assertThat(metrics.getName(), is("agent-0-0"));
+		assertThat(metrics.getHeapUsed() > 0, is(true));
+		assertThat(metrics.getHeapMax() >= metrics.getHeapUsed(), is(true));
+		assertThat(metrics.getThreads() > 0, is(true));
+		assertThat(metrics.getReportLatency(), is(10L));
+		assertThat(metrics.getMaxReportLatency(), is(30L));
+		assertThat(metrics.getLateReports(), is(1L));
+		assertThat(metrics.getDroppedReports(), is(1L));
+
+		recorder.delete();
+		assertThat(file.exists(), is(false));
+		assertThat(WorkerMetrics.load(file), nullValue());
+	}
+
+	@Test
+	public void testGetWorst() throws IOException {
+		WorkerMetrics idle = createMetrics("agent-0-0", 0F, 100, 1000, 10);
+		WorkerMetrics fullHeap = createMetrics("agent-0-1", 0F, 900, 1000, 10);
+		WorkerMetrics busyGc = createMetrics("agent-0-2", 5F, 100, 1000, 10);
+		WorkerMetrics late = createMetrics("agent-0-3", 0F, 100, 1000, 500);
+
+		assertThat(WorkerMetrics.getWorst(Collections.<WorkerMetrics>emptyList()), nullValue());
+		assertThat(WorkerMetrics.getWorst(Arrays.asList(idle, late)).getName(), is("agent-0-3"));
+		assertThat(WorkerMetrics.getWorst(Arrays.asList(idle, late, fullHeap)).getName(), is("agent-0-1"));
+		assertThat(WorkerMetrics.getWorst(Arrays.asList(idle, late, busyGc, fullHeap)).getName(), is("agent-0-2"));
+	}
+
+	private WorkerMetrics createMetrics(String name, float gcPercent, long heapUsed, long heapMax,
+										long maxReportLatency) throws IOException {
+		Properties properties = new Properties();
+		properties.setProperty(WorkerMetricsRecorder.KEY_COLLECT_TIME, String.valueOf(System.currentTimeMillis()));
+		properties.setProperty(WorkerMetricsRecorder.KEY_GC_PERCENT, String.valueOf(gcPercent));
+		properties.setProperty(WorkerMetricsRecorder.KEY_HEAP_USED, String.valueOf(heapUsed));
+		properties.setProperty(WorkerMetricsRecorder.KEY_HEAP_MAX, String.valueOf(heapMax));
+		properties.setProperty(WorkerMetricsRecorder.KEY_MAX_REPORT_LATENCY, String.valueOf(maxReportLatency));
+		File file = new File(logDirectory, name + WorkerMetricsRecorder.FILE_EXTENSION);
+		OutputStream out = new FileOutputStream(file);
+		try {
+			properties.store(out, null);
+		} finally {
+			out.close();
+		}
+		return WorkerMetrics.load(file);
+	}
+}
@@ -19,6 +19,7 @@ import net.grinder.engine.process.NullStatement;
 import net.grinder.script.Grinder;
 import net.grinder.scriptengine.groovy.GroovyScriptEngine.GroovyScriptExecutionException;
 import net.grinder.scriptengine.groovy.junit.GrinderRunner;
+import net.grinder.scriptengine.groovy.junit.IterationPlan;
 
 import org.junit.runner.Description;
 import org.junit.runner.notification.RunNotifier;
@@ -36,6 +37,9 @@ import org.junit.runners.model.Statement;
  * @since 3.2
  */
 public class GrinderContextExecutor extends GrinderRunner {
+	private IterationPlan iterationPlan;
+	private boolean iterationPlanPrepared = false;
+
 	/**
 	 * Constructor.
 	 *
@@ -75,6 +79,37 @@ public class GrinderContextExecutor extends GrinderRunner {
 		noOp();
 	}
 
+	/**
+	 * Run the test methods once.
+	 *
+	 * If the test class allows it, the test methods are invoked through the {@link IterationPlan}
+	 * which is prepared at the first run. Otherwise, it falls back to the JUnit {@link Statement}
+	 * chain. The flat plan can be disabled by setting <code>grinder.script.iterationPlan</code> false.
+	 *
+	 * @param notifier notifier
+	 */
+	@Override
+	public void run(RunNotifier notifier) {
+		if (!iterationPlanPrepared) {
+			iterationPlan = isIterationPlanEnabled() ? createIterationPlan() : null;
+			iterationPlanPrepared = true;
+		}
+		if (iterationPlan == null) {
+			super.run(notifier);
+			return;
+		}
+		iterationPlan.run(notifier, iterationPlan.isRunRateUsed() ? Grinder.grinder.getRunNumber() : 0);
+	}
+
+	/**
+	 * Stop the current iteration if it's running on the {@link IterationPlan}.
+	 */
+	public void pleaseStop() {
+		if (iterationPlan != null) {
+			iterationPlan.pleaseStop();
+		}
+	}
+
 	/**
 	 * Run {@link net.grinder.scriptengine.groovy.junit.annotation.BeforeProcess} annotated methods.
 	 *
@@ -148,6 +183,14 @@ public class GrinderContextExecutor extends GrinderRunner {
 		return description.testCount() > 1 && !isScriptValidation();
 	}
 
+	private boolean isIterationPlanEnabled() {
+		try {
+			return Grinder.grinder.getProperties().getBoolean("grinder.script.iterationPlan", true);
+		} catch (Exception e) {
+			return true;
+		}
+	}
+
 	private boolean isScriptValidation() {
 		try {
 			return Grinder.grinder.getProperties().getBoolean("grinder.script.validation", false);
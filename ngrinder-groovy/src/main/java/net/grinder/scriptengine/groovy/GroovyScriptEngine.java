@@ -156,6 +156,7 @@ public class GroovyScriptEngine implements ScriptEngine {
 		@Override
 		public void shutdown() throws ScriptExecutionException {
 			notifier.pleaseStop();
+			this.m_groovyThreadRunner.pleaseStop();
 			this.m_groovyThreadRunner.runAfterThread();
 		}
 	}
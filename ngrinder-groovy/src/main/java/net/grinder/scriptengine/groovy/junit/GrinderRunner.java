@@ -14,6 +14,7 @@
 package net.grinder.scriptengine.groovy.junit;
 
 import java.lang.annotation.Annotation;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -29,12 +30,17 @@ import net.grinder.scriptengine.groovy.junit.annotation.BeforeThread;
 import net.grinder.scriptengine.groovy.junit.annotation.Repeat;
 import net.grinder.scriptengine.groovy.junit.annotation.RunRate;
 
+import org.junit.After;
 import org.junit.AfterClass;
+import org.junit.Before;
 import org.junit.BeforeClass;
+import org.junit.Ignore;
 import org.junit.Rule;
+import org.junit.Test;
 import org.junit.internal.AssumptionViolatedException;
 import org.junit.internal.runners.model.EachTestNotifier;
 import org.junit.internal.runners.model.MultipleFailureException;
+import org.junit.internal.runners.statements.Fail;
 import org.junit.internal.runners.statements.RunAfters;
 import org.junit.internal.runners.statements.RunBefores;
 import org.junit.rules.MethodRule;
@@ -241,6 +247,42 @@ public class GrinderRunner extends BlockJUnit4ClassRunner {
 		return statement;
 	}
 
+	/**
+	 * Create the flat {@link IterationPlan} of the test methods which bypasses the {@link Statement}
+	 * chain built by {@link #methodBlock(FrameworkMethod)}.
+	 *
+	 * The plan is not available when the test class relies on the features which only the
+	 * {@link Statement} chain supports, such as expected exceptions, timeouts and rules.
+	 *
+	 * @return created plan. null if the test class can not be run by the plan.
+	 * @since 3.4.1
+	 */
+	public IterationPlan createIterationPlan() {
+		Object testObject = testTargetFactory.getTestObject();
+		if (testObject instanceof Fail) {
+			return null;
+		}
+		TestClass testClass = getTestClass();
+		if (!testClass.getAnnotatedFieldValues(testObject, Rule.class, MethodRule.class).isEmpty()) {
+			return null;
+		}
+		boolean runRateEnabled = isRateRunnerEnabled();
+		List<IterationPlan.Step> steps = new ArrayList<IterationPlan.Step>();
+		for (FrameworkMethod each : getChildren()) {
+			Test test = each.getAnnotation(Test.class);
+			if (test == null || test.expected() != Test.None.class || test.timeout() > 0) {
+				return null;
+			}
+			if (each.getAnnotation(Ignore.class) != null) {
+				continue;
+			}
+			RunRate runRate = runRateEnabled ? each.getAnnotation(RunRate.class) : null;
+			steps.add(new IterationPlan.Step(each, describeChild(each), runRate == null ? 100 : runRate.value()));
+		}
+		return new IterationPlan(testObject, testClass.getAnnotatedMethods(Before.class),
+				testClass.getAnnotatedMethods(After.class), steps);
+	}
+
 	protected Statement withRunRate(FrameworkMethod method, @SuppressWarnings("UnusedParameters") Object target, Statement statement) {
 		RunRate runRate = method.getAnnotation(RunRate.class);
 		return runRate == null ? statement : new RunRateStatement(statement, runRate.value());
@@ -0,0 +1,182 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.grinder.scriptengine.groovy.junit;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.internal.AssumptionViolatedException;
+import org.junit.internal.runners.model.EachTestNotifier;
+import org.junit.internal.runners.model.MultipleFailureException;
+import org.junit.runner.Description;
+import org.junit.runner.notification.RunNotifier;
+import org.junit.runners.model.FrameworkMethod;
+
+/**
+ * Flat invocation plan of the {@link org.junit.Test} annotated methods for a single worker thread.
+ *
+ * Each {@link org.junit.Test} method is pre-bound with its {@link org.junit.Before} and
+ * {@link org.junit.After} methods and its {@link net.grinder.scriptengine.groovy.junit.annotation.RunRate}.
+ * The plan invokes them directly on the test object without building the JUnit {@link org.junit.runners.model.Statement}
+ * chain and without firing the started / finished events. The given {@link RunNotifier} is used only
+ * when a test fails.
+ *
+ * The plan is created by {@link GrinderRunner#createIterationPlan()} only when the test class uses
+ * nothing but the features above.
+ *
+ * @author JunHo Yoon
+ * @since 3.4.1
+ */
+public class IterationPlan {
+	private final Object testObject;
+	private final FrameworkMethod[] befores;
+	private final FrameworkMethod[] afters;
+	private final Step[] steps;
+	private final boolean runRateUsed;
+	private volatile boolean stopped = false;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param testObject test object on which all methods are invoked
+	 * @param befores    {@link org.junit.Before} annotated methods
+	 * @param afters     {@link org.junit.After} annotated methods
+	 * @param steps      steps to be executed in each iteration
+	 */
+	IterationPlan(Object testObject, List<FrameworkMethod> befores, List<FrameworkMethod> afters, List<Step> steps) {
+		this.testObject = testObject;
+		this.befores = befores.toArray(new FrameworkMethod[befores.size()]);
+		this.afters = afters.toArray(new FrameworkMethod[afters.size()]);
+		this.steps = steps.toArray(new Step[steps.size()]);
+		boolean runRate = false;
+		for (Step each : this.steps) {
+			runRate = runRate || each.runRate < 100;
+		}
+		this.runRateUsed = runRate;
+	}
+
+	/**
+	 * Check if any step has the run rate less than 100. The caller can skip the run number lookup
+	 * if not.
+	 *
+	 * @return true if run rate is used
+	 */
+	public boolean isRunRateUsed() {
+		return runRateUsed;
+	}
+
+	/**
+	 * Get the count of the steps.
+	 *
+	 * @return step count
+	 */
+	public int getStepCount() {
+		return steps.length;
+	}
+
+	/**
+	 * Stop the plan. The remaining steps of the current iteration are skipped.
+	 */
+	public void pleaseStop() {
+		stopped = true;
+	}
+
+	/**
+	 * Run one iteration.
+	 *
+	 * @param notifier  notifier to which the failures are reported
+	 * @param runNumber current run number. It's used to apply the run rate.
+	 */
+	public void run(RunNotifier notifier, int runNumber) {
+		for (Step each : steps) {
+			if (stopped) {
+				return;
+			}
+			if (!RunRateStatement.isRunnable(runNumber, each.runRate)) {
+				continue;
+			}
+			Throwable error = invoke(each.method);
+			if (error != null) {
+				fireFailure(notifier, each.description, error);
+			}
+		}
+	}
+
+	/**
+	 * Invoke the befores, the given method and the afters in the same manner as
+	 * {@link org.junit.internal.runners.statements.RunBefores} and
+	 * {@link org.junit.internal.runners.statements.RunAfters}.
+	 *
+	 * @param method method to be invoked
+	 * @return occurred error. null if none.
+	 */
+	private Throwable invoke(FrameworkMethod method) {
+		List<Throwable> errors = null;
+		try {
+			for (FrameworkMethod each : befores) {
+				each.invokeExplosively(testObject);
+			}
+			method.invokeExplosively(testObject);
+		} catch (Throwable e) {
+			errors = new ArrayList<Throwable>(1);
+			errors.add(e);
+		} finally {
+			for (FrameworkMethod each : afters) {
+				try {
+					each.invokeExplosively(testObject);
+				} catch (Throwable e) {
+					if (errors == null) {
+						errors = new ArrayList<Throwable>(1);
+					}
+					errors.add(e);
+				}
+			}
+		}
+		if (errors == null) {
+			return null;
+		}
+		return errors.size() == 1 ? errors.get(0) : new MultipleFailureException(errors);
+	}
+
+	private void fireFailure(RunNotifier notifier, Description description, Throwable error) {
+		EachTestNotifier eachNotifier = new EachTestNotifier(notifier, description);
+		if (error instanceof AssumptionViolatedException) {
+			eachNotifier.addFailedAssumption((AssumptionViolatedException) error);
+		} else {
+			eachNotifier.addFailure(error);
+		}
+	}
+
+	/**
+	 * Single {@link org.junit.Test} method execution.
+	 */
+	static class Step {
+		private final FrameworkMethod method;
+		private final Description description;
+		private final int runRate;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param method      test method
+		 * @param description test description used for the failure report
+		 * @param runRate     run rate from 0 to 100
+		 */
+		Step(FrameworkMethod method, Description description, int runRate) {
+			this.method = method;
+			this.description = description;
+			this.runRate = Math.max(Math.min(runRate, 100), 0);
+		}
+	}
+}
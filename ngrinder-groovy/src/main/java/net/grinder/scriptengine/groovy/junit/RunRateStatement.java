@@ -29,8 +29,7 @@ import org.junit.runners.model.Statement;
 public class RunRateStatement extends Statement {
 
 	private final Statement statement;
-	private float interval;
-	private float percent;
+	private final int runRate;
 
 	/**
 	 * Constructor.
@@ -40,21 +39,34 @@ public class RunRateStatement extends Statement {
 	 */
 	public RunRateStatement(Statement statement, int runRate) {
 		this.statement = statement;
-		runRate = Math.max(Math.min(runRate, 100), 0);
-		this.interval = 100f / runRate;
-		this.percent = (runRate / 100f) + 0.000000012f;
-
+		this.runRate = Math.max(Math.min(runRate, 100), 0);
 	}
 
 	@Override
 	public void evaluate() throws Throwable {
-		if (checkRun(Grinder.grinder.getRunNumber())) {
+		if (isRunnable(Grinder.grinder.getRunNumber(), runRate)) {
 			statement.evaluate();
 		}
 	}
 
-	private boolean checkRun(int i) {
-		float f = i / interval;
-		return (((int) f) != (int) (f + percent));
+	/**
+	 * Check if the test having the given run rate should be executed in the given run.
+	 *
+	 * The runs are spread evenly, so exactly <code>runRate</code> runs out of each 100 consecutive
+	 * runs are selected.
+	 *
+	 * @param runNumber	run number starting from 0
+	 * @param runRate	the percent of run, 0 to 100
+	 * @return true if runnable
+	 * @since 3.4.1
+	 */
+	public static boolean isRunnable(int runNumber, int runRate) {
+		if (runRate >= 100) {
+			return true;
+		} else if (runRate <= 0) {
+			return false;
+		}
+		long run = runNumber;
+		return ((run + 1) * runRate) / 100 != (run * runRate) / 100;
 	}
 }
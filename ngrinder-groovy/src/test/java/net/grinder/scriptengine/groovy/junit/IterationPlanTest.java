@@ -0,0 +1,119 @@
+package net.grinder.scriptengine.groovy.junit;
+
+import net.grinder.scriptengine.groovy.junit.annotation.Repeat;
+import net.grinder.scriptengine.groovy.junit.annotation.RunRate;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.notification.Failure;
+import org.junit.runner.notification.RunListener;
+import org.junit.runner.notification.RunNotifier;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class IterationPlanTest {
+
+	@Test
+	public void testRunRate() {
+		for (int rate = 0; rate <= 100; rate++) {
+			int count = 0;
+			for (int i = 0; i < 100; i++) {
+				if (RunRateStatement.isRunnable(i, rate)) {
+					count++;
+				}
+			}
+			assertThat(count, is(rate));
+		}
+		assertThat(RunRateStatement.isRunnable(Integer.MAX_VALUE, 99), is(true));
+	}
+
+	@Test
+	public void testIterationPlanRun() throws Exception {
+		IterationPlan plan = new GrinderRunner(PlanSample.class).createIterationPlan();
+		assertThat(plan, notNullValue());
+		assertThat(plan.getStepCount(), is(3));
+		assertThat(plan.isRunRateUsed(), is(true));
+
+		final List<Failure> failures = new ArrayList<Failure>();
+		RunNotifier notifier = new RunNotifier();
+		notifier.addListener(new RunListener() {
+			@Override
+			public void testFailure(Failure failure) throws Exception {
+				failures.add(failure);
+			}
+		});
+		PlanSample.reset();
+		for (int i = 0; i < 10; i++) {
+			plan.run(notifier, i);
+		}
+		assertThat(PlanSample.halfCount, is(5));
+		assertThat(PlanSample.fullCount, is(10));
+		assertThat(PlanSample.beforeCount, is(25));
+		assertThat(PlanSample.afterCount, is(25));
+		assertThat(failures.size(), is(10));
+		assertThat(failures.get(0).getDescription().getMethodName(), is("fail"));
+
+		plan.pleaseStop();
+		plan.run(notifier, 10);
+		assertThat(PlanSample.fullCount, is(10));
+	}
+
+	@Test
+	public void testIterationPlanNotAvailable() throws Exception {
+		assertThat(new GrinderRunner(ExpectedSample.class).createIterationPlan(), nullValue());
+	}
+
+	@Repeat(10)
+	public static class PlanSample {
+		static int beforeCount;
+		static int afterCount;
+		static int halfCount;
+		static int fullCount;
+
+		static void reset() {
+			beforeCount = 0;
+			afterCount = 0;
+			halfCount = 0;
+			fullCount = 0;
+		}
+
+		@Before
+		public void before() {
+			beforeCount++;
+		}
+
+		@RunRate(50)
+		@Test
+		public void half() {
+			halfCount++;
+		}
+
+		@Test
+		public void full() {
+			fullCount++;
+		}
+
+		@Test
+		public void fail() {
+			throw new IllegalStateException("fail");
+		}
+
+		@After
+		public void after() {
+			afterCount++;
+		}
+	}
+
+	public static class ExpectedSample {
+		@Test(expected = IllegalStateException.class)
+		public void expected() {
+			throw new IllegalStateException("expected");
+		}
+	}
+}
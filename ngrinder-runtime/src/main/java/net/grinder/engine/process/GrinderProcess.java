@@ -37,6 +37,7 @@ import net.grinder.engine.common.EngineException;
 import net.grinder.engine.communication.ConsoleListener;
 import net.grinder.engine.messages.InitialiseGrinderMessage;
 import net.grinder.engine.process.dcr.DCRContextImplementation;
+import net.grinder.messages.console.CompactReportStatisticsMessage;
 import net.grinder.messages.console.RegisterTestsMessage;
 import net.grinder.messages.console.ReportStatisticsMessage;
 import net.grinder.messages.console.WorkerAddress;
@@ -58,16 +59,23 @@ import net.grinder.util.*;
 import net.grinder.util.ListenerSupport.Informer;
 import net.grinder.util.thread.BooleanCondition;
 import net.grinder.util.thread.Condition;
+import org.ngrinder.dns.DnsCache;
+import org.ngrinder.dns.NameStore;
 import org.slf4j.ILoggerFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
+import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
 import java.net.UnknownHostException;
 import java.text.SimpleDateFormat;
 import java.util.*;
 
+import javax.management.ObjectName;
+
 /**
  * The controller for a worker process.
  * <p/>
@@ -82,11 +90,14 @@ import java.util.*;
  */
 final class GrinderProcess {
 
+	private static final String HOTSPOT_DIAGNOSTIC = "com.sun.management:type=HotSpotDiagnostic";
+
 	private final Logger m_terminalLogger;
 	private Logger m_logger = null;
 	private final Logger m_dataLogger;
 	private final LoggerContext m_logbackLoggerContext;
 	private final boolean m_reportTimesToConsole;
+	private final boolean m_compactReportToConsole;
 	private final QueuedSender m_consoleSender;
 	private final Sleeper m_sleeper;
 	private final InitialiseGrinderMessage m_initialisationMessage;
@@ -97,6 +108,7 @@ final class GrinderProcess {
 	private final TestRegistryImplementation m_testRegistryImplementation;
 	private final Condition m_eventSynchronisation = new Condition();
 	private final MessagePump m_messagePump;
+	private final WorkerMetricsRecorder m_workerMetricsRecorder;
 
 	private final ThreadStarter m_invalidThreadStarter = new InvalidThreadStarter();
 
@@ -128,6 +140,9 @@ final class GrinderProcess {
 			}
 
 			final GrinderProperties properties = m_initialisationMessage.getProperties();
+			// The pre-started worker process gets the system properties of the test here.
+			setSystemProperties(properties.getProperty("grinder.worker.systemProperties", ""));
+			NameStore.refresh();
 
 			final WorkerIdentity workerIdentity = m_initialisationMessage.getWorkerIdentity();
 
@@ -137,10 +152,13 @@ final class GrinderProcess {
 			m_terminalLogger = LoggerFactory.getLogger(workerName);
 
 			m_reportTimesToConsole = properties.getBoolean("grinder.reportTimesToConsole", true);
+			m_compactReportToConsole = properties.getBoolean("grinder.reportToConsole.compact", true);
 
 			m_logbackLoggerContext = configureLogging(workerName, logDirectory);
 			m_logger = LoggerFactory.getLogger("worker." + workerName);
 			m_dataLogger = LoggerFactory.getLogger("data");
+			m_workerMetricsRecorder = new WorkerMetricsRecorder(new File(logDirectory), workerName);
+			setHeapDumpPath(new File(logDirectory));
 
 			m_logger.info("The Grinder version {}", GrinderBuild.getVersionString());
 			m_logger.info(JVM.getInstance().toString());
@@ -240,6 +258,38 @@ final class GrinderProcess {
 		}
 	}
 
+	/**
+	 * Set the given system properties which are in the form of key=value separated by the new line.
+	 * The property given without the value is cleared.
+	 */
+	static void setSystemProperties(String systemProperties) {
+		for (String each : systemProperties.split("\n")) {
+			int index = each.indexOf('=');
+			if (index > 0) {
+				System.setProperty(each.substring(0, index), each.substring(index + 1));
+			} else if (each.length() > 0) {
+				System.clearProperty(each);
+			}
+		}
+	}
+
+	/**
+	 * Point the heap dump path to the log directory of the test. The process taken from the pool of
+	 * the pre-started processes is started with the log directory of the previous test.
+	 */
+	private void setHeapDumpPath(File logDirectory) {
+		if (!ManagementFactory.getRuntimeMXBean().getInputArguments().contains("-XX:+HeapDumpOnOutOfMemoryError")) {
+			return;
+		}
+		try {
+			ManagementFactory.getPlatformMBeanServer().invoke(new ObjectName(HOTSPOT_DIAGNOSTIC),
+					"setVMOption", new Object[]{"HeapDumpPath", logDirectory.getAbsolutePath()},
+					new String[]{String.class.getName(), String.class.getName()});
+		} catch (Exception e) {
+			m_logger.warn("Failed to set the heap dump path : {}", e.getMessage());
+		}
+	}
+
 	private LoggerContext configureLogging(final String workerName, final String logDirectory) throws EngineException {
 
 		final ILoggerFactory iLoggerFactory = LoggerFactory.getILoggerFactory();
@@ -371,7 +421,8 @@ final class GrinderProcess {
 
 			m_logger.info("Start time is {} ms since Epoch", m_times.getExecutionStartTime());
 
-			final TimerTask reportTimerTask = new ReportToConsoleTimerTask(threadSynchronisation);
+			final ReportToConsoleTimerTask reportTimerTask = new ReportToConsoleTimerTask(threadSynchronisation,
+					reportToConsoleInterval);
 			final TimerTask shutdownTimerTask = new ShutdownTimerTask();
 
 			// Schedule a regular statistics report to the console. We don't
@@ -380,7 +431,7 @@ final class GrinderProcess {
 
 			// First (empty) report to console to start it recording if its
 			// not already.
-			reportTimerTask.run();
+			reportTimerTask.report(false);
 
 			final Timer timer = new Timer(true);
 
@@ -442,13 +493,14 @@ final class GrinderProcess {
 			scriptEngine.shutdown();
 
 			// Final report to the console.
-			reportTimerTask.run();
+			reportTimerTask.report(false);
 
 			if (!m_communicationShutdown) {
 				sendStatusMessage(ProcessReport.STATE_FINISHED, (short) 0, (short) 0);
 			}
 
 			m_consoleSender.shutdown();
+			m_workerMetricsRecorder.delete();
 
 			final long elapsedTime = m_times.getElapsedTime();
 			m_logger.info("elapsed time is {} ms", elapsedTime);
@@ -464,6 +516,10 @@ final class GrinderProcess {
 			statisticsTable.print(new PrintWriter(statistics), elapsedTime);
 			m_logger.info(statistics.toString());
 
+			if (DnsCache.getInstance().getLookupCount() > 0) {
+				m_logger.info(DnsCache.getInstance().toString());
+			}
+
 			timer.cancel();
 
 			m_terminalLogger.info("Finished");
@@ -495,16 +551,37 @@ final class GrinderProcess {
 		}
 	}
 
+	private Message createReportStatisticsMessage(TestStatisticsMap sample) {
+		if (m_compactReportToConsole) {
+			try {
+				return new CompactReportStatisticsMessage(sample);
+			} catch (IOException e) {
+				m_terminalLogger.debug("Failed to encode the statistics. Fall back to the default report.", e);
+			}
+		}
+		return new ReportStatisticsMessage(sample);
+	}
+
 	private class ReportToConsoleTimerTask extends TimerTask {
 		private final ThreadSynchronisation m_threads;
+		private final int m_interval;
 
-		public ReportToConsoleTimerTask(final ThreadSynchronisation threads) {
+		public ReportToConsoleTimerTask(final ThreadSynchronisation threads, final int interval) {
 			m_threads = threads;
+			m_interval = interval;
 		}
 
 		@Override
 		public void run() {
-			if (!m_communicationShutdown) {
+			// A report started later than its interval tells the worker JVM is stalled.
+			report(System.currentTimeMillis() - scheduledExecutionTime() > m_interval);
+		}
+
+		public void report(final boolean late) {
+			final long startTime = System.currentTimeMillis();
+			if (m_communicationShutdown) {
+				m_workerMetricsRecorder.recordDropped();
+			} else {
 				try {
 					final TestStatisticsMap sample = m_testRegistryImplementation.getTestStatisticsMap().reset();
 					m_accumulatedStatistics.add(sample);
@@ -522,17 +599,20 @@ final class GrinderProcess {
 							m_testStatisticsHelper.removeTestTimeFromSample(sample);
 						}
 
-						m_consoleSender.send(new ReportStatisticsMessage(sample));
+						m_consoleSender.send(createReportStatisticsMessage(sample));
 					}
 
 					sendStatusMessage(ProcessReport.STATE_RUNNING, m_threads.getNumberOfRunningThreads(),
 							m_threads.getTotalNumberOfThreads());
+					m_workerMetricsRecorder.recordReport(System.currentTimeMillis() - startTime, late);
 				} catch (final CommunicationException e) {
 					m_terminalLogger.info("Report to console failed", e);
 
 					m_communicationShutdown = true;
+					m_workerMetricsRecorder.recordDropped();
 				}
 			}
+			m_workerMetricsRecorder.write();
 		}
 	}
 
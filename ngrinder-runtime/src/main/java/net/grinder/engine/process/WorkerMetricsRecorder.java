@@ -0,0 +1,157 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.grinder.engine.process;
+
+import org.apache.commons.io.IOUtils;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.util.Properties;
+
+/**
+ * Records the JVM and the report metrics of a worker process into a file in the log directory.
+ *
+ * The agent reads the files of the running workers and ships them with its periodic status. The
+ * file is rewritten at most once per {@link #WRITE_INTERVAL} and deleted when the worker finishes.
+ *
+ * @author JunHo Yoon
+ * @since 3.4.1
+ */
+public final class WorkerMetricsRecorder {
+	/**
+	 * Extension of the metrics file. The file is named after the worker.
+	 */
+	public static final String FILE_EXTENSION = ".metrics";
+
+	public static final String KEY_COLLECT_TIME = "collectTime";
+	public static final String KEY_HEAP_USED = "heapUsed";
+	public static final String KEY_HEAP_MAX = "heapMax";
+	public static final String KEY_GC_COUNT = "gcCount";
+	public static final String KEY_GC_TIME = "gcTime";
+	public static final String KEY_GC_PERCENT = "gcPercent";
+	public static final String KEY_THREADS = "threads";
+	public static final String KEY_REPORT_LATENCY = "reportLatency";
+	public static final String KEY_MAX_REPORT_LATENCY = "maxReportLatency";
+	public static final String KEY_LATE_REPORTS = "lateReports";
+	public static final String KEY_DROPPED_REPORTS = "droppedReports";
+
+	private static final long WRITE_INTERVAL = 1000;
+
+	private final File file;
+
+	private long lastWriteTime;
+	private long lastGcTime;
+	private long reportLatency;
+	private long maxReportLatency;
+	private long lateReports;
+	private long droppedReports;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param logDirectory log directory of the worker
+	 * @param workerName   worker name
+	 */
+	public WorkerMetricsRecorder(File logDirectory, String workerName) {
+		this.file = new File(logDirectory, workerName + FILE_EXTENSION);
+		this.lastWriteTime = System.currentTimeMillis();
+		this.lastGcTime = getGcTotal()[1];
+	}
+
+	/**
+	 * Record a report sent to the console.
+	 *
+	 * @param latency time taken to take and send the report in ms
+	 * @param late    true if the report is started later than its interval
+	 */
+	public synchronized void recordReport(long latency, boolean late) {
+		reportLatency = latency;
+		maxReportLatency = Math.max(maxReportLatency, latency);
+		if (late) {
+			lateReports++;
+		}
+	}
+
+	/**
+	 * Record a report which is not sent to the console.
+	 */
+	public synchronized void recordDropped() {
+		droppedReports++;
+	}
+
+	/**
+	 * Write the metrics if {@link #WRITE_INTERVAL} is passed since the last write. The max report
+	 * latency is reset on each write.
+	 */
+	public synchronized void write() {
+		long now = System.currentTimeMillis();
+		if (now - lastWriteTime < WRITE_INTERVAL) {
+			return;
+		}
+		MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+		long[] gc = getGcTotal();
+		Properties properties = new Properties();
+		properties.setProperty(KEY_COLLECT_TIME, String.valueOf(now));
+		properties.setProperty(KEY_HEAP_USED, String.valueOf(heap.getUsed()));
+		properties.setProperty(KEY_HEAP_MAX, String.valueOf(heap.getMax() < 0 ? heap.getCommitted() : heap.getMax()));
+		properties.setProperty(KEY_GC_COUNT, String.valueOf(gc[0]));
+		properties.setProperty(KEY_GC_TIME, String.valueOf(gc[1]));
+		properties.setProperty(KEY_GC_PERCENT, String.valueOf(Math.min(100F,
+				(gc[1] - lastGcTime) * 100F / (now - lastWriteTime))));
+		properties.setProperty(KEY_THREADS, String.valueOf(ManagementFactory.getThreadMXBean().getThreadCount()));
+		properties.setProperty(KEY_REPORT_LATENCY, String.valueOf(reportLatency));
+		properties.setProperty(KEY_MAX_REPORT_LATENCY, String.valueOf(maxReportLatency));
+		properties.setProperty(KEY_LATE_REPORTS, String.valueOf(lateReports));
+		properties.setProperty(KEY_DROPPED_REPORTS, String.valueOf(droppedReports));
+		lastWriteTime = now;
+		lastGcTime = gc[1];
+		maxReportLatency = 0;
+		// The agent may read the file at any time, so it's replaced at once.
+		File temp = new File(file.getPath() + ".tmp");
+		OutputStream out = null;
+		try {
+			out = new FileOutputStream(temp);
+			properties.store(out, null);
+			out.close();
+			if (!temp.renameTo(file) && (!file.delete() || !temp.renameTo(file))) {
+				temp.delete();
+			}
+		} catch (IOException e) {
+			IOUtils.closeQuietly(out);
+			temp.delete();
+		}
+	}
+
+	/**
+	 * Delete the metrics file.
+	 */
+	public synchronized void delete() {
+		file.delete();
+	}
+
+	private static long[] getGcTotal() {
+		long count = 0;
+		long time = 0;
+		for (GarbageCollectorMXBean each : ManagementFactory.getGarbageCollectorMXBeans()) {
+			count += Math.max(each.getCollectionCount(), 0);
+			time += Math.max(each.getCollectionTime(), 0);
+		}
+		return new long[]{count, time};
+	}
+}
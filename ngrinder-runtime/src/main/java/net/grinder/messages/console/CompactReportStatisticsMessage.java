@@ -0,0 +1,455 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.grinder.messages.console;
+
+import net.grinder.communication.Address;
+import net.grinder.communication.AddressAwareMessage;
+import net.grinder.statistics.TestStatisticsMap;
+
+import java.io.*;
+
+/**
+ * Compact version of {@link ReportStatisticsMessage}.
+ *
+ * The statistics delta is written by its own {@link Externalizable} implementation, but every
+ * int and long is packed as the zig-zag varint and every double is packed as the varint of its
+ * bit-reversed representation. Because the reported statistics are the delta of the last
+ * report interval, most of the counters take only one or two bytes. The message is
+ * {@link Externalizable} itself, so the console reads only a single byte array per report
+ * instead of the object graph.
+ *
+ * The message also carries the time when the worker took the sample, and the console sets the
+ * address of the worker which sent it. So the console can put the report into the interval in
+ * which it was sampled and attribute it to the agent.
+ *
+ * @author JunHo Yoon
+ * @since 3.4.1
+ */
+public final class CompactReportStatisticsMessage implements AddressAwareMessage, Externalizable {
+
+	private static final long serialVersionUID = 2L;
+
+	private byte[] m_payload;
+
+	private long m_sendTime;
+
+	private transient WorkerAddress m_workerAddress;
+
+	private transient TestStatisticsMap m_statisticsDelta;
+
+	/**
+	 * Constructor for the deserialization.
+	 */
+	public CompactReportStatisticsMessage() {
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param statisticsDelta statistics delta
+	 * @throws IOException when the statistics can not be encoded.
+	 */
+	public CompactReportStatisticsMessage(TestStatisticsMap statisticsDelta) throws IOException {
+		CompactOutput output = new CompactOutput();
+		statisticsDelta.writeExternal(output);
+		m_payload = output.toByteArray();
+		m_statisticsDelta = statisticsDelta;
+		m_sendTime = System.currentTimeMillis();
+	}
+
+	/**
+	 * Get the statistics delta. It's decoded on the first call.
+	 *
+	 * @return statistics delta
+	 */
+	public TestStatisticsMap getStatisticsDelta() {
+		if (m_statisticsDelta == null) {
+			TestStatisticsMap statisticsDelta = new TestStatisticsMap();
+			try {
+				statisticsDelta.readExternal(new CompactInput(m_payload));
+			} catch (IOException e) {
+				throw new IllegalStateException("Failed to decode the statistics report", e);
+			} catch (ClassNotFoundException e) {
+				throw new IllegalStateException("Failed to decode the statistics report", e);
+			}
+			m_statisticsDelta = statisticsDelta;
+		}
+		return m_statisticsDelta;
+	}
+
+	/**
+	 * Get the size of the encoded statistics.
+	 *
+	 * @return byte size
+	 */
+	public int getPayloadSize() {
+		return m_payload.length;
+	}
+
+	/**
+	 * Get the time when the sample was taken in the worker's clock.
+	 *
+	 * @return send time in millisecond
+	 */
+	public long getSendTime() {
+		return m_sendTime;
+	}
+
+	/**
+	 * Get the address of the worker which sent this report.
+	 *
+	 * @return worker address. null if it's not received through the console communication.
+	 */
+	public WorkerAddress getWorkerAddress() {
+		return m_workerAddress;
+	}
+
+	@Override
+	public void setAddress(Address address) {
+		if (address instanceof WorkerAddress) {
+			m_workerAddress = (WorkerAddress) address;
+		}
+	}
+
+	@Override
+	public void writeExternal(ObjectOutput out) throws IOException {
+		out.writeLong(m_sendTime);
+		out.writeInt(m_payload.length);
+		out.write(m_payload);
+	}
+
+	@Override
+	public void readExternal(ObjectInput in) throws IOException {
+		m_sendTime = in.readLong();
+		m_payload = new byte[in.readInt()];
+		in.readFully(m_payload);
+		m_statisticsDelta = null;
+	}
+
+	/**
+	 * {@link ObjectOutput} which packs the numbers as varints.
+	 */
+	static final class CompactOutput implements ObjectOutput {
+		private final ByteArrayOutputStream m_buffer = new ByteArrayOutputStream(256);
+
+		byte[] toByteArray() {
+			return m_buffer.toByteArray();
+		}
+
+		private void writeVarLong(long value) {
+			while ((value & ~0x7FL) != 0) {
+				m_buffer.write((int) ((value & 0x7F) | 0x80));
+				value >>>= 7;
+			}
+			m_buffer.write((int) value);
+		}
+
+		private void writeZigZag(long value) {
+			writeVarLong((value << 1) ^ (value >> 63));
+		}
+
+		@Override
+		public void write(int b) {
+			m_buffer.write(b);
+		}
+
+		@Override
+		public void write(byte[] b) {
+			m_buffer.write(b, 0, b.length);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			m_buffer.write(b, off, len);
+		}
+
+		@Override
+		public void writeBoolean(boolean v) {
+			m_buffer.write(v ? 1 : 0);
+		}
+
+		@Override
+		public void writeByte(int v) {
+			m_buffer.write(v);
+		}
+
+		@Override
+		public void writeShort(int v) {
+			writeZigZag((short) v);
+		}
+
+		@Override
+		public void writeChar(int v) {
+			writeVarLong((char) v);
+		}
+
+		@Override
+		public void writeInt(int v) {
+			writeZigZag(v);
+		}
+
+		@Override
+		public void writeLong(long v) {
+			writeZigZag(v);
+		}
+
+		@Override
+		public void writeFloat(float v) {
+			writeVarLong(Integer.reverse(Float.floatToIntBits(v)) & 0xFFFFFFFFL);
+		}
+
+		@Override
+		public void writeDouble(double v) {
+			writeVarLong(Long.reverse(Double.doubleToLongBits(v)));
+		}
+
+		@Override
+		public void writeBytes(String s) {
+			for (int i = 0; i < s.length(); i++) {
+				m_buffer.write(s.charAt(i));
+			}
+		}
+
+		@Override
+		public void writeChars(String s) {
+			for (int i = 0; i < s.length(); i++) {
+				writeChar(s.charAt(i));
+			}
+		}
+
+		@Override
+		public void writeUTF(String s) throws IOException {
+			byte[] bytes = s.getBytes("UTF-8");
+			writeVarLong(bytes.length);
+			write(bytes);
+		}
+
+		@Override
+		public void writeObject(Object obj) throws IOException {
+			// Not used by the statistics. Fall back to the java serialization.
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			ObjectOutputStream objectOutputStream = new ObjectOutputStream(bytes);
+			objectOutputStream.writeObject(obj);
+			objectOutputStream.close();
+			writeVarLong(bytes.size());
+			write(bytes.toByteArray());
+		}
+
+		@Override
+		public void flush() {
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+
+	/**
+	 * {@link ObjectInput} which reads what {@link CompactOutput} writes.
+	 */
+	static final class CompactInput implements ObjectInput {
+		private final byte[] m_bytes;
+		private int m_position;
+
+		CompactInput(byte[] bytes) {
+			m_bytes = bytes;
+		}
+
+		private int readRaw() throws EOFException {
+			if (m_position >= m_bytes.length) {
+				throw new EOFException();
+			}
+			return m_bytes[m_position++] & 0xFF;
+		}
+
+		private long readVarLong() throws IOException {
+			long result = 0;
+			for (int shift = 0; shift < 64; shift += 7) {
+				int b = readRaw();
+				result |= (long) (b & 0x7F) << shift;
+				if ((b & 0x80) == 0) {
+					return result;
+				}
+			}
+			throw new StreamCorruptedException("Malformed varint");
+		}
+
+		private long readZigZag() throws IOException {
+			long value = readVarLong();
+			return (value >>> 1) ^ -(value & 1);
+		}
+
+		private int readLength() throws IOException {
+			long length = readVarLong();
+			if (length < 0 || length > m_bytes.length - m_position) {
+				throw new StreamCorruptedException("Invalid length " + length);
+			}
+			return (int) length;
+		}
+
+		@Override
+		public int read() {
+			return m_position < m_bytes.length ? m_bytes[m_position++] & 0xFF : -1;
+		}
+
+		@Override
+		public int read(byte[] b) {
+			return read(b, 0, b.length);
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) {
+			if (m_position >= m_bytes.length) {
+				return -1;
+			}
+			int count = Math.min(len, m_bytes.length - m_position);
+			System.arraycopy(m_bytes, m_position, b, off, count);
+			m_position += count;
+			return count;
+		}
+
+		@Override
+		public void readFully(byte[] b) throws IOException {
+			readFully(b, 0, b.length);
+		}
+
+		@Override
+		public void readFully(byte[] b, int off, int len) throws IOException {
+			if (len > m_bytes.length - m_position) {
+				throw new EOFException();
+			}
+			System.arraycopy(m_bytes, m_position, b, off, len);
+			m_position += len;
+		}
+
+		@Override
+		public int skipBytes(int n) {
+			int count = Math.max(0, Math.min(n, m_bytes.length - m_position));
+			m_position += count;
+			return count;
+		}
+
+		@Override
+		public long skip(long n) {
+			return skipBytes((int) Math.min(n, Integer.MAX_VALUE));
+		}
+
+		@Override
+		public int available() {
+			return m_bytes.length - m_position;
+		}
+
+		@Override
+		public boolean readBoolean() throws IOException {
+			return readRaw() != 0;
+		}
+
+		@Override
+		public byte readByte() throws IOException {
+			return (byte) readRaw();
+		}
+
+		@Override
+		public int readUnsignedByte() throws IOException {
+			return readRaw();
+		}
+
+		@Override
+		public short readShort() throws IOException {
+			return (short) readZigZag();
+		}
+
+		@Override
+		public int readUnsignedShort() throws IOException {
+			return readShort() & 0xFFFF;
+		}
+
+		@Override
+		public char readChar() throws IOException {
+			return (char) readVarLong();
+		}
+
+		@Override
+		public int readInt() throws IOException {
+			return (int) readZigZag();
+		}
+
+		@Override
+		public long readLong() throws IOException {
+			return readZigZag();
+		}
+
+		@Override
+		public float readFloat() throws IOException {
+			return Float.intBitsToFloat(Integer.reverse((int) readVarLong()));
+		}
+
+		@Override
+		public double readDouble() throws IOException {
+			return Double.longBitsToDouble(Long.reverse(readVarLong()));
+		}
+
+		/**
+		 * Read the line of the bytes written by {@link CompactOutput#writeBytes(String)} in the same
+		 * way as {@link java.io.DataInputStream#readLine()}.
+		 *
+		 * @return line without the line terminator. null if no byte is left.
+		 */
+		@Override
+		public String readLine() {
+			if (m_position >= m_bytes.length) {
+				return null;
+			}
+			StringBuilder line = new StringBuilder();
+			while (m_position < m_bytes.length) {
+				char each = (char) (m_bytes[m_position++] & 0xFF);
+				if (each == '\n') {
+					break;
+				} else if (each == '\r') {
+					if (m_position < m_bytes.length && m_bytes[m_position] == '\n') {
+						m_position++;
+					}
+					break;
+				}
+				line.append(each);
+			}
+			return line.toString();
+		}
+
+		@Override
+		public String readUTF() throws IOException {
+			int length = readLength();
+			String result = new String(m_bytes, m_position, length, "UTF-8");
+			m_position += length;
+			return result;
+		}
+
+		@Override
+		public Object readObject() throws ClassNotFoundException, IOException {
+			int length = readLength();
+			ObjectInputStream objectInputStream = new ObjectInputStream(new ByteArrayInputStream(m_bytes,
+					m_position, length));
+			m_position += length;
+			try {
+				return objectInputStream.readObject();
+			} finally {
+				objectInputStream.close();
+			}
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+}
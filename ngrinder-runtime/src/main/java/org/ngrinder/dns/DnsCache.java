@@ -0,0 +1,171 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ngrinder.dns;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Resolved host name cache of the worker process.
+ *
+ * Each entry is kept for the TTL of the DNS records. The names which don't exist are also cached
+ * for the negative TTL. The following system properties can be given as the JVM arguments of the
+ * test.
+ * <ul>
+ * <li>ngrinder.dns.pinned : if true, the resolved address is kept until the process ends.</li>
+ * <li>ngrinder.dns.negative_ttl : seconds to keep the unknown host. The default is 5.</li>
+ * </ul>
+ * It also counts the lookups and the time spent on the actual resolution.
+ *
+ * @author JunHo Yoon
+ * @since 3.4.1
+ */
+@SuppressWarnings("WeakerAccess")
+public class DnsCache {
+	private static final long DEFAULT_NEGATIVE_TTL = 5;
+
+	private static final DnsCache INSTANCE = new DnsCache(Boolean.getBoolean("ngrinder.dns.pinned"),
+			Long.getLong("ngrinder.dns.negative_ttl", DEFAULT_NEGATIVE_TTL));
+
+	private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+	private final boolean pinned;
+	private final long negativeTtlMillis;
+
+	private final AtomicLong lookupCount = new AtomicLong();
+	private final AtomicLong resolutionCount = new AtomicLong();
+	private final AtomicLong resolutionNanos = new AtomicLong();
+
+	/**
+	 * Constructor.
+	 *
+	 * @param pinned      true if the resolved address should be kept until the process ends
+	 * @param negativeTtl seconds to keep the unknown host
+	 */
+	public DnsCache(boolean pinned, long negativeTtl) {
+		this.pinned = pinned;
+		this.negativeTtlMillis = Math.max(negativeTtl, 0) * 1000;
+	}
+
+	/**
+	 * Get the process wide instance.
+	 *
+	 * @return {@link DnsCache} instance
+	 */
+	public static DnsCache getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Get the cached addresses of the given host name.
+	 *
+	 * @param name host name
+	 * @return addresses. null if not cached or expired.
+	 * @throws UnknownHostException if the host name is cached as unknown.
+	 */
+	public InetAddress[] get(String name) throws UnknownHostException {
+		lookupCount.incrementAndGet();
+		Entry entry = entries.get(name);
+		if (entry == null) {
+			return null;
+		}
+		if (entry.isExpired(System.currentTimeMillis())) {
+			entries.remove(name, entry);
+			return null;
+		}
+		if (entry.addresses == null) {
+			throw new UnknownHostException(name);
+		}
+		return entry.addresses.clone();
+	}
+
+	/**
+	 * Put the resolved addresses.
+	 *
+	 * @param name      host name
+	 * @param addresses resolved addresses
+	 * @param ttl       TTL of the records in seconds
+	 */
+	public void put(String name, InetAddress[] addresses, long ttl) {
+		long expiresAt = pinned ? Long.MAX_VALUE : System.currentTimeMillis() + Math.max(ttl, 0) * 1000;
+		entries.put(name, new Entry(addresses.clone(), expiresAt));
+	}
+
+	/**
+	 * Put the host name which doesn't exist.
+	 *
+	 * @param name host name
+	 */
+	public void putUnknown(String name) {
+		if (negativeTtlMillis > 0) {
+			entries.put(name, new Entry(null, System.currentTimeMillis() + negativeTtlMillis));
+		}
+	}
+
+	/**
+	 * Remove all entries.
+	 */
+	public void clear() {
+		entries.clear();
+	}
+
+	/**
+	 * Record the time spent on the actual resolution.
+	 *
+	 * @param nanos elapsed nano seconds
+	 */
+	public void recordResolution(long nanos) {
+		resolutionCount.incrementAndGet();
+		resolutionNanos.addAndGet(nanos);
+	}
+
+	public long getLookupCount() {
+		return lookupCount.get();
+	}
+
+	public long getResolutionCount() {
+		return resolutionCount.get();
+	}
+
+	/**
+	 * Get the total time spent on the actual resolution.
+	 *
+	 * @return milliseconds
+	 */
+	public long getResolutionTime() {
+		return resolutionNanos.get() / 1000000;
+	}
+
+	@Override
+	public String toString() {
+		return "DNS lookups " + getLookupCount() + ", resolutions " + getResolutionCount()
+				+ ", resolution time " + getResolutionTime() + " ms";
+	}
+
+	private static final class Entry {
+		private final InetAddress[] addresses;
+		private final long expiresAt;
+
+		private Entry(InetAddress[] addresses, long expiresAt) {
+			this.addresses = addresses;
+			this.expiresAt = expiresAt;
+		}
+
+		private boolean isExpired(long now) {
+			return now >= expiresAt;
+		}
+	}
+}
@@ -15,6 +15,7 @@ package org.ngrinder.dns;
 
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
@@ -23,6 +24,10 @@ import java.util.concurrent.ConcurrentHashMap;
 /**
  * Local Dns Name Storage.
  *
+ * The stored address sets are never modified after they are put, so the lookups don't need any
+ * lock. The whole names are replaced at once by {@link #reload()}. A pre-started worker process
+ * gets the ngrinder.etc.hosts of each test when it's initialised and calls {@link #refresh()}.
+ *
  * @author JunHo Yoon
  * @since 3.0
  */
@@ -31,7 +36,9 @@ public class NameStore {
 
 	private static NameStore singleton;
 
-	private final Map<String, Set<InetAddress>> globalNames;
+	private volatile Map<String, Set<InetAddress>> globalNames;
+
+	private volatile String loadedHosts;
 
 	private NameStore() {
 		globalNames = new ConcurrentHashMap<String, Set<InetAddress>>();
@@ -42,6 +49,7 @@ public class NameStore {
 	 */
 	public void initFromSystemProperty() {
 		String hostPair = System.getProperty("ngrinder.etc.hosts");
+		loadedHosts = hostPair;
 		if (!DnsUtils.isEmpty(hostPair)) {
 			String[] hostPairs = hostPair.split(",");
 			for (String pair : hostPairs) {
@@ -49,17 +57,49 @@ public class NameStore {
 				if (each.length != 2 || DnsUtils.isEmpty(each[0]) || DnsUtils.isEmpty(each[1])) {
 					continue;
 				}
-				singleton.put(each[0].trim(), each[1].trim());
+				put(each[0].trim(), each[1].trim());
 			}
 		}
 	}
 
+	/**
+	 * Reload the names from the ngrinder.etc.hosts system property. The names put by
+	 * {@link #put(String, String)} are discarded and the cached resolutions are cleared.
+	 */
+	public synchronized void reload() {
+		NameStore loaded = new NameStore();
+		loaded.initFromSystemProperty();
+		globalNames = loaded.globalNames;
+		loadedHosts = loaded.loadedHosts;
+		DnsCache.getInstance().clear();
+	}
+
+	/**
+	 * Reload the names if the ngrinder.etc.hosts system property is changed after the names are
+	 * loaded. Nothing is done if the instance is not created yet, because it will load the current
+	 * property when it's created.
+	 *
+	 * @return true if reloaded
+	 */
+	public static synchronized boolean refresh() {
+		NameStore nameStore = singleton;
+		if (nameStore == null) {
+			return false;
+		}
+		String hostPair = System.getProperty("ngrinder.etc.hosts");
+		if (hostPair == null ? nameStore.loadedHosts == null : hostPair.equals(nameStore.loadedHosts)) {
+			return false;
+		}
+		nameStore.reload();
+		return true;
+	}
+
 	/**
 	 * Get the instance.
 	 *
 	 * @return {@link NameStore} instance
 	 */
-	public static NameStore getInstance() {
+	public static synchronized NameStore getInstance() {
 		if (singleton == null) {
 			singleton = new NameStore();
 			singleton.initFromSystemProperty();
@@ -76,8 +116,7 @@ public class NameStore {
 	 * Reset the instance.
 	 */
 	void reset() {
-		globalNames.clear();
-		initFromSystemProperty();
+		reload();
 	}
 
 	private static void noOp() {
@@ -89,16 +128,16 @@ public class NameStore {
 	 * @param hostName  host name
 	 * @param ipAddress ip address
 	 */
-	public void put(String hostName, String ipAddress) {
-		Set<InetAddress> ipAddresses = globalNames.get(hostName);
-		if (ipAddresses == null) {
-			ipAddresses = new HashSet<InetAddress>();
-			globalNames.put(hostName, ipAddresses);
-		}
-
+	public synchronized void put(String hostName, String ipAddress) {
 		try {
 			InetAddress address = InetAddress.getByAddress(DnsUtils.textToNumericFormat(ipAddress));
+			Set<InetAddress> ipAddresses = new HashSet<InetAddress>();
+			Set<InetAddress> existing = globalNames.get(hostName);
+			if (existing != null) {
+				ipAddresses.addAll(existing);
+			}
 			ipAddresses.add(address);
+			globalNames.put(hostName, Collections.unmodifiableSet(ipAddresses));
 		} catch (UnknownHostException ignored) {
 			noOp();
 		}
@@ -111,7 +150,7 @@ public class NameStore {
 	 * @param hostName host name
 	 */
 	@SuppressWarnings("SameParameterValue")
-	public void remove(String hostName) {
+	public synchronized void remove(String hostName) {
 		globalNames.remove(hostName);
 	}
 
@@ -132,9 +171,9 @@ public class NameStore {
 	 * @return resolved host name. Null if not found.
 	 */
 	public String getReveredHost(InetAddress ip) {
-		for (String hostName : globalNames.keySet()) {
-			if (globalNames.get(hostName).contains(ip)) {
-				return hostName;
+		for (Map.Entry<String, Set<InetAddress>> each : globalNames.entrySet()) {
+			if (each.getValue().contains(ip)) {
+				return each.getKey();
 			}
 		}
 		return null;
@@ -17,12 +17,16 @@ import java.io.File;
 import java.io.FileDescriptor;
 import java.net.InetAddress;
 import java.security.Permission;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * nGrinder security manager.
  *
+ * The decisions which don't depend on the checked target are made once per permission class.
+ * The file write and delete decisions are cached per thread by the given path, because the
+ * normalization of the path costs most of the check.
+ *
  * @author JunHo Yoon
  * @author Tobi
  * @since 3.0
@@ -40,11 +44,26 @@ public class NGrinderSecurityManager extends SecurityManager {
 	private final String pythonCache = System.getProperty("python.cachedir");
 	private final String etcHosts = System.getProperty("ngrinder.etc.hosts", "");
 	private final String consoleIP = System.getProperty("ngrinder.console.ip", "127.0.0.1");
-	private final List<String> allowedHost = new ArrayList<String>();
+	private final Set<String> allowedHost = new HashSet<String>();
 	private final List<String> readAllowedDirectory = new ArrayList<String>();
 	private final List<String> writeAllowedDirectory = new ArrayList<String>();
 	private final List<String> deleteAllowedDirectory = new ArrayList<String>();
 
+	private static final int FILE_DECISION_CACHE_SIZE = 256;
+	private static final String ALLOWED = "";
+	private final Map<Class<?>, String> permissionDecisions = new ConcurrentHashMap<Class<?>, String>();
+	private final ThreadLocal<Map<String, String>> fileDecisions = new ThreadLocal<Map<String, String>>() {
+		@Override
+		protected Map<String, String> initialValue() {
+			return new LinkedHashMap<String, String>(16, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+					return size() > FILE_DECISION_CACHE_SIZE;
+				}
+			};
+		}
+	};
+
 	{
 		this.init();
 	}
@@ -157,27 +176,49 @@ public class NGrinderSecurityManager extends SecurityManager {
 
 	@Override
 	public void checkPermission(Permission permission) {
+		Class<?> permissionClass = permission.getClass();
+		String decision = permissionDecisions.get(permissionClass);
+		if (decision == null) {
+			decision = decidePermission(permission);
+			permissionDecisions.put(permissionClass, decision);
+		}
+		if (!ALLOWED.equals(decision)) {
+			throw new SecurityException(decision);
+		}
 		if (permission instanceof java.lang.RuntimePermission) {
 			// except setSecurityManager
 			String permissionName = permission.getName();
 			if ("setSecurityManager".equals(permissionName)) {
 				processSetSecurityManagerAction();
 			}
+		}
+	}
+
+	/**
+	 * Decide whether the given permission class is allowed regardless of its target.
+	 *
+	 * @param permission permission
+	 * @return {@link #ALLOWED} or the message of the denial
+	 */
+	private String decidePermission(Permission permission) {
+		if (permission instanceof java.lang.RuntimePermission) {
+			return ALLOWED;
 		} else if (permission instanceof java.security.UnresolvedPermission) {
-			throw new SecurityException("java.security.UnresolvedPermission is not allowed.");
+			return "java.security.UnresolvedPermission is not allowed.";
 		} else if (permission instanceof java.awt.AWTPermission) {
-			throw new SecurityException("java.awt.AWTPermission is not allowed.");
+			return "java.awt.AWTPermission is not allowed.";
 		} else if (permission instanceof javax.security.auth.AuthPermission) {
-			throw new SecurityException("javax.security.auth.AuthPermission is not allowed.");
+			return "javax.security.auth.AuthPermission is not allowed.";
 		} else if (permission instanceof javax.security.auth.PrivateCredentialPermission) {
-			throw new SecurityException("javax.security.auth.PrivateCredentialPermission is not allowed.");
+			return "javax.security.auth.PrivateCredentialPermission is not allowed.";
 		} else if (permission instanceof javax.security.auth.kerberos.DelegationPermission) {
-			throw new SecurityException("javax.security.auth.kerberos.DelegationPermission is not allowed.");
+			return "javax.security.auth.kerberos.DelegationPermission is not allowed.";
 		} else if (permission instanceof javax.security.auth.kerberos.ServicePermission) {
-			throw new SecurityException("javax.security.auth.kerberos.ServicePermission is not allowed.");
+			return "javax.security.auth.kerberos.ServicePermission is not allowed.";
 		} else if (permission instanceof javax.sound.sampled.AudioPermission) {
-			throw new SecurityException("javax.sound.sampled.AudioPermission is not allowed.");
+			return "javax.sound.sampled.AudioPermission is not allowed.";
 		}
+		return ALLOWED;
 	}
 
 	protected void processSetSecurityManagerAction() throws SecurityException {
@@ -210,12 +251,48 @@ public class NGrinderSecurityManager extends SecurityManager {
 
 	@Override
 	public void checkWrite(String file) {
-		this.fileAccessWriteAllowed(file);
+		checkFileDecision("w", file);
 	}
 
 	@Override
 	public void checkDelete(String file) {
-		this.fileAccessDeleteAllowed(file);
+		checkFileDecision("d", file);
+	}
+
+	/**
+	 * Check the file access with the decision cache of the current thread.
+	 *
+	 * @param mode w for write, d for delete
+	 * @param file file path
+	 */
+	private void checkFileDecision(String mode, String file) {
+		if (file == null) {
+			fileAccessAllowed(mode, null);
+			return;
+		}
+		Map<String, String> decisions = fileDecisions.get();
+		String key = mode + file;
+		String decision = decisions.get(key);
+		if (decision == null) {
+			try {
+				fileAccessAllowed(mode, file);
+				decision = ALLOWED;
+			} catch (SecurityException e) {
+				decision = e.getMessage();
+			}
+			decisions.put(key, decision);
+		}
+		if (!ALLOWED.equals(decision)) {
+			throw new SecurityException(decision);
+		}
+	}
+
+	private void fileAccessAllowed(String mode, String file) {
+		if ("w".equals(mode)) {
+			this.fileAccessWriteAllowed(file);
+		} else {
+			this.fileAccessDeleteAllowed(file);
+		}
 	}
 
 	@Override
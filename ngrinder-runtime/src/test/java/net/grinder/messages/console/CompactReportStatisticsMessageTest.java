@@ -0,0 +1,132 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.grinder.messages.console;
+
+import net.grinder.common.AbstractTestSemantics;
+import net.grinder.statistics.*;
+import org.junit.Test;
+
+import java.io.*;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+/**
+ * {@link CompactReportStatisticsMessage} test.
+ *
+ * @author JunHo Yoon
+ * @since 3.4.1
+ */
+public class CompactReportStatisticsMessageTest {
+
+	@Test
+	public void testCompactOutputRoundTrip() throws Exception {
+		CompactReportStatisticsMessage.CompactOutput output = new CompactReportStatisticsMessage.CompactOutput();
+		output.writeInt(-1);
+		output.writeInt(Integer.MAX_VALUE);
+		output.writeLong(Long.MIN_VALUE);
+		output.writeLong(3);
+		output.writeDouble(0.5d);
+		output.writeDouble(Double.NaN);
+		output.writeBoolean(true);
+		output.writeUTF("caf\u00e9");
+		CompactReportStatisticsMessage.CompactInput input = new CompactReportStatisticsMessage.CompactInput(
+				output.toByteArray());
+		assertThat(input.readInt(), is(-1));
+		assertThat(input.readInt(), is(Integer.MAX_VALUE));
+		assertThat(input.readLong(), is(Long.MIN_VALUE));
+		assertThat(input.readLong(), is(3L));
+		assertThat(input.readDouble(), is(0.5d));
+		assertThat(Double.isNaN(input.readDouble()), is(true));
+		assertThat(input.readBoolean(), is(true));
+		assertThat(input.readUTF(), is("caf\u00e9"));
+		assertThat(input.available(), is(0));
+	}
+
+	@Test
+	public void testCompactOutputReadLine() throws Exception {
+		CompactReportStatisticsMessage.CompactOutput output = new CompactReportStatisticsMessage.CompactOutput();
+		output.writeBytes("first\r\nsecond\rthird\n\nlast");
+		CompactReportStatisticsMessage.CompactInput input = new CompactReportStatisticsMessage.CompactInput(
+				output.toByteArray());
+		assertThat(input.readLine(), is("first"));
+		assertThat(input.readLine(), is("second"));
+		assertThat(input.readLine(), is("third"));
+		assertThat(input.readLine(), is(""));
+		assertThat(input.readLine(), is("last"));
+		assertThat(input.readLine(), nullValue());
+	}
+
+	@Test
+	public void testMessageSerialization() throws Exception {
+		StatisticsServices statisticsServices = StatisticsServicesImplementation.getInstance();
+		StatisticsIndexMap indexMap = statisticsServices.getStatisticsIndexMap();
+		StatisticsIndexMap.LongIndex errors = indexMap.getLongIndex("errors");
+		StatisticsIndexMap.LongSampleIndex timedTests = indexMap.getLongSampleIndex("timedTests");
+
+		TestStatisticsMap statistics = new TestStatisticsMap(statisticsServices.getStatisticsSetFactory());
+		for (int i = 0; i < 50; i++) {
+			StatisticsSet each = statisticsServices.getStatisticsSetFactory().create();
+			each.setValue(errors, i);
+			each.addSample(timedTests, 100 + i);
+			statistics.put(createTest(i), each);
+		}
+
+		CompactReportStatisticsMessage original = new CompactReportStatisticsMessage(statistics);
+		CompactReportStatisticsMessage compact = (CompactReportStatisticsMessage) serializeAndDeserialize(original);
+		assertThat(compact.getSendTime(), is(original.getSendTime()));
+		StatisticsSet totals = compact.getStatisticsDelta().nonCompositeStatisticsTotals();
+		StatisticsSet expected = statistics.nonCompositeStatisticsTotals();
+		assertThat(compact.getStatisticsDelta().size(), is(50));
+		assertThat(totals.getValue(errors), is(expected.getValue(errors)));
+		assertThat(totals.getCount(timedTests), is(expected.getCount(timedTests)));
+		assertThat(totals.getSum(timedTests), is(expected.getSum(timedTests)));
+
+		assertThat(serialize(new CompactReportStatisticsMessage(statistics)).length,
+				lessThan(serialize(new ReportStatisticsMessage(statistics)).length));
+	}
+
+	private net.grinder.common.Test createTest(final int number) {
+		return new AbstractTestSemantics() {
+			@Override
+			public int getNumber() {
+				return number;
+			}
+
+			@Override
+			public String getDescription() {
+				return "test" + number;
+			}
+		};
+	}
+
+	private byte[] serialize(Object object) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream outputStream = new ObjectOutputStream(bytes);
+		outputStream.writeObject(object);
+		outputStream.close();
+		return bytes.toByteArray();
+	}
+
+	private Object serializeAndDeserialize(Object object) throws Exception {
+		ObjectInputStream inputStream = new ObjectInputStream(new ByteArrayInputStream(serialize(object)));
+		try {
+			return inputStream.readObject();
+		} finally {
+			inputStream.close();
+		}
+	}
+}
@@ -0,0 +1,76 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ngrinder.dns;
+
+import org.junit.Test;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+/**
+ * {@link DnsCache} test.
+ *
+ * @author JunHo Yoon
+ * @since 3.4.1
+ */
+public class DnsCacheTest {
+
+	private final InetAddress[] addresses = new InetAddress[]{addressOf("10.10.10.10")};
+
+	@Test
+	public void testTtl() throws UnknownHostException {
+		DnsCache dnsCache = new DnsCache(false, 5);
+		dnsCache.put("www.test.com", addresses, 60);
+		assertThat(dnsCache.get("www.test.com")[0], is(addresses[0]));
+		dnsCache.put("www.test.com", addresses, 0);
+		assertThat(dnsCache.get("www.test.com"), nullValue());
+		assertThat(dnsCache.getLookupCount(), is(2L));
+	}
+
+	@Test
+	public void testPinned() throws UnknownHostException {
+		DnsCache dnsCache = new DnsCache(true, 5);
+		dnsCache.put("www.test.com", addresses, 0);
+		assertThat(dnsCache.get("www.test.com"), notNullValue());
+		dnsCache.clear();
+		assertThat(dnsCache.get("www.test.com"), nullValue());
+	}
+
+	@Test(expected = UnknownHostException.class)
+	public void testUnknown() throws UnknownHostException {
+		DnsCache dnsCache = new DnsCache(false, 5);
+		dnsCache.putUnknown("www.wowwowwowow11.com");
+		dnsCache.get("www.wowwowwowow11.com");
+	}
+
+	@Test
+	public void testUnknownDisabled() throws UnknownHostException {
+		DnsCache dnsCache = new DnsCache(false, 0);
+		dnsCache.putUnknown("www.wowwowwowow11.com");
+		assertThat(dnsCache.get("www.wowwowwowow11.com"), nullValue());
+	}
+
+	private static InetAddress addressOf(String ip) {
+		try {
+			return InetAddress.getByAddress(DnsUtils.textToNumericFormat(ip));
+		} catch (UnknownHostException e) {
+			throw new IllegalArgumentException(e);
+		}
+	}
+}
@@ -58,6 +58,24 @@ public class NameStoreTest {
 
 	}
 
+	@Test
+	public void testRefresh() {
+		System.setProperty("ngrinder.etc.hosts", "aaa.com:1.1.1.1");
+		NameStore.getInstance().reset();
+		assertThat(NameStore.refresh(), is(false));
+
+		// The next test given to the pre-started worker process has different hosts.
+		System.setProperty("ngrinder.etc.hosts", "aaa.com:3.3.3.3,ccc.com:4.4.4.4");
+		assertThat(NameStore.refresh(), is(true));
+		assertThat(NameStore.getInstance().get("aaa.com").iterator().next().getHostAddress(), is("3.3.3.3"));
+		assertThat(NameStore.getInstance().get("ccc.com").iterator().next().getHostAddress(), is("4.4.4.4"));
+		assertThat(NameStore.refresh(), is(false));
+
+		System.clearProperty("ngrinder.etc.hosts");
+		assertThat(NameStore.refresh(), is(true));
+		assertThat(NameStore.getInstance().get("aaa.com"), nullValue());
+	}
+
 	@Test
 	public void testNameStoreInitEmpty() {
 		System.setProperty("ngrinder.etc.hosts", "");
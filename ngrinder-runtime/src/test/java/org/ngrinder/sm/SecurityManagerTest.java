@@ -92,4 +92,18 @@ public class SecurityManagerTest {
 		}
 	}
 
+	@Test
+	public void testDecisionCache() {
+		NGrinderSecurityManager securityManager = new MockNGrinderSecurityManager();
+		for (int i = 0; i < 2; i++) {
+			try {
+				securityManager.checkWrite(PATH + "/output.txt");
+				fail("This should not be reached");
+			} catch (SecurityException e) {
+				Assert.assertTrue(e.getMessage().contains("output.txt"));
+			}
+		}
+		securityManager.checkPermission(new RuntimePermission("getClassLoader"));
+	}
+
 }